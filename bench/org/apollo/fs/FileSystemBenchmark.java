@@ -0,0 +1,246 @@
+package org.apollo.fs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of many threads reading random files from a single read only {@link IndexedFileSystem},
+ * which reads from memory mappings without locking, with the original file system: both a single instance shared by
+ * every thread, and an instance for each thread (which is how the update service used to avoid contention).
+ * <p>
+ * The cache is generated in a temporary directory, with files of between 1 and 32 KB, so the benchmark does not
+ * depend on a real cache being present. It is small enough to stay in the page cache.
+ * <p>
+ * Run with {@code java -cp <classpath> org.openjdk.jmh.Main FileSystemBenchmark -t <threads>}.
+ * 
+ * @author Graham
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+@Warmup(iterations = 5, time = 1)
+public class FileSystemBenchmark {
+
+	/**
+	 * The state shared by every thread: the cache, and the file systems shared by every thread.
+	 * 
+	 * @author Graham
+	 */
+	@State(Scope.Benchmark)
+	public static class Cache {
+
+		/**
+		 * The directory of the cache.
+		 */
+		File base;
+
+		/**
+		 * The original file system, shared by every thread.
+		 */
+		LegacyIndexedFileSystem legacy;
+
+		/**
+		 * The read only file system, shared by every thread.
+		 */
+		IndexedFileSystem mapped;
+
+		/**
+		 * Writes the cache and opens the shared file systems.
+		 * 
+		 * @throws Exception If an error occurs.
+		 */
+		@Setup
+		public void setup() throws Exception {
+			base = File.createTempFile("cache", "");
+			base.delete();
+			base.mkdir();
+			writeCache(base);
+
+			legacy = new LegacyIndexedFileSystem(base, true);
+			mapped = new IndexedFileSystem(base, true);
+		}
+
+		/**
+		 * Closes the shared file systems and deletes the cache.
+		 * 
+		 * @throws IOException If an I/O error occurs.
+		 */
+		@TearDown
+		public void tearDown() throws IOException {
+			legacy.close();
+			mapped.close();
+			for (File file : base.listFiles()) {
+				file.delete();
+			}
+			base.delete();
+		}
+
+	}
+
+	/**
+	 * The state of each thread: the original file system opened by the thread, and the random files it reads.
+	 * 
+	 * @author Graham
+	 */
+	@State(Scope.Thread)
+	public static class Reader {
+
+		/**
+		 * The original file system, opened by this thread.
+		 */
+		LegacyIndexedFileSystem legacy;
+
+		/**
+		 * The random number generator which picks the files.
+		 */
+		final Random random = new Random();
+
+		/**
+		 * Opens the file system of this thread.
+		 * 
+		 * @param cache The cache.
+		 * @throws Exception If an error occurs.
+		 */
+		@Setup
+		public void setup(Cache cache) throws Exception {
+			legacy = new LegacyIndexedFileSystem(cache.base, true);
+		}
+
+		/**
+		 * Closes the file system of this thread.
+		 * 
+		 * @throws IOException If an I/O error occurs.
+		 */
+		@TearDown
+		public void tearDown() throws IOException {
+			legacy.close();
+		}
+
+	}
+
+	/**
+	 * The number of files in each index of the cache.
+	 */
+	private static final int FILES = 512;
+
+	/**
+	 * The number of indices in the cache.
+	 */
+	private static final int INDICES = 4;
+
+	/**
+	 * Writes the cache.
+	 * 
+	 * @param base The directory of the cache.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void writeCache(File base) throws IOException {
+		Random random = new Random(0);
+		int[][] sizes = new int[INDICES][FILES];
+		int blocks = 1;
+		for (int type = 0; type < INDICES; type++) {
+			for (int file = 0; file < FILES; file++) {
+				int size = sizes[type][file] = 1024 + random.nextInt(31 * 1024);
+				blocks += (size + FileSystemConstants.CHUNK_SIZE - 1) / FileSystemConstants.CHUNK_SIZE;
+			}
+		}
+
+		ByteBuffer data = ByteBuffer.allocate(blocks * FileSystemConstants.BLOCK_SIZE);
+		int block = 1;
+		for (int type = 0; type < INDICES; type++) {
+			ByteBuffer index = ByteBuffer.allocate(FILES * FileSystemConstants.INDEX_SIZE);
+			for (int file = 0; file < FILES; file++) {
+				int size = sizes[type][file];
+				index.put((byte) (size >> 16)).put((byte) (size >> 8)).put((byte) size);
+				index.put((byte) (block >> 16)).put((byte) (block >> 8)).put((byte) block);
+
+				for (int chunk = 0, position = 0; position < size; chunk++, block++) {
+					int length = Math.min(size - position, FileSystemConstants.CHUNK_SIZE);
+					int next = position + length < size ? block + 1 : 0;
+
+					data.position(block * FileSystemConstants.BLOCK_SIZE);
+					data.putShort((short) file).putShort((short) chunk);
+					data.put((byte) (next >> 16)).put((byte) (next >> 8)).put((byte) next).put((byte) (type + 1));
+					position += length;
+				}
+			}
+			write(new File(base, "main_file_cache.idx" + type), index.array());
+		}
+		write(new File(base, "main_file_cache.dat"), data.array());
+	}
+
+	/**
+	 * Writes bytes to a file.
+	 * 
+	 * @param file The file.
+	 * @param bytes The bytes.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void write(File file, byte[] bytes) throws IOException {
+		OutputStream os = new FileOutputStream(file);
+		try {
+			os.write(bytes);
+		} finally {
+			os.close();
+		}
+	}
+
+	/**
+	 * Reads a random file from the original file system shared by every thread.
+	 * 
+	 * @param cache The cache.
+	 * @param reader The reader.
+	 * @return The file.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Benchmark
+	public ByteBuffer legacyShared(Cache cache, Reader reader) throws IOException {
+		return cache.legacy.getFile(reader.random.nextInt(INDICES), reader.random.nextInt(FILES));
+	}
+
+	/**
+	 * Reads a random file from the original file system opened by the thread.
+	 * 
+	 * @param reader The reader.
+	 * @return The file.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Benchmark
+	public ByteBuffer legacyPerThread(Reader reader) throws IOException {
+		return reader.legacy.getFile(reader.random.nextInt(INDICES), reader.random.nextInt(FILES));
+	}
+
+	/**
+	 * Reads a random file from the read only file system shared by every thread.
+	 * 
+	 * @param cache The cache.
+	 * @param reader The reader.
+	 * @return The file.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Benchmark
+	public ByteBuffer mappedShared(Cache cache, Reader reader) throws IOException {
+		return cache.mapped.getFile(reader.random.nextInt(INDICES), reader.random.nextInt(FILES));
+	}
+
+}
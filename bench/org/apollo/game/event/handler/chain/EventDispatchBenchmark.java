@@ -0,0 +1,225 @@
+package org.apollo.game.event.handler.chain;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apollo.game.event.Event;
+import org.apollo.game.event.handler.EventHandler;
+import org.apollo.game.event.handler.EventHandlerContext;
+import org.apollo.game.event.impl.ButtonEvent;
+import org.apollo.game.event.impl.EnteredAmountEvent;
+import org.apollo.game.event.impl.FirstItemOptionEvent;
+import org.apollo.game.event.impl.ItemOptionEvent;
+import org.apollo.game.event.impl.KeepAliveEvent;
+import org.apollo.game.model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares dispatching events to their handler chains as {@link org.apollo.net.session.GameSession} now does, with
+ * {@link EventHandlerChainGroup#resolve(Class)} and an allocation-free {@link EventHandlerChain}, with the original
+ * dispatch: a map lookup for each event (walking up the superclasses on a miss) and a chain which allocates a context
+ * for each event.
+ * <p>
+ * The events are a mix of types with their own chain, a type handled by its superclass's chain (which is broken by its
+ * first handler) and a type with no chain at all. Each chain starts with a handler of a different class, so (as in
+ * the server) the call to each handler is megamorphic and the context escapes.
+ * <p>
+ * Run with {@code java -cp <classpath> org.openjdk.jmh.Main EventDispatchBenchmark -prof gc}.
+ * 
+ * @author Graham
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OperationsPerInvocation(EventDispatchBenchmark.EVENTS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+public class EventDispatchBenchmark {
+
+	/**
+	 * A handler which breaks the chain.
+	 * 
+	 * @author Graham
+	 */
+	private static final class BreakingHandler extends EventHandler<Event> {
+
+		@Override
+		public void handle(EventHandlerContext ctx, Player player, Event event) {
+			ctx.breakHandlerChain();
+		}
+
+	}
+
+	/**
+	 * A handler which counts the events it handles.
+	 * 
+	 * @author Graham
+	 */
+	private static final class CountingHandler extends EventHandler<Event> {
+
+		/**
+		 * The number of events handled.
+		 */
+		private int count;
+
+		@Override
+		public void handle(EventHandlerContext ctx, Player player, Event event) {
+			count++;
+		}
+
+	}
+
+	/**
+	 * A handler which does nothing.
+	 * 
+	 * @author Graham
+	 */
+	private static final class IgnoringHandler extends EventHandler<Event> {
+
+		@Override
+		public void handle(EventHandlerContext ctx, Player player, Event event) {
+
+		}
+
+	}
+
+	/**
+	 * A handler which breaks the chain if the widget of a button event is negative.
+	 * 
+	 * @author Graham
+	 */
+	private static final class VerificationHandler extends EventHandler<Event> {
+
+		@Override
+		public void handle(EventHandlerContext ctx, Player player, Event event) {
+			if (((ButtonEvent) event).getWidgetId() < 0) {
+				ctx.breakHandlerChain();
+			}
+		}
+
+	}
+
+	/**
+	 * The number of events dispatched by each invocation.
+	 */
+	static final int EVENTS = 1024;
+
+	/**
+	 * The events.
+	 */
+	private final Event[] events = new Event[EVENTS];
+
+	/**
+	 * The chain group.
+	 */
+	private EventHandlerChainGroup group;
+
+	/**
+	 * The handler which ends every chain.
+	 */
+	private final CountingHandler handler = new CountingHandler();
+
+	/**
+	 * The original chains.
+	 */
+	private final Map<Class<? extends Event>, LegacyEventHandlerChain<?>> legacyChains =
+			new HashMap<Class<? extends Event>, LegacyEventHandlerChain<?>>();
+
+	/**
+	 * Dispatches the events as {@link org.apollo.net.session.GameSession} now does.
+	 * 
+	 * @return The number of events which reached the end of their chain.
+	 */
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public int dispatch() {
+		for (Event event : events) {
+			EventHandlerChain<Event> chain = (EventHandlerChain<Event>) group.resolve(event.getClass());
+			if (chain != null) {
+				chain.handle(null, event);
+			}
+		}
+		return handler.count;
+	}
+
+	/**
+	 * Dispatches the events as {@link org.apollo.net.session.GameSession} originally did.
+	 * 
+	 * @return The number of events which reached the end of their chain.
+	 */
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public int legacyDispatch() {
+		for (Event event : events) {
+			Class<? extends Event> eventType = event.getClass();
+			LegacyEventHandlerChain<Event> chain = (LegacyEventHandlerChain<Event>) legacyChains.get(eventType);
+
+			while (chain == null && eventType != null) {
+				eventType = (Class<? extends Event>) eventType.getSuperclass();
+				if (eventType == Event.class) {
+					eventType = null;
+				} else {
+					chain = (LegacyEventHandlerChain<Event>) legacyChains.get(eventType);
+				}
+			}
+
+			if (chain != null) {
+				chain.handle(null, event);
+			}
+		}
+		return handler.count;
+	}
+
+	/**
+	 * Creates the chains and the events.
+	 */
+	@Setup(Level.Trial)
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		Map<Class<? extends Event>, EventHandlerChain<?>> chains =
+				new HashMap<Class<? extends Event>, EventHandlerChain<?>>();
+		Class<?>[] types = { KeepAliveEvent.class, ButtonEvent.class, ItemOptionEvent.class };
+		EventHandler<?>[] firsts = { new IgnoringHandler(), new VerificationHandler(), new BreakingHandler() };
+		for (int index = 0; index < types.length; index++) {
+			Class<? extends Event> type = (Class<? extends Event>) types[index];
+			EventHandler<Event> first = (EventHandler<Event>) firsts[index];
+			chains.put(type, new EventHandlerChain<Event>(first, handler));
+			legacyChains.put(type, new LegacyEventHandlerChain<Event>(first, handler));
+		}
+		group = new EventHandlerChainGroup(chains);
+
+		for (int index = 0; index < EVENTS; index++) {
+			switch (index % 5) {
+			case 0:
+				events[index] = new KeepAliveEvent();
+				break;
+			case 1:
+				events[index] = new ButtonEvent(index);
+				break;
+			case 2:
+				events[index] = new FirstItemOptionEvent(3214, index, index % 28);
+				break;
+			case 3:
+				events[index] = new EnteredAmountEvent(index);
+				break;
+			default:
+				events[index] = new ButtonEvent(-index);
+				break;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+package org.apollo.game.event.handler.chain;
+
+import org.apollo.game.event.Event;
+import org.apollo.game.event.handler.EventHandler;
+import org.apollo.game.event.handler.EventHandlerContext;
+import org.apollo.game.model.Player;
+
+/**
+ * The original {@link EventHandlerChain}, which allocates a new context for every event it handles. It is only kept
+ * for the {@link EventDispatchBenchmark}.
+ * 
+ * @author Graham
+ * @param <E> The type of event the handlers in this chain handle.
+ */
+public final class LegacyEventHandlerChain<E extends Event> {
+
+	/**
+	 * The handlers.
+	 */
+	private final EventHandler<E>[] handlers;
+
+	/**
+	 * Creates the event handler chain.
+	 * 
+	 * @param handlers The handlers.
+	 */
+	@SafeVarargs
+	public LegacyEventHandlerChain(EventHandler<E>... handlers) {
+		this.handlers = handlers;
+	}
+
+	/**
+	 * Handles the event, passing it down the chain until the chain is broken or the event reaches the end of the chain.
+	 * 
+	 * @param player The player.
+	 * @param event The event.
+	 */
+	public void handle(Player player, E event) {
+		final boolean[] running = new boolean[1];
+		running[0] = true;
+
+		EventHandlerContext ctx = new EventHandlerContext() {
+
+			@Override
+			public void breakHandlerChain() {
+				running[0] = false;
+			}
+
+		};
+
+		for (EventHandler<E> handler : handlers) {
+			handler.handle(ctx, player, event);
+			if (!running[0]) {
+				break;
+			}
+		}
+	}
+
+}
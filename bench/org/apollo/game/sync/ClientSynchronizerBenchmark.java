@@ -0,0 +1,124 @@
+package org.apollo.game.sync;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apollo.game.sync.SyntheticWorld.Distribution;
+import org.apollo.net.release.Release;
+import org.apollo.net.release.r317.Release317;
+import org.apollo.net.release.r377.Release377;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a whole pulse of client synchronization, end to end (including encoding each player's events), for each
+ * {@link ClientSynchronizer} over a {@link SyntheticWorld}. Each invocation is one pulse, so the throughput is in
+ * pulses per second; run with {@code -prof gc} to report the allocation rate per pulse ({@code gc.alloc.rate.norm}).
+ * <p>
+ * Run with {@code java -cp <classpath> org.openjdk.jmh.Main ClientSynchronizerBenchmark -prof gc}. The parameters can
+ * be overridden with {@code -p}, e.g. {@code -p players=2000 -p synchronizer=parallel,forkjoin}.
+ * 
+ * @author Graham
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2)
+public class ClientSynchronizerBenchmark {
+
+	/**
+	 * The fraction of characters which walk and have new blocks each pulse.
+	 */
+	@Param({ "0.25" })
+	public double churn;
+
+	/**
+	 * The way characters are spread over the world.
+	 */
+	@Param({ "CLUSTERED", "UNIFORM" })
+	public Distribution distribution;
+
+	/**
+	 * The number of npcs.
+	 */
+	@Param({ "1000" })
+	public int npcs;
+
+	/**
+	 * The number of players.
+	 */
+	@Param({ "200", "2000" })
+	public int players;
+
+	/**
+	 * The release whose encoders are used.
+	 */
+	@Param({ "317" })
+	public int release;
+
+	/**
+	 * The synchronizer: {@code sequential}, {@code parallel} or {@code forkjoin}.
+	 */
+	@Param({ "sequential", "parallel", "forkjoin" })
+	public String synchronizer;
+
+	/**
+	 * The synchronizer being measured.
+	 */
+	private ClientSynchronizer clientSynchronizer;
+
+	/**
+	 * The synthetic world.
+	 */
+	private SyntheticWorld world;
+
+	/**
+	 * Runs a single pulse.
+	 */
+	@Benchmark
+	public void pulse() {
+		world.pulse(clientSynchronizer);
+	}
+
+	/**
+	 * Creates the synchronizer and the world, and runs a pulse so that every player has already been added to the
+	 * others' local lists before the measurement starts.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		if (synchronizer.equals("sequential")) {
+			clientSynchronizer = new SequentialClientSynchronizer();
+		} else if (synchronizer.equals("parallel")) {
+			clientSynchronizer = new ParallelClientSynchronizer();
+		} else if (synchronizer.equals("forkjoin")) {
+			clientSynchronizer = new ForkJoinClientSynchronizer();
+		} else {
+			throw new IllegalArgumentException("Unknown synchronizer: " + synchronizer + ".");
+		}
+
+		Release release = this.release == 317 ? new Release317() : new Release377();
+		world = new SyntheticWorld(release, players, npcs, distribution, churn);
+		world.pulse(clientSynchronizer);
+	}
+
+	/**
+	 * Unregisters the characters in the world.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		world.unregister();
+	}
+
+}
@@ -0,0 +1,184 @@
+package org.apollo.game.sync;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apollo.game.event.impl.NpcSynchronizationEvent;
+import org.apollo.game.event.impl.PlayerSynchronizationEvent;
+import org.apollo.game.model.World;
+import org.apollo.game.sync.SyntheticWorld.Distribution;
+import org.apollo.game.sync.seg.SynchronizationSegment;
+import org.apollo.net.codec.game.GamePacket;
+import org.apollo.net.codec.game.OutboundBatch;
+import org.apollo.net.release.EventEncoder;
+import org.apollo.net.release.Release;
+import org.apollo.net.release.r317.Release317;
+import org.apollo.net.release.r377.Release377;
+import org.jboss.netty.channel.SimpleChannelDownstreamHandler;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the player and npc synchronization event encoders of a release on their own. The events are captured from
+ * a crowded {@link SyntheticWorld} once every player has been added to the observer's local list, so they contain a
+ * movement segment (and often some blocks) for each of the observer's local characters.
+ * <p>
+ * Run with {@code java -cp <classpath> org.openjdk.jmh.Main SynchronizationEncoderBenchmark -prof gc}. With
+ * {@code cached=false} the cached encodings of the block sets are discarded before each encode, as for the first
+ * observer of a character in a pulse; with {@code cached=true} they are reused, as for every other observer.
+ * 
+ * @author Graham
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+public class SynchronizationEncoderBenchmark {
+
+	/**
+	 * The number of pulses run before the events are captured. This is enough for every player to be added to the
+	 * observer's local list, as only 20 players are added per pulse.
+	 */
+	private static final int PULSES = 15;
+
+	/**
+	 * Discards the cached encodings of the block sets in the specified segments.
+	 * 
+	 * @param segments The segments.
+	 */
+	private static void discardEncodings(List<SynchronizationSegment> segments) {
+		for (SynchronizationSegment segment : segments) {
+			segment.getBlockSet().setEncoded(null, null);
+		}
+	}
+
+	/**
+	 * Whether the cached encodings of the block sets are reused.
+	 */
+	@Param({ "false", "true" })
+	public boolean cached;
+
+	/**
+	 * The number of characters of each type around the observer.
+	 */
+	@Param({ "255" })
+	public int characters;
+
+	/**
+	 * The release whose encoders are measured.
+	 */
+	@Param({ "317", "377" })
+	public int release;
+
+	/**
+	 * The captured npc synchronization event.
+	 */
+	private NpcSynchronizationEvent npcEvent;
+
+	/**
+	 * The npc synchronization event encoder.
+	 */
+	private EventEncoder<NpcSynchronizationEvent> npcEncoder;
+
+	/**
+	 * The captured player synchronization event.
+	 */
+	private PlayerSynchronizationEvent playerEvent;
+
+	/**
+	 * The player synchronization event encoder.
+	 */
+	private EventEncoder<PlayerSynchronizationEvent> playerEncoder;
+
+	/**
+	 * The synthetic world.
+	 */
+	private SyntheticWorld world;
+
+	/**
+	 * Encodes the npc synchronization event.
+	 * 
+	 * @return The packet.
+	 */
+	@Benchmark
+	public GamePacket npcSynchronization() {
+		if (!cached) {
+			discardEncodings(npcEvent.getSegments());
+		}
+		return npcEncoder.encode(npcEvent);
+	}
+
+	/**
+	 * Encodes the player synchronization event.
+	 * 
+	 * @return The packet.
+	 */
+	@Benchmark
+	public GamePacket playerSynchronization() {
+		if (!cached) {
+			playerEvent.getSegment().getBlockSet().setEncoded(null, null);
+			discardEncodings(playerEvent.getSegments());
+		}
+		return playerEncoder.encode(playerEvent);
+	}
+
+	/**
+	 * Builds the world and captures the events sent to its first player.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		Release release = this.release == 317 ? new Release317() : new Release377();
+		playerEncoder = release.getEventEncoder(PlayerSynchronizationEvent.class);
+		npcEncoder = release.getEventEncoder(NpcSynchronizationEvent.class);
+
+		world = new SyntheticWorld(characters, characters, Distribution.CLUSTERED, 0.5,
+				new SimpleChannelDownstreamHandler());
+		ClientSynchronizer synchronizer = new SequentialClientSynchronizer();
+		for (int pulse = 0; pulse < PULSES; pulse++) {
+			world.pulse(synchronizer);
+		}
+
+		world.prepare();
+		World.getWorld().pulse();
+		synchronizer.synchronize();
+		world.flush();
+
+		EncoderEmbedder<Object> embedder = world.getEmbedder(0);
+		Object product;
+		while ((product = embedder.poll()) != null) {
+			OutboundBatch batch = (OutboundBatch) product;
+			for (int index = 0; index < batch.size(); index++) {
+				Object message = batch.get(index);
+				if (message instanceof PlayerSynchronizationEvent) {
+					playerEvent = (PlayerSynchronizationEvent) message;
+				} else if (message instanceof NpcSynchronizationEvent) {
+					npcEvent = (NpcSynchronizationEvent) message;
+				}
+			}
+		}
+		world.drain();
+	}
+
+	/**
+	 * Unregisters the characters in the world.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		world.unregister();
+	}
+
+}
@@ -0,0 +1,252 @@
+package org.apollo.game.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apollo.game.model.Animation;
+import org.apollo.game.model.Graphic;
+import org.apollo.game.model.Npc;
+import org.apollo.game.model.Player;
+import org.apollo.game.model.Position;
+import org.apollo.game.model.World;
+import org.apollo.game.model.def.NpcDefinition;
+import org.apollo.game.profile.TickProfiler;
+import org.apollo.net.codec.game.GameEventEncoder;
+import org.apollo.net.release.Release;
+import org.apollo.net.session.BackpressurePolicy;
+import org.apollo.net.session.GameSession;
+import org.apollo.security.PlayerCredentials;
+import org.jboss.netty.channel.ChannelDownstreamHandler;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+
+/**
+ * A synthetic world of players and npcs, registered with the {@link World}, for the synchronization benchmarks.
+ * <p>
+ * Each player has a {@link GameSession} backed by an {@link EncoderEmbedder}, so events sent to the player go through
+ * the same encoder as they would on a real channel, and the products are discarded at the end of each pulse.
+ * 
+ * @author Graham
+ */
+public final class SyntheticWorld {
+
+	/**
+	 * The way characters are spread over the world.
+	 * 
+	 * @author Graham
+	 */
+	public enum Distribution {
+
+		/**
+		 * All characters stand in a small area, so every player can see (up to the client's limit of) every other
+		 * character.
+		 */
+		CLUSTERED(32),
+
+		/**
+		 * Characters are spread uniformly over a large area, so each player can only see a few others.
+		 */
+		UNIFORM(512);
+
+		/**
+		 * The width and height of the area, in tiles.
+		 */
+		private final int size;
+
+		/**
+		 * Creates the distribution.
+		 * 
+		 * @param size The width and height of the area, in tiles.
+		 */
+		private Distribution(int size) {
+			this.size = size;
+		}
+
+	}
+
+	/**
+	 * The position of the bottom-left corner of the area in which the characters are placed.
+	 */
+	private static final Position ORIGIN = new Position(3000, 3000);
+
+	/**
+	 * The fraction of characters which change each pulse.
+	 */
+	private final double churn;
+
+	/**
+	 * The embedders which receive the products of each player's channel.
+	 */
+	private final List<EncoderEmbedder<Object>> embedders = new ArrayList<EncoderEmbedder<Object>>();
+
+	/**
+	 * The npcs.
+	 */
+	private final List<Npc> npcs = new ArrayList<Npc>();
+
+	/**
+	 * The players.
+	 */
+	private final List<Player> players = new ArrayList<Player>();
+
+	/**
+	 * The random number generator, seeded so that each run is the same.
+	 */
+	private final Random random = new Random(317);
+
+	/**
+	 * Creates the synthetic world and registers its characters with the {@link World}.
+	 * 
+	 * @param release The release whose encoders are used.
+	 * @param playerCount The number of players.
+	 * @param npcCount The number of npcs.
+	 * @param distribution The way characters are spread over the world.
+	 * @param churn The fraction of characters which walk and have new blocks each pulse.
+	 */
+	public SyntheticWorld(Release release, int playerCount, int npcCount, Distribution distribution, double churn) {
+		this(playerCount, npcCount, distribution, churn, new GameEventEncoder(release));
+	}
+
+	/**
+	 * Creates the synthetic world and registers its characters with the {@link World}.
+	 * 
+	 * @param playerCount The number of players.
+	 * @param npcCount The number of npcs.
+	 * @param distribution The way characters are spread over the world.
+	 * @param churn The fraction of characters which walk and have new blocks each pulse.
+	 * @param handler The handler through which events sent to each player are written.
+	 */
+	public SyntheticWorld(int playerCount, int npcCount, Distribution distribution, double churn,
+			ChannelDownstreamHandler handler) {
+		this.churn = churn;
+		Logger.getLogger(World.class.getName()).setLevel(Level.WARNING);
+		World world = World.getWorld();
+
+		for (int index = 0; index < playerCount; index++) {
+			PlayerCredentials credentials = new PlayerCredentials("bench" + index, "password", 0, 0);
+			Player player = new Player(credentials, randomPosition(distribution));
+			world.register(player);
+
+			EncoderEmbedder<Object> embedder = new EncoderEmbedder<Object>(handler);
+			player.setSession(new GameSession(embedder.getPipeline().getChannel(), null, player,
+					BackpressurePolicy.DEFAULT), true);
+			embedders.add(embedder);
+			players.add(player);
+		}
+
+		NpcDefinition definition = new NpcDefinition(1);
+		for (int index = 0; index < npcCount; index++) {
+			Npc npc = new Npc(definition, randomPosition(distribution));
+			world.register(npc);
+			npcs.add(npc);
+		}
+	}
+
+	/**
+	 * Applies churn to a character: it walks one tile in a random direction and plays an animation and a graphic.
+	 * 
+	 * @param character The character.
+	 */
+	private void churn(org.apollo.game.model.Character character) {
+		Position position = character.getPosition();
+		int x = position.getX() + random.nextInt(3) - 1;
+		int y = position.getY() + random.nextInt(3) - 1;
+		character.getWalkingQueue().addStep(new Position(x, y, position.getHeight()));
+
+		character.playAnimation(new Animation(random.nextInt(1000)));
+		character.playGraphic(new Graphic(random.nextInt(500)));
+	}
+
+	/**
+	 * Discards everything written to the players' channels.
+	 */
+	public void drain() {
+		for (EncoderEmbedder<Object> embedder : embedders) {
+			while (embedder.poll() != null) {
+				// discard
+			}
+		}
+	}
+
+	/**
+	 * Flushes the players' sessions, writing the events sent to each player during the pulse to its channel.
+	 */
+	public void flush() {
+		for (Player player : players) {
+			player.getSession().flush();
+		}
+	}
+
+	/**
+	 * Gets the embedder of the specified player's channel.
+	 * 
+	 * @param index The index of the player in this world.
+	 * @return The embedder.
+	 */
+	public EncoderEmbedder<Object> getEmbedder(int index) {
+		return embedders.get(index);
+	}
+
+	/**
+	 * Runs a pulse: churn is applied, the world is pulsed, the clients are synchronized with the specified
+	 * synchronizer, the sessions are flushed and the output is discarded.
+	 * 
+	 * @param synchronizer The synchronizer.
+	 */
+	public void pulse(ClientSynchronizer synchronizer) {
+		TickProfiler profiler = TickProfiler.getProfiler();
+		profiler.begin();
+		prepare();
+		World.getWorld().pulse();
+		synchronizer.synchronize();
+		flush();
+		profiler.end();
+		drain();
+	}
+
+	/**
+	 * Applies churn to a random fraction of the characters.
+	 */
+	public void prepare() {
+		for (Player player : players) {
+			if (random.nextDouble() < churn) {
+				churn(player);
+			}
+		}
+		for (Npc npc : npcs) {
+			if (random.nextDouble() < churn) {
+				churn(npc);
+			}
+		}
+	}
+
+	/**
+	 * Gets a random position according to the specified distribution.
+	 * 
+	 * @param distribution The distribution.
+	 * @return The position.
+	 */
+	private Position randomPosition(Distribution distribution) {
+		return new Position(ORIGIN.getX() + random.nextInt(distribution.size), ORIGIN.getY()
+				+ random.nextInt(distribution.size));
+	}
+
+	/**
+	 * Unregisters every character in this world from the {@link World}.
+	 */
+	public void unregister() {
+		World world = World.getWorld();
+		for (Player player : players) {
+			world.unregister(player);
+		}
+		for (Npc npc : npcs) {
+			world.unregister(npc);
+		}
+		players.clear();
+		npcs.clear();
+		embedders.clear();
+	}
+
+}
@@ -0,0 +1,184 @@
+package org.apollo.game.sync.block;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apollo.game.event.impl.ChatEvent;
+import org.apollo.game.model.Animation;
+import org.apollo.game.model.Graphic;
+import org.apollo.game.model.Player.PrivilegeLevel;
+import org.apollo.game.model.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the array-backed {@link SynchronizationBlockSet} with the original {@link MapSynchronizationBlockSet} for
+ * the operations performed by the synchronization tasks and encoders: computing the update mask, cloning and stripping
+ * the chat block from a clone.
+ * <p>
+ * Run with {@code java -cp <classpath> org.openjdk.jmh.Main SynchronizationBlockSetBenchmark}.
+ * 
+ * @author Graham
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+public class SynchronizationBlockSetBenchmark {
+
+	/**
+	 * The bits of the 317 player update mask for each type of block, indexed by the ordinal of the type.
+	 */
+	private static final int[] MASKS = new int[BlockType.count()];
+
+	static {
+		MASKS[BlockType.FORCE_MOVEMENT.ordinal()] = 0x400;
+		MASKS[BlockType.GRAPHIC.ordinal()] = 0x100;
+		MASKS[BlockType.ANIMATION.ordinal()] = 0x8;
+		MASKS[BlockType.FORCE_CHAT.ordinal()] = 0x4;
+		MASKS[BlockType.CHAT.ordinal()] = 0x80;
+		MASKS[BlockType.INTERACTING_CHARACTER.ordinal()] = 0x1;
+		MASKS[BlockType.APPEARANCE.ordinal()] = 0x10;
+		MASKS[BlockType.TURN_TO_POSITION.ordinal()] = 0x2;
+		MASKS[BlockType.HIT_UPDATE.ordinal()] = 0x20;
+		MASKS[BlockType.SECOND_HIT_UPDATE.ordinal()] = 0x200;
+	}
+
+	/**
+	 * The array-backed block set.
+	 */
+	private SynchronizationBlockSet arraySet;
+
+	/**
+	 * The map-backed block set.
+	 */
+	private MapSynchronizationBlockSet mapSet;
+
+	/**
+	 * Computes the update mask of the array-backed set.
+	 * 
+	 * @return The mask.
+	 */
+	@Benchmark
+	public int arrayMask() {
+		int mask = 0;
+		for (int types = arraySet.getMask(); types != 0; types &= types - 1) {
+			mask |= MASKS[Integer.numberOfTrailingZeros(types)];
+		}
+		return mask;
+	}
+
+	/**
+	 * Clones the array-backed set.
+	 * 
+	 * @return The clone.
+	 */
+	@Benchmark
+	public SynchronizationBlockSet arrayClone() {
+		return arraySet.clone();
+	}
+
+	/**
+	 * Clones the array-backed set and removes the chat block from the clone.
+	 * 
+	 * @return The clone.
+	 */
+	@Benchmark
+	public SynchronizationBlockSet arrayStripChat() {
+		SynchronizationBlockSet copy = arraySet.clone();
+		copy.remove(BlockType.CHAT);
+		return copy;
+	}
+
+	/**
+	 * Computes the update mask of the map-backed set, in the same way as the encoders used to.
+	 * 
+	 * @return The mask.
+	 */
+	@Benchmark
+	public int mapMask() {
+		int mask = 0;
+		if (mapSet.contains(ForceMovementBlock.class)) {
+			mask |= 0x400;
+		}
+		if (mapSet.contains(GraphicBlock.class)) {
+			mask |= 0x100;
+		}
+		if (mapSet.contains(AnimationBlock.class)) {
+			mask |= 0x8;
+		}
+		if (mapSet.contains(ForceChatBlock.class)) {
+			mask |= 0x4;
+		}
+		if (mapSet.contains(ChatBlock.class)) {
+			mask |= 0x80;
+		}
+		if (mapSet.contains(InteractingCharacterBlock.class)) {
+			mask |= 0x1;
+		}
+		if (mapSet.contains(AppearanceBlock.class)) {
+			mask |= 0x10;
+		}
+		if (mapSet.contains(TurnToPositionBlock.class)) {
+			mask |= 0x2;
+		}
+		if (mapSet.contains(HitUpdateBlock.class)) {
+			mask |= 0x20;
+		}
+		if (mapSet.contains(SecondHitUpdateBlock.class)) {
+			mask |= 0x200;
+		}
+		return mask;
+	}
+
+	/**
+	 * Clones the map-backed set.
+	 * 
+	 * @return The clone.
+	 */
+	@Benchmark
+	public MapSynchronizationBlockSet mapClone() {
+		return mapSet.clone();
+	}
+
+	/**
+	 * Clones the map-backed set and removes the chat block from the clone.
+	 * 
+	 * @return The clone.
+	 */
+	@Benchmark
+	public MapSynchronizationBlockSet mapStripChat() {
+		MapSynchronizationBlockSet copy = mapSet.clone();
+		copy.remove(ChatBlock.class);
+		return copy;
+	}
+
+	/**
+	 * Fills both sets with the blocks of a player who is chatting, animating and facing another character.
+	 */
+	@Setup
+	public void setup() {
+		SynchronizationBlock[] blocks = { SynchronizationBlock.createAnimationBlock(new Animation(866)),
+				new ChatBlock(PrivilegeLevel.STANDARD, new ChatEvent("hello", new byte[4], 0, 0)),
+				SynchronizationBlock.createGraphicBlock(new Graphic(86)),
+				SynchronizationBlock.createInteractingCharacterBlock(1),
+				SynchronizationBlock.createTurnToPositionBlock(new Position(3222, 3222)) };
+
+		arraySet = new SynchronizationBlockSet();
+		mapSet = new MapSynchronizationBlockSet();
+		for (SynchronizationBlock block : blocks) {
+			arraySet.add(block);
+			mapSet.add(block);
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+package org.apollo.net.codec.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link GamePacketBuilder} with the original {@link LegacyGamePacketBuilder} for the writes made by the
+ * synchronization encoders: the bit-packed movement and add-player segments of a crowded update, and transformed
+ * shorts and bytes as written by the update blocks.
+ * <p>
+ * Run with {@code java -cp <classpath> org.openjdk.jmh.Main GamePacketBuilderBenchmark -prof gc}.
+ * 
+ * @author Graham
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+public class GamePacketBuilderBenchmark {
+
+	/**
+	 * The number of characters in the update.
+	 */
+	private static final int CHARACTERS = 255;
+
+	/**
+	 * Writes the bits of an update with the current builder.
+	 * 
+	 * @return The length of the update.
+	 */
+	@Benchmark
+	public int bits() {
+		GamePacketBuilder builder = new GamePacketBuilder();
+		builder.switchToBitAccess();
+		builder.putBits(8, CHARACTERS);
+		for (int index = 0; index < CHARACTERS; index++) {
+			builder.putBits(1, 1);
+			builder.putBits(2, 2);
+			builder.putBits(3, index & 7);
+			builder.putBits(3, index + 1 & 7);
+			builder.putBits(1, index & 1);
+		}
+		for (int index = 0; index < 20; index++) {
+			builder.putBits(11, index);
+			builder.putBits(1, 1);
+			builder.putBits(1, 1);
+			builder.putBits(5, index);
+			builder.putBits(5, -index);
+		}
+		builder.putBits(11, 2047);
+		builder.switchToByteAccess();
+		return builder.getLength();
+	}
+
+	/**
+	 * Writes transformed values with the current builder's primitive methods.
+	 * 
+	 * @return The length of the update.
+	 */
+	@Benchmark
+	public int bytes() {
+		GamePacketBuilder builder = new GamePacketBuilder();
+		for (int index = 0; index < CHARACTERS; index++) {
+			builder.putShort(DataOrder.LITTLE, DataTransformation.ADD, index);
+			builder.putByte(DataTransformation.NEGATE, index);
+			builder.putShort(DataOrder.LITTLE, index);
+			builder.putInt(DataOrder.MIDDLE, index);
+		}
+		return builder.getLength();
+	}
+
+	/**
+	 * Writes the bits of an update with the original builder.
+	 * 
+	 * @return The length of the update.
+	 */
+	@Benchmark
+	public int legacyBits() {
+		LegacyGamePacketBuilder builder = new LegacyGamePacketBuilder();
+		builder.switchToBitAccess();
+		builder.putBits(8, CHARACTERS);
+		for (int index = 0; index < CHARACTERS; index++) {
+			builder.putBits(1, 1);
+			builder.putBits(2, 2);
+			builder.putBits(3, index & 7);
+			builder.putBits(3, index + 1 & 7);
+			builder.putBits(1, index & 1);
+		}
+		for (int index = 0; index < 20; index++) {
+			builder.putBits(11, index);
+			builder.putBits(1, 1);
+			builder.putBits(1, 1);
+			builder.putBits(5, index);
+			builder.putBits(5, -index);
+		}
+		builder.putBits(11, 2047);
+		builder.switchToByteAccess();
+		return builder.getLength();
+	}
+
+	/**
+	 * Writes transformed values with the original builder, boxing each value.
+	 * 
+	 * @return The length of the update.
+	 */
+	@Benchmark
+	public int legacyBytes() {
+		LegacyGamePacketBuilder builder = new LegacyGamePacketBuilder();
+		for (int index = 0; index < CHARACTERS; index++) {
+			builder.put(DataType.SHORT, DataOrder.LITTLE, DataTransformation.ADD, index);
+			builder.put(DataType.BYTE, DataOrder.BIG, DataTransformation.NEGATE, index);
+			builder.put(DataType.SHORT, DataOrder.LITTLE, DataTransformation.NONE, index);
+			builder.put(DataType.INT, DataOrder.MIDDLE, DataTransformation.NONE, index);
+		}
+		return builder.getLength();
+	}
+
+}
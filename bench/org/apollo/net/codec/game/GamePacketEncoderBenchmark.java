@@ -0,0 +1,124 @@
+package org.apollo.net.codec.game;
+
+import java.util.concurrent.TimeUnit;
+
+import net.burtleburtle.bob.rand.IsaacRandom;
+
+import org.apollo.net.meta.PacketType;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link GamePacketEncoder}, which writes the header into the room reserved in front of the payload by
+ * the {@link GamePacketBuilder}, with the original encoder, which copied the header and payload into a new buffer.
+ * Each invocation frames the packets sent to every player in one pulse.
+ * <p>
+ * Run with {@code java -cp <classpath> org.openjdk.jmh.Main GamePacketEncoderBenchmark -prof gc}.
+ * 
+ * @author Graham
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+public class GamePacketEncoderBenchmark {
+
+	/**
+	 * The number of packets sent to each player in a pulse.
+	 */
+	private static final int PACKETS = 15;
+
+	/**
+	 * The number of players.
+	 */
+	private static final int PLAYERS = 2000;
+
+	/**
+	 * The encoder.
+	 */
+	private GamePacketEncoder encoder;
+
+	/**
+	 * The packets sent in a pulse. The same packets are encoded by every invocation: this is only safe because the
+	 * encoded buffers are discarded before the next one.
+	 */
+	private GamePacket[] packets;
+
+	/**
+	 * The random number generator used by the original encoder.
+	 */
+	private IsaacRandom random;
+
+	/**
+	 * The length of the payload of each packet.
+	 */
+	@Param({ "16", "256" })
+	public int size;
+
+	/**
+	 * Frames the packets with the current encoder.
+	 * 
+	 * @return The total number of bytes framed.
+	 * @throws Exception If an error occurs.
+	 */
+	@Benchmark
+	public int encode() throws Exception {
+		int total = 0;
+		for (GamePacket packet : packets) {
+			total += ((ChannelBuffer) encoder.encode(null, null, packet)).readableBytes();
+		}
+		return total;
+	}
+
+	/**
+	 * Frames the packets as the original encoder did, copying each into a new buffer.
+	 * 
+	 * @return The total number of bytes framed.
+	 */
+	@Benchmark
+	public int legacyEncode() {
+		int total = 0;
+		for (GamePacket packet : packets) {
+			int payloadLength = packet.getLength();
+			ChannelBuffer buffer = ChannelBuffers.buffer(3 + payloadLength);
+			buffer.writeByte(packet.getOpcode() + random.nextInt() & 0xFF);
+			buffer.writeShort(payloadLength);
+			buffer.writeBytes(packet.getPayload(), packet.getPayload().readerIndex(), payloadLength);
+			total += buffer.readableBytes();
+		}
+		return total;
+	}
+
+	/**
+	 * Builds the packets.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		encoder = new GamePacketEncoder(new IsaacRandom(new int[] { 0, 0, 0, 0 }));
+		random = new IsaacRandom(new int[] { 0, 0, 0, 0 });
+
+		packets = new GamePacket[PLAYERS * PACKETS];
+		for (int index = 0; index < packets.length; index++) {
+			GamePacketBuilder builder = new GamePacketBuilder(index & 0xFF, PacketType.VARIABLE_SHORT);
+			for (int position = 0; position < size; position++) {
+				builder.putByte(position);
+			}
+			packets[index] = builder.toGamePacket();
+		}
+	}
+
+}
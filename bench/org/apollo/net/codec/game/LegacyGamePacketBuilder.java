@@ -0,0 +1,203 @@
+package org.apollo.net.codec.game;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+/**
+ * The parts of the original {@link GamePacketBuilder} used by the synchronization encoders, which wrote bits with a
+ * read-modify-write of each byte and boxed every value, kept so that the two can be compared by the
+ * {@link GamePacketBuilderBenchmark}.
+ * 
+ * @author Graham
+ */
+public final class LegacyGamePacketBuilder {
+
+	/**
+	 * The current bit index.
+	 */
+	private int bitIndex;
+
+	/**
+	 * The buffer.
+	 */
+	private final ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+
+	/**
+	 * The current mode.
+	 */
+	private AccessMode mode = AccessMode.BYTE_ACCESS;
+
+	/**
+	 * Checks that this builder is in the bit access mode.
+	 * 
+	 * @throws IllegalStateException If the builder is not in bit access mode.
+	 */
+	private void checkBitAccess() {
+		if (mode != AccessMode.BIT_ACCESS) {
+			throw new IllegalStateException("For bit-based calls to work, the mode must be bit access");
+		}
+	}
+
+	/**
+	 * Checks that this builder is in the byte access mode.
+	 * 
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	private void checkByteAccess() {
+		if (mode != AccessMode.BYTE_ACCESS) {
+			throw new IllegalStateException("For byte-based calls to work, the mode must be byte access");
+		}
+	}
+
+	/**
+	 * Gets the current length of the builder's buffer.
+	 * 
+	 * @return The length of the buffer.
+	 */
+	public int getLength() {
+		return buffer.writerIndex();
+	}
+
+	/**
+	 * Puts a standard data type with the specified value, byte order and transformation.
+	 * 
+	 * @param type The data type.
+	 * @param order The byte order.
+	 * @param transformation The transformation.
+	 * @param value The value.
+	 * @throws IllegalStateException If this reader is not in byte access mode.
+	 * @throws IllegalArgumentException If the combination is invalid.
+	 */
+	public void put(DataType type, DataOrder order, DataTransformation transformation, Number value) {
+		checkByteAccess();
+		long longValue = value.longValue();
+		int length = type.getBytes();
+		if (order == DataOrder.BIG) {
+			for (int i = length - 1; i >= 0; i--) {
+				if (i == 0 && transformation != DataTransformation.NONE) {
+					if (transformation == DataTransformation.ADD) {
+						buffer.writeByte((byte) (longValue + 128));
+					} else if (transformation == DataTransformation.NEGATE) {
+						buffer.writeByte((byte) -longValue);
+					} else if (transformation == DataTransformation.SUBTRACT) {
+						buffer.writeByte((byte) (128 - longValue));
+					} else {
+						throw new IllegalArgumentException("unknown transformation");
+					}
+				} else {
+					buffer.writeByte((byte) (longValue >> i * 8));
+				}
+			}
+		} else if (order == DataOrder.LITTLE) {
+			for (int i = 0; i < length; i++) {
+				if (i == 0 && transformation != DataTransformation.NONE) {
+					if (transformation == DataTransformation.ADD) {
+						buffer.writeByte((byte) (longValue + 128));
+					} else if (transformation == DataTransformation.NEGATE) {
+						buffer.writeByte((byte) -longValue);
+					} else if (transformation == DataTransformation.SUBTRACT) {
+						buffer.writeByte((byte) (128 - longValue));
+					} else {
+						throw new IllegalArgumentException("unknown transformation");
+					}
+				} else {
+					buffer.writeByte((byte) (longValue >> i * 8));
+				}
+			}
+		} else if (order == DataOrder.MIDDLE) {
+			if (transformation != DataTransformation.NONE) {
+				throw new IllegalArgumentException("middle endian cannot be transformed");
+			}
+			if (type != DataType.INT) {
+				throw new IllegalArgumentException("middle endian can only be used with an integer");
+			}
+			buffer.writeByte((byte) (longValue >> 8));
+			buffer.writeByte((byte) longValue);
+			buffer.writeByte((byte) (longValue >> 24));
+			buffer.writeByte((byte) (longValue >> 16));
+		} else if (order == DataOrder.INVERSED_MIDDLE) {
+			if (transformation != DataTransformation.NONE) {
+				throw new IllegalArgumentException("inversed middle endian cannot be transformed");
+			}
+			if (type != DataType.INT) {
+				throw new IllegalArgumentException("inversed middle endian can only be used with an integer");
+			}
+			buffer.writeByte((byte) (longValue >> 16));
+			buffer.writeByte((byte) (longValue >> 24));
+			buffer.writeByte((byte) longValue);
+			buffer.writeByte((byte) (longValue >> 8));
+		} else {
+			throw new IllegalArgumentException("unknown order");
+		}
+	}
+
+	/**
+	 * Puts {@code numBits} into the buffer with the value {@code value}.
+	 * 
+	 * @param numBits The number of bits to put into the buffer.
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in bit access mode.
+	 * @throws IllegalArgumentException If the number of bits is not between 1 and 31 inclusive.
+	 */
+	public void putBits(int numBits, int value) {
+		if (numBits < 0 || numBits > 32) {
+			throw new IllegalArgumentException("Number of bits must be between 1 and 32 inclusive");
+		}
+
+		checkBitAccess();
+
+		int bytePos = bitIndex >> 3;
+		int bitOffset = 8 - (bitIndex & 7);
+		bitIndex += numBits;
+
+		int requiredSpace = bytePos - buffer.writerIndex() + 1;
+		requiredSpace += (numBits + 7) / 8;
+		buffer.ensureWritableBytes(requiredSpace);
+
+		for (; numBits > bitOffset; bitOffset = 8) {
+			int tmp = buffer.getByte(bytePos);
+			tmp &= ~DataConstants.BIT_MASK[bitOffset];
+			tmp |= value >> numBits - bitOffset & DataConstants.BIT_MASK[bitOffset];
+			buffer.setByte(bytePos++, tmp);
+			numBits -= bitOffset;
+		}
+		if (numBits == bitOffset) {
+			int tmp = buffer.getByte(bytePos);
+			tmp &= ~DataConstants.BIT_MASK[bitOffset];
+			tmp |= value & DataConstants.BIT_MASK[bitOffset];
+			buffer.setByte(bytePos, tmp);
+		} else {
+			int tmp = buffer.getByte(bytePos);
+			tmp &= ~(DataConstants.BIT_MASK[numBits] << bitOffset - numBits);
+			tmp |= (value & DataConstants.BIT_MASK[numBits]) << bitOffset - numBits;
+			buffer.setByte(bytePos, tmp);
+		}
+	}
+
+	/**
+	 * Switches this builder's mode to the bit access mode.
+	 * 
+	 * @throws IllegalStateException If the builder is already in bit access mode.
+	 */
+	public void switchToBitAccess() {
+		if (mode == AccessMode.BIT_ACCESS) {
+			throw new IllegalStateException("Already in bit access mode");
+		}
+		mode = AccessMode.BIT_ACCESS;
+		bitIndex = buffer.writerIndex() * 8;
+	}
+
+	/**
+	 * Switches this builder's mode to the byte access mode.
+	 * 
+	 * @throws IllegalStateException If the builder is already in byte access mode.
+	 */
+	public void switchToByteAccess() {
+		if (mode == AccessMode.BYTE_ACCESS) {
+			throw new IllegalStateException("Already in byte access mode");
+		}
+		mode = AccessMode.BYTE_ACCESS;
+		buffer.writerIndex((bitIndex + 7) / 8);
+	}
+
+}
@@ -67,4 +67,9 @@ on :command, :clearnpcs, RIGHTS_ADMIN do |player, command|
 		World.world.unregister(iterator.next)
 	end
 	player.send_message("All npcs removed.")
-end
\ No newline at end of file
+end
+
+on :command, :regions, RIGHTS_ADMIN do |player, command|
+	regions = World.world.region_repository
+	player.send_message("Regions: #{regions.active_region_count} active, #{regions.dormant_region_count} dormant with npcs.")
+end
@@ -1,5 +1,6 @@
 require 'java'
 java_import 'org.apollo.game.model.Position'
+java_import 'org.apollo.game.model.World'
 
 on :command, :pos, RIGHTS_ADMIN do |player, command|
   player.send_message "You are at: " + player.position.to_s
@@ -16,4 +17,20 @@ on :command, :tele, RIGHTS_ADMIN do |player, command|
   else
     player.send_message "Syntax: ::tele [x] [y] [z=0]"
   end
-end
\ No newline at end of file
+end
+
+on :command, :teleto, RIGHTS_ADMIN do |player, command|
+  args = command.arguments
+  if args.length > 0
+    name = args.join(" ")
+    target = World.world.get_player(name)
+
+    if target == nil
+      player.send_message name + " is not online."
+    else
+      player.teleport target.position
+    end
+  else
+    player.send_message "Syntax: ::teleto [name]"
+  end
+end
@@ -1,6 +1,8 @@
 package org.apollo;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.concurrent.ExecutorService;
@@ -11,6 +13,7 @@ import java.util.logging.Logger;
 import org.apollo.fs.IndexedFileSystem;
 import org.apollo.game.model.World;
 import org.apollo.net.ApolloHandler;
+import org.apollo.net.ConnectionFilter;
 import org.apollo.net.HttpPipelineFactory;
 import org.apollo.net.JagGrabPipelineFactory;
 import org.apollo.net.NetworkConstants;
@@ -19,6 +22,8 @@ import org.apollo.net.release.Release;
 import org.apollo.net.release.r317.Release317;
 import org.apollo.util.plugin.PluginContext;
 import org.apollo.util.plugin.PluginManager;
+import org.apollo.util.xml.XmlNode;
+import org.apollo.util.xml.XmlParser;
 import org.jboss.netty.bootstrap.ServerBootstrap;
 import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.ChannelPipelineFactory;
@@ -81,6 +86,12 @@ public final class Server {
 	 */
 	private final ExecutorService networkExecutor = Executors.newCachedThreadPool();
 
+	/**
+	 * The {@link ExecutorService} used for the network events of the HTTP and JAGGRAB listeners, if they do not share
+	 * the worker threads of the service listener.
+	 */
+	private final ExecutorService updateExecutor = Executors.newCachedThreadPool();
+
 	/**
 	 * The {@link ServerBootstrap} for the service listener.
 	 */
@@ -138,9 +149,9 @@ public final class Server {
 	 * @throws ClassNotFoundException If the release class could not be found.
 	 * @throws IllegalAccessException If the release class could not be accessed.
 	 * @throws InstantiationException If the release class could not be instantiated.
+	 * @throws Exception If the file system of the release is invalid.
 	 */
-	public void init(String releaseClassName) throws ClassNotFoundException, InstantiationException,
-			IllegalAccessException {
+	public void init(String releaseClassName) throws Exception {
 		Class<?> clazz = Class.forName(releaseClassName);
 		Release release = (Release) clazz.newInstance();
 
@@ -148,22 +159,67 @@ public final class Server {
 
 		ChannelFactory factory = new NioServerSocketChannelFactory(networkExecutor, networkExecutor);
 		serviceBootstrap.setFactory(factory);
+
+		// the service listener carries 'on-demand' requests as well as game sessions, so it cannot be split up
+		int updateWorkers = NetworkConstants.UPDATE_WORKER_THREADS;
+		if (updateWorkers > 0) {
+			factory = new NioServerSocketChannelFactory(updateExecutor, updateExecutor, updateWorkers);
+		}
 		httpBootstrap.setFactory(factory);
 		jagGrabBootstrap.setFactory(factory);
 
-		context = new ServerContext(release, serviceManager);
+		IndexedFileSystem fs = new IndexedFileSystem(new File("data/fs/" + release.getReleaseNumber()), true);
+		context = new ServerContext(release, fs, serviceManager);
 		ApolloHandler handler = new ApolloHandler(context);
 
-		ChannelPipelineFactory servicePipelineFactory = new ServicePipelineFactory(handler, timer);
+		XmlNode rootNode;
+		InputStream is = new FileInputStream("data/connections.xml");
+		try {
+			XmlParser parser = new XmlParser();
+			rootNode = parser.parse(is);
+		} finally {
+			is.close();
+		}
+
+		if (!rootNode.getName().equals("connections")) {
+			throw new Exception("Invalid root node name.");
+		}
+
+		// the update listeners are counted separately, as a client opens many more update connections than game ones
+		ConnectionFilter gameFilter = parseFilter(rootNode, "game");
+		ConnectionFilter updateFilter = parseFilter(rootNode, "update");
+
+		ChannelPipelineFactory servicePipelineFactory = new ServicePipelineFactory(handler, gameFilter, timer);
 		serviceBootstrap.setPipelineFactory(servicePipelineFactory);
 
-		ChannelPipelineFactory httpPipelineFactory = new HttpPipelineFactory(handler, timer);
+		ChannelPipelineFactory httpPipelineFactory = new HttpPipelineFactory(handler, updateFilter, timer);
 		httpBootstrap.setPipelineFactory(httpPipelineFactory);
 
-		ChannelPipelineFactory jagGrabPipelineFactory = new JagGrabPipelineFactory(handler, timer);
+		ChannelPipelineFactory jagGrabPipelineFactory = new JagGrabPipelineFactory(handler, updateFilter, timer);
 		jagGrabBootstrap.setPipelineFactory(jagGrabPipelineFactory);
 	}
 
+	/**
+	 * Parses the limits of a connection filter and creates it.
+	 * 
+	 * @param rootNode The root node.
+	 * @param name The name of the node holding the limits.
+	 * @return The connection filter.
+	 * @throws Exception If the node or one of its limits is missing.
+	 */
+	private static ConnectionFilter parseFilter(XmlNode rootNode, String name) throws Exception {
+		XmlNode node = rootNode.getChild(name);
+		if (node == null) {
+			throw new Exception("No " + name + " node.");
+		}
+
+		int maximumOpen = node.getChildInteger("maximum-open");
+		int maximumRecent = node.getChildInteger("maximum-recent");
+		int window = node.getChildInteger("rate-window");
+		int maximumPendingHandshakes = node.getChildInteger("maximum-pending-handshakes");
+		return new ConnectionFilter(maximumOpen, maximumRecent, window, maximumPendingHandshakes);
+	}
+
 	/**
 	 * Starts the server.
 	 * 
@@ -177,8 +233,7 @@ public final class Server {
 
 		// TODO move this?
 		int releaseNo = context.getRelease().getReleaseNumber();
-		IndexedFileSystem fs = new IndexedFileSystem(new File("data/fs/" + releaseNo), true);
-		World.getWorld().init(releaseNo, fs, mgr);
+		World.getWorld().init(releaseNo, context.getFileSystem(), mgr);
 	}
 
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.apollo;
 
+import org.apollo.fs.IndexedFileSystem;
 import org.apollo.net.release.Release;
 import org.jboss.netty.channel.group.ChannelGroup;
 import org.jboss.netty.channel.group.DefaultChannelGroup;
@@ -20,6 +21,11 @@ public final class ServerContext {
 	 */
 	private final ChannelGroup group = new DefaultChannelGroup();
 
+	/**
+	 * The read only file system of the current release, shared by everything which reads it.
+	 */
+	private final IndexedFileSystem fileSystem;
+
 	/**
 	 * The current release.
 	 */
@@ -34,10 +40,12 @@ public final class ServerContext {
 	 * Creates a new server context.
 	 * 
 	 * @param release The current release.
+	 * @param fileSystem The read only file system of the current release.
 	 * @param serviceManager The service manager.
 	 */
-	ServerContext(Release release, ServiceManager serviceManager) {
+	ServerContext(Release release, IndexedFileSystem fileSystem, ServiceManager serviceManager) {
 		this.release = release;
+		this.fileSystem = fileSystem;
 		this.serviceManager = serviceManager;
 		this.serviceManager.setContext(this);
 	}
@@ -51,6 +59,15 @@ public final class ServerContext {
 		return group;
 	}
 
+	/**
+	 * Gets the read only file system of the current release.
+	 * 
+	 * @return The file system.
+	 */
+	public IndexedFileSystem getFileSystem() {
+		return fileSystem;
+	}
+
 	/**
 	 * Gets the current release.
 	 * 
@@ -28,6 +28,21 @@ public final class FileDescriptor {
 		this.file = file;
 	}
 
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		FileDescriptor other = (FileDescriptor) obj;
+		return file == other.file && type == other.type;
+	}
+
 	/**
 	 * Gets the file id.
 	 * 
@@ -46,4 +61,9 @@ public final class FileDescriptor {
 		return type;
 	}
 
+	@Override
+	public int hashCode() {
+		return type << 16 | file;
+	}
+
 }
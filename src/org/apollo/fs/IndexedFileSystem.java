@@ -1,16 +1,23 @@
 package org.apollo.fs;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.zip.CRC32;
 
 /**
  * A file system based on top of the operating system's file system. It consists of a data file and index files. Index
  * files point to blocks in the data file, which contains the actual data.
+ * <p>
+ * A read only file system maps its files into memory when it is created, and reads from the mappings without locking,
+ * so a single instance can be shared by any number of threads. A writable file system reads and writes the files
+ * through {@link RandomAccessFile}s, which are locked while in use.
  * 
  * @author Graham
  */
@@ -22,14 +29,24 @@ public final class IndexedFileSystem implements Closeable {
 	private ByteBuffer crcTable;
 
 	/**
-	 * The data file.
+	 * The data file, if the file system is writable.
 	 */
 	private RandomAccessFile data;
 
 	/**
-	 * The index files.
+	 * The mapped data file, if the file system is read only.
 	 */
-	private RandomAccessFile[] indices = new RandomAccessFile[256];
+	private ByteBuffer dataBuffer;
+
+	/**
+	 * The mapped index files, if the file system is read only.
+	 */
+	private final ByteBuffer[] indexBuffers = new ByteBuffer[256];
+
+	/**
+	 * The index files, if the file system is writable.
+	 */
+	private final RandomAccessFile[] indices = new RandomAccessFile[256];
 
 	/**
 	 * Read only flag.
@@ -93,6 +110,17 @@ public final class IndexedFileSystem implements Closeable {
 		} else {
 			throw new Exception("No data file present");
 		}
+
+		if (readOnly) {
+			dataBuffer = map(data);
+			data = null;
+			for (int index = 0; index < indices.length; index++) {
+				if (indices[index] != null) {
+					indexBuffers[index] = map(indices[index]);
+					indices[index] = null;
+				}
+			}
+		}
 	}
 
 	/**
@@ -161,6 +189,7 @@ public final class IndexedFileSystem implements Closeable {
 	public ByteBuffer getFile(FileDescriptor fd) throws IOException {
 		Index index = getIndex(fd);
 		ByteBuffer buffer = ByteBuffer.allocate(index.getSize());
+		ByteBuffer dataBuffer = this.dataBuffer == null ? null : this.dataBuffer.duplicate();
 
 		// calculate some initial values
 		long ptr = (long) index.getBlock() * (long) FileSystemConstants.BLOCK_SIZE;
@@ -171,14 +200,11 @@ public final class IndexedFileSystem implements Closeable {
 			blocks++;
 		}
 
+		byte[] header = new byte[FileSystemConstants.HEADER_SIZE];
 		for (int i = 0; i < blocks; i++) {
 
 			// read header
-			byte[] header = new byte[FileSystemConstants.HEADER_SIZE];
-			synchronized (data) {
-				data.seek(ptr);
-				data.readFully(header);
-			}
+			read(dataBuffer, ptr, header, 0, FileSystemConstants.HEADER_SIZE);
 
 			// increment pointers
 			ptr += FileSystemConstants.HEADER_SIZE;
@@ -200,13 +226,8 @@ public final class IndexedFileSystem implements Closeable {
 				chunkSize = FileSystemConstants.CHUNK_SIZE;
 			}
 
-			// read the next chunk and put it in the buffer
-			byte[] chunk = new byte[chunkSize];
-			synchronized (data) {
-				data.seek(ptr);
-				data.readFully(chunk);
-			}
-			buffer.put(chunk);
+			// read the next chunk straight into the buffer
+			read(dataBuffer, ptr, buffer.array(), read, chunkSize);
 
 			// increment pointers
 			read += chunkSize;
@@ -225,7 +246,6 @@ public final class IndexedFileSystem implements Closeable {
 			}
 		}
 
-		buffer.flip();
 		return buffer;
 	}
 
@@ -253,6 +273,10 @@ public final class IndexedFileSystem implements Closeable {
 			throw new IndexOutOfBoundsException();
 		}
 
+		if (readOnly) {
+			return indexBuffers[type].capacity() / FileSystemConstants.INDEX_SIZE;
+		}
+
 		RandomAccessFile indexFile = indices[type];
 		synchronized (indexFile) {
 			return (int) (indexFile.length() / FileSystemConstants.INDEX_SIZE);
@@ -273,6 +297,19 @@ public final class IndexedFileSystem implements Closeable {
 		}
 
 		byte[] buffer = new byte[FileSystemConstants.INDEX_SIZE];
+		if (readOnly) {
+			ByteBuffer indexBuffer = indexBuffers[index];
+			long ptr = (long) fd.getFile() * (long) FileSystemConstants.INDEX_SIZE;
+			if (ptr >= 0 && indexBuffer.capacity() >= ptr + FileSystemConstants.INDEX_SIZE) {
+				for (int i = 0; i < buffer.length; i++) {
+					buffer[i] = indexBuffer.get((int) ptr + i);
+				}
+			} else {
+				throw new FileNotFoundException();
+			}
+			return Index.decode(buffer);
+		}
+
 		RandomAccessFile indexFile = indices[index];
 		synchronized (indexFile) {
 			long ptr = (long) fd.getFile() * (long) FileSystemConstants.INDEX_SIZE;
@@ -296,4 +333,50 @@ public final class IndexedFileSystem implements Closeable {
 		return readOnly;
 	}
 
+	/**
+	 * Maps a file into memory and closes it. The mapping remains valid after the file is closed.
+	 * 
+	 * @param file The file.
+	 * @return The mapping.
+	 * @throws IOException If the file is too large to map, or an I/O error occurs.
+	 */
+	private ByteBuffer map(RandomAccessFile file) throws IOException {
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too large to map.");
+			}
+			return channel.map(MapMode.READ_ONLY, 0, size);
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Reads bytes from the data file.
+	 * 
+	 * @param dataBuffer A duplicate of the mapped data file owned by the caller, or {@code null} if the file system is
+	 *            writable.
+	 * @param ptr The position in the data file.
+	 * @param bytes The array to read into.
+	 * @param offset The offset within the array.
+	 * @param length The number of bytes to read.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void read(ByteBuffer dataBuffer, long ptr, byte[] bytes, int offset, int length) throws IOException {
+		if (dataBuffer != null) {
+			if (ptr < 0 || ptr + length > dataBuffer.capacity()) {
+				throw new EOFException();
+			}
+			dataBuffer.position((int) ptr);
+			dataBuffer.get(bytes, offset, length);
+		} else {
+			synchronized (data) {
+				data.seek(ptr);
+				data.readFully(bytes, offset, length);
+			}
+		}
+	}
+
 }
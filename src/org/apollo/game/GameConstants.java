@@ -7,11 +7,6 @@ package org.apollo.game;
  */
 public final class GameConstants {
 
-	/**
-	 * The maximum events per pulse per session.
-	 */
-	public static final int EVENTS_PER_PULSE = 10;
-
 	/**
 	 * The delay between consecutive pulses, in milliseconds.
 	 */
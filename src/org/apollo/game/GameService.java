@@ -13,9 +13,12 @@ import org.apollo.game.event.handler.chain.EventHandlerChainGroup;
 import org.apollo.game.model.Player;
 import org.apollo.game.model.World;
 import org.apollo.game.model.World.RegistrationStatus;
+import org.apollo.game.profile.TickProfiler;
 import org.apollo.game.sync.ClientSynchronizer;
 import org.apollo.io.EventHandlerChainParser;
 import org.apollo.login.LoginService;
+import org.apollo.net.codec.game.OutboundMetrics;
+import org.apollo.net.session.BackpressurePolicy;
 import org.apollo.net.session.GameSession;
 import org.apollo.util.NamedThreadFactory;
 import org.apollo.util.xml.XmlNode;
@@ -34,6 +37,11 @@ public final class GameService extends Service {
 	 */
 	private static final int UNREGISTERS_PER_CYCLE = 50;
 
+	/**
+	 * The {@link BackpressurePolicy} of game sessions.
+	 */
+	private BackpressurePolicy backpressurePolicy;
+
 	/**
 	 * The {@link EventHandlerChainGroup}.
 	 */
@@ -75,6 +83,15 @@ public final class GameService extends Service {
 		}
 	}
 
+	/**
+	 * Gets the backpressure policy of game sessions.
+	 * 
+	 * @return The backpressure policy.
+	 */
+	public BackpressurePolicy getBackpressurePolicy() {
+		return backpressurePolicy;
+	}
+
 	/**
 	 * Gets the event handler chains.
 	 * 
@@ -114,6 +131,30 @@ public final class GameService extends Service {
 
 			Class<?> clazz = Class.forName(activeNode.getValue());
 			synchronizer = (ClientSynchronizer) clazz.newInstance();
+
+			XmlNode encodeNode = rootNode.getChild("encode");
+			if (encodeNode != null && encodeNode.hasValue()) {
+				synchronizer.setEncoding(Boolean.parseBoolean(encodeNode.getValue()));
+			}
+		} finally {
+			is.close();
+		}
+
+		is = new FileInputStream("data/backpressure.xml");
+		try {
+			XmlParser parser = new XmlParser();
+			XmlNode rootNode = parser.parse(is);
+
+			if (!rootNode.getName().equals("backpressure")) {
+				throw new Exception("Invalid root node name.");
+			}
+
+			int highWatermark = rootNode.getChildInteger("high-watermark");
+			int lowWatermark = rootNode.getChildInteger("low-watermark");
+			int maximumDeferred = rootNode.getChildInteger("maximum-deferred");
+			int maximumCongestedPulses = rootNode.getChildInteger("maximum-congested-pulses");
+			backpressurePolicy = new BackpressurePolicy(highWatermark, lowWatermark, maximumDeferred,
+					maximumCongestedPulses);
 		} finally {
 			is.close();
 		}
@@ -126,6 +167,11 @@ public final class GameService extends Service {
 		synchronized (this) {
 			LoginService loginService = getContext().getService(LoginService.class);
 			World world = World.getWorld();
+			TickProfiler profiler = TickProfiler.getProfiler();
+			profiler.begin();
+
+			loginService.admitPendingLogins();
+			profiler.phase("logins");
 
 			int unregistered = 0;
 			Player old;
@@ -133,17 +179,31 @@ public final class GameService extends Service {
 				loginService.submitSaveRequest(old.getSession(), old);
 				unregistered++;
 			}
+			profiler.phase("save-requests");
 
 			for (Player p : world.getPlayerRepository()) {
 				GameSession session = p.getSession();
 				if (session != null) {
+					long start = System.nanoTime();
 					session.handlePendingEvents(chainGroup);
+					profiler.sample("events", p.getName(), System.nanoTime() - start);
 				}
 			}
+			profiler.phase("events");
 
 			world.pulse();
 
 			synchronizer.synchronize();
+
+			for (Player p : world.getPlayerRepository()) {
+				GameSession session = p.getSession();
+				if (session != null) {
+					session.flush();
+				}
+			}
+			OutboundMetrics.getMetrics().completeTick();
+			profiler.phase("flush");
+			profiler.end();
 		}
 	}
 
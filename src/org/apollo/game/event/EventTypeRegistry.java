@@ -0,0 +1,89 @@
+package org.apollo.game.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gives every type of {@link Event} a small, dense integer id, so that tables keyed by the type of event (such as the
+ * encoders of a release or the handler chains) can be arrays indexed by the id rather than maps.
+ * <p>
+ * Ids are assigned in the order in which the types are first seen, starting at zero. The types used by the releases
+ * and the handler chains are seen when they are registered at startup, and any other type is given an id the first
+ * time it is looked up. Looking up the id of a type which already has one does not lock or allocate.
+ * 
+ * @author Graham
+ */
+public final class EventTypeRegistry {
+
+	/**
+	 * The id of each type.
+	 */
+	private static final ClassValue<Integer> ids = new ClassValue<Integer>() {
+
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			return assign(type);
+		}
+
+	};
+
+	/**
+	 * The types, indexed by id.
+	 */
+	private static final List<Class<? extends Event>> types = new ArrayList<Class<? extends Event>>();
+
+	/**
+	 * Assigns the next id to a type, unless it already has one.
+	 * 
+	 * @param type The type.
+	 * @return The id.
+	 */
+	@SuppressWarnings("unchecked")
+	private static synchronized int assign(Class<?> type) {
+		// ClassValue may compute a value more than once if two threads race, so only the first assignment counts
+		int id = types.indexOf(type);
+		if (id == -1) {
+			id = types.size();
+			types.add((Class<? extends Event>) type);
+		}
+		return id;
+	}
+
+	/**
+	 * Gets the id of the specified type of event, assigning it one if it does not yet have one.
+	 * 
+	 * @param type The type of event.
+	 * @return The id.
+	 */
+	public static int getId(Class<? extends Event> type) {
+		return ids.get(type);
+	}
+
+	/**
+	 * Gets the type of event with the specified id.
+	 * 
+	 * @param id The id.
+	 * @return The type of event.
+	 * @throws IndexOutOfBoundsException If no type has the id.
+	 */
+	public static synchronized Class<? extends Event> getType(int id) {
+		return types.get(id);
+	}
+
+	/**
+	 * Gets the number of types which have been given an id. Every id is less than this number.
+	 * 
+	 * @return The number of types.
+	 */
+	public static synchronized int size() {
+		return types.size();
+	}
+
+	/**
+	 * Default private constructor to prevent instantiation.
+	 */
+	private EventTypeRegistry() {
+
+	}
+
+}
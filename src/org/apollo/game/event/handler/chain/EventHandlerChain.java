@@ -13,6 +13,38 @@ import org.apollo.game.model.Player;
  */
 public final class EventHandlerChain<E extends Event> {
 
+	/**
+	 * An {@link EventHandlerContext} which records whether the chain has been broken.
+	 * 
+	 * @author Graham
+	 */
+	private static final class ChainContext extends EventHandlerContext {
+
+		/**
+		 * A flag indicating if the chain currently being handled is still running.
+		 */
+		private boolean running;
+
+		@Override
+		public void breakHandlerChain() {
+			running = false;
+		}
+
+	}
+
+	/**
+	 * The context of each thread which handles events, reused by every chain so that handling an event does not
+	 * allocate.
+	 */
+	private static final ThreadLocal<ChainContext> contexts = new ThreadLocal<ChainContext>() {
+
+		@Override
+		protected ChainContext initialValue() {
+			return new ChainContext();
+		}
+
+	};
+
 	/**
 	 * The handlers.
 	 */
@@ -48,23 +80,19 @@ public final class EventHandlerChain<E extends Event> {
 	 * @param event The event.
 	 */
 	public void handle(Player player, E event) {
-		final boolean[] running = new boolean[1];
-		running[0] = true;
-
-		EventHandlerContext ctx = new EventHandlerContext() {
-
-			@Override
-			public void breakHandlerChain() {
-				running[0] = false;
-			}
-
-		};
+		ChainContext ctx = contexts.get();
+		boolean outer = ctx.running; // a handler may handle another event, so the outer chain's state is restored
+		ctx.running = true;
 
-		for (EventHandler<E> handler : handlers) {
-			handler.handle(ctx, player, event);
-			if (!running[0]) {
-				break;
+		try {
+			for (EventHandler<E> handler : handlers) {
+				handler.handle(ctx, player, event);
+				if (!ctx.running) {
+					break;
+				}
 			}
+		} finally {
+			ctx.running = outer;
 		}
 	}
 
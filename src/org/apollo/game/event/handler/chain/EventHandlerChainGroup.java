@@ -1,20 +1,37 @@
 package org.apollo.game.event.handler.chain;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import org.apollo.game.event.Event;
+import org.apollo.game.event.EventTypeRegistry;
+import org.apollo.game.event.handler.EventHandler;
 
 /**
  * A group of {@link EventHandlerChain}s classified by the {@link Event} type.
+ * <p>
+ * The chains are kept in arrays indexed by the {@link EventTypeRegistry} id of the type of event. The arrays are
+ * replaced, rather than modified, when they change.
  * 
  * @author Graham
  */
 public final class EventHandlerChainGroup {
 
 	/**
-	 * The map of event classes to event handler chains.
+	 * The chain cached by {@link #resolve(Class)} for types of event which have no chain.
 	 */
-	private final Map<Class<? extends Event>, EventHandlerChain<?>> chains;
+	private static final EventHandlerChain<Event> NO_CHAIN = new EventHandlerChain<Event>();
+
+	/**
+	 * The chain of each type of event, indexed by id.
+	 */
+	private volatile EventHandlerChain<?>[] chains = new EventHandlerChain<?>[0];
+
+	/**
+	 * The chain which handles each type of event, indexed by id, found by {@link #resolve(Class)} the first time an
+	 * event of the type is handled. Types which have no chain are cached too, as {@link #NO_CHAIN}.
+	 */
+	private volatile EventHandlerChain<?>[] resolved = new EventHandlerChain<?>[0];
 
 	/**
 	 * Creates the event handler chain group.
@@ -22,7 +39,26 @@ public final class EventHandlerChainGroup {
 	 * @param chains The chains map.
 	 */
 	public EventHandlerChainGroup(Map<Class<? extends Event>, EventHandlerChain<?>> chains) {
-		this.chains = chains;
+		for (Map.Entry<Class<? extends Event>, EventHandlerChain<?>> entry : chains.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Adds an event handler to the end of the chain of the specified type of event, creating the chain if the type
+	 * does not have one.
+	 * 
+	 * @param <E> The type of event.
+	 * @param clazz The event class.
+	 * @param handler The handler.
+	 */
+	public synchronized <E extends Event> void addLast(Class<E> clazz, EventHandler<E> handler) {
+		EventHandlerChain<E> chain = getChain(clazz);
+		if (chain == null) {
+			put(clazz, new EventHandlerChain<E>(handler));
+		} else {
+			chain.addLast(handler);
+		}
 	}
 
 	/**
@@ -34,7 +70,68 @@ public final class EventHandlerChainGroup {
 	 */
 	@SuppressWarnings("unchecked")
 	public <E extends Event> EventHandlerChain<E> getChain(Class<E> clazz) {
-		return (EventHandlerChain<E>) chains.get(clazz);
+		int id = EventTypeRegistry.getId(clazz);
+		EventHandlerChain<?>[] chains = this.chains;
+		return id < chains.length ? (EventHandlerChain<E>) chains[id] : null;
+	}
+
+	/**
+	 * Sets the chain of a type of event, and discards the resolved chains, as a subclass of the type may now resolve
+	 * to the new chain.
+	 * 
+	 * @param clazz The event class.
+	 * @param chain The chain.
+	 */
+	private synchronized void put(Class<? extends Event> clazz, EventHandlerChain<?> chain) {
+		int id = EventTypeRegistry.getId(clazz);
+		EventHandlerChain<?>[] chains = Arrays.copyOf(this.chains, Math.max(this.chains.length, id + 1));
+		chains[id] = chain;
+		this.chains = chains;
+		resolved = new EventHandlerChain<?>[0];
+	}
+
+	/**
+	 * Gets the {@link EventHandlerChain} which handles events of the specified class: the chain of the class itself,
+	 * or if it has none, the chain of its closest superclass which does. The chain is only looked up the first time
+	 * each class is resolved.
+	 * 
+	 * @param <E> The type of event.
+	 * @param clazz The event class.
+	 * @return The {@link EventHandlerChain} if one was found, {@code null} otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends Event> EventHandlerChain<E> resolve(Class<E> clazz) {
+		int id = EventTypeRegistry.getId(clazz);
+		EventHandlerChain<?>[] resolved = this.resolved;
+		EventHandlerChain<?> chain = id < resolved.length ? resolved[id] : null;
+		if (chain == null) {
+			chain = resolve(clazz, id);
+		}
+		return chain == NO_CHAIN ? null : (EventHandlerChain<E>) chain;
+	}
+
+	/**
+	 * Finds the chain which handles events of the specified class and caches it.
+	 * 
+	 * @param clazz The event class.
+	 * @param id The id of the event class.
+	 * @return The chain, or {@link #NO_CHAIN} if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	private synchronized EventHandlerChain<?> resolve(Class<? extends Event> clazz, int id) {
+		EventHandlerChain<?> chain = null;
+		for (Class<?> type = clazz; chain == null && type != Event.class; type = type.getSuperclass()) {
+			chain = getChain((Class<? extends Event>) type);
+		}
+		if (chain == null) {
+			chain = NO_CHAIN;
+		}
+
+		EventHandlerChain<?>[] resolved = Arrays.copyOf(this.resolved,
+				Math.max(this.resolved.length, EventTypeRegistry.size()));
+		resolved[id] = chain;
+		this.resolved = resolved;
+		return chain;
 	}
 
 }
@@ -7,6 +7,7 @@ import org.apollo.game.action.Action;
 import org.apollo.game.event.Event;
 import org.apollo.game.model.Inventory.StackMode;
 import org.apollo.game.model.def.NpcDefinition;
+import org.apollo.game.model.region.Region;
 import org.apollo.game.scheduling.impl.SkillNormalizationTask;
 import org.apollo.game.sync.block.SynchronizationBlock;
 import org.apollo.game.sync.block.SynchronizationBlockSet;
@@ -334,12 +335,17 @@ public abstract class Character {
 	}
 
 	/**
-	 * Sets the position of this character.
+	 * Sets the position of this character. If this character is active, it is also moved to the correct
+	 * {@link Region}.
 	 * 
 	 * @param position The position of this character.
 	 */
 	public void setPosition(Position position) {
+		Position old = this.position;
 		this.position = position;
+		if (isActive()) {
+			World.getWorld().getRegionRepository().move(this, old, position);
+		}
 	}
 
 	/**
@@ -400,7 +406,7 @@ public abstract class Character {
 	 */
 	public void teleport(Position position) {
 		teleporting = true;
-		this.position = position;
+		setPosition(position);
 		walkingQueue.clear();
 		stopAction(); // TODO do it on any movement is a must.. walking queue perhaps?
 	}
@@ -1,13 +1,16 @@
 package org.apollo.game.model;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apollo.game.event.Event;
 import org.apollo.game.event.impl.IdAssignmentEvent;
 import org.apollo.game.event.impl.LogoutEvent;
 import org.apollo.game.event.impl.ServerMessageEvent;
 import org.apollo.game.event.impl.SwitchTabInterfaceEvent;
+import org.apollo.game.model.def.NpcDefinition;
 import org.apollo.game.model.inter.bank.BankConstants;
 import org.apollo.game.model.inv.AppearanceInventoryListener;
 import org.apollo.game.model.inv.FullInventoryListener;
@@ -16,7 +19,10 @@ import org.apollo.game.model.inv.SynchronizationInventoryListener;
 import org.apollo.game.model.skill.LevelUpSkillListener;
 import org.apollo.game.model.skill.SkillListener;
 import org.apollo.game.model.skill.SynchronizationSkillListener;
+import org.apollo.game.sync.block.AppearanceBlock;
+import org.apollo.game.sync.block.BlockType;
 import org.apollo.game.sync.block.SynchronizationBlock;
+import org.apollo.game.sync.block.SynchronizationBlockSet;
 import org.apollo.net.session.GameSession;
 import org.apollo.security.PlayerCredentials;
 
@@ -90,11 +96,38 @@ public final class Player extends Character {
 
 	}
 
+	/**
+	 * The next appearance stamp. Stamps are unique across every player, so a stamp recorded for a player index can
+	 * never match the stamp of a different player who later uses the same index.
+	 */
+	private static final AtomicInteger nextAppearanceStamp = new AtomicInteger(1);
+
 	/**
 	 * The player's appearance.
 	 */
 	private Appearance appearance = Appearance.DEFAULT_APPEARANCE;
 
+	/**
+	 * The appearance block for this player's current appearance.
+	 */
+	private AppearanceBlock appearanceBlock;
+
+	/**
+	 * A copy of this player's block set with an appearance block added, shared by every player that adds this player
+	 * during the current pulse.
+	 */
+	private SynchronizationBlockSet appearanceBlockSet;
+
+	/**
+	 * The block set that {@link #appearanceBlockSet} was copied from.
+	 */
+	private SynchronizationBlockSet appearanceBlockSetSource;
+
+	/**
+	 * The stamp of this player's current appearance, which changes every time the appearance is updated.
+	 */
+	private int appearanceStamp = 0;
+
 	/**
 	 * The player's credentials.
 	 */
@@ -125,6 +158,12 @@ public final class Player extends Character {
 	 */
 	private final InterfaceSet interfaceSet = new InterfaceSet(this);
 
+	/**
+	 * The appearance stamps of the other players, indexed by player index, that this player's client has been sent and
+	 * so has cached.
+	 */
+	private final int[] knownAppearanceStamps = new int[WorldConstants.MAXIMUM_PLAYERS + 1];
+
 	/**
 	 * The centre of the last region the client has loaded.
 	 */
@@ -219,6 +258,52 @@ public final class Player extends Character {
 		return appearance;
 	}
 
+	/**
+	 * Gets this player's block set with an appearance block, which is required when another player adds this player.
+	 * If the block set does not already contain an appearance block, a copy with one added is created the first time
+	 * this is called after the block set is reset, and shared by subsequent calls so that it is only encoded once.
+	 * 
+	 * @return The block set, containing an appearance block.
+	 */
+	public SynchronizationBlockSet getAppearanceBlockSet() {
+		SynchronizationBlockSet blockSet = getBlockSet();
+		if (blockSet.contains(BlockType.APPEARANCE)) {
+			return blockSet;
+		}
+
+		synchronized (this) {
+			if (appearanceBlockSetSource != blockSet) {
+				appearanceBlockSet = blockSet.clone();
+				appearanceBlockSet.add(getAppearanceBlock());
+				appearanceBlockSetSource = blockSet;
+			}
+			return appearanceBlockSet;
+		}
+	}
+
+	/**
+	 * Gets the appearance block for this player's current appearance.
+	 * 
+	 * @return The appearance block.
+	 */
+	public AppearanceBlock getAppearanceBlock() {
+		synchronized (this) {
+			if (appearanceBlock == null) {
+				appearanceBlock = (AppearanceBlock) SynchronizationBlock.createAppearanceBlock(this);
+			}
+			return appearanceBlock;
+		}
+	}
+
+	/**
+	 * Gets the stamp of this player's current appearance.
+	 * 
+	 * @return The appearance stamp, or {@code 0} if the appearance has never been updated.
+	 */
+	public int getAppearanceStamp() {
+		return appearanceStamp;
+	}
+
 	/**
 	 * Gets the player's credentials.
 	 * 
@@ -309,6 +394,28 @@ public final class Player extends Character {
 		return viewingDistance;
 	}
 
+	/**
+	 * Checks if this player's client has cached the current appearance of the specified player, in which case the
+	 * appearance block does not need to be sent when the player is added.
+	 * 
+	 * @param other The other player.
+	 * @return {@code true} if so, {@code false} if not.
+	 */
+	public boolean hasCachedAppearance(Player other) {
+		int stamp = other.getAppearanceStamp();
+		return stamp != 0 && knownAppearanceStamps[other.getIndex()] == stamp;
+	}
+
+	/**
+	 * Records that this player's client has been sent, and so has cached, the current appearance of the specified
+	 * player.
+	 * 
+	 * @param other The other player.
+	 */
+	public void setCachedAppearance(Player other) {
+		knownAppearanceStamps[other.getIndex()] = other.getAppearanceStamp();
+	}
+
 	/**
 	 * Checks if the player has designed their character.
 	 * 
@@ -466,6 +573,18 @@ public final class Player extends Character {
 		excessivePlayers = false;
 	}
 
+	/**
+	 * Forgets everything this player's client has been told about the world, so that the next pulse describes it from
+	 * scratch: the region is sent again, every local character is removed and re-added, and every appearance is sent
+	 * again. This must be called if synchronization events sent to this player were dropped.
+	 */
+	public void resynchronize() {
+		getLocalPlayerList().clear();
+		getLocalNpcList().clear();
+		Arrays.fill(knownAppearanceStamps, 0);
+		lastKnownRegion = null;
+	}
+
 	/**
 	 * Resets this player's viewing distance.
 	 */
@@ -476,18 +595,40 @@ public final class Player extends Character {
 	@Override
 	public void send(Event event) {
 		if (isActive()) {
-			if (!queuedEvents.isEmpty()) {
-				for (Event queuedEvent : queuedEvents) {
-					session.dispatchEvent(queuedEvent);
-				}
-				queuedEvents.clear();
-			}
+			sendQueuedEvents();
 			session.dispatchEvent(event);
 		} else {
 			queuedEvents.add(event);
 		}
 	}
 
+	/**
+	 * Sends an event, encoding it in the calling thread rather than in the thread which writes it to the channel (see
+	 * {@link GameSession#dispatchEncodedEvent(Event)}).
+	 * 
+	 * @param event The event.
+	 */
+	public void sendEncoded(Event event) {
+		if (isActive()) {
+			sendQueuedEvents();
+			session.dispatchEncodedEvent(event);
+		} else {
+			queuedEvents.add(event);
+		}
+	}
+
+	/**
+	 * Sends the events which were queued whilst this player was inactive.
+	 */
+	private void sendQueuedEvents() {
+		if (!queuedEvents.isEmpty()) {
+			for (Event queuedEvent : queuedEvents) {
+				session.dispatchEvent(queuedEvent);
+			}
+			queuedEvents.clear();
+		}
+	}
+
 	/**
 	 * Sends the initial events.
 	 */
@@ -536,7 +677,7 @@ public final class Player extends Character {
 	 */
 	public void setAppearance(Appearance appearance) {
 		this.appearance = appearance;
-		getBlockSet().add(SynchronizationBlock.createAppearanceBlock(this));
+		updateAppearance();
 	}
 
 	/**
@@ -555,6 +696,7 @@ public final class Player extends Character {
 	 */
 	public void setHeadIcon(int headIcon) {
 		this.headIcon = headIcon;
+		updateAppearance();
 	}
 
 	/**
@@ -582,6 +724,7 @@ public final class Player extends Character {
 	 */
 	public void setPrayerIcon(int prayerIcon) {
 		this.prayerIcon = prayerIcon;
+		updateAppearance();
 	}
 
 	/**
@@ -623,7 +766,7 @@ public final class Player extends Character {
 		if (!reconnecting) {
 			sendInitialEvents();
 		}
-		getBlockSet().add(SynchronizationBlock.createAppearanceBlock(this));
+		updateAppearance();
 	}
 
 	/**
@@ -635,12 +778,32 @@ public final class Player extends Character {
 		this.withdrawingNotes = withdrawingNotes;
 	}
 
+	@Override
+	public void setDefinition(NpcDefinition definition) {
+		super.setDefinition(definition);
+		updateAppearance();
+	}
+
 	@Override
 	public void teleport(Position position) {
 		super.teleport(position); // TODO put this in the same place as Character#teleport and WalkEventHandler!!
 		interfaceSet.close(); // TODO: should this be done if size == 0?
 	}
 
+	/**
+	 * Updates this player's appearance: a new appearance block is created and added to the block set, and the
+	 * appearance stamp is changed so that every client which had cached the old appearance is sent the new one. This
+	 * must be called whenever something which is displayed in the appearance block changes.
+	 */
+	public void updateAppearance() {
+		AppearanceBlock block = (AppearanceBlock) SynchronizationBlock.createAppearanceBlock(this);
+		synchronized (this) {
+			appearanceBlock = block;
+			appearanceStamp = nextAppearanceStamp.getAndIncrement();
+		}
+		getBlockSet().add(block);
+	}
+
 	@Override
 	public String toString() {
 		return Player.class.getName() + " [username=" + credentials.getUsername() + ", privilegeLevel="
@@ -4,6 +4,8 @@ import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.apollo.Service;
@@ -18,10 +20,13 @@ import org.apollo.game.model.def.ItemDefinition;
 import org.apollo.game.model.def.NpcDefinition;
 import org.apollo.game.model.def.ObjectDefinition;
 import org.apollo.game.model.obj.StaticObject;
+import org.apollo.game.model.region.RegionRepository;
+import org.apollo.game.profile.TickProfiler;
 import org.apollo.game.scheduling.ScheduledTask;
 import org.apollo.game.scheduling.Scheduler;
 import org.apollo.io.EquipmentDefinitionParser;
 import org.apollo.util.CharacterRepository;
+import org.apollo.util.NameUtil;
 import org.apollo.util.plugin.PluginManager;
 
 /**
@@ -86,6 +91,11 @@ public final class World {
 	 */
 	private final CharacterRepository<Npc> npcRepository = new CharacterRepository<Npc>(WorldConstants.MAXIMUM_NPCS);
 
+	/**
+	 * The {@link Player}s which are online, keyed by their name encoded with {@link NameUtil#encodeBase37(String)}.
+	 */
+	private final Map<Long, Player> players = new ConcurrentHashMap<Long, Player>();
+
 	/**
 	 * The {@link CharacterRepository} of {@link Player}s.
 	 */
@@ -95,6 +105,11 @@ public final class World {
 	// TODO: better place than here!!
 	private PluginManager pluginManager;
 
+	/**
+	 * The {@link RegionRepository}.
+	 */
+	private final RegionRepository regionRepository = new RegionRepository();
+
 	/**
 	 * The scheduler.
 	 */
@@ -126,6 +141,39 @@ public final class World {
 		return npcRepository;
 	}
 
+	/**
+	 * Gets the player with the specified index.
+	 * 
+	 * @param index The player's index.
+	 * @return The player, or {@code null} if there is no player with the index.
+	 */
+	public Player getPlayer(int index) {
+		return playerRepository.get(index);
+	}
+
+	/**
+	 * Gets the player with the specified encoded name.
+	 * 
+	 * @param encodedName The player's name, encoded with {@link NameUtil#encodeBase37(String)}.
+	 * @return The player, or {@code null} if they are not online.
+	 */
+	public Player getPlayer(long encodedName) {
+		return players.get(encodedName);
+	}
+
+	/**
+	 * Gets the player with the specified name, ignoring case.
+	 * 
+	 * @param name The player's name.
+	 * @return The player, or {@code null} if they are not online.
+	 */
+	public Player getPlayer(String name) {
+		if (name.length() > 12) {
+			return null;
+		}
+		return getPlayer(NameUtil.encodeBase37(name));
+	}
+
 	/**
 	 * Gets the character repository. NOTE: {@link CharacterRepository#add(Character)} and
 	 * {@link CharacterRepository#remove(Character)} should not be called directly! These mutation methods are not
@@ -149,6 +197,15 @@ public final class World {
 		return pluginManager;
 	}
 
+	/**
+	 * Gets the region repository.
+	 * 
+	 * @return The region repository.
+	 */
+	public RegionRepository getRegionRepository() {
+		return regionRepository;
+	}
+
 	/**
 	 * Initialises the world by loading definitions from the specified file system.
 	 * 
@@ -192,6 +249,16 @@ public final class World {
 		pluginManager = manager; // TODO move!!
 	}
 
+	/**
+	 * Checks if the player with the specified encoded name is online.
+	 * 
+	 * @param encodedName The player's name, encoded with {@link NameUtil#encodeBase37(String)}.
+	 * @return {@code true} if so, {@code false} if not.
+	 */
+	public boolean isPlayerOnline(long encodedName) {
+		return players.containsKey(encodedName);
+	}
+
 	/**
 	 * Checks if the specified player is online.
 	 * 
@@ -199,20 +266,19 @@ public final class World {
 	 * @return {@code true} if so, {@code false} if not.
 	 */
 	public boolean isPlayerOnline(String name) {
-		// TODO: use a hash set or map in the future?
-		for (Player player : playerRepository) {
-			if (player.getName().equalsIgnoreCase(name)) {
-				return true;
-			}
-		}
-		return false;
+		return getPlayer(name) != null;
 	}
 
 	/**
-	 * Calls the {@link Scheduler#pulse()} method.
+	 * Updates the activity of the regions in the {@link RegionRepository} and then calls the {@link Scheduler#pulse()}
+	 * method.
 	 */
 	public void pulse() {
+		TickProfiler profiler = TickProfiler.getProfiler();
+		regionRepository.updateActivity(playerRepository);
+		profiler.phase("regions");
 		scheduler.pulse();
+		profiler.phase("scheduler");
 	}
 
 	/**
@@ -224,6 +290,7 @@ public final class World {
 	public boolean register(final Npc npc) {
 		boolean success = npcRepository.add(npc);
 		if (success) {
+			regionRepository.add(npc);
 			logger.info("Registered npc: " + npc + " [online=" + npcRepository.size() + "]");
 		} else {
 			logger.warning("Failed to register npc, repository capacity reached: [online=" + npcRepository.size() + "]");
@@ -238,12 +305,14 @@ public final class World {
 	 * @return A {@link RegistrationStatus}.
 	 */
 	public RegistrationStatus register(final Player player) {
-		if (isPlayerOnline(player.getName())) {
+		if (isPlayerOnline(player.getEncodedName())) {
 			return RegistrationStatus.ALREADY_ONLINE;
 		}
 
 		boolean success = playerRepository.add(player);
 		if (success) {
+			players.put(player.getEncodedName(), player);
+			regionRepository.add(player);
 			logger.info("Registered player: " + player + " [online=" + playerRepository.size() + "]");
 			return RegistrationStatus.OK;
 		} else {
@@ -269,6 +338,7 @@ public final class World {
 	 */
 	public void unregister(Npc npc) {
 		if (npcRepository.remove(npc)) {
+			regionRepository.remove(npc);
 			logger.info("Unregistered npc: " + npc + " [online=" + npcRepository.size() + "]");
 		} else {
 			logger.warning("Could not find npc " + npc + " to unregister!");
@@ -282,6 +352,8 @@ public final class World {
 	 */
 	public void unregister(Player player) {
 		if (playerRepository.remove(player)) {
+			players.remove(player.getEncodedName());
+			regionRepository.remove(player);
 			logger.info("Unregistered player: " + player + " [online=" + playerRepository.size() + "]");
 		} else {
 			logger.warning("Could not find player to unregister: " + player + "!");
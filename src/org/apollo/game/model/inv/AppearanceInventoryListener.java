@@ -3,7 +3,6 @@ package org.apollo.game.model.inv;
 import org.apollo.game.model.Inventory;
 import org.apollo.game.model.Item;
 import org.apollo.game.model.Player;
-import org.apollo.game.sync.block.SynchronizationBlock;
 
 /**
  * An {@link InventoryListener} which updates the player's appearance when any items are updated.
@@ -40,7 +39,7 @@ public final class AppearanceInventoryListener extends InventoryAdapter {
 	 * Updates the player's appearance.
 	 */
 	private void update() {
-		player.getBlockSet().add(SynchronizationBlock.createAppearanceBlock(player));
+		player.updateAppearance();
 	}
 
 }
@@ -1,7 +1,23 @@
 package org.apollo.game.model.region;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apollo.game.model.Character;
+import org.apollo.game.model.Npc;
+import org.apollo.game.model.Player;
+
 /**
  * Represents an 8x8 region.
+ * <p>
+ * Each region keeps track of the {@link Player}s and {@link Npc}s currently standing in it, so that other code (e.g.
+ * client synchronization) only has to look at the characters in the regions around a position rather than every
+ * character in the world. The sets are concurrent as characters may move between regions from several threads at once
+ * when the {@link org.apollo.game.sync.ParallelClientSynchronizer} is in use.
+ * <p>
+ * A region is either active or dormant. A region is dormant if no player can see it, in which case the npcs inside it
+ * are not processed during client synchronization. See {@link RegionRepository#updateActivity(Iterable)}.
  * 
  * @author Graham
  */
@@ -12,4 +28,154 @@ public final class Region {
 	 */
 	public static final int REGION_SIZE = 8;
 
+	/**
+	 * A flag indicating if this region is active.
+	 */
+	private boolean active = false;
+
+	/**
+	 * The coordinates of this region.
+	 */
+	private final RegionCoordinates coordinates;
+
+	/**
+	 * The last pulse in which a player could see this region.
+	 */
+	private int lastViewed = -1;
+
+	/**
+	 * The npcs in this region.
+	 */
+	private final Set<Npc> npcs = Collections.newSetFromMap(new ConcurrentHashMap<Npc, Boolean>());
+
+	/**
+	 * The players in this region.
+	 */
+	private final Set<Player> players = Collections.newSetFromMap(new ConcurrentHashMap<Player, Boolean>());
+
+	/**
+	 * Creates the region.
+	 * 
+	 * @param coordinates The coordinates of the region.
+	 */
+	public Region(RegionCoordinates coordinates) {
+		this.coordinates = coordinates;
+	}
+
+	/**
+	 * Adds a character to this region.
+	 * 
+	 * @param character The character.
+	 */
+	public void addCharacter(Character character) {
+		if (character instanceof Player) {
+			players.add((Player) character);
+		} else if (character instanceof Npc) {
+			npcs.add((Npc) character);
+		}
+	}
+
+	/**
+	 * Gets the coordinates of this region.
+	 * 
+	 * @return The coordinates.
+	 */
+	public RegionCoordinates getCoordinates() {
+		return coordinates;
+	}
+
+	/**
+	 * Gets the npcs in this region. NOTE: the returned set is backed by this region and should not be modified
+	 * directly, use {@link RegionRepository} instead.
+	 * 
+	 * @return The npcs.
+	 */
+	public Set<Npc> getNpcs() {
+		return npcs;
+	}
+
+	/**
+	 * Gets the players in this region. NOTE: the returned set is backed by this region and should not be modified
+	 * directly, use {@link RegionRepository} instead.
+	 * 
+	 * @return The players.
+	 */
+	public Set<Player> getPlayers() {
+		return players;
+	}
+
+	/**
+	 * Checks if this region is active, i.e. if it was within the view of a player when region activity was last updated.
+	 * 
+	 * @return {@code true} if so, {@code false} if the region is dormant.
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Checks if this region contains no characters.
+	 * 
+	 * @return {@code true} if so, {@code false} if not.
+	 */
+	public boolean isEmpty() {
+		return players.isEmpty() && npcs.isEmpty();
+	}
+
+	/**
+	 * Removes a character from this region.
+	 * 
+	 * @param character The character.
+	 * @return {@code true} if the character was in this region, {@code false} if not.
+	 */
+	public boolean removeCharacter(Character character) {
+		if (character instanceof Player) {
+			return players.remove(character);
+		} else if (character instanceof Npc) {
+			return npcs.remove(character);
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return Region.class.getName() + " [coordinates=" + coordinates + ", active=" + active + ", players="
+				+ players.size() + ", npcs=" + npcs.size() + "]";
+	}
+
+	/**
+	 * Updates the activity of this region at the end of an activity update.
+	 * 
+	 * @param pulse The current pulse.
+	 * @return {@code true} if this region is now active, {@code false} if it is dormant.
+	 */
+	boolean updateActivity(int pulse) {
+		boolean viewed = lastViewed == pulse;
+		if (viewed && !active) {
+			wake();
+		}
+		active = viewed;
+		return active;
+	}
+
+	/**
+	 * Marks this region as viewed by a player in the current activity update.
+	 * 
+	 * @param pulse The current pulse.
+	 */
+	void view(int pulse) {
+		lastViewed = pulse;
+	}
+
+	/**
+	 * Wakes this region up, catching up on the post-synchronization work which was skipped for its npcs whilst it was
+	 * dormant.
+	 */
+	private void wake() {
+		for (Npc npc : npcs) {
+			npc.setTeleporting(false);
+			npc.resetBlockSet();
+		}
+	}
+
 }
@@ -72,4 +72,9 @@ public final class RegionCoordinates {
 		return hash;
 	}
 
+	@Override
+	public String toString() {
+		return RegionCoordinates.class.getName() + " [x=" + x + ", y=" + y + "]";
+	}
+
 }
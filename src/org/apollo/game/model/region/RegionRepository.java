@@ -1,10 +1,195 @@
 package org.apollo.game.model.region;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apollo.game.model.Character;
+import org.apollo.game.model.Player;
+import org.apollo.game.model.Position;
+
 /**
- * Manages the repository of regions.
+ * Manages the repository of regions. Regions are created lazily the first time they are requested and are never
+ * removed, so a {@link Region} object for a set of coordinates is always the same instance.
+ * <p>
+ * Characters should be added to this repository when they are registered with the world, moved whenever their position
+ * changes and removed when they are unregistered - {@link org.apollo.game.model.World} and
+ * {@link org.apollo.game.model.Character} already do this.
  * 
  * @author Graham
  */
-public class RegionRepository {
+public final class RegionRepository {
+
+	/**
+	 * The distance, in tiles, from a player within which regions are kept active. This is one region larger than the
+	 * maximum viewing distance so that regions the player walks or runs into before the next update are already awake.
+	 */
+	private static final int ACTIVITY_DISTANCE = Position.MAX_DISTANCE + Region.REGION_SIZE;
+
+	/**
+	 * The number of active regions after the last activity update.
+	 */
+	private volatile int activeRegions = 0;
+
+	/**
+	 * The number of dormant regions which contain at least one npc after the last activity update.
+	 */
+	private volatile int dormantRegions = 0;
+
+	/**
+	 * The number of activity updates which have been performed.
+	 */
+	private int pulses = 0;
+
+	/**
+	 * The map of region coordinates to regions.
+	 */
+	private final ConcurrentMap<RegionCoordinates, Region> regions = new ConcurrentHashMap<RegionCoordinates, Region>();
+
+	/**
+	 * Adds a character to the region it is currently standing in.
+	 * 
+	 * @param character The character.
+	 */
+	public void add(Character character) {
+		fromPosition(character.getPosition()).addCharacter(character);
+	}
+
+	/**
+	 * Gets the number of active regions, as of the last activity update.
+	 * 
+	 * @return The number of active regions.
+	 */
+	public int getActiveRegionCount() {
+		return activeRegions;
+	}
+
+	/**
+	 * Gets the number of dormant regions which contain at least one npc, as of the last activity update.
+	 * 
+	 * @return The number of dormant regions.
+	 */
+	public int getDormantRegionCount() {
+		return dormantRegions;
+	}
+
+	/**
+	 * Gets the region with the specified coordinates, creating it if it does not exist.
+	 * 
+	 * @param coordinates The coordinates.
+	 * @return The region.
+	 */
+	public Region get(RegionCoordinates coordinates) {
+		Region region = regions.get(coordinates);
+		if (region == null) {
+			region = new Region(coordinates);
+			Region existing = regions.putIfAbsent(coordinates, region);
+			if (existing != null) {
+				region = existing;
+			}
+		}
+		return region;
+	}
+
+	/**
+	 * Gets the region which contains the specified position.
+	 * 
+	 * @param position The position.
+	 * @return The region.
+	 */
+	public Region fromPosition(Position position) {
+		return get(new RegionCoordinates(position.getCentralRegionX(), position.getCentralRegionY()));
+	}
+
+	/**
+	 * Gets the regions which could contain a position within the specified distance of the centre position (as
+	 * determined by {@link Position#isWithinDistance(Position, int)}). The regions are ordered from the top-left to the
+	 * bottom-right.
+	 * 
+	 * @param centre The centre position.
+	 * @param distance The distance, in tiles.
+	 * @return The list of surrounding regions.
+	 */
+	public List<Region> getSurroundingRegions(Position centre, int distance) {
+		int minX = Math.max(centre.getX() - distance, 0) / Region.REGION_SIZE;
+		int minY = Math.max(centre.getY() - distance, 0) / Region.REGION_SIZE;
+		int maxX = (centre.getX() + distance) / Region.REGION_SIZE;
+		int maxY = (centre.getY() + distance) / Region.REGION_SIZE;
+
+		List<Region> surrounding = new ArrayList<Region>((maxX - minX + 1) * (maxY - minY + 1));
+		for (int x = minX; x <= maxX; x++) {
+			for (int y = minY; y <= maxY; y++) {
+				Region region = regions.get(new RegionCoordinates(x, y));
+				if (region != null) {
+					surrounding.add(region);
+				}
+			}
+		}
+		return surrounding;
+	}
+
+	/**
+	 * Moves a character between regions, if its old and new positions are in different regions.
+	 * 
+	 * @param character The character.
+	 * @param oldPosition The position the character was at.
+	 * @param newPosition The position the character is now at.
+	 */
+	public void move(Character character, Position oldPosition, Position newPosition) {
+		if (oldPosition.getCentralRegionX() != newPosition.getCentralRegionX()
+				|| oldPosition.getCentralRegionY() != newPosition.getCentralRegionY()) {
+			fromPosition(oldPosition).removeCharacter(character);
+			fromPosition(newPosition).addCharacter(character);
+		}
+	}
+
+	/**
+	 * Removes a character from the region it is currently standing in.
+	 * 
+	 * @param character The character.
+	 */
+	public void remove(Character character) {
+		fromPosition(character.getPosition()).removeCharacter(character);
+	}
+
+	/**
+	 * Updates the activity of every region: regions which can be seen by at least one of the specified players become
+	 * (or stay) active, and all other regions become dormant. Regions which wake up have the work that was skipped whilst
+	 * they were dormant caught up.
+	 * <p>
+	 * This must be called from the game thread, once per pulse, before any npcs are processed.
+	 * 
+	 * @param players The players.
+	 */
+	public void updateActivity(Iterable<Player> players) {
+		int pulse = ++pulses;
+		for (Player player : players) {
+			for (Region region : getSurroundingRegions(player.getPosition(), ACTIVITY_DISTANCE)) {
+				region.view(pulse);
+			}
+		}
+
+		int active = 0, dormant = 0;
+		for (Region region : regions.values()) {
+			if (region.updateActivity(pulse)) {
+				active++;
+			} else if (!region.getNpcs().isEmpty()) {
+				dormant++;
+			}
+		}
+
+		activeRegions = active;
+		dormantRegions = dormant;
+	}
+
+	/**
+	 * Gets the number of regions which have been created.
+	 * 
+	 * @return The number of regions.
+	 */
+	public int size() {
+		return regions.size();
+	}
 
 }
@@ -4,7 +4,6 @@ import org.apollo.game.event.impl.UpdateSkillEvent;
 import org.apollo.game.model.Player;
 import org.apollo.game.model.Skill;
 import org.apollo.game.model.SkillSet;
-import org.apollo.game.sync.block.SynchronizationBlock;
 
 /**
  * A {@link SkillListener} which synchronizes the state of a {@link SkillSet} with a client.
@@ -29,7 +28,7 @@ public final class SynchronizationSkillListener extends SkillAdapter {
 
 	@Override
 	public void levelledUp(SkillSet set, int id, Skill skill) {
-		player.getBlockSet().add(SynchronizationBlock.createAppearanceBlock(player));
+		player.updateAppearance();
 	}
 
 	@Override
@@ -0,0 +1,152 @@
+package org.apollo.game.profile;
+
+import java.util.Arrays;
+
+/**
+ * A rolling histogram of the time spent in a single phase of a pulse. The last {@link #WINDOW} samples are kept in a
+ * ring buffer, so recording a sample is cheap and percentiles are only computed when they are requested (e.g. by a JMX
+ * client).
+ * 
+ * @author Graham
+ */
+public final class PhaseHistogram implements PhaseHistogramMBean {
+
+	/**
+	 * The number of samples kept by each histogram: ten minutes of pulses.
+	 */
+	public static final int WINDOW = 1000;
+
+	/**
+	 * The time spent in this phase during the current pulse, in nanoseconds.
+	 */
+	private long current = 0;
+
+	/**
+	 * The time spent in this phase during the last complete pulse, in nanoseconds.
+	 */
+	private long last = 0;
+
+	/**
+	 * The name of the phase.
+	 */
+	private final String name;
+
+	/**
+	 * The position in the ring buffer at which the next sample will be stored.
+	 */
+	private int position = 0;
+
+	/**
+	 * The ring buffer of samples, in nanoseconds.
+	 */
+	private final long[] samples = new long[WINDOW];
+
+	/**
+	 * The number of samples which have been recorded, up to the size of the window.
+	 */
+	private int size = 0;
+
+	/**
+	 * Creates the phase histogram.
+	 * 
+	 * @param name The name of the phase.
+	 */
+	public PhaseHistogram(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Adds time to the current pulse. This must only be called by the {@link TickProfiler}.
+	 * 
+	 * @param nanos The time, in nanoseconds.
+	 */
+	void add(long nanos) {
+		current += nanos;
+	}
+
+	/**
+	 * Records the time spent in the current pulse as a sample and resets it. This must only be called by the
+	 * {@link TickProfiler}.
+	 * 
+	 * @return The time spent in the current pulse, in nanoseconds.
+	 */
+	synchronized long complete() {
+		long nanos = last = current;
+		current = 0;
+		record(nanos);
+		return nanos;
+	}
+
+	@Override
+	public synchronized int getCount() {
+		return size;
+	}
+
+	/**
+	 * Gets the time spent in this phase during the last complete pulse.
+	 * 
+	 * @return The time, in nanoseconds.
+	 */
+	long getLastSample() {
+		return last;
+	}
+
+	@Override
+	public long getMax() {
+		return percentile(1);
+	}
+
+	/**
+	 * Gets the name of the phase.
+	 * 
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getP50() {
+		return percentile(0.5);
+	}
+
+	@Override
+	public long getP99() {
+		return percentile(0.99);
+	}
+
+	/**
+	 * Gets the time below which the specified fraction of the samples in the window fall.
+	 * 
+	 * @param fraction The fraction, between 0 and 1 (inclusive).
+	 * @return The time, in microseconds, or 0 if there are no samples.
+	 */
+	public long percentile(double fraction) {
+		long[] sorted;
+		synchronized (this) {
+			if (size == 0) {
+				return 0;
+			}
+			sorted = Arrays.copyOf(samples, size);
+		}
+
+		Arrays.sort(sorted);
+		int index = Math.max((int) Math.ceil(fraction * sorted.length) - 1, 0);
+		return sorted[index] / 1000;
+	}
+
+	/**
+	 * Records a sample directly, rather than as the time spent in a pulse. This allows the histogram to be used for
+	 * times which are not phases of a pulse, such as the latency of logins.
+	 * 
+	 * @param nanos The time, in nanoseconds.
+	 */
+	public synchronized void record(long nanos) {
+		samples[position] = nanos;
+		position = (position + 1) % WINDOW;
+		if (size < WINDOW) {
+			size++;
+		}
+	}
+
+}
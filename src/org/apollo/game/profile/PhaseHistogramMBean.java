@@ -0,0 +1,39 @@
+package org.apollo.game.profile;
+
+/**
+ * The management interface of a {@link PhaseHistogram}. All times are in microseconds and cover the pulses in the
+ * rolling window of the histogram.
+ * 
+ * @author Graham
+ */
+public interface PhaseHistogramMBean {
+
+	/**
+	 * Gets the number of pulses in the window.
+	 * 
+	 * @return The number of pulses.
+	 */
+	public int getCount();
+
+	/**
+	 * Gets the longest time.
+	 * 
+	 * @return The time, in microseconds.
+	 */
+	public long getMax();
+
+	/**
+	 * Gets the median time.
+	 * 
+	 * @return The time, in microseconds.
+	 */
+	public long getP50();
+
+	/**
+	 * Gets the 99th percentile time.
+	 * 
+	 * @return The time, in microseconds.
+	 */
+	public long getP99();
+
+}
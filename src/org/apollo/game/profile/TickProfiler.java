@@ -0,0 +1,280 @@
+package org.apollo.game.profile;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apollo.game.GameConstants;
+
+/**
+ * Profiles each pulse of the {@link org.apollo.game.GameService}. A pulse is split into named phases: the code which
+ * runs the pulse calls {@link #begin()}, then {@link #phase(String)} at the end of each phase, and finally
+ * {@link #end()}. The time spent in each phase (and in the whole pulse) is kept in a rolling {@link PhaseHistogram},
+ * which is published through JMX under {@code org.apollo:type=TickProfiler}.
+ * <p>
+ * Code which does work on behalf of an individual player or task can also report how long that took with
+ * {@link #sample(String, Object, long)}. If a pulse goes over the budget of {@link GameConstants#PULSE_DELAY}
+ * milliseconds, a single line is logged naming the slowest phases and samples of that pulse.
+ * <p>
+ * The profiler only calls {@link System#nanoTime()} once per phase or sample and does not allocate during a pulse
+ * (except the first time a phase is seen), so it is always enabled. It must only be used from the game thread.
+ * 
+ * @author Graham
+ */
+public final class TickProfiler implements TickProfilerMBean {
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = Logger.getLogger(TickProfiler.class.getName());
+
+	/**
+	 * The number of phases and samples named when a slow pulse is logged.
+	 */
+	private static final int WORST_COUNT = 3;
+
+	/**
+	 * The profiler.
+	 */
+	private static final TickProfiler profiler = new TickProfiler();
+
+	/**
+	 * Gets the profiler.
+	 * 
+	 * @return The profiler.
+	 */
+	public static TickProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Formats a time in nanoseconds as milliseconds.
+	 * 
+	 * @param nanos The time, in nanoseconds.
+	 * @return The formatted time.
+	 */
+	private static String toMillis(long nanos) {
+		return String.format(Locale.ENGLISH, "%.1fms", nanos / 1000000.0);
+	}
+
+	/**
+	 * The time at which the last phase ended (or the pulse began), in nanoseconds.
+	 */
+	private long mark;
+
+	/**
+	 * The histograms of the phases, in the order in which they were first seen.
+	 */
+	private final Map<String, PhaseHistogram> phases = new LinkedHashMap<String, PhaseHistogram>();
+
+	/**
+	 * The phases of the slowest samples in the current pulse.
+	 */
+	private final String[] samplePhases = new String[WORST_COUNT];
+
+	/**
+	 * The subjects of the slowest samples in the current pulse.
+	 */
+	private final Object[] sampleSubjects = new Object[WORST_COUNT];
+
+	/**
+	 * The times of the slowest samples in the current pulse, in nanoseconds, in descending order.
+	 */
+	private final long[] sampleTimes = new long[WORST_COUNT];
+
+	/**
+	 * The number of pulses which have gone over the budget.
+	 */
+	private volatile long slowTicks = 0;
+
+	/**
+	 * The time at which the current pulse began, in nanoseconds.
+	 */
+	private long start;
+
+	/**
+	 * The histogram of whole pulses.
+	 */
+	private final PhaseHistogram ticks = new PhaseHistogram("tick");
+
+	/**
+	 * Creates the profiler and registers it with the platform MBean server.
+	 */
+	private TickProfiler() {
+		register("org.apollo:type=TickProfiler", this);
+		register("org.apollo:type=TickProfiler,phase=tick", ticks);
+	}
+
+	/**
+	 * Begins a pulse.
+	 */
+	public void begin() {
+		start = mark = System.nanoTime();
+		for (int index = 0; index < WORST_COUNT; index++) {
+			samplePhases[index] = null;
+			sampleSubjects[index] = null;
+			sampleTimes[index] = 0;
+		}
+	}
+
+	/**
+	 * Ends the pulse, recording the samples of every phase and logging the pulse if it went over the budget.
+	 */
+	public void end() {
+		long end = System.nanoTime();
+		ticks.add(end - start);
+		long total = ticks.complete();
+
+		for (PhaseHistogram phase : phases.values()) {
+			phase.complete();
+		}
+
+		if (total > GameConstants.PULSE_DELAY * 1000000L) {
+			slowTicks++;
+			logger.warning(describe(total));
+		}
+	}
+
+	/**
+	 * Describes a slow pulse.
+	 * 
+	 * @param total The duration of the pulse, in nanoseconds.
+	 * @return The description.
+	 */
+	private String describe(long total) {
+		StringBuilder builder = new StringBuilder("Slow tick: duration=").append(toMillis(total)).append(" budget=")
+				.append(GameConstants.PULSE_DELAY).append("ms phases=");
+
+		List<PhaseHistogram> worst = new ArrayList<PhaseHistogram>(phases.size());
+		for (PhaseHistogram phase : phases.values()) {
+			worst.add(phase);
+		}
+		Collections.sort(worst, new Comparator<PhaseHistogram>() {
+
+			@Override
+			public int compare(PhaseHistogram first, PhaseHistogram second) {
+				return Long.compare(second.getLastSample(), first.getLastSample());
+			}
+
+		});
+
+		for (int index = 0; index < Math.min(WORST_COUNT, worst.size()); index++) {
+			PhaseHistogram phase = worst.get(index);
+			builder.append(index == 0 ? "" : ",").append(phase.getName()).append(':')
+					.append(toMillis(phase.getLastSample()));
+		}
+
+		builder.append(" worst=");
+		for (int index = 0; index < WORST_COUNT && sampleSubjects[index] != null; index++) {
+			Object subject = sampleSubjects[index];
+			String name = subject instanceof Class ? ((Class<?>) subject).getSimpleName() : subject.toString();
+			builder.append(index == 0 ? "" : ",").append(samplePhases[index]).append('/').append(name).append(':')
+					.append(toMillis(sampleTimes[index]));
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public int getBudget() {
+		return GameConstants.PULSE_DELAY;
+	}
+
+	/**
+	 * Gets the histogram of the specified phase.
+	 * 
+	 * @param name The name of the phase.
+	 * @return The histogram, or {@code null} if the phase has never been seen.
+	 */
+	public PhaseHistogram getHistogram(String name) {
+		return phases.get(name);
+	}
+
+	@Override
+	public long getSlowTicks() {
+		return slowTicks;
+	}
+
+	/**
+	 * Gets the histogram of whole pulses.
+	 * 
+	 * @return The histogram.
+	 */
+	public PhaseHistogram getTickHistogram() {
+		return ticks;
+	}
+
+	/**
+	 * Ends a phase: the time since the last phase ended (or the pulse began) is added to the named phase.
+	 * 
+	 * @param name The name of the phase.
+	 */
+	public void phase(String name) {
+		long now = System.nanoTime();
+		PhaseHistogram phase = phases.get(name);
+		if (phase == null) {
+			phase = new PhaseHistogram(name);
+			phases.put(name, phase);
+			register("org.apollo:type=TickProfiler,phase=" + name, phase);
+		}
+
+		phase.add(now - mark);
+		mark = now;
+	}
+
+	/**
+	 * Registers an object with the platform MBean server.
+	 * 
+	 * @param name The object name.
+	 * @param object The object.
+	 */
+	private void register(String name, Object object) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(name);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(object, objectName);
+			}
+		} catch (JMException e) {
+			logger.log(Level.WARNING, "Failed to register MBean " + name + ".", e);
+		}
+	}
+
+	/**
+	 * Reports the time taken by a single subject (e.g. a player or a task) within a phase of the current pulse. Only
+	 * the slowest samples are kept, to be named if the pulse goes over the budget.
+	 * 
+	 * @param phase The name of the phase.
+	 * @param subject The subject. If this is a {@link Class}, its simple name is used to describe it, otherwise its
+	 *            string representation is used. Neither is computed unless the pulse is logged.
+	 * @param nanos The time taken, in nanoseconds.
+	 */
+	public void sample(String phase, Object subject, long nanos) {
+		int index = WORST_COUNT - 1;
+		if (nanos <= sampleTimes[index]) {
+			return;
+		}
+
+		while (index > 0 && nanos > sampleTimes[index - 1]) {
+			samplePhases[index] = samplePhases[index - 1];
+			sampleSubjects[index] = sampleSubjects[index - 1];
+			sampleTimes[index] = sampleTimes[index - 1];
+			index--;
+		}
+
+		samplePhases[index] = phase;
+		sampleSubjects[index] = subject;
+		sampleTimes[index] = nanos;
+	}
+
+}
@@ -0,0 +1,24 @@
+package org.apollo.game.profile;
+
+/**
+ * The management interface of the {@link TickProfiler}.
+ * 
+ * @author Graham
+ */
+public interface TickProfilerMBean {
+
+	/**
+	 * Gets the time budget of a pulse.
+	 * 
+	 * @return The budget, in milliseconds.
+	 */
+	public int getBudget();
+
+	/**
+	 * Gets the number of pulses which have gone over the budget since the server started.
+	 * 
+	 * @return The number of pulses.
+	 */
+	public long getSlowTicks();
+
+}
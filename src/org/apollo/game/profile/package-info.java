@@ -0,0 +1,4 @@
+/**
+ * Contains classes which profile each pulse of the game service.
+ */
+package org.apollo.game.profile;
@@ -6,6 +6,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 
+import org.apollo.game.profile.TickProfiler;
+
 /**
  * A class which manages {@link ScheduledTask}s.
  * 
@@ -32,9 +34,12 @@ public final class Scheduler {
 			tasks.add(task);
 		}
 
+		TickProfiler profiler = TickProfiler.getProfiler();
 		for (Iterator<ScheduledTask> it = tasks.iterator(); it.hasNext();) {
 			task = it.next();
+			long start = System.nanoTime();
 			task.pulse();
+			profiler.sample("scheduler", task.getClass(), System.nanoTime() - start);
 			if (!task.isRunning()) {
 				it.remove();
 			}
@@ -1,21 +1,37 @@
 package org.apollo.game.scheduling.impl;
 
 import org.apollo.game.model.Character;
+import org.apollo.game.model.Npc;
+import org.apollo.game.model.World;
 import org.apollo.game.scheduling.ScheduledTask;
 
 /**
  * A {@link ScheduledTask} which normalizes the skills of a player: gradually brings them back to their normal value as
  * specified by the experience.
+ * <p>
+ * Npcs in dormant regions are not normalized. Instead, the number of skipped normalizations is recorded and caught up
+ * the next time the task executes whilst the npc's region is active.
  * 
  * @author Graham
  */
 public final class SkillNormalizationTask extends ScheduledTask {
 
+	/**
+	 * The maximum number of skipped normalizations to catch up on. A skill level can never be more than this many
+	 * levels away from its normal value, so any further normalizations would have no effect.
+	 */
+	private static final int MAXIMUM_SKIPPED = 99;
+
 	/**
 	 * The character.
 	 */
 	private final Character character;
 
+	/**
+	 * The number of normalizations skipped whilst the character was in a dormant region.
+	 */
+	private int skipped = 0;
+
 	/**
 	 * Creates the skill normalization task.
 	 * 
@@ -30,8 +46,17 @@ public final class SkillNormalizationTask extends ScheduledTask {
 	public void execute() {
 		if (!character.isActive()) { // TODO is this check okay for this? an NPC could be temporarily removed from list
 			stop();
+		} else if (character instanceof Npc
+				&& !World.getWorld().getRegionRepository().fromPosition(character.getPosition()).isActive()) {
+			if (skipped < MAXIMUM_SKIPPED) {
+				skipped++;
+			}
 		} else {
-			character.getSkillSet().normalize();
+			int normalizations = skipped + 1;
+			skipped = 0;
+			for (int i = 0; i < normalizations; i++) {
+				character.getSkillSet().normalize();
+			}
 		}
 	}
 
@@ -0,0 +1,109 @@
+package org.apollo.game.sync;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the {@link org.apollo.game.sync.block.AppearanceBlock}s which were not sent during client synchronization
+ * because the observing client had already cached the appearance, and the number of bytes that this saved.
+ * <p>
+ * The counters are updated by the synchronization tasks (possibly from several threads at once) and rolled over by the
+ * {@link ClientSynchronizer} at the end of every pulse, so the values returned by the getters are those of the last
+ * complete pulse.
+ * 
+ * @author Graham
+ */
+public final class AppearanceCacheStatistics {
+
+	/**
+	 * The statistics.
+	 */
+	private static final AppearanceCacheStatistics statistics = new AppearanceCacheStatistics();
+
+	/**
+	 * Gets the statistics.
+	 * 
+	 * @return The statistics.
+	 */
+	public static AppearanceCacheStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * The number of blocks skipped in the current pulse.
+	 */
+	private final AtomicInteger blocks = new AtomicInteger();
+
+	/**
+	 * The number of bytes saved in the current pulse.
+	 */
+	private final AtomicInteger bytes = new AtomicInteger();
+
+	/**
+	 * The number of blocks skipped in the last pulse.
+	 */
+	private volatile int lastBlocks = 0;
+
+	/**
+	 * The number of bytes saved in the last pulse.
+	 */
+	private volatile int lastBytes = 0;
+
+	/**
+	 * The total number of bytes saved.
+	 */
+	private volatile long totalBytes = 0;
+
+	/**
+	 * Creates the statistics.
+	 */
+	private AppearanceCacheStatistics() {
+
+	}
+
+	/**
+	 * Gets the number of appearance blocks that were skipped in the last pulse.
+	 * 
+	 * @return The number of blocks.
+	 */
+	public int getBlocksSkipped() {
+		return lastBlocks;
+	}
+
+	/**
+	 * Gets the number of bytes saved in the last pulse. Blocks which have never been encoded are not counted.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public int getBytesSaved() {
+		return lastBytes;
+	}
+
+	/**
+	 * Gets the total number of bytes saved since the server started.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public long getTotalBytesSaved() {
+		return totalBytes;
+	}
+
+	/**
+	 * Rolls the counters over at the end of a pulse. This must only be called by the {@link ClientSynchronizer}.
+	 */
+	void pulse() {
+		lastBlocks = blocks.getAndSet(0);
+		lastBytes = bytes.getAndSet(0);
+		totalBytes += lastBytes;
+	}
+
+	/**
+	 * Records that an appearance block was skipped.
+	 * 
+	 * @param length The encoded length of the block.
+	 */
+	public void skipped(int length) {
+		blocks.incrementAndGet();
+		bytes.addAndGet(length);
+	}
+
+}
@@ -1,19 +1,78 @@
 package org.apollo.game.sync;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apollo.game.model.Npc;
+import org.apollo.game.model.World;
+import org.apollo.game.model.region.Region;
+import org.apollo.game.model.region.RegionRepository;
+import org.apollo.util.CharacterRepository;
+
 /**
  * The {@link ClientSynchronizer} manages the update sequence which keeps clients synchronized with the in-game world.
  * There are two implementations distributed with Apollo: {@link SequentialClientSynchronizer} which is optimized for a
  * single-core/single-processor machine and {@link ParallelClientSynchronizer} which is optimized for a multi-processor/
- * multi-core machines.
+ * multi-core machines. The {@link ForkJoinClientSynchronizer} is an alternative to the latter which processes characters
+ * in chunks on a work-stealing pool, with fewer barriers per pulse.
  * <p>
- * To switch between the two synchronizer implementations, edit the {@code synchronizers.xml} configuration file. The
+ * To switch between the synchronizer implementations, edit the {@code synchronizer.xml} configuration file. The
  * default implementation is currently {@link ParallelClientSynchronizer} as the vast majority of machines today have
  * two or more cores.
+ * <p>
+ * The same file controls whether the synchronization events are encoded by the synchronizer itself (i.e. by the
+ * thread pool of the {@link ParallelClientSynchronizer}), which is the default, or when the sessions are flushed at the
+ * end of the pulse. As the game thread flushes every session, the latter encodes every event on that one thread.
  * 
  * @author Graham
  */
 public abstract class ClientSynchronizer {
 
+	/**
+	 * A flag indicating if synchronization events are encoded by the synchronizer.
+	 */
+	private boolean encoding = true;
+
+	/**
+	 * Gets the npcs which should be processed this pulse. Npcs standing in dormant regions (see {@link Region}) are
+	 * skipped, as no player can see them.
+	 * 
+	 * @return The list of npcs in active regions.
+	 */
+	protected final List<Npc> getActiveNpcs() {
+		World world = World.getWorld();
+		CharacterRepository<Npc> npcs = world.getNpcRepository();
+		RegionRepository regions = world.getRegionRepository();
+
+		List<Npc> active = new ArrayList<Npc>(npcs.size());
+		for (Npc npc : npcs) {
+			if (regions.fromPosition(npc.getPosition()).isActive()) {
+				active.add(npc);
+			}
+		}
+		return active;
+	}
+
+	/**
+	 * Checks if synchronization events are encoded by this synchronizer, rather than by the game thread when it flushes
+	 * the sessions.
+	 * 
+	 * @return {@code true} if so, {@code false} if not.
+	 */
+	public final boolean isEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * Sets whether synchronization events are encoded by this synchronizer.
+	 * 
+	 * @param encoding {@code true} if the synchronizer should encode the events, {@code false} if the game thread
+	 *            should.
+	 */
+	public final void setEncoding(boolean encoding) {
+		this.encoding = encoding;
+	}
+
 	/**
 	 * Synchronizes the state of the clients with the state of the server.
 	 */
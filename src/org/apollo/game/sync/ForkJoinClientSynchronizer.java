@@ -0,0 +1,314 @@
+package org.apollo.game.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apollo.game.model.Npc;
+import org.apollo.game.model.Player;
+import org.apollo.game.model.World;
+import org.apollo.game.profile.TickProfiler;
+import org.apollo.game.sync.task.NpcSynchronizationTask;
+import org.apollo.game.sync.task.PlayerSynchronizationTask;
+import org.apollo.game.sync.task.PostNpcSynchronizationTask;
+import org.apollo.game.sync.task.PostPlayerSynchronizationTask;
+import org.apollo.game.sync.task.PreNpcSynchronizationTask;
+import org.apollo.game.sync.task.PrePlayerSynchronizationTask;
+
+/**
+ * An implementation of {@link ClientSynchronizer} which runs in a work-stealing {@link ForkJoinPool}. Rather than
+ * submitting a task per character per phase like the {@link ParallelClientSynchronizer}, each {@link Phase} splits the
+ * characters into contiguous chunks of {@link #CHUNK_SIZE} which are processed by a single worker, and phases which do
+ * not depend on each other are fused so that there are only three barriers per pulse:
+ * <ol>
+ * <li>pre-synchronization of players and npcs (movement, region changes);</li>
+ * <li>player and npc synchronization for each player;</li>
+ * <li>post-synchronization resets of players and npcs.</li>
+ * </ol>
+ * The wall time of each phase is recorded and the averages are logged every {@link #REPORT_INTERVAL} pulses.
+ * 
+ * @author Graham
+ */
+public final class ForkJoinClientSynchronizer extends ClientSynchronizer {
+
+	/**
+	 * A fused phase of synchronization. Every phase must complete before the next one starts.
+	 * 
+	 * @author Graham
+	 */
+	public enum Phase {
+
+		/**
+		 * The pre-synchronization phase for players and npcs.
+		 */
+		PRE_SYNCHRONIZATION("sync-pre"),
+
+		/**
+		 * The player and npc synchronization phase.
+		 */
+		SYNCHRONIZATION("sync-player-npc"),
+
+		/**
+		 * The post-synchronization phase for players and npcs.
+		 */
+		POST_SYNCHRONIZATION("sync-post");
+
+		/**
+		 * The name of the phase reported to the {@link TickProfiler}.
+		 */
+		private final String profilerName;
+
+		/**
+		 * Creates the phase.
+		 * 
+		 * @param profilerName The name of the phase reported to the {@link TickProfiler}.
+		 */
+		private Phase(String profilerName) {
+			this.profilerName = profilerName;
+		}
+
+		/**
+		 * Gets the name of the phase reported to the {@link TickProfiler}.
+		 * 
+		 * @return The name.
+		 */
+		public String getProfilerName() {
+			return profilerName;
+		}
+
+	}
+
+	/**
+	 * A {@link RecursiveAction} which runs a phase for a range of characters, splitting the range in half until it is no
+	 * larger than {@link ForkJoinClientSynchronizer#CHUNK_SIZE}. Indices below the number of players refer to players,
+	 * and the remaining indices refer to npcs.
+	 * 
+	 * @author Graham
+	 */
+	private final class ChunkTask extends RecursiveAction {
+
+		/**
+		 * The generated serial version UID.
+		 */
+		private static final long serialVersionUID = -3542317407566113367L;
+
+		/**
+		 * The first index in the range (inclusive).
+		 */
+		private final int from;
+
+		/**
+		 * The npcs.
+		 */
+		private final List<Npc> npcs;
+
+		/**
+		 * The phase.
+		 */
+		private final Phase phase;
+
+		/**
+		 * The players.
+		 */
+		private final List<Player> players;
+
+		/**
+		 * The last index in the range (exclusive).
+		 */
+		private final int to;
+
+		/**
+		 * Creates the chunk task.
+		 * 
+		 * @param phase The phase.
+		 * @param players The players.
+		 * @param npcs The npcs.
+		 * @param from The first index in the range (inclusive).
+		 * @param to The last index in the range (exclusive).
+		 */
+		public ChunkTask(Phase phase, List<Player> players, List<Npc> npcs, int from, int to) {
+			this.phase = phase;
+			this.players = players;
+			this.npcs = npcs;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > CHUNK_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ChunkTask(phase, players, npcs, from, middle), new ChunkTask(phase, players, npcs,
+						middle, to));
+				return;
+			}
+
+			int playerCount = players.size();
+			for (int index = from; index < to; index++) {
+				try {
+					if (index < playerCount) {
+						run(players.get(index));
+					} else {
+						run(npcs.get(index - playerCount));
+					}
+				} catch (Exception e) {
+					logger.log(Level.SEVERE, "Error synchronizing character during phase " + phase + ".", e);
+				}
+			}
+		}
+
+		/**
+		 * Runs this task's phase for an npc.
+		 * 
+		 * @param npc The npc.
+		 */
+		private void run(Npc npc) {
+			switch (phase) {
+			case PRE_SYNCHRONIZATION:
+				new PreNpcSynchronizationTask(npc).run();
+				break;
+			case POST_SYNCHRONIZATION:
+				new PostNpcSynchronizationTask(npc).run();
+				break;
+			default:
+				break;
+			}
+		}
+
+		/**
+		 * Runs this task's phase for a player.
+		 * 
+		 * @param player The player.
+		 */
+		private void run(Player player) {
+			switch (phase) {
+			case PRE_SYNCHRONIZATION:
+				new PrePlayerSynchronizationTask(player).run();
+				break;
+			case SYNCHRONIZATION:
+				new PlayerSynchronizationTask(player, isEncoding()).run();
+				new NpcSynchronizationTask(player, isEncoding()).run();
+				break;
+			case POST_SYNCHRONIZATION:
+				new PostPlayerSynchronizationTask(player).run();
+				break;
+			}
+		}
+
+	}
+
+	/**
+	 * The maximum number of characters processed by a single worker in one go.
+	 */
+	private static final int CHUNK_SIZE = 32;
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = Logger.getLogger(ForkJoinClientSynchronizer.class.getName());
+
+	/**
+	 * The number of pulses between each report of the average phase times.
+	 */
+	private static final int REPORT_INTERVAL = 1000;
+
+	/**
+	 * The wall time of each phase in the last pulse, in nanoseconds, indexed by the ordinal of the phase.
+	 */
+	private final long[] phaseTimes = new long[Phase.values().length];
+
+	/**
+	 * The work-stealing pool.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The number of pulses since the average phase times were last reported.
+	 */
+	private int pulses = 0;
+
+	/**
+	 * The total wall time of each phase since the average phase times were last reported, in nanoseconds.
+	 */
+	private final long[] totalPhaseTimes = new long[Phase.values().length];
+
+	/**
+	 * Creates the fork/join client synchronizer, backed by a pool with a parallelism equal to the number of processing
+	 * cores available.
+	 */
+	public ForkJoinClientSynchronizer() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		pool = new ForkJoinPool(processors, new ForkJoinWorkerThreadFactory() {
+
+			@Override
+			public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("ClientSynchronizer [id=" + thread.getPoolIndex() + "]");
+				return thread;
+			}
+
+		}, null, false);
+	}
+
+	/**
+	 * Gets the wall time of the specified phase in the last pulse.
+	 * 
+	 * @param phase The phase.
+	 * @return The time, in nanoseconds.
+	 */
+	public long getPhaseTime(Phase phase) {
+		return phaseTimes[phase.ordinal()];
+	}
+
+	/**
+	 * Runs a phase and records its wall time.
+	 * 
+	 * @param phase The phase.
+	 * @param players The players.
+	 * @param npcs The npcs.
+	 * @param count The number of characters to process.
+	 */
+	private void run(Phase phase, List<Player> players, List<Npc> npcs, int count) {
+		long start = System.nanoTime();
+		pool.invoke(new ChunkTask(phase, players, npcs, 0, count));
+		long elapsed = System.nanoTime() - start;
+
+		phaseTimes[phase.ordinal()] = elapsed;
+		totalPhaseTimes[phase.ordinal()] += elapsed;
+		TickProfiler.getProfiler().phase(phase.getProfilerName());
+	}
+
+	@Override
+	public void synchronize() {
+		List<Player> players = new ArrayList<Player>(World.getWorld().getPlayerRepository().size());
+		for (Player player : World.getWorld().getPlayerRepository()) {
+			players.add(player);
+		}
+		List<Npc> npcs = getActiveNpcs();
+		int characters = players.size() + npcs.size();
+
+		run(Phase.PRE_SYNCHRONIZATION, players, npcs, characters);
+		run(Phase.SYNCHRONIZATION, players, npcs, players.size());
+		run(Phase.POST_SYNCHRONIZATION, players, npcs, characters);
+
+		AppearanceCacheStatistics.getStatistics().pulse();
+
+		if (++pulses == REPORT_INTERVAL) {
+			StringBuilder builder = new StringBuilder("Average synchronization phase times (").append(players.size())
+					.append(" players, ").append(npcs.size()).append(" npcs):");
+			for (Phase phase : Phase.values()) {
+				long average = totalPhaseTimes[phase.ordinal()] / pulses;
+				builder.append(' ').append(phase).append('=').append(average / 1000).append("us");
+				totalPhaseTimes[phase.ordinal()] = 0;
+			}
+			logger.info(builder.toString());
+			pulses = 0;
+		}
+	}
+
+}
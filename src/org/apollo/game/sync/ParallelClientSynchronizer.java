@@ -1,5 +1,6 @@
 package org.apollo.game.sync;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Phaser;
@@ -9,6 +10,7 @@ import org.apollo.game.GameService;
 import org.apollo.game.model.Npc;
 import org.apollo.game.model.Player;
 import org.apollo.game.model.World;
+import org.apollo.game.profile.TickProfiler;
 import org.apollo.game.sync.task.NpcSynchronizationTask;
 import org.apollo.game.sync.task.PhasedSynchronizationTask;
 import org.apollo.game.sync.task.PlayerSynchronizationTask;
@@ -55,7 +57,8 @@ public final class ParallelClientSynchronizer extends ClientSynchronizer {
 	@Override
 	public void synchronize() {
 		CharacterRepository<Player> players = World.getWorld().getPlayerRepository();
-		CharacterRepository<Npc> npcs = World.getWorld().getNpcRepository();
+		List<Npc> npcs = getActiveNpcs();
+		TickProfiler profiler = TickProfiler.getProfiler();
 		int playerCount = players.size();
 		int npcCount = npcs.size();
 
@@ -65,6 +68,7 @@ public final class ParallelClientSynchronizer extends ClientSynchronizer {
 			executor.submit(new PhasedSynchronizationTask(phaser, task));
 		}
 		phaser.arriveAndAwaitAdvance();
+		profiler.phase("sync-pre-player");
 
 		phaser.bulkRegister(npcCount);
 		for (Npc npc : npcs) {
@@ -72,20 +76,23 @@ public final class ParallelClientSynchronizer extends ClientSynchronizer {
 			executor.submit(new PhasedSynchronizationTask(phaser, task));
 		}
 		phaser.arriveAndAwaitAdvance();
+		profiler.phase("sync-pre-npc");
 
 		phaser.bulkRegister(playerCount);
 		for (Player player : players) {
-			SynchronizationTask task = new PlayerSynchronizationTask(player);
+			SynchronizationTask task = new PlayerSynchronizationTask(player, isEncoding());
 			executor.submit(new PhasedSynchronizationTask(phaser, task));
 		}
 		phaser.arriveAndAwaitAdvance();
+		profiler.phase("sync-player");
 
 		phaser.bulkRegister(playerCount);
 		for (Player player : players) {
-			SynchronizationTask task = new NpcSynchronizationTask(player);
+			SynchronizationTask task = new NpcSynchronizationTask(player, isEncoding());
 			executor.submit(new PhasedSynchronizationTask(phaser, task));
 		}
 		phaser.arriveAndAwaitAdvance();
+		profiler.phase("sync-npc");
 
 		phaser.bulkRegister(playerCount);
 		for (Player player : players) {
@@ -93,6 +100,7 @@ public final class ParallelClientSynchronizer extends ClientSynchronizer {
 			executor.submit(new PhasedSynchronizationTask(phaser, task));
 		}
 		phaser.arriveAndAwaitAdvance();
+		profiler.phase("sync-post-player");
 
 		phaser.bulkRegister(npcCount);
 		for (Npc npc : npcs) {
@@ -100,6 +108,9 @@ public final class ParallelClientSynchronizer extends ClientSynchronizer {
 			executor.submit(new PhasedSynchronizationTask(phaser, task));
 		}
 		phaser.arriveAndAwaitAdvance();
+		profiler.phase("sync-post-npc");
+
+		AppearanceCacheStatistics.getStatistics().pulse();
 	}
 
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package org.apollo.game.sync;
 
+import java.util.List;
+
 import org.apollo.game.GameService;
 import org.apollo.game.model.Npc;
 import org.apollo.game.model.Player;
 import org.apollo.game.model.World;
+import org.apollo.game.profile.TickProfiler;
 import org.apollo.game.sync.task.NpcSynchronizationTask;
 import org.apollo.game.sync.task.PlayerSynchronizationTask;
 import org.apollo.game.sync.task.PostNpcSynchronizationTask;
@@ -27,34 +30,42 @@ public final class SequentialClientSynchronizer extends ClientSynchronizer {
 	@Override
 	public void synchronize() {
 		CharacterRepository<Player> players = World.getWorld().getPlayerRepository();
-		CharacterRepository<Npc> npcs = World.getWorld().getNpcRepository();
+		List<Npc> npcs = getActiveNpcs();
+		TickProfiler profiler = TickProfiler.getProfiler();
 
 		for (Player player : players) {
 			SynchronizationTask task = new PrePlayerSynchronizationTask(player);
 			task.run();
 		}
+		profiler.phase("sync-pre-player");
 
 		for (Npc npc : npcs) {
 			SynchronizationTask task = new PreNpcSynchronizationTask(npc);
 			task.run();
 		}
+		profiler.phase("sync-pre-npc");
 
 		for (Player player : players) {
-			SynchronizationTask task = new PlayerSynchronizationTask(player);
+			SynchronizationTask task = new PlayerSynchronizationTask(player, isEncoding());
 			task.run();
-			task = new NpcSynchronizationTask(player);
+			task = new NpcSynchronizationTask(player, isEncoding());
 			task.run();
 		}
+		profiler.phase("sync-player-npc");
 
 		for (Player player : players) {
 			SynchronizationTask task = new PostPlayerSynchronizationTask(player);
 			task.run();
 		}
+		profiler.phase("sync-post-player");
 
 		for (Npc npc : npcs) {
 			SynchronizationTask task = new PostNpcSynchronizationTask(npc);
 			task.run();
 		}
+		profiler.phase("sync-post-npc");
+
+		AppearanceCacheStatistics.getStatistics().pulse();
 	}
 
 }
\ No newline at end of file
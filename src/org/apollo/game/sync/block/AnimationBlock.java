@@ -32,4 +32,9 @@ public final class AnimationBlock extends SynchronizationBlock {
 		return animation;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.ANIMATION;
+	}
+
 }
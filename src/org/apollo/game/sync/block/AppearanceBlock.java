@@ -20,6 +20,11 @@ public final class AppearanceBlock extends SynchronizationBlock {
 	 */
 	private final int combat;
 
+	/**
+	 * The length of this block once encoded, or {@code 0} if it has not been encoded yet.
+	 */
+	private volatile int encodedLength = 0;
+
 	/**
 	 * The player's equipment.
 	 */
@@ -89,6 +94,11 @@ public final class AppearanceBlock extends SynchronizationBlock {
 		return appearance;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.APPEARANCE;
+	}
+
 	/**
 	 * Gets the player's combat level.
 	 * 
@@ -98,6 +108,15 @@ public final class AppearanceBlock extends SynchronizationBlock {
 		return combat;
 	}
 
+	/**
+	 * Gets the length of this block once encoded.
+	 * 
+	 * @return The encoded length, or {@code 0} if the block has not been encoded yet.
+	 */
+	public int getEncodedLength() {
+		return encodedLength;
+	}
+
 	/**
 	 * Gets the player's equipment.
 	 * 
@@ -152,4 +171,14 @@ public final class AppearanceBlock extends SynchronizationBlock {
 		return skill;
 	}
 
+	/**
+	 * Sets the length of this block once encoded. This is called by the encoder, and used to count the bytes saved by
+	 * not sending the block to clients which have already cached it.
+	 * 
+	 * @param encodedLength The encoded length.
+	 */
+	public void setEncodedLength(int encodedLength) {
+		this.encodedLength = encodedLength;
+	}
+
 }
\ No newline at end of file
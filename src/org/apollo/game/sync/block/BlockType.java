@@ -0,0 +1,139 @@
+package org.apollo.game.sync.block;
+
+/**
+ * An enumeration which contains the types of {@link SynchronizationBlock}s. The ordinal of each type is used as its
+ * index in a {@link SynchronizationBlockSet}, and so there can be at most 32 types.
+ * 
+ * @author Graham
+ */
+public enum BlockType {
+
+	/**
+	 * An {@link AnimationBlock}.
+	 */
+	ANIMATION(AnimationBlock.class),
+
+	/**
+	 * An {@link AppearanceBlock}.
+	 */
+	APPEARANCE(AppearanceBlock.class),
+
+	/**
+	 * A {@link ChatBlock}.
+	 */
+	CHAT(ChatBlock.class),
+
+	/**
+	 * A {@link ForceChatBlock}.
+	 */
+	FORCE_CHAT(ForceChatBlock.class),
+
+	/**
+	 * A {@link ForceMovementBlock}.
+	 */
+	FORCE_MOVEMENT(ForceMovementBlock.class),
+
+	/**
+	 * A {@link GraphicBlock}.
+	 */
+	GRAPHIC(GraphicBlock.class),
+
+	/**
+	 * A {@link HitUpdateBlock}.
+	 */
+	HIT_UPDATE(HitUpdateBlock.class),
+
+	/**
+	 * An {@link InteractingCharacterBlock}.
+	 */
+	INTERACTING_CHARACTER(InteractingCharacterBlock.class),
+
+	/**
+	 * A {@link SecondHitUpdateBlock}.
+	 */
+	SECOND_HIT_UPDATE(SecondHitUpdateBlock.class),
+
+	/**
+	 * A {@link TransformBlock}.
+	 */
+	TRANSFORM(TransformBlock.class),
+
+	/**
+	 * A {@link TurnToPositionBlock}.
+	 */
+	TURN_TO_POSITION(TurnToPositionBlock.class);
+
+	/**
+	 * The block types, indexed by ordinal. This is cached as {@link #values()} creates a new array each time.
+	 */
+	private static final BlockType[] types = values();
+
+	/**
+	 * Gets the number of block types.
+	 * 
+	 * @return The number of block types.
+	 */
+	public static int count() {
+		return types.length;
+	}
+
+	/**
+	 * Gets the block type with the specified ordinal.
+	 * 
+	 * @param ordinal The ordinal.
+	 * @return The block type.
+	 * @throws ArrayIndexOutOfBoundsException If the ordinal is out of bounds.
+	 */
+	public static BlockType forOrdinal(int ordinal) {
+		return types[ordinal];
+	}
+
+	/**
+	 * Gets the block type of the specified block class.
+	 * 
+	 * @param clazz The block class.
+	 * @return The block type.
+	 * @throws IllegalArgumentException If the class is not a known block type.
+	 */
+	public static BlockType valueOf(Class<? extends SynchronizationBlock> clazz) {
+		for (BlockType type : types) {
+			if (type.blockClass == clazz) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Unknown block type: " + clazz.getName() + ".");
+	}
+
+	/**
+	 * The class of block.
+	 */
+	private final Class<? extends SynchronizationBlock> blockClass;
+
+	/**
+	 * Creates the block type.
+	 * 
+	 * @param blockClass The class of block.
+	 */
+	private BlockType(Class<? extends SynchronizationBlock> blockClass) {
+		this.blockClass = blockClass;
+	}
+
+	/**
+	 * Gets the class of block.
+	 * 
+	 * @return The block class.
+	 */
+	public Class<? extends SynchronizationBlock> getBlockClass() {
+		return blockClass;
+	}
+
+	/**
+	 * Gets the bit which represents this type in a {@link SynchronizationBlockSet#getMask() block set mask}.
+	 * 
+	 * @return The mask bit.
+	 */
+	public int getMask() {
+		return 1 << ordinal();
+	}
+
+}
@@ -28,6 +28,11 @@ public final class ChatBlock extends SynchronizationBlock {
 		this.chatEvent = chatEvent;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.CHAT;
+	}
+
 	/**
 	 * Gets the compressed message.
 	 * 
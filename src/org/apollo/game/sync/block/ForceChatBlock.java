@@ -23,6 +23,11 @@ public class ForceChatBlock extends SynchronizationBlock {
 		this.message = message;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.FORCE_CHAT;
+	}
+
 	/**
 	 * Gets the message being sent by this block.
 	 * 
@@ -57,6 +57,11 @@ public class ForceMovementBlock extends SynchronizationBlock {
 		this.direction = direction;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.FORCE_MOVEMENT;
+	}
+
 	/**
 	 * Gets the direction the player should move.
 	 * 
@@ -23,6 +23,11 @@ public final class GraphicBlock extends SynchronizationBlock {
 		this.graphic = graphic;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.GRAPHIC;
+	}
+
 	/**
 	 * Gets the graphic.
 	 * 
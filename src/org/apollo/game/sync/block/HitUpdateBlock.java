@@ -43,6 +43,11 @@ public class HitUpdateBlock extends SynchronizationBlock {
 		this.maximumHealth = maximumHealth;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.HIT_UPDATE;
+	}
+
 	/**
 	 * Gets the current health of the {@link org.apollo.game.model.Character}.
 	 * 
@@ -24,6 +24,11 @@ public class InteractingCharacterBlock extends SynchronizationBlock {
 		this.characterIndex = characterIndex;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.INTERACTING_CHARACTER;
+	}
+
 	/**
 	 * Gets the interacting character's current index.
 	 * 
@@ -44,6 +44,11 @@ public class SecondHitUpdateBlock extends SynchronizationBlock {
 		this.maximumHealth = maximumHealth;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.SECOND_HIT_UPDATE;
+	}
+
 	/**
 	 * Gets the current health of the character.
 	 * 
@@ -105,4 +105,11 @@ public abstract class SynchronizationBlock {
 		return new TurnToPositionBlock(position);
 	}
 
+	/**
+	 * Gets the type of this block.
+	 * 
+	 * @return The type of block.
+	 */
+	public abstract BlockType getBlockType();
+
 }
\ No newline at end of file
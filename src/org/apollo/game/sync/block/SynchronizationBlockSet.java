@@ -1,19 +1,76 @@
 package org.apollo.game.sync.block;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
- * A specialized collection of {@link SynchronizationBlock}s.
+ * A specialized collection of {@link SynchronizationBlock}s. A set can contain up to one block of each
+ * {@link BlockType}: the blocks are stored in an array indexed by the ordinal of their type, and an integer mask
+ * records which types are present (see {@link BlockType#getMask()}).
  * 
  * @author Graham
  */
 public final class SynchronizationBlockSet implements Cloneable {
 
 	/**
-	 * The blocks.
+	 * The encoded form of a {@link SynchronizationBlockSet}, along with the encoder that produced it.
+	 * 
+	 * @author Graham
 	 */
-	private final Map<Class<? extends SynchronizationBlock>, SynchronizationBlock> blocks = new HashMap<Class<? extends SynchronizationBlock>, SynchronizationBlock>();
+	private static final class EncodedBlocks {
+
+		/**
+		 * The encoded blocks.
+		 */
+		private final byte[] bytes;
+
+		/**
+		 * The encoder which produced the bytes.
+		 */
+		private final Object encoder;
+
+		/**
+		 * Creates the encoded blocks.
+		 * 
+		 * @param encoder The encoder.
+		 * @param bytes The encoded blocks.
+		 */
+		public EncodedBlocks(Object encoder, byte[] bytes) {
+			this.encoder = encoder;
+			this.bytes = bytes;
+		}
+
+	}
+
+	/**
+	 * The blocks, indexed by the ordinal of their type.
+	 */
+	private final SynchronizationBlock[] blocks;
+
+	/**
+	 * The encoded form of this set, or {@code null} if it has not been encoded since it was last modified.
+	 */
+	private volatile EncodedBlocks encoded;
+
+	/**
+	 * The mask of the types of blocks in this set.
+	 */
+	private int mask = 0;
+
+	/**
+	 * Creates an empty block set.
+	 */
+	public SynchronizationBlockSet() {
+		blocks = new SynchronizationBlock[BlockType.count()];
+	}
+
+	/**
+	 * Creates a block set with the specified mask and blocks.
+	 * 
+	 * @param mask The mask.
+	 * @param blocks The blocks. The array is not copied.
+	 */
+	private SynchronizationBlockSet(int mask, SynchronizationBlock[] blocks) {
+		this.mask = mask;
+		this.blocks = blocks;
+	}
 
 	/**
 	 * Adds a {@link SynchronizationBlock}.
@@ -21,23 +78,37 @@ public final class SynchronizationBlockSet implements Cloneable {
 	 * @param block The block to add.
 	 */
 	public void add(SynchronizationBlock block) {
-		Class<? extends SynchronizationBlock> clazz = block.getClass();
-		blocks.put(clazz, block); // this will overwrite old updates. best thing
-									// to do?
+		BlockType type = block.getBlockType();
+		blocks[type.ordinal()] = block; // this will overwrite old updates. best thing
+										// to do?
+		mask |= type.getMask();
+		encoded = null;
 	}
 
 	/**
 	 * Clears the set.
 	 */
 	public void clear() {
-		blocks.clear();
+		for (int i = 0; i < blocks.length; i++) {
+			blocks[i] = null;
+		}
+		mask = 0;
+		encoded = null;
 	}
 
 	@Override
 	public SynchronizationBlockSet clone() {
-		SynchronizationBlockSet copy = new SynchronizationBlockSet();
-		copy.blocks.putAll(blocks);
-		return copy;
+		return new SynchronizationBlockSet(mask, blocks.clone());
+	}
+
+	/**
+	 * Checks if this set contains a block of the specified type.
+	 * 
+	 * @param type The type of block.
+	 * @return {@code true} if so, {@code false} if not.
+	 */
+	public boolean contains(BlockType type) {
+		return (mask & type.getMask()) != 0;
 	}
 
 	/**
@@ -47,7 +118,17 @@ public final class SynchronizationBlockSet implements Cloneable {
 	 * @return {@code true} if so, {@code false} if not.
 	 */
 	public boolean contains(Class<? extends SynchronizationBlock> clazz) {
-		return blocks.containsKey(clazz);
+		return contains(BlockType.valueOf(clazz));
+	}
+
+	/**
+	 * Gets a block.
+	 * 
+	 * @param type The type of block.
+	 * @return The block, or {@code null} if this set does not contain a block of the specified type.
+	 */
+	public SynchronizationBlock get(BlockType type) {
+		return blocks[type.ordinal()];
 	}
 
 	/**
@@ -59,7 +140,43 @@ public final class SynchronizationBlockSet implements Cloneable {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends SynchronizationBlock> T get(Class<T> clazz) {
-		return (T) blocks.get(clazz);
+		return (T) get(BlockType.valueOf(clazz));
+	}
+
+	/**
+	 * Gets the cached encoded form of this set. The bytes are only returned if they were produced by the specified
+	 * encoder, as the encoding differs between releases and between players and npcs.
+	 * 
+	 * @param encoder The encoder.
+	 * @return The encoded blocks, or {@code null} if this set has not been encoded by the encoder.
+	 */
+	public byte[] getEncoded(Object encoder) {
+		EncodedBlocks encoded = this.encoded;
+		if (encoded != null && encoded.encoder == encoder) {
+			return encoded.bytes;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the mask of the types of blocks in this set. A type is present if the bit returned by
+	 * {@link BlockType#getMask()} is set.
+	 * 
+	 * @return The mask.
+	 */
+	public int getMask() {
+		return mask;
+	}
+
+	/**
+	 * Removes a block.
+	 * 
+	 * @param type The type of block.
+	 */
+	public void remove(BlockType type) {
+		blocks[type.ordinal()] = null;
+		mask &= ~type.getMask();
+		encoded = null;
 	}
 
 	/**
@@ -68,7 +185,18 @@ public final class SynchronizationBlockSet implements Cloneable {
 	 * @param clazz The block's class.
 	 */
 	public void remove(Class<? extends SynchronizationBlock> clazz) {
-		blocks.remove(clazz);
+		remove(BlockType.valueOf(clazz));
+	}
+
+	/**
+	 * Caches the encoded form of this set, so other players observing the same character do not have to encode it
+	 * again. The cache is cleared if the set is modified.
+	 * 
+	 * @param encoder The encoder which produced the bytes.
+	 * @param bytes The encoded blocks. This array must not be modified after it has been cached.
+	 */
+	public void setEncoded(Object encoder, byte[] bytes) {
+		encoded = new EncodedBlocks(encoder, bytes);
 	}
 
 	/**
@@ -77,7 +205,7 @@ public final class SynchronizationBlockSet implements Cloneable {
 	 * @return The size of the set.
 	 */
 	public int size() {
-		return blocks.size();
+		return Integer.bitCount(mask);
 	}
 
 }
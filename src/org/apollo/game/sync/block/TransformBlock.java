@@ -22,6 +22,11 @@ public final class TransformBlock extends SynchronizationBlock {
 		this.id = id;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.TRANSFORM;
+	}
+
 	/**
 	 * Gets the id.
 	 * 
@@ -23,6 +23,11 @@ public final class TurnToPositionBlock extends SynchronizationBlock {
 		this.position = position;
 	}
 
+	@Override
+	public BlockType getBlockType() {
+		return BlockType.TURN_TO_POSITION;
+	}
+
 	/**
 	 * Gets the position to turn to.
 	 * 
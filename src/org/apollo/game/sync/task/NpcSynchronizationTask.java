@@ -8,12 +8,13 @@ import org.apollo.game.event.impl.NpcSynchronizationEvent;
 import org.apollo.game.model.Npc;
 import org.apollo.game.model.Player;
 import org.apollo.game.model.World;
+import org.apollo.game.model.region.Region;
+import org.apollo.game.model.region.RegionRepository;
 import org.apollo.game.sync.block.SynchronizationBlockSet;
 import org.apollo.game.sync.seg.AddNpcSegment;
 import org.apollo.game.sync.seg.MovementSegment;
 import org.apollo.game.sync.seg.RemoveCharacterSegment;
 import org.apollo.game.sync.seg.SynchronizationSegment;
-import org.apollo.util.CharacterRepository;
 
 /**
  * A {@link SynchronizationTask} which synchronizes npcs with the specified {@link Player}.
@@ -28,6 +29,12 @@ public final class NpcSynchronizationTask extends SynchronizationTask {
 	 */
 	private static final int NEW_NPCS_PER_CYCLE = 20;
 
+	/**
+	 * A flag indicating if the event should be encoded by this task, rather than by the thread which flushes the
+	 * session.
+	 */
+	private final boolean encode;
+
 	/**
 	 * The player.
 	 */
@@ -37,9 +44,11 @@ public final class NpcSynchronizationTask extends SynchronizationTask {
 	 * Creates the {@link NpcSynchronizationTask} for the specified player.
 	 * 
 	 * @param player The player.
+	 * @param encode If the event should be encoded by this task.
 	 */
-	public NpcSynchronizationTask(Player player) {
+	public NpcSynchronizationTask(Player player, boolean encode) {
 		this.player = player;
+		this.encode = encode;
 	}
 
 	@Override
@@ -62,27 +71,34 @@ public final class NpcSynchronizationTask extends SynchronizationTask {
 
 		int added = 0;
 
-		CharacterRepository<Npc> repository = World.getWorld().getNpcRepository();
-		for (Npc npc : repository) {
-			if (localNpcs.size() >= 255) {
-				player.flagExcessiveNpcs();
-				break;
-			} else if (added >= NEW_NPCS_PER_CYCLE) {
-				break;
-			}
+		RegionRepository repository = World.getWorld().getRegionRepository();
+		List<Region> regions = repository.getSurroundingRegions(player.getPosition(), player.getViewingDistance());
 
-			if (npc.getPosition().isWithinDistance(player.getPosition(), player.getViewingDistance())
-					&& !localNpcs.contains(npc)) {
-				localNpcs.add(npc);
-				added++;
-				blockSet = npc.getBlockSet();
-				segments.add(new AddNpcSegment(blockSet, npc.getIndex(), npc.getPosition(), npc.getNpcDefinition()
-						.getId()));
-			}
+		regions: for (Region region : regions) {
+			for (Npc npc : region.getNpcs()) {
+				if (localNpcs.size() >= 255) {
+					player.flagExcessiveNpcs();
+					break regions;
+				} else if (added >= NEW_NPCS_PER_CYCLE) {
+					break regions;
+				}
 
+				if (npc.getPosition().isWithinDistance(player.getPosition(), player.getViewingDistance())
+						&& !localNpcs.contains(npc)) {
+					localNpcs.add(npc);
+					added++;
+					blockSet = npc.getBlockSet();
+					segments.add(new AddNpcSegment(blockSet, npc.getIndex(), npc.getPosition(), npc
+							.getNpcDefinition().getId()));
+				}
+			}
 		}
 		NpcSynchronizationEvent event = new NpcSynchronizationEvent(player.getPosition(), segments, oldLocalNpcs);
-		player.send(event);
+		if (encode) {
+			player.sendEncoded(event);
+		} else {
+			player.send(event);
+		}
 	}
 
 }
\ No newline at end of file
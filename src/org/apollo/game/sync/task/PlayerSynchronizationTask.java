@@ -8,16 +8,16 @@ import org.apollo.game.event.impl.PlayerSynchronizationEvent;
 import org.apollo.game.model.Player;
 import org.apollo.game.model.Position;
 import org.apollo.game.model.World;
-import org.apollo.game.sync.block.AppearanceBlock;
-import org.apollo.game.sync.block.ChatBlock;
-import org.apollo.game.sync.block.SynchronizationBlock;
+import org.apollo.game.model.region.Region;
+import org.apollo.game.model.region.RegionRepository;
+import org.apollo.game.sync.AppearanceCacheStatistics;
+import org.apollo.game.sync.block.BlockType;
 import org.apollo.game.sync.block.SynchronizationBlockSet;
 import org.apollo.game.sync.seg.AddPlayerSegment;
 import org.apollo.game.sync.seg.MovementSegment;
 import org.apollo.game.sync.seg.RemoveCharacterSegment;
 import org.apollo.game.sync.seg.SynchronizationSegment;
 import org.apollo.game.sync.seg.TeleportSegment;
-import org.apollo.util.CharacterRepository;
 
 /**
  * A {@link SynchronizationTask} which synchronizes the specified {@link Player} .
@@ -32,6 +32,12 @@ public final class PlayerSynchronizationTask extends SynchronizationTask {
 	 */
 	private static final int NEW_PLAYERS_PER_CYCLE = 20;
 
+	/**
+	 * A flag indicating if the event should be encoded by this task, rather than by the thread which flushes the
+	 * session.
+	 */
+	private final boolean encode;
+
 	/**
 	 * The player.
 	 */
@@ -41,9 +47,11 @@ public final class PlayerSynchronizationTask extends SynchronizationTask {
 	 * Creates the {@link PlayerSynchronizationTask} for the specified player.
 	 * 
 	 * @param player The player.
+	 * @param encode If the event should be encoded by this task.
 	 */
-	public PlayerSynchronizationTask(Player player) {
+	public PlayerSynchronizationTask(Player player, boolean encode) {
 		this.player = player;
+		this.encode = encode;
 	}
 
 	@Override
@@ -53,9 +61,9 @@ public final class PlayerSynchronizationTask extends SynchronizationTask {
 
 		SynchronizationSegment segment;
 		SynchronizationBlockSet blockSet = player.getBlockSet();
-		if (blockSet.contains(ChatBlock.class)) {
+		if (blockSet.contains(BlockType.CHAT)) {
 			blockSet = blockSet.clone();
-			blockSet.remove(ChatBlock.class);
+			blockSet.remove(BlockType.CHAT);
 		}
 
 		if (player.isTeleporting() || player.hasRegionChanged()) {
@@ -75,41 +83,55 @@ public final class PlayerSynchronizationTask extends SynchronizationTask {
 				it.remove();
 				segments.add(new RemoveCharacterSegment());
 			} else {
-				segments.add(new MovementSegment(p.getBlockSet(), p.getDirections()));
+				blockSet = p.getBlockSet();
+				if (blockSet.contains(BlockType.APPEARANCE)) {
+					player.setCachedAppearance(p);
+				}
+				segments.add(new MovementSegment(blockSet, p.getDirections()));
 			}
 		}
 
 		int added = 0;
 
-		CharacterRepository<Player> repository = World.getWorld().getPlayerRepository();
-		for (Player p : repository) {
-			if (localPlayers.size() >= 255) {
-				player.flagExcessivePlayers();
-				break;
-			} else if (added >= NEW_PLAYERS_PER_CYCLE) {
-				break;
-			}
-			// we do not check p.isActive() here, since if they are active they
-			// must be in the repository
-			if (p != player && p.getPosition().isWithinDistance(player.getPosition(), player.getViewingDistance())
-					&& !localPlayers.contains(p)) {
-				localPlayers.add(p);
-				added++;
-
-				blockSet = p.getBlockSet();
-				if (!blockSet.contains(AppearanceBlock.class)) {
-					// TODO check if client has cached appearance
-					blockSet = blockSet.clone();
-					blockSet.add(SynchronizationBlock.createAppearanceBlock(p));
+		AppearanceCacheStatistics statistics = AppearanceCacheStatistics.getStatistics();
+		RegionRepository repository = World.getWorld().getRegionRepository();
+		List<Region> regions = repository.getSurroundingRegions(player.getPosition(), player.getViewingDistance());
+
+		regions: for (Region region : regions) {
+			for (Player p : region.getPlayers()) {
+				if (localPlayers.size() >= 255) {
+					player.flagExcessivePlayers();
+					break regions;
+				} else if (added >= NEW_PLAYERS_PER_CYCLE) {
+					break regions;
+				}
+				// we do not check p.isActive() here, since if they are active they
+				// must be in a region
+				if (p != player && p.getPosition().isWithinDistance(player.getPosition(), player.getViewingDistance())
+						&& !localPlayers.contains(p)) {
+					localPlayers.add(p);
+					added++;
+
+					if (player.hasCachedAppearance(p)) {
+						blockSet = p.getBlockSet();
+						statistics.skipped(p.getAppearanceBlock().getEncodedLength());
+					} else {
+						blockSet = p.getAppearanceBlockSet();
+						player.setCachedAppearance(p);
+					}
+
+					segments.add(new AddPlayerSegment(blockSet, p.getIndex(), p.getPosition()));
 				}
-
-				segments.add(new AddPlayerSegment(blockSet, p.getIndex(), p.getPosition()));
 			}
 		}
 
 		PlayerSynchronizationEvent event = new PlayerSynchronizationEvent(lastKnownRegion, player.getPosition(),
 				regionChanged, segment, oldLocalPlayers, segments);
-		player.send(event);
+		if (encode) {
+			player.sendEncoded(event);
+		} else {
+			player.send(event);
+		}
 	}
 
 }
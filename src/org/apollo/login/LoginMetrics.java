@@ -0,0 +1,133 @@
+package org.apollo.login;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apollo.game.profile.PhaseHistogram;
+
+/**
+ * Counts the login requests handled by the {@link LoginService} and records how long they take. The metrics are
+ * published through JMX under {@code org.apollo:type=LoginMetrics}.
+ * 
+ * @author Graham
+ */
+public final class LoginMetrics implements LoginMetricsMBean {
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = Logger.getLogger(LoginMetrics.class.getName());
+
+	/**
+	 * The metrics.
+	 */
+	private static final LoginMetrics metrics = new LoginMetrics();
+
+	/**
+	 * Gets the metrics.
+	 * 
+	 * @return The metrics.
+	 */
+	public static LoginMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * The number of players which have been admitted.
+	 */
+	private final AtomicLong admitted = new AtomicLong();
+
+	/**
+	 * The number of requests which have been deferred.
+	 */
+	private final AtomicLong deferred = new AtomicLong();
+
+	/**
+	 * The histogram of login latencies.
+	 */
+	private final PhaseHistogram latency = new PhaseHistogram("login");
+
+	/**
+	 * The number of pending requests.
+	 */
+	private volatile int pending = 0;
+
+	/**
+	 * Creates the metrics and registers them with the platform MBean server.
+	 */
+	private LoginMetrics() {
+		String name = "org.apollo:type=LoginMetrics";
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(name);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			logger.log(Level.WARNING, "Failed to register MBean " + name + ".", e);
+		}
+	}
+
+	@Override
+	public long getAdmittedLogins() {
+		return admitted.get();
+	}
+
+	@Override
+	public long getDeferredLogins() {
+		return deferred.get();
+	}
+
+	@Override
+	public long getLatencyMax() {
+		return latency.getMax();
+	}
+
+	@Override
+	public long getLatencyP50() {
+		return latency.getP50();
+	}
+
+	@Override
+	public long getLatencyP99() {
+		return latency.getP99();
+	}
+
+	@Override
+	public int getPendingLogins() {
+		return pending;
+	}
+
+	/**
+	 * Records that a player has been admitted into the world.
+	 * 
+	 * @param nanos The time since the request was submitted, in nanoseconds.
+	 */
+	public void recordAdmitted(long nanos) {
+		admitted.incrementAndGet();
+		latency.record(nanos);
+	}
+
+	/**
+	 * Records that a request has been deferred.
+	 */
+	public void recordDeferred() {
+		deferred.incrementAndGet();
+	}
+
+	/**
+	 * Records the number of pending requests.
+	 * 
+	 * @param pending The number of requests.
+	 */
+	public void recordPending(int pending) {
+		this.pending = pending;
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.apollo.login;
+
+/**
+ * The management interface of the {@link LoginMetrics}. Latencies are measured from the submission of a login request
+ * to the admission of the player into the world, in microseconds, and cover the last
+ * {@link org.apollo.game.profile.PhaseHistogram#WINDOW} logins.
+ * 
+ * @author Graham
+ */
+public interface LoginMetricsMBean {
+
+	/**
+	 * Gets the number of players which have been admitted into the world.
+	 * 
+	 * @return The number of players.
+	 */
+	public long getAdmittedLogins();
+
+	/**
+	 * Gets the number of login requests which have been told to try again because too many logins were pending.
+	 * 
+	 * @return The number of requests.
+	 */
+	public long getDeferredLogins();
+
+	/**
+	 * Gets the longest login latency.
+	 * 
+	 * @return The latency, in microseconds.
+	 */
+	public long getLatencyMax();
+
+	/**
+	 * Gets the median login latency.
+	 * 
+	 * @return The latency, in microseconds.
+	 */
+	public long getLatencyP50();
+
+	/**
+	 * Gets the 99th percentile login latency.
+	 * 
+	 * @return The latency, in microseconds.
+	 */
+	public long getLatencyP99();
+
+	/**
+	 * Gets the number of login requests which are being loaded or are waiting to be admitted.
+	 * 
+	 * @return The number of requests.
+	 */
+	public int getPendingLogins();
+
+}
@@ -2,8 +2,15 @@ package org.apollo.login;
 
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apollo.Service;
 import org.apollo.game.model.Player;
@@ -21,26 +28,56 @@ import org.apollo.util.xml.XmlParser;
 
 /**
  * The {@link LoginService} manages {@link LoginRequest}s.
+ * <p>
+ * Logins are handled in two stages. Players are loaded by a fixed number of loader threads, and then admitted into the
+ * world by the game thread at the start of each pulse, at most {@link #loginsPerPulse} at a time. The number of
+ * requests in either stage is limited, and clients whose requests would exceed the limit are told to try again, so a
+ * burst of logins (e.g. after a restart) can neither exhaust the threads of the server nor stall a pulse.
  * 
  * @author Graham
  */
 public final class LoginService extends Service {
 
 	/**
-	 * The {@link ExecutorService} to which workers are submitted.
+	 * The {@link ExecutorService} to which loader workers are submitted.
 	 */
-	private final ExecutorService executor = Executors.newCachedThreadPool(new NamedThreadFactory("LoginService"));
+	private ExecutorService loaderExecutor;
 
 	/**
 	 * The current {@link PlayerLoader}.
 	 */
 	private PlayerLoader loader;
 
+	/**
+	 * The players which have been loaded and are waiting to be admitted into the world.
+	 */
+	private final Queue<PendingLogin> loaded = new ConcurrentLinkedQueue<PendingLogin>();
+
+	/**
+	 * The maximum number of players admitted into the world each pulse.
+	 */
+	private int loginsPerPulse;
+
+	/**
+	 * The maximum number of requests which may be loading or waiting to be admitted.
+	 */
+	private int maximumPending;
+
+	/**
+	 * The number of requests which are loading or waiting to be admitted.
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+
 	/**
 	 * The current {@link PlayerSaver}.
 	 */
 	private PlayerSaver saver;
 
+	/**
+	 * The {@link ExecutorService} to which saver workers are submitted.
+	 */
+	private ExecutorService saverExecutor;
+
 	/**
 	 * Creates the login service.
 	 * 
@@ -50,6 +87,40 @@ public final class LoginService extends Service {
 		init();
 	}
 
+	/**
+	 * Admits the players which have been loaded into the world, up to the limit per pulse. This must be called by the
+	 * game thread.
+	 */
+	public void admitPendingLogins() {
+		LoginMetrics metrics = LoginMetrics.getMetrics();
+		PendingLogin login;
+		for (int admitted = 0; admitted < loginsPerPulse && (login = loaded.poll()) != null; admitted++) {
+			pending.decrementAndGet();
+			login.getSession().handlePlayerLoaderResponse(login.getRequest(), login.getResponse());
+			metrics.recordAdmitted(System.nanoTime() - login.getSubmitted());
+		}
+		metrics.recordPending(pending.get());
+	}
+
+	/**
+	 * Handles the response of the player loader to a login request. Players which were loaded wait to be admitted by
+	 * {@link #admitPendingLogins()}; the session is told about any other response straight away.
+	 * 
+	 * @param session The session that submitted the request.
+	 * @param request The request.
+	 * @param response The response.
+	 * @param submitted The time at which the request was submitted, in nanoseconds.
+	 */
+	void handlePlayerLoaderResponse(LoginSession session, LoginRequest request, PlayerLoaderResponse response,
+			long submitted) {
+		if (response.getPlayer() == null) {
+			pending.decrementAndGet();
+			session.handlePlayerLoaderResponse(request, response);
+		} else {
+			loaded.add(new PendingLogin(session, request, response, submitted));
+		}
+	}
+
 	/**
 	 * Initialises the login service.
 	 * 
@@ -85,6 +156,15 @@ public final class LoginService extends Service {
 
 		loader = (PlayerLoader) loaderClazz.newInstance();
 		saver = (PlayerSaver) saverClazz.newInstance();
+
+		int loaderThreads = rootNode.getChildInteger("loader-threads");
+		int saverThreads = rootNode.getChildInteger("saver-threads");
+		maximumPending = rootNode.getChildInteger("maximum-pending");
+		loginsPerPulse = rootNode.getChildInteger("logins-per-pulse");
+
+		loaderExecutor = new ThreadPoolExecutor(loaderThreads, loaderThreads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(maximumPending), new NamedThreadFactory("PlayerLoader"));
+		saverExecutor = Executors.newFixedThreadPool(saverThreads, new NamedThreadFactory("PlayerSaver"));
 	}
 
 	/**
@@ -96,7 +176,7 @@ public final class LoginService extends Service {
 	}
 
 	/**
-	 * Submits a login request.
+	 * Submits a login request. If too many requests are pending, the client is told to try again instead.
 	 * 
 	 * @param session The session submitting this request.
 	 * @param request The login request.
@@ -106,9 +186,21 @@ public final class LoginService extends Service {
 		if (release.getReleaseNumber() != request.getReleaseNumber()) {
 			// TODO check archive 0 CRCs
 			session.handlePlayerLoaderResponse(request, new PlayerLoaderResponse(LoginConstants.STATUS_GAME_UPDATED));
-		} else {
-			executor.submit(new PlayerLoaderWorker(loader, session, request));
+			return;
+		}
+
+		if (pending.incrementAndGet() <= maximumPending) {
+			try {
+				loaderExecutor.execute(new PlayerLoaderWorker(this, loader, session, request, System.nanoTime()));
+				return;
+			} catch (RejectedExecutionException e) {
+				/* fall through and defer the request */
+			}
 		}
+
+		pending.decrementAndGet();
+		LoginMetrics.getMetrics().recordDeferred();
+		session.handlePlayerLoaderResponse(request, new PlayerLoaderResponse(LoginConstants.STATUS_DELAY));
 	}
 
 	/**
@@ -118,7 +210,7 @@ public final class LoginService extends Service {
 	 * @param player The player to save.
 	 */
 	public void submitSaveRequest(GameSession session, Player player) {
-		executor.submit(new PlayerSaverWorker(saver, session, player));
+		saverExecutor.submit(new PlayerSaverWorker(saver, session, player));
 	}
 
 }
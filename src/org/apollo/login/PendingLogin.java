@@ -0,0 +1,85 @@
+package org.apollo.login;
+
+import org.apollo.io.player.PlayerLoaderResponse;
+import org.apollo.net.codec.login.LoginRequest;
+import org.apollo.net.session.LoginSession;
+
+/**
+ * A login whose player has been loaded, waiting to be admitted into the world by the {@link LoginService}.
+ * 
+ * @author Graham
+ */
+final class PendingLogin {
+
+	/**
+	 * The request.
+	 */
+	private final LoginRequest request;
+
+	/**
+	 * The response of the player loader.
+	 */
+	private final PlayerLoaderResponse response;
+
+	/**
+	 * The session that submitted the request.
+	 */
+	private final LoginSession session;
+
+	/**
+	 * The time at which the request was submitted, in nanoseconds.
+	 */
+	private final long submitted;
+
+	/**
+	 * Creates the pending login.
+	 * 
+	 * @param session The session that submitted the request.
+	 * @param request The request.
+	 * @param response The response of the player loader.
+	 * @param submitted The time at which the request was submitted, in nanoseconds.
+	 */
+	public PendingLogin(LoginSession session, LoginRequest request, PlayerLoaderResponse response, long submitted) {
+		this.session = session;
+		this.request = request;
+		this.response = response;
+		this.submitted = submitted;
+	}
+
+	/**
+	 * Gets the request.
+	 * 
+	 * @return The request.
+	 */
+	public LoginRequest getRequest() {
+		return request;
+	}
+
+	/**
+	 * Gets the response of the player loader.
+	 * 
+	 * @return The response.
+	 */
+	public PlayerLoaderResponse getResponse() {
+		return response;
+	}
+
+	/**
+	 * Gets the session that submitted the request.
+	 * 
+	 * @return The session.
+	 */
+	public LoginSession getSession() {
+		return session;
+	}
+
+	/**
+	 * Gets the time at which the request was submitted.
+	 * 
+	 * @return The time, in nanoseconds.
+	 */
+	public long getSubmitted() {
+		return submitted;
+	}
+
+}
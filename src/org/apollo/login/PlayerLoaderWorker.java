@@ -31,33 +31,48 @@ public final class PlayerLoaderWorker implements Runnable {
 	 */
 	private final LoginRequest request;
 
+	/**
+	 * The login service.
+	 */
+	private final LoginService service;
+
 	/**
 	 * The session that submitted the request.
 	 */
 	private final LoginSession session;
 
+	/**
+	 * The time at which the request was submitted, in nanoseconds.
+	 */
+	private final long submitted;
+
 	/**
 	 * Creates a {@link PlayerLoaderWorker} which will do the work for a single player load request.
 	 * 
+	 * @param service The {@link LoginService} to which the response is passed.
 	 * @param loader The current player loader.
 	 * @param session The {@link LoginSession} which initiated the request.
 	 * @param request The {@link LoginRequest} object.
+	 * @param submitted The time at which the request was submitted, in nanoseconds.
 	 */
-	public PlayerLoaderWorker(PlayerLoader loader, LoginSession session, LoginRequest request) {
+	public PlayerLoaderWorker(LoginService service, PlayerLoader loader, LoginSession session, LoginRequest request,
+			long submitted) {
+		this.service = service;
 		this.loader = loader;
 		this.session = session;
 		this.request = request;
+		this.submitted = submitted;
 	}
 
 	@Override
 	public void run() {
 		try {
 			PlayerLoaderResponse response = loader.loadPlayer(request.getCredentials());
-			session.handlePlayerLoaderResponse(request, response);
+			service.handlePlayerLoaderResponse(session, request, response, submitted);
 		} catch (Exception e) {
 			logger.log(Level.SEVERE, "Unable to load player's game.", e);
-			session.handlePlayerLoaderResponse(request, new PlayerLoaderResponse(
-					LoginConstants.STATUS_COULD_NOT_COMPLETE));
+			service.handlePlayerLoaderResponse(session, request, new PlayerLoaderResponse(
+					LoginConstants.STATUS_COULD_NOT_COMPLETE), submitted);
 		}
 	}
 
@@ -49,14 +49,14 @@ public final class ApolloHandler extends IdleStateAwareChannelUpstreamHandler {
 	@Override
 	public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
 		Channel channel = ctx.getChannel();
-		logger.info("Channel connected: " + channel);
+		logger.fine("Channel connected: " + channel);
 		serverContext.getChannelGroup().add(channel);
 	}
 
 	@Override
 	public void channelDisconnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
 		Channel channel = ctx.getChannel();
-		logger.info("Channel disconnected: " + channel);
+		logger.fine("Channel disconnected: " + channel);
 		serverContext.getChannelGroup().remove(channel);
 		Object attachment = ctx.getAttachment();
 		if (attachment != null) {
@@ -81,9 +81,9 @@ public final class ApolloHandler extends IdleStateAwareChannelUpstreamHandler {
 			Object msg = e.getMessage();
 			if (msg instanceof HttpRequest || msg instanceof JagGrabRequest) {
 				Session s = new UpdateSession(ctx.getChannel(), serverContext);
+				// HTTP connections may be kept alive to send further requests
+				ctx.setAttachment(s);
 				s.messageReceived(msg);
-				// we don't bother to set it as an attachment, as the connection
-				// will be closed once the request is completed anyway
 			} else {
 				HandshakeMessage handshakeMessage = (HandshakeMessage) msg;
 				switch (handshakeMessage.getServiceId()) {
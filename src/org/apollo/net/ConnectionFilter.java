@@ -0,0 +1,148 @@
+package org.apollo.net;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apollo.net.ConnectionLimiter.Result;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+
+/**
+ * A {@link SimpleChannelUpstreamHandler} at the front of a pipeline which decides whether to admit a connection,
+ * before any other handler sees it. A connection is closed straight away if its address has too many connections open
+ * or has opened too many recently (see {@link ConnectionLimiter}), or if too many connections have not yet sent their
+ * first message. Events of connections which were not admitted are not passed on, so they are never logged, added to
+ * the channel group or decoded.
+ * <p>
+ * Each filter counts only the connections it sees, so the game and update listeners are given separate filters (see
+ * {@code data/connections.xml}), and clients behind one address fetching the cache do not lock each other out of the
+ * game.
+ * 
+ * @author Graham
+ */
+public final class ConnectionFilter extends SimpleChannelUpstreamHandler {
+
+	/**
+	 * The state of a connection which has been admitted.
+	 * 
+	 * @author Graham
+	 */
+	private static final class Admission {
+
+		/**
+		 * The address of the connection.
+		 */
+		private final InetAddress address;
+
+		/**
+		 * A flag indicating if the connection has not yet sent its first message.
+		 */
+		private final AtomicBoolean handshaking = new AtomicBoolean(true);
+
+		/**
+		 * Creates the admission.
+		 * 
+		 * @param address The address of the connection.
+		 */
+		public Admission(InetAddress address) {
+			this.address = address;
+		}
+
+	}
+
+	/**
+	 * The number of connections which have not yet sent their first message.
+	 */
+	private final AtomicInteger handshakes = new AtomicInteger();
+
+	/**
+	 * The connection limiter.
+	 */
+	private final ConnectionLimiter limiter;
+
+	/**
+	 * The maximum number of connections which have not yet sent their first message.
+	 */
+	private final int maximumPendingHandshakes;
+
+	/**
+	 * Creates the connection filter.
+	 * 
+	 * @param maximumOpen The maximum number of connections which an address may have open at once.
+	 * @param maximumRecent The maximum number of connections which an address may open in each window.
+	 * @param window The length of the window, in milliseconds.
+	 * @param maximumPendingHandshakes The maximum number of connections which have not yet sent their first message.
+	 */
+	public ConnectionFilter(int maximumOpen, int maximumRecent, long window, int maximumPendingHandshakes) {
+		this.limiter = new ConnectionLimiter(NetworkConstants.CONNECTION_STRIPES, maximumOpen, maximumRecent, window);
+		this.maximumPendingHandshakes = maximumPendingHandshakes;
+	}
+
+	@Override
+	public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+		Admission admission = (Admission) ctx.getAttachment();
+		if (admission != null) {
+			finishHandshake(admission);
+			limiter.release(admission.address);
+		}
+		super.channelClosed(ctx, e);
+	}
+
+	@Override
+	public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+		Channel channel = ctx.getChannel();
+		InetAddress address = ((InetSocketAddress) channel.getRemoteAddress()).getAddress();
+		ConnectionMetrics metrics = ConnectionMetrics.getMetrics();
+
+		Result result = limiter.acquire(address, System.currentTimeMillis());
+		metrics.recordConnection(result);
+		if (result != Result.ACCEPTED) {
+			channel.close();
+			return;
+		}
+
+		if (handshakes.incrementAndGet() > maximumPendingHandshakes) {
+			handshakes.decrementAndGet();
+			limiter.release(address);
+			metrics.recordHandshakeRejected();
+			channel.close();
+			return;
+		}
+
+		ctx.setAttachment(new Admission(address));
+		super.channelConnected(ctx, e);
+	}
+
+	@Override
+	public void channelDisconnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+		if (ctx.getAttachment() != null) {
+			super.channelDisconnected(ctx, e);
+		}
+	}
+
+	/**
+	 * Finishes the handshake of a connection, if it has not already finished.
+	 * 
+	 * @param admission The admission of the connection.
+	 */
+	private void finishHandshake(Admission admission) {
+		if (admission.handshaking.compareAndSet(true, false)) {
+			handshakes.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+		Admission admission = (Admission) ctx.getAttachment();
+		if (admission != null) {
+			finishHandshake(admission);
+		}
+		super.messageReceived(ctx, e);
+	}
+
+}
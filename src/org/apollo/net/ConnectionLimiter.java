@@ -0,0 +1,161 @@
+package org.apollo.net;
+
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limits the number of connections which each address may have open at once, and how many it may open in a window of
+ * time.
+ * <p>
+ * Rather than keeping a counter for each address (which would have to be removed when the address has no more
+ * connections, and would let a flood of addresses fill the heap), addresses are hashed onto a fixed number of
+ * stripes, and each stripe has a pair of counters updated with compare-and-set. Addresses which share a stripe share
+ * its limits, so there should be many more stripes than addresses which are expected to be near their limits.
+ * 
+ * @author Graham
+ */
+public final class ConnectionLimiter {
+
+	/**
+	 * The result of an attempt to acquire a connection.
+	 * 
+	 * @author Graham
+	 */
+	public enum Result {
+
+		/**
+		 * Indicates that the connection was accepted.
+		 */
+		ACCEPTED,
+
+		/**
+		 * Indicates that the address has too many connections open.
+		 */
+		TOO_MANY_CONNECTIONS,
+
+		/**
+		 * Indicates that the address has opened too many connections during the current window.
+		 */
+		TOO_MANY_RECENT_CONNECTIONS;
+
+	}
+
+	/**
+	 * The number of bits of a rate counter used to store the count. The remaining bits store the window.
+	 */
+	private static final int COUNT_BITS = 20;
+
+	/**
+	 * The mask of the count in a rate counter.
+	 */
+	private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+	/**
+	 * The number of connections which are open in each stripe.
+	 */
+	private final AtomicIntegerArray connections;
+
+	/**
+	 * The mask which maps a hash code to a stripe.
+	 */
+	private final int mask;
+
+	/**
+	 * The maximum number of connections which an address may have open at once.
+	 */
+	private final int maximumConnections;
+
+	/**
+	 * The maximum number of connections which an address may open during a window.
+	 */
+	private final int maximumRecentConnections;
+
+	/**
+	 * The number of connections which have been opened in each stripe during its current window. The window is stored
+	 * in the high bits and the count in the low {@link #COUNT_BITS} bits, so both can be updated atomically.
+	 */
+	private final AtomicLongArray recent;
+
+	/**
+	 * The length of a window, in milliseconds.
+	 */
+	private final long window;
+
+	/**
+	 * Creates the connection limiter.
+	 * 
+	 * @param stripes The number of stripes, which is rounded up to a power of two.
+	 * @param maximumConnections The maximum number of connections which an address may have open at once.
+	 * @param maximumRecentConnections The maximum number of connections which an address may open during a window.
+	 * @param window The length of a window, in milliseconds.
+	 */
+	public ConnectionLimiter(int stripes, int maximumConnections, int maximumRecentConnections, long window) {
+		if (stripes < 1 || maximumConnections < 1 || maximumRecentConnections < 1
+				|| maximumRecentConnections > COUNT_MASK || window < 1) {
+			throw new IllegalArgumentException("invalid connection limits");
+		}
+		int size = Integer.highestOneBit(stripes - 1) << 1;
+		if (size == 0) {
+			size = 1;
+		}
+		this.mask = size - 1;
+		this.connections = new AtomicIntegerArray(size);
+		this.recent = new AtomicLongArray(size);
+		this.maximumConnections = maximumConnections;
+		this.maximumRecentConnections = maximumRecentConnections;
+		this.window = window;
+	}
+
+	/**
+	 * Attempts to acquire a connection for the specified address. If the connection is accepted, it must be released
+	 * with {@link #release(InetAddress)} when it is closed.
+	 * 
+	 * @param address The address.
+	 * @param now The current time, in milliseconds.
+	 * @return The result.
+	 */
+	public Result acquire(InetAddress address, long now) {
+		int stripe = stripe(address);
+
+		long currentWindow = now / window;
+		long value, count;
+		do {
+			value = recent.get(stripe);
+			count = (value >>> COUNT_BITS) == currentWindow ? value & COUNT_MASK : 0;
+			if (count >= maximumRecentConnections) {
+				return Result.TOO_MANY_RECENT_CONNECTIONS;
+			}
+		} while (!recent.compareAndSet(stripe, value, currentWindow << COUNT_BITS | count + 1));
+
+		if (connections.incrementAndGet(stripe) > maximumConnections) {
+			connections.decrementAndGet(stripe);
+			return Result.TOO_MANY_CONNECTIONS;
+		}
+		return Result.ACCEPTED;
+	}
+
+	/**
+	 * Releases a connection which was acquired for the specified address.
+	 * 
+	 * @param address The address.
+	 */
+	public void release(InetAddress address) {
+		connections.decrementAndGet(stripe(address));
+	}
+
+	/**
+	 * Gets the stripe of an address.
+	 * 
+	 * @param address The address.
+	 * @return The stripe.
+	 */
+	private int stripe(InetAddress address) {
+		int hash = address.hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		return hash & mask;
+	}
+
+}
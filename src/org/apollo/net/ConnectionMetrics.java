@@ -0,0 +1,123 @@
+package org.apollo.net;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apollo.net.ConnectionLimiter.Result;
+
+/**
+ * Counts the connections accepted and rejected by the {@link ConnectionFilter}. The counters are published through
+ * JMX under {@code org.apollo:type=ConnectionMetrics}.
+ * 
+ * @author Graham
+ */
+public final class ConnectionMetrics implements ConnectionMetricsMBean {
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = Logger.getLogger(ConnectionMetrics.class.getName());
+
+	/**
+	 * The metrics.
+	 */
+	private static final ConnectionMetrics metrics = new ConnectionMetrics();
+
+	/**
+	 * Gets the metrics.
+	 * 
+	 * @return The metrics.
+	 */
+	public static ConnectionMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * The number of connections which have been accepted.
+	 */
+	private final AtomicLong accepted = new AtomicLong();
+
+	/**
+	 * The number of connections rejected by the limit on connections per address.
+	 */
+	private final AtomicLong rejectedConnectionLimit = new AtomicLong();
+
+	/**
+	 * The number of connections rejected by the limit on pending handshakes.
+	 */
+	private final AtomicLong rejectedHandshakeLimit = new AtomicLong();
+
+	/**
+	 * The number of connections rejected by the limit on the rate of connections per address.
+	 */
+	private final AtomicLong rejectedRateLimit = new AtomicLong();
+
+	/**
+	 * Creates the metrics and registers them with the platform MBean server.
+	 */
+	private ConnectionMetrics() {
+		String name = "org.apollo:type=ConnectionMetrics";
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(name);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			logger.log(Level.WARNING, "Failed to register MBean " + name + ".", e);
+		}
+	}
+
+	@Override
+	public long getAcceptedConnections() {
+		return accepted.get();
+	}
+
+	@Override
+	public long getRejectedConnectionLimit() {
+		return rejectedConnectionLimit.get();
+	}
+
+	@Override
+	public long getRejectedHandshakeLimit() {
+		return rejectedHandshakeLimit.get();
+	}
+
+	@Override
+	public long getRejectedRateLimit() {
+		return rejectedRateLimit.get();
+	}
+
+	/**
+	 * Records the result of an attempt to acquire a connection from a {@link ConnectionLimiter}.
+	 * 
+	 * @param result The result.
+	 */
+	public void recordConnection(Result result) {
+		switch (result) {
+		case ACCEPTED:
+			accepted.incrementAndGet();
+			break;
+		case TOO_MANY_CONNECTIONS:
+			rejectedConnectionLimit.incrementAndGet();
+			break;
+		case TOO_MANY_RECENT_CONNECTIONS:
+			rejectedRateLimit.incrementAndGet();
+			break;
+		}
+	}
+
+	/**
+	 * Records that a connection has been rejected because too many handshakes were pending.
+	 */
+	public void recordHandshakeRejected() {
+		rejectedHandshakeLimit.incrementAndGet();
+	}
+
+}
@@ -0,0 +1,39 @@
+package org.apollo.net;
+
+/**
+ * The management interface of the {@link ConnectionMetrics}.
+ * 
+ * @author Graham
+ */
+public interface ConnectionMetricsMBean {
+
+	/**
+	 * Gets the number of connections which have been accepted.
+	 * 
+	 * @return The number of connections.
+	 */
+	public long getAcceptedConnections();
+
+	/**
+	 * Gets the number of connections which have been rejected because their address had too many connections open.
+	 * 
+	 * @return The number of connections.
+	 */
+	public long getRejectedConnectionLimit();
+
+	/**
+	 * Gets the number of connections which have been rejected because too many handshakes were pending.
+	 * 
+	 * @return The number of connections.
+	 */
+	public long getRejectedHandshakeLimit();
+
+	/**
+	 * Gets the number of connections which have been rejected because their address had opened too many connections
+	 * recently.
+	 * 
+	 * @return The number of connections.
+	 */
+	public long getRejectedRateLimit();
+
+}
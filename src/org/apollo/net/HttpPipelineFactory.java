@@ -26,6 +26,11 @@ public final class HttpPipelineFactory implements ChannelPipelineFactory {
 	 */
 	private final ApolloHandler handler;
 
+	/**
+	 * The connection filter.
+	 */
+	private final ConnectionFilter filter;
+
 	/**
 	 * The timer used for idle checking.
 	 */
@@ -35,10 +40,12 @@ public final class HttpPipelineFactory implements ChannelPipelineFactory {
 	 * Creates the HTTP pipeline factory.
 	 * 
 	 * @param handler The file server event handler.
+	 * @param filter The connection filter.
 	 * @param timer The timer used for idle checking.
 	 */
-	public HttpPipelineFactory(ApolloHandler handler, Timer timer) {
+	public HttpPipelineFactory(ApolloHandler handler, ConnectionFilter filter, Timer timer) {
 		this.handler = handler;
+		this.filter = filter;
 		this.timer = timer;
 	}
 
@@ -46,15 +53,20 @@ public final class HttpPipelineFactory implements ChannelPipelineFactory {
 	public ChannelPipeline getPipeline() throws Exception {
 		ChannelPipeline pipeline = Channels.pipeline();
 
+		// filter
+		pipeline.addLast("filter", filter);
+
 		// decoders
 		pipeline.addLast("decoder", new HttpRequestDecoder());
 		pipeline.addLast("chunker", new HttpChunkAggregator(MAX_REQUEST_LENGTH));
+		pipeline.addLast("sequencer", new HttpRequestSequencer());
 
 		// encoders
 		pipeline.addLast("encoder", new HttpResponseEncoder());
 
 		// handler
-		pipeline.addLast("timeout", new IdleStateHandler(timer, NetworkConstants.IDLE_TIME, 0, 0));
+		// writes count as activity, as the client sends nothing while a (possibly throttled) download is in progress
+		pipeline.addLast("timeout", new IdleStateHandler(timer, 0, 0, NetworkConstants.IDLE_TIME));
 		pipeline.addLast("handler", handler);
 
 		return pipeline;
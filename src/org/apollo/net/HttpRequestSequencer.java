@@ -0,0 +1,92 @@
+package org.apollo.net;
+
+import java.util.LinkedList;
+import java.util.Queue;
+
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+
+/**
+ * A {@link SimpleChannelUpstreamHandler} which passes on the HTTP requests of a connection one at a time, so that the
+ * responses to pipelined requests are written in the order the requests were sent. The next request is passed on
+ * once {@link #responseWritten(Channel)} is called for the previous one.
+ * <p>
+ * The connection is not read while a request is being served. The requests which were decoded from the same read as
+ * it (i.e. which the client sent in one go) are queued until it has been served.
+ * 
+ * @author Graham
+ */
+public final class HttpRequestSequencer extends SimpleChannelUpstreamHandler {
+
+	/**
+	 * Passes on the next request of a channel, as the response to the previous request has been written.
+	 * 
+	 * @param channel The channel.
+	 */
+	public static void responseWritten(Channel channel) {
+		HttpRequestSequencer sequencer = channel.getPipeline().get(HttpRequestSequencer.class);
+		if (sequencer != null) {
+			sequencer.next(channel);
+		}
+	}
+
+	/**
+	 * The context of this handler.
+	 */
+	private ChannelHandlerContext ctx;
+
+	/**
+	 * A flag indicating if a request has been passed on and its response has not yet been written.
+	 */
+	private boolean inFlight = false;
+
+	/**
+	 * The requests which are waiting to be passed on.
+	 */
+	private final Queue<MessageEvent> pending = new LinkedList<MessageEvent>();
+
+	@Override
+	public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+		if (!(e.getMessage() instanceof HttpRequest)) {
+			super.messageReceived(ctx, e);
+			return;
+		}
+
+		synchronized (this) {
+			this.ctx = ctx;
+			if (inFlight) {
+				pending.add(e);
+				return;
+			}
+			inFlight = true;
+		}
+
+		ctx.getChannel().setReadable(false);
+		ctx.sendUpstream(e);
+	}
+
+	/**
+	 * Passes on the next request which is waiting, or reads the channel again if there is none.
+	 * 
+	 * @param channel The channel.
+	 */
+	private void next(Channel channel) {
+		MessageEvent next;
+		synchronized (this) {
+			next = pending.poll();
+			if (next == null) {
+				inFlight = false;
+			}
+		}
+
+		if (next == null) {
+			channel.setReadable(true);
+		} else {
+			ctx.sendUpstream(next);
+		}
+	}
+
+}
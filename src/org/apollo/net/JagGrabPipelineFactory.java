@@ -49,6 +49,11 @@ public final class JagGrabPipelineFactory implements ChannelPipelineFactory {
 	 */
 	private final ApolloHandler handler;
 
+	/**
+	 * The connection filter.
+	 */
+	private final ConnectionFilter filter;
+
 	/**
 	 * The timer used for idle checking.
 	 */
@@ -58,10 +63,12 @@ public final class JagGrabPipelineFactory implements ChannelPipelineFactory {
 	 * Creates a {@code JAGGRAB} pipeline factory.
 	 * 
 	 * @param handler The file server event handler.
+	 * @param filter The connection filter.
 	 * @param timer The timer used for idle checking.
 	 */
-	public JagGrabPipelineFactory(ApolloHandler handler, Timer timer) {
+	public JagGrabPipelineFactory(ApolloHandler handler, ConnectionFilter filter, Timer timer) {
 		this.handler = handler;
+		this.filter = filter;
 		this.timer = timer;
 	}
 
@@ -69,6 +76,9 @@ public final class JagGrabPipelineFactory implements ChannelPipelineFactory {
 	public ChannelPipeline getPipeline() throws Exception {
 		ChannelPipeline pipeline = Channels.pipeline();
 
+		// filter
+		pipeline.addLast("filter", filter);
+
 		// decoders
 		pipeline.addLast("framer", new DelimiterBasedFrameDecoder(MAX_REQUEST_LENGTH, DOUBLE_LINE_FEED_DELIMITER));
 		pipeline.addLast("string-decoder", new StringDecoder(JAGGRAB_CHARSET));
@@ -7,6 +7,11 @@ package org.apollo.net;
  */
 public final class NetworkConstants {
 
+	/**
+	 * The number of stripes of the counters of connections per address.
+	 */
+	public static final int CONNECTION_STRIPES = 4096;
+
 	/**
 	 * The HTTP port.
 	 */
@@ -32,6 +37,12 @@ public final class NetworkConstants {
 	 */
 	public static final int STRING_TERMINATOR = 10;
 
+	/**
+	 * The number of I/O worker threads which serve the HTTP and JAGGRAB listeners, separately from the service
+	 * listener, or {@code 0} to share the worker threads of the service listener.
+	 */
+	public static final int UPDATE_WORKER_THREADS = Runtime.getRuntime().availableProcessors();
+
 	/**
 	 * Default private constructor to prevent instantiation by other classes.
 	 */
@@ -19,6 +19,11 @@ public final class ServicePipelineFactory implements ChannelPipelineFactory {
 	 */
 	private final ApolloHandler handler;
 
+	/**
+	 * The connection filter.
+	 */
+	private final ConnectionFilter filter;
+
 	/**
 	 * The timer used for idle checking.
 	 */
@@ -28,16 +33,19 @@ public final class ServicePipelineFactory implements ChannelPipelineFactory {
 	 * Creates the service pipeline factory.
 	 * 
 	 * @param handler The networking event handler.
+	 * @param filter The connection filter.
 	 * @param timer The timer used for idle checking.
 	 */
-	public ServicePipelineFactory(ApolloHandler handler, Timer timer) {
+	public ServicePipelineFactory(ApolloHandler handler, ConnectionFilter filter, Timer timer) {
 		this.handler = handler;
+		this.filter = filter;
 		this.timer = timer;
 	}
 
 	@Override
 	public ChannelPipeline getPipeline() throws Exception {
 		ChannelPipeline pipeline = Channels.pipeline();
+		pipeline.addLast("filter", filter);
 		pipeline.addLast("handshakeDecoder", new HandshakeDecoder());
 		pipeline.addLast("timeout", new IdleStateHandler(timer, NetworkConstants.IDLE_TIME, 0, 0));
 		pipeline.addLast("handler", handler);
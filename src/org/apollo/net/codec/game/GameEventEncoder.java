@@ -8,7 +8,8 @@ import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
 
 /**
- * A {@link OneToOneEncoder} which encodes {@link Event}s into {@link GamePacket}s.
+ * A {@link OneToOneEncoder} which encodes {@link Event}s, on their own or in an {@link OutboundBatch}, into
+ * {@link GamePacket}s.
  * 
  * @author Graham
  */
@@ -28,18 +29,32 @@ public final class GameEventEncoder extends OneToOneEncoder {
 		this.release = release;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	protected Object encode(ChannelHandlerContext ctx, Channel c, Object msg) throws Exception {
 		if (msg instanceof Event) {
-			Event event = (Event) msg;
-			EventEncoder<Event> encoder = (EventEncoder<Event>) release.getEventEncoder(event.getClass());
-			if (encoder != null) {
-				return encoder.encode(event);
+			return encode((Event) msg);
+		} else if (msg instanceof OutboundBatch) {
+			OutboundBatch batch = (OutboundBatch) msg;
+			for (int index = 0; index < batch.size(); index++) {
+				Object message = batch.get(index);
+				if (message instanceof Event) {
+					batch.set(index, encode((Event) message));
+				}
 			}
-			return null;
 		}
 		return msg;
 	}
 
+	/**
+	 * Encodes an event.
+	 * 
+	 * @param event The event.
+	 * @return The packet, or {@code null} if the release cannot encode the event.
+	 */
+	@SuppressWarnings("unchecked")
+	private GamePacket encode(Event event) {
+		EventEncoder<Event> encoder = (EventEncoder<Event>) release.getEventEncoder(event.getClass());
+		return encoder == null ? null : encoder.encode(event);
+	}
+
 }
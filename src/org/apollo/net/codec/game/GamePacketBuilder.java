@@ -13,9 +13,45 @@ import org.jboss.netty.buffer.ChannelBuffers;
 public final class GamePacketBuilder {
 
 	/**
-	 * The current bit index.
+	 * Applies a transformation to the least significant byte of a value.
+	 * 
+	 * @param transformation The transformation.
+	 * @param value The value.
+	 * @return The transformed value. Only the least significant byte is meaningful.
+	 * @throws IllegalArgumentException If the transformation is unknown.
 	 */
-	private int bitIndex;
+	private static int transform(DataTransformation transformation, int value) {
+		switch (transformation) {
+		case NONE:
+			return value;
+		case ADD:
+			return value + 128;
+		case NEGATE:
+			return -value;
+		case SUBTRACT:
+			return 128 - value;
+		default:
+			throw new IllegalArgumentException("unknown transformation");
+		}
+	}
+
+	/**
+	 * The number of bytes reserved at the front of the buffer of a non-raw builder, into which the
+	 * {@link GamePacketEncoder} writes the opcode and length of the packet, so that the header and payload can be sent
+	 * without being copied into a new buffer.
+	 */
+	public static final int HEADER_ROOM = 3;
+
+	/**
+	 * The number of bits in the {@link #bitRegister} which have not yet been written to the buffer.
+	 */
+	private int bitCount;
+
+	/**
+	 * The register into which bits are accumulated in bit access mode. The lowest {@link #bitCount} bits have not yet
+	 * been written to the buffer, and are flushed 32 bits at a time.
+	 */
+	private long bitRegister;
 
 	/**
 	 * The buffer.
@@ -63,6 +99,8 @@ public final class GamePacketBuilder {
 	public GamePacketBuilder(int opcode, PacketType type) {
 		this.opcode = opcode;
 		this.type = type;
+		buffer.writerIndex(HEADER_ROOM);
+		buffer.readerIndex(HEADER_ROOM);
 	}
 
 	/**
@@ -95,7 +133,7 @@ public final class GamePacketBuilder {
 	 */
 	public int getLength() {
 		checkByteAccess();
-		return buffer.writerIndex();
+		return buffer.readableBytes();
 	}
 
 	/**
@@ -108,69 +146,56 @@ public final class GamePacketBuilder {
 	 * @throws IllegalStateException If this reader is not in byte access mode.
 	 * @throws IllegalArgumentException If the combination is invalid.
 	 */
-	public void put(DataType type, DataOrder order, DataTransformation transformation, Number value) {
+	public void put(DataType type, DataOrder order, DataTransformation transformation, long value) {
 		checkByteAccess();
-		long longValue = value.longValue();
 		int length = type.getBytes();
 		if (order == DataOrder.BIG) {
-			for (int i = length - 1; i >= 0; i--) {
-				if (i == 0 && transformation != DataTransformation.NONE) {
-					if (transformation == DataTransformation.ADD) {
-						buffer.writeByte((byte) (longValue + 128));
-					} else if (transformation == DataTransformation.NEGATE) {
-						buffer.writeByte((byte) -longValue);
-					} else if (transformation == DataTransformation.SUBTRACT) {
-						buffer.writeByte((byte) (128 - longValue));
-					} else {
-						throw new IllegalArgumentException("unknown transformation");
-					}
-				} else {
-					buffer.writeByte((byte) (longValue >> i * 8));
-				}
+			for (int i = length - 1; i > 0; i--) {
+				buffer.writeByte((byte) (value >> i * 8));
 			}
+			buffer.writeByte(transform(transformation, (int) value));
 		} else if (order == DataOrder.LITTLE) {
-			for (int i = 0; i < length; i++) {
-				if (i == 0 && transformation != DataTransformation.NONE) {
-					if (transformation == DataTransformation.ADD) {
-						buffer.writeByte((byte) (longValue + 128));
-					} else if (transformation == DataTransformation.NEGATE) {
-						buffer.writeByte((byte) -longValue);
-					} else if (transformation == DataTransformation.SUBTRACT) {
-						buffer.writeByte((byte) (128 - longValue));
-					} else {
-						throw new IllegalArgumentException("unknown transformation");
-					}
-				} else {
-					buffer.writeByte((byte) (longValue >> i * 8));
-				}
-			}
-		} else if (order == DataOrder.MIDDLE) {
-			if (transformation != DataTransformation.NONE) {
-				throw new IllegalArgumentException("middle endian cannot be transformed");
+			buffer.writeByte(transform(transformation, (int) value));
+			for (int i = 1; i < length; i++) {
+				buffer.writeByte((byte) (value >> i * 8));
 			}
+		} else if (order == DataOrder.MIDDLE || order == DataOrder.INVERSED_MIDDLE) {
 			if (type != DataType.INT) {
 				throw new IllegalArgumentException("middle endian can only be used with an integer");
 			}
-			buffer.writeByte((byte) (longValue >> 8));
-			buffer.writeByte((byte) longValue);
-			buffer.writeByte((byte) (longValue >> 24));
-			buffer.writeByte((byte) (longValue >> 16));
-		} else if (order == DataOrder.INVERSED_MIDDLE) {
-			if (transformation != DataTransformation.NONE) {
-				throw new IllegalArgumentException("inversed middle endian cannot be transformed");
-			}
-			if (type != DataType.INT) {
-				throw new IllegalArgumentException("inversed middle endian can only be used with an integer");
-			}
-			buffer.writeByte((byte) (longValue >> 16));
-			buffer.writeByte((byte) (longValue >> 24));
-			buffer.writeByte((byte) longValue);
-			buffer.writeByte((byte) (longValue >> 8));
+			putInt(order, transformation, (int) value);
 		} else {
 			throw new IllegalArgumentException("unknown order");
 		}
 	}
 
+	/**
+	 * Puts a standard data type with the specified value, byte order and transformation.
+	 * 
+	 * @param type The data type.
+	 * @param order The byte order.
+	 * @param transformation The transformation.
+	 * @param value The value.
+	 * @throws IllegalStateException If this reader is not in byte access mode.
+	 * @throws IllegalArgumentException If the combination is invalid.
+	 */
+	public void put(DataType type, DataOrder order, DataTransformation transformation, Number value) {
+		put(type, order, transformation, value.longValue());
+	}
+
+	/**
+	 * Puts a standard data type with the specified value and byte order.
+	 * 
+	 * @param type The data type.
+	 * @param order The byte order.
+	 * @param value The value.
+	 * @throws IllegalStateException If this reader is not in byte access mode.
+	 * @throws IllegalArgumentException If the combination is invalid.
+	 */
+	public void put(DataType type, DataOrder order, long value) {
+		put(type, order, DataTransformation.NONE, value);
+	}
+
 	/**
 	 * Puts a standard data type with the specified value and byte order.
 	 * 
@@ -184,6 +209,19 @@ public final class GamePacketBuilder {
 		put(type, order, DataTransformation.NONE, value);
 	}
 
+	/**
+	 * Puts a standard data type with the specified value and transformation.
+	 * 
+	 * @param type The type.
+	 * @param transformation The transformation.
+	 * @param value The value.
+	 * @throws IllegalStateException If this reader is not in byte access mode.
+	 * @throws IllegalArgumentException If the combination is invalid.
+	 */
+	public void put(DataType type, DataTransformation transformation, long value) {
+		put(type, DataOrder.BIG, transformation, value);
+	}
+
 	/**
 	 * Puts a standard data type with the specified value and transformation.
 	 * 
@@ -197,6 +235,17 @@ public final class GamePacketBuilder {
 		put(type, DataOrder.BIG, transformation, value);
 	}
 
+	/**
+	 * Puts a standard data type with the specified value.
+	 * 
+	 * @param type The data type.
+	 * @param value The value.
+	 * @throws IllegalStateException If this reader is not in byte access mode.
+	 */
+	public void put(DataType type, long value) {
+		put(type, DataOrder.BIG, DataTransformation.NONE, value);
+	}
+
 	/**
 	 * Puts a standard data type with the specified value.
 	 * 
@@ -235,7 +284,7 @@ public final class GamePacketBuilder {
 	 * @param numBits The number of bits to put into the buffer.
 	 * @param value The value.
 	 * @throws IllegalStateException If the builder is not in bit access mode.
-	 * @throws IllegalArgumentException If the number of bits is not between 1 and 31 inclusive.
+	 * @throws IllegalArgumentException If the number of bits is not between 1 and 32 inclusive.
 	 */
 	public void putBits(int numBits, int value) {
 		if (numBits < 0 || numBits > 32) {
@@ -244,32 +293,35 @@ public final class GamePacketBuilder {
 
 		checkBitAccess();
 
-		int bytePos = bitIndex >> 3;
-		int bitOffset = 8 - (bitIndex & 7);
-		bitIndex += numBits;
+		bitRegister = bitRegister << numBits | value & (1L << numBits) - 1;
+		bitCount += numBits;
+		if (bitCount >= 32) {
+			bitCount -= 32;
+			buffer.writeInt((int) (bitRegister >>> bitCount));
+		}
+	}
 
-		int requiredSpace = bytePos - buffer.writerIndex() + 1;
-		requiredSpace += (numBits + 7) / 8;
-		buffer.ensureWritableBytes(requiredSpace);
+	/**
+	 * Puts a byte into the buffer.
+	 * 
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	public void putByte(int value) {
+		checkByteAccess();
+		buffer.writeByte(value);
+	}
 
-		for (; numBits > bitOffset; bitOffset = 8) {
-			int tmp = buffer.getByte(bytePos);
-			tmp &= ~DataConstants.BIT_MASK[bitOffset];
-			tmp |= value >> numBits - bitOffset & DataConstants.BIT_MASK[bitOffset];
-			buffer.setByte(bytePos++, tmp);
-			numBits -= bitOffset;
-		}
-		if (numBits == bitOffset) {
-			int tmp = buffer.getByte(bytePos);
-			tmp &= ~DataConstants.BIT_MASK[bitOffset];
-			tmp |= value & DataConstants.BIT_MASK[bitOffset];
-			buffer.setByte(bytePos, tmp);
-		} else {
-			int tmp = buffer.getByte(bytePos);
-			tmp &= ~(DataConstants.BIT_MASK[numBits] << bitOffset - numBits);
-			tmp |= (value & DataConstants.BIT_MASK[numBits]) << bitOffset - numBits;
-			buffer.setByte(bytePos, tmp);
-		}
+	/**
+	 * Puts a byte into the buffer with the specified transformation.
+	 * 
+	 * @param transformation The transformation.
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	public void putByte(DataTransformation transformation, int value) {
+		checkByteAccess();
+		buffer.writeByte(transform(transformation, value));
 	}
 
 	/**
@@ -289,14 +341,7 @@ public final class GamePacketBuilder {
 	 * @throws IllegalStateException If the builder is not in byte access mode.
 	 */
 	public void putBytes(ChannelBuffer buffer) {
-		byte[] bytes = new byte[buffer.readableBytes()];
-		buffer.markReaderIndex();
-		try {
-			buffer.readBytes(bytes);
-		} finally {
-			buffer.resetReaderIndex();
-		}
-		putBytes(bytes);
+		this.buffer.writeBytes(buffer, buffer.readerIndex(), buffer.readableBytes());
 	}
 
 	/**
@@ -311,7 +356,7 @@ public final class GamePacketBuilder {
 			putBytes(bytes);
 		} else {
 			for (byte b : bytes) {
-				put(DataType.BYTE, transformation, b);
+				putByte(transformation, b);
 			}
 		}
 	}
@@ -358,11 +403,86 @@ public final class GamePacketBuilder {
 			putBytesReverse(bytes);
 		} else {
 			for (int i = bytes.length - 1; i >= 0; i--) {
-				put(DataType.BYTE, transformation, bytes[i]);
+				putByte(transformation, bytes[i]);
 			}
 		}
 	}
 
+	/**
+	 * Puts an integer into the buffer.
+	 * 
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	public void putInt(int value) {
+		checkByteAccess();
+		buffer.writeInt(value);
+	}
+
+	/**
+	 * Puts an integer into the buffer with the specified byte order.
+	 * 
+	 * @param order The byte order.
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	public void putInt(DataOrder order, int value) {
+		putInt(order, DataTransformation.NONE, value);
+	}
+
+	/**
+	 * Puts an integer into the buffer with the specified byte order and transformation.
+	 * 
+	 * @param order The byte order.
+	 * @param transformation The transformation.
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 * @throws IllegalArgumentException If a middle endian order is used with a transformation.
+	 */
+	public void putInt(DataOrder order, DataTransformation transformation, int value) {
+		checkByteAccess();
+		if (order == DataOrder.BIG) {
+			buffer.writeByte(value >> 24);
+			buffer.writeByte(value >> 16);
+			buffer.writeByte(value >> 8);
+			buffer.writeByte(transform(transformation, value));
+		} else if (order == DataOrder.LITTLE) {
+			buffer.writeByte(transform(transformation, value));
+			buffer.writeByte(value >> 8);
+			buffer.writeByte(value >> 16);
+			buffer.writeByte(value >> 24);
+		} else if (order == DataOrder.MIDDLE) {
+			if (transformation != DataTransformation.NONE) {
+				throw new IllegalArgumentException("middle endian cannot be transformed");
+			}
+			buffer.writeByte(value >> 8);
+			buffer.writeByte(value);
+			buffer.writeByte(value >> 24);
+			buffer.writeByte(value >> 16);
+		} else if (order == DataOrder.INVERSED_MIDDLE) {
+			if (transformation != DataTransformation.NONE) {
+				throw new IllegalArgumentException("inversed middle endian cannot be transformed");
+			}
+			buffer.writeByte(value >> 16);
+			buffer.writeByte(value >> 24);
+			buffer.writeByte(value);
+			buffer.writeByte(value >> 8);
+		} else {
+			throw new IllegalArgumentException("unknown order");
+		}
+	}
+
+	/**
+	 * Puts a long into the buffer.
+	 * 
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	public void putLong(long value) {
+		checkByteAccess();
+		buffer.writeLong(value);
+	}
+
 	/**
 	 * Puts a raw builder. Both builders (this and parameter) must be in byte access mode.
 	 * 
@@ -391,6 +511,62 @@ public final class GamePacketBuilder {
 		putBytesReverse(builder.buffer);
 	}
 
+	/**
+	 * Puts a short into the buffer.
+	 * 
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	public void putShort(int value) {
+		checkByteAccess();
+		buffer.writeShort(value);
+	}
+
+	/**
+	 * Puts a short into the buffer with the specified byte order.
+	 * 
+	 * @param order The byte order.
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 * @throws IllegalArgumentException If the order is not big or little endian.
+	 */
+	public void putShort(DataOrder order, int value) {
+		putShort(order, DataTransformation.NONE, value);
+	}
+
+	/**
+	 * Puts a short into the buffer with the specified byte order and transformation.
+	 * 
+	 * @param order The byte order.
+	 * @param transformation The transformation.
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 * @throws IllegalArgumentException If the order is not big or little endian.
+	 */
+	public void putShort(DataOrder order, DataTransformation transformation, int value) {
+		checkByteAccess();
+		if (order == DataOrder.BIG) {
+			buffer.writeByte(value >> 8);
+			buffer.writeByte(transform(transformation, value));
+		} else if (order == DataOrder.LITTLE) {
+			buffer.writeByte(transform(transformation, value));
+			buffer.writeByte(value >> 8);
+		} else {
+			throw new IllegalArgumentException("middle endian can only be used with an integer");
+		}
+	}
+
+	/**
+	 * Puts a short into the buffer with the specified transformation.
+	 * 
+	 * @param transformation The transformation.
+	 * @param value The value.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	public void putShort(DataTransformation transformation, int value) {
+		putShort(DataOrder.BIG, transformation, value);
+	}
+
 	/**
 	 * Puts a smart into the buffer.
 	 * 
@@ -429,7 +605,7 @@ public final class GamePacketBuilder {
 			throw new IllegalStateException("Already in bit access mode");
 		}
 		mode = AccessMode.BIT_ACCESS;
-		bitIndex = buffer.writerIndex() * 8;
+		bitCount = 0;
 	}
 
 	/**
@@ -442,7 +618,27 @@ public final class GamePacketBuilder {
 			throw new IllegalStateException("Already in byte access mode");
 		}
 		mode = AccessMode.BYTE_ACCESS;
-		buffer.writerIndex((bitIndex + 7) / 8);
+
+		for (; bitCount >= 8; bitCount -= 8) {
+			buffer.writeByte((int) (bitRegister >>> bitCount - 8));
+		}
+		if (bitCount > 0) {
+			buffer.writeByte((int) (bitRegister << 8 - bitCount));
+			bitCount = 0;
+		}
+	}
+
+	/**
+	 * Copies the current contents of this builder into a new byte array.
+	 * 
+	 * @return The byte array.
+	 * @throws IllegalStateException If the builder is not in byte access mode.
+	 */
+	public byte[] toByteArray() {
+		checkByteAccess();
+		byte[] bytes = new byte[buffer.readableBytes()];
+		buffer.getBytes(buffer.readerIndex(), bytes);
+		return bytes;
 	}
 
 	/**
@@ -82,17 +82,15 @@ public final class GamePacketDecoder extends StatefulFrameDecoder<GameDecoderSta
 	private Object decodeLength(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
 		if (buffer.readable()) {
 			length = buffer.readUnsignedByte();
-			if (length == 0) {
-				return decodeZeroLengthPacket(ctx, channel, buffer);
-			} else {
-				setState(GameDecoderState.GAME_PAYLOAD);
-			}
+			return decodePayload(ctx, channel, buffer);
 		}
+		setState(GameDecoderState.GAME_LENGTH);
 		return null;
 	}
 
 	/**
-	 * Decodes in the opcode state.
+	 * Decodes in the opcode state. If the rest of the packet has already been received, it is decoded straight away
+	 * rather than by stepping through the other states, which is the case for almost every packet.
 	 * 
 	 * @param ctx The channel handler context.
 	 * @param channel The channel.
@@ -114,15 +112,9 @@ public final class GamePacketDecoder extends StatefulFrameDecoder<GameDecoderSta
 			switch (type) {
 			case FIXED:
 				length = metaData.getLength();
-				if (length == 0) {
-					return decodeZeroLengthPacket(ctx, channel, buffer);
-				} else {
-					setState(GameDecoderState.GAME_PAYLOAD);
-				}
-				break;
+				return decodePayload(ctx, channel, buffer);
 			case VARIABLE_BYTE:
-				setState(GameDecoderState.GAME_LENGTH);
-				break;
+				return decodeLength(ctx, channel, buffer);
 			default:
 				throw new Exception("Illegal packet type: " + type);
 			}
@@ -131,7 +123,11 @@ public final class GamePacketDecoder extends StatefulFrameDecoder<GameDecoderSta
 	}
 
 	/**
-	 * Decodes in the payload state.
+	 * Decodes in the payload state. The payload of the packet is a slice of the buffer rather than a copy, so it is
+	 * only valid until the packet has been passed up the pipeline (which is where it is decoded into an event).
+	 * <p>
+	 * Packets with no payload share an empty buffer. As the opcode has already been read, Netty does not treat them
+	 * as frames which were decoded without reading anything.
 	 * 
 	 * @param ctx The channel handler context.
 	 * @param channel The channel.
@@ -140,29 +136,16 @@ public final class GamePacketDecoder extends StatefulFrameDecoder<GameDecoderSta
 	 * @throws Exception If an error occurs.
 	 */
 	private Object decodePayload(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
-		if (buffer.readableBytes() >= length) {
-			ChannelBuffer payload = buffer.readBytes(length);
+		if (length == 0) {
+			setState(GameDecoderState.GAME_OPCODE);
+			return new GamePacket(opcode, type, ChannelBuffers.EMPTY_BUFFER);
+		} else if (buffer.readableBytes() >= length) {
+			ChannelBuffer payload = buffer.readSlice(length);
 			setState(GameDecoderState.GAME_OPCODE);
 			return new GamePacket(opcode, type, payload);
 		}
+		setState(GameDecoderState.GAME_PAYLOAD);
 		return null;
 	}
 
-	/**
-	 * Decodes a zero length packet. This hackery is required as Netty will throw an Exception If we return a frame but
-	 * have read nothing!
-	 * 
-	 * @param ctx The channel handler context.
-	 * @param channel The channel.
-	 * @param buffer The buffer.
-	 * @return The frame, or {@code null}.
-	 * @throws Exception If an error occurs.
-	 */
-	private Object decodeZeroLengthPacket(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer)
-			throws Exception {
-		ChannelBuffer payload = ChannelBuffers.buffer(0);
-		setState(GameDecoderState.GAME_OPCODE);
-		return new GamePacket(opcode, type, payload);
-	}
-
 }
@@ -11,6 +11,15 @@ import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
 
 /**
  * A {@link OneToOneEncoder} which encodes in-game packets.
+ * <p>
+ * The payload is never copied: if there is room in front of it (as there is in packets created by a
+ * {@link GamePacketBuilder}, see {@link GamePacketBuilder#HEADER_ROOM}) the header is written there and the header and
+ * payload are sent as a single slice, otherwise the header is written to a small buffer which is sent together with
+ * the payload as a composite buffer. As the header may be written into the payload's buffer, a packet must only be
+ * encoded once.
+ * <p>
+ * The packets in an {@link OutboundBatch} are framed into a single buffer, so that the whole batch is sent with one
+ * write.
  * 
  * @author Graham
  */
@@ -32,36 +41,106 @@ public final class GamePacketEncoder extends OneToOneEncoder {
 
 	@Override
 	protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
-		if (!(msg instanceof GamePacket)) {
+		if (msg instanceof OutboundBatch) {
+			return encode((OutboundBatch) msg);
+		} else if (!(msg instanceof GamePacket)) {
 			return msg;
 		}
 
 		GamePacket packet = (GamePacket) msg;
-		PacketType type = packet.getType();
-		int headerLength = 1;
+		int headerLength = getHeaderLength(packet);
 		int payloadLength = packet.getLength();
+		PacketType type = packet.getType();
+
+		ChannelBuffer payload = packet.getPayload();
+		int start = payload.readerIndex() - headerLength;
+		if (start >= 0) {
+			writeHeader(payload, start, packet.getOpcode(), type, payloadLength);
+			return payload.slice(start, headerLength + payloadLength);
+		}
+
+		ChannelBuffer header = ChannelBuffers.buffer(headerLength);
+		writeHeader(header, 0, packet.getOpcode(), type, payloadLength);
+		header.writerIndex(headerLength);
+		return ChannelBuffers.wrappedBuffer(header, payload);
+	}
+
+	/**
+	 * Frames every packet in a batch into a single buffer.
+	 * 
+	 * @param batch The batch.
+	 * @return The buffer.
+	 * @throws Exception If a packet's payload is too long for its type.
+	 */
+	private ChannelBuffer encode(OutboundBatch batch) throws Exception {
+		int length = 0;
+		for (int index = 0; index < batch.size(); index++) {
+			Object message = batch.get(index);
+			if (message instanceof GamePacket) {
+				GamePacket packet = (GamePacket) message;
+				length += getHeaderLength(packet) + packet.getLength();
+			}
+		}
+
+		ChannelBuffer buffer = ChannelBuffers.buffer(length);
+		for (int index = 0; index < batch.size(); index++) {
+			Object message = batch.get(index);
+			if (message instanceof GamePacket) {
+				GamePacket packet = (GamePacket) message;
+				int headerLength = getHeaderLength(packet);
+				writeHeader(buffer, buffer.writerIndex(), packet.getOpcode(), packet.getType(), packet.getLength());
+				buffer.writerIndex(buffer.writerIndex() + headerLength);
+
+				ChannelBuffer payload = packet.getPayload();
+				buffer.writeBytes(payload, payload.readerIndex(), packet.getLength());
+			}
+		}
+
+		OutboundMetrics.getMetrics().recordFlush(batch.size(), length);
+		return buffer;
+	}
+
+	/**
+	 * Gets the length of the header of a packet.
+	 * 
+	 * @param packet The packet.
+	 * @return The length of the header.
+	 * @throws Exception If the payload is too long for the packet's type.
+	 */
+	private int getHeaderLength(GamePacket packet) throws Exception {
+		PacketType type = packet.getType();
+		int length = packet.getLength();
 		if (type == PacketType.VARIABLE_BYTE) {
-			headerLength++;
-			if (payloadLength >= 256) {
+			if (length >= 256) {
 				throw new Exception("Payload too long for variable byte packet");
 			}
+			return 2;
 		} else if (type == PacketType.VARIABLE_SHORT) {
-			headerLength += 2;
-			if (payloadLength >= 65536) {
+			if (length >= 65536) {
 				throw new Exception("Payload too long for variable short packet");
 			}
+			return 3;
 		}
+		return 1;
+	}
 
-		ChannelBuffer buffer = ChannelBuffers.buffer(headerLength + payloadLength);
-		buffer.writeByte(packet.getOpcode() + random.nextInt() & 0xFF);
+	/**
+	 * Writes the header of a packet: the opcode, encrypted with the next value from the random number generator, and
+	 * the length of the payload if the packet is variable-length.
+	 * 
+	 * @param buffer The buffer.
+	 * @param index The index at which the header is written.
+	 * @param opcode The opcode.
+	 * @param type The packet type.
+	 * @param length The length of the payload.
+	 */
+	private void writeHeader(ChannelBuffer buffer, int index, int opcode, PacketType type, int length) {
+		buffer.setByte(index, opcode + random.nextInt() & 0xFF);
 		if (type == PacketType.VARIABLE_BYTE) {
-			buffer.writeByte(payloadLength);
+			buffer.setByte(index + 1, length);
 		} else if (type == PacketType.VARIABLE_SHORT) {
-			buffer.writeShort(payloadLength);
+			buffer.setShort(index + 1, length);
 		}
-		buffer.writeBytes(packet.getPayload());
-
-		return buffer;
 	}
 
 }
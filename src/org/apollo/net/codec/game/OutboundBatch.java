@@ -0,0 +1,109 @@
+package org.apollo.net.codec.game;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apollo.game.event.Event;
+
+/**
+ * A batch of the messages sent to a game session during a pulse, which is written to the channel with a single write.
+ * The messages are {@link Event}s, which are replaced by their {@link GamePacket}s by the {@link GameEventEncoder}, or
+ * packets which have already been encoded. The {@link GamePacketEncoder} then frames every packet into one buffer.
+ * 
+ * @author Graham
+ */
+public final class OutboundBatch {
+
+	/**
+	 * The messages.
+	 */
+	private final List<Object> messages = new ArrayList<Object>();
+
+	/**
+	 * The positions of the messages which are superseded by later messages of the same kind.
+	 */
+	private final BitSet superseded = new BitSet();
+
+	/**
+	 * Adds a message to this batch.
+	 * 
+	 * @param message The message, either an {@link Event} or a {@link GamePacket}.
+	 */
+	public void add(Object message) {
+		messages.add(message);
+	}
+
+	/**
+	 * Adds a message to this batch.
+	 * 
+	 * @param message The message, either an {@link Event} or a {@link GamePacket}.
+	 * @param superseded A flag indicating if the message is superseded by later messages of the same kind, and so may
+	 *            be dropped if the batch cannot be written (see {@link #removeSuperseded()}).
+	 */
+	public void add(Object message, boolean superseded) {
+		if (superseded) {
+			this.superseded.set(messages.size());
+		}
+		messages.add(message);
+	}
+
+	/**
+	 * Gets the message at the specified position.
+	 * 
+	 * @param index The position.
+	 * @return The message, or {@code null} if it was an event which the release could not encode.
+	 */
+	public Object get(int index) {
+		return messages.get(index);
+	}
+
+	/**
+	 * Checks if this batch is empty.
+	 * 
+	 * @return {@code true} if so, {@code false} if not.
+	 */
+	public boolean isEmpty() {
+		return messages.isEmpty();
+	}
+
+	/**
+	 * Removes the messages which are superseded by later messages of the same kind.
+	 * 
+	 * @return The number of messages removed.
+	 */
+	public int removeSuperseded() {
+		int removed = superseded.cardinality();
+		if (removed != 0) {
+			int position = 0;
+			for (int index = 0; index < messages.size(); index++) {
+				if (!superseded.get(index)) {
+					messages.set(position++, messages.get(index));
+				}
+			}
+			messages.subList(position, messages.size()).clear();
+			superseded.clear();
+		}
+		return removed;
+	}
+
+	/**
+	 * Replaces the message at the specified position.
+	 * 
+	 * @param index The position.
+	 * @param message The message.
+	 */
+	public void set(int index, Object message) {
+		messages.set(index, message);
+	}
+
+	/**
+	 * Gets the number of messages in this batch.
+	 * 
+	 * @return The number of messages.
+	 */
+	public int size() {
+		return messages.size();
+	}
+
+}
@@ -0,0 +1,232 @@
+package org.apollo.net.codec.game;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts the writes made to game channels: the number of {@link OutboundBatch}es flushed in each pulse, and the number
+ * of bytes written by each. The number of sessions which are writable and congested at the end of each pulse, and the
+ * messages dropped and sessions disconnected because of congestion, are also counted. The counters are published
+ * through JMX under {@code org.apollo:type=OutboundMetrics}.
+ * 
+ * @author Graham
+ */
+public final class OutboundMetrics implements OutboundMetricsMBean {
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = Logger.getLogger(OutboundMetrics.class.getName());
+
+	/**
+	 * The metrics.
+	 */
+	private static final OutboundMetrics metrics = new OutboundMetrics();
+
+	/**
+	 * Gets the metrics.
+	 * 
+	 * @return The metrics.
+	 */
+	public static OutboundMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * The number of sessions which are congested at the end of the current pulse.
+	 */
+	private int congested = 0;
+
+	/**
+	 * The number of messages dropped by congested sessions.
+	 */
+	private long dropped = 0;
+
+	/**
+	 * The number of sessions which were congested at the end of the last complete pulse.
+	 */
+	private int lastCongested = 0;
+
+	/**
+	 * The number of sessions disconnected for being congested for too long.
+	 */
+	private long laggards = 0;
+
+	/**
+	 * The number of messages written during the last complete pulse.
+	 */
+	private int lastMessages = 0;
+
+	/**
+	 * The largest flush of the last complete pulse, in bytes.
+	 */
+	private long lastMaxBytes = 0;
+
+	/**
+	 * The number of sessions which were writable at the end of the last complete pulse.
+	 */
+	private int lastWritable = 0;
+
+	/**
+	 * The number of writes made during the last complete pulse.
+	 */
+	private int lastWrites = 0;
+
+	/**
+	 * The largest flush of the current pulse, in bytes.
+	 */
+	private long maxBytes = 0;
+
+	/**
+	 * The number of messages written during the current pulse.
+	 */
+	private int messages = 0;
+
+	/**
+	 * The total number of bytes flushed.
+	 */
+	private long totalBytes = 0;
+
+	/**
+	 * The total number of flushes.
+	 */
+	private long totalFlushes = 0;
+
+	/**
+	 * The number of sessions which are writable at the end of the current pulse.
+	 */
+	private int writable = 0;
+
+	/**
+	 * The number of writes made during the current pulse.
+	 */
+	private int writes = 0;
+
+	/**
+	 * Creates the metrics and registers them with the platform MBean server.
+	 */
+	private OutboundMetrics() {
+		String name = "org.apollo:type=OutboundMetrics";
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(name);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			logger.log(Level.WARNING, "Failed to register MBean " + name + ".", e);
+		}
+	}
+
+	/**
+	 * Completes the current pulse, so that its counts are reported as those of the last pulse.
+	 */
+	public synchronized void completeTick() {
+		lastCongested = congested;
+		lastMessages = messages;
+		lastMaxBytes = maxBytes;
+		lastWritable = writable;
+		lastWrites = writes;
+		congested = messages = writable = writes = 0;
+		maxBytes = 0;
+	}
+
+	@Override
+	public synchronized long getBytesPerFlush() {
+		return totalFlushes == 0 ? 0 : totalBytes / totalFlushes;
+	}
+
+	@Override
+	public synchronized int getCongestedSessions() {
+		return lastCongested;
+	}
+
+	@Override
+	public synchronized long getDroppedMessages() {
+		return dropped;
+	}
+
+	@Override
+	public synchronized long getLaggardDisconnects() {
+		return laggards;
+	}
+
+	@Override
+	public synchronized int getLastTickMessages() {
+		return lastMessages;
+	}
+
+	@Override
+	public synchronized int getLastTickWrites() {
+		return lastWrites;
+	}
+
+	@Override
+	public synchronized long getMaxBytesPerFlush() {
+		return lastMaxBytes;
+	}
+
+	@Override
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+	@Override
+	public synchronized long getTotalFlushes() {
+		return totalFlushes;
+	}
+
+	@Override
+	public synchronized int getWritableSessions() {
+		return lastWritable;
+	}
+
+	/**
+	 * Records that a congested session was disconnected.
+	 */
+	public synchronized void recordDisconnect() {
+		laggards++;
+	}
+
+	/**
+	 * Records that messages were dropped by a congested session.
+	 * 
+	 * @param messages The number of messages.
+	 */
+	public synchronized void recordDropped(int messages) {
+		dropped += messages;
+	}
+
+	/**
+	 * Records a flush of an {@link OutboundBatch}.
+	 * 
+	 * @param messages The number of messages in the batch.
+	 * @param bytes The number of bytes written.
+	 */
+	public synchronized void recordFlush(int messages, long bytes) {
+		this.messages += messages;
+		writes++;
+		maxBytes = Math.max(maxBytes, bytes);
+		totalBytes += bytes;
+		totalFlushes++;
+	}
+
+	/**
+	 * Records the state of a session at the end of the current pulse.
+	 * 
+	 * @param congested A flag indicating if the session is congested.
+	 */
+	public synchronized void recordSession(boolean congested) {
+		if (congested) {
+			this.congested++;
+		} else {
+			writable++;
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package org.apollo.net.codec.game;
+
+/**
+ * The management interface of the {@link OutboundMetrics}.
+ * 
+ * @author Graham
+ */
+public interface OutboundMetricsMBean {
+
+	/**
+	 * Gets the mean number of bytes written by a flush since the server started.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public long getBytesPerFlush();
+
+	/**
+	 * Gets the number of sessions which were congested at the end of the last pulse.
+	 * 
+	 * @return The number of sessions.
+	 */
+	public int getCongestedSessions();
+
+	/**
+	 * Gets the number of messages dropped by congested sessions since the server started.
+	 * 
+	 * @return The number of messages.
+	 */
+	public long getDroppedMessages();
+
+	/**
+	 * Gets the number of sessions disconnected for being congested for too long since the server started.
+	 * 
+	 * @return The number of sessions.
+	 */
+	public long getLaggardDisconnects();
+
+	/**
+	 * Gets the number of events and packets written during the last pulse.
+	 * 
+	 * @return The number of messages.
+	 */
+	public int getLastTickMessages();
+
+	/**
+	 * Gets the number of writes (i.e. flushed batches) made during the last pulse.
+	 * 
+	 * @return The number of writes.
+	 */
+	public int getLastTickWrites();
+
+	/**
+	 * Gets the largest number of bytes written by a single flush during the last pulse.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public long getMaxBytesPerFlush();
+
+	/**
+	 * Gets the total number of bytes flushed since the server started.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public long getTotalBytes();
+
+	/**
+	 * Gets the total number of flushes since the server started.
+	 * 
+	 * @return The number of flushes.
+	 */
+	public long getTotalFlushes();
+
+	/**
+	 * Gets the number of sessions which were writable at the end of the last pulse.
+	 * 
+	 * @return The number of sessions.
+	 */
+	public int getWritableSessions();
+
+}
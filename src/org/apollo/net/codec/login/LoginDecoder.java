@@ -94,7 +94,7 @@ public final class LoginDecoder extends StatefulFrameDecoder<LoginDecoderState>
 	}
 
 	/**
-	 * Decodes in the header state.
+	 * Decodes in the header state, followed by the payload state if the payload has already been received.
 	 * 
 	 * @param ctx The channel handler context.
 	 * @param channel The channel.
@@ -115,12 +115,14 @@ public final class LoginDecoder extends StatefulFrameDecoder<LoginDecoderState>
 			loginLength = buffer.readUnsignedByte();
 
 			setState(LoginDecoderState.LOGIN_PAYLOAD);
+			return decodePayload(ctx, channel, buffer);
 		}
 		return null;
 	}
 
 	/**
-	 * Decodes in the payload state.
+	 * Decodes in the payload state. The login block is read through slices of the buffer rather than copies, as
+	 * nothing refers to it once the request has been decoded.
 	 * 
 	 * @param ctx The channel handler context.
 	 * @param channel The channel.
@@ -130,7 +132,7 @@ public final class LoginDecoder extends StatefulFrameDecoder<LoginDecoderState>
 	 */
 	private Object decodePayload(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
 		if (buffer.readableBytes() >= loginLength) {
-			ChannelBuffer payload = buffer.readBytes(loginLength);
+			ChannelBuffer payload = buffer.readSlice(loginLength);
 			if (payload.readUnsignedByte() != 0xFF) {
 				throw new Exception("Invalid magic id");
 			}
@@ -154,7 +156,7 @@ public final class LoginDecoder extends StatefulFrameDecoder<LoginDecoderState>
 				throw new Exception("Secure payload length mismatch");
 			}
 
-			ChannelBuffer securePayload = payload.readBytes(securePayloadLength);
+			ChannelBuffer securePayload = payload.readSlice(securePayloadLength);
 
 			int secureId = securePayload.readUnsignedByte();
 			if (secureId != 10) {
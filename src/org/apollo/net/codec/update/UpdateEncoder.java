@@ -14,23 +14,39 @@ import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
  */
 public final class UpdateEncoder extends OneToOneEncoder {
 
+	/**
+	 * Writes an 'on-demand' response to a buffer.
+	 * 
+	 * @param response The response.
+	 * @param buf The buffer, which must have {@link #getLength(OnDemandResponse)} bytes writable.
+	 */
+	public static void encode(OnDemandResponse response, ChannelBuffer buf) {
+		FileDescriptor fileDescriptor = response.getFileDescriptor();
+		ChannelBuffer chunkData = response.getChunkData();
+
+		buf.writeByte(fileDescriptor.getType() - 1);
+		buf.writeShort(fileDescriptor.getFile());
+		buf.writeShort(response.getFileSize());
+		buf.writeByte(response.getChunkId());
+		buf.writeBytes(chunkData, chunkData.readerIndex(), chunkData.readableBytes());
+	}
+
+	/**
+	 * Gets the length of an encoded 'on-demand' response.
+	 * 
+	 * @param response The response.
+	 * @return The length, in bytes.
+	 */
+	public static int getLength(OnDemandResponse response) {
+		return 6 + response.getChunkData().readableBytes();
+	}
+
 	@Override
 	protected Object encode(ChannelHandlerContext ctx, Channel c, Object msg) throws Exception {
 		if (msg instanceof OnDemandResponse) {
 			OnDemandResponse resp = (OnDemandResponse) msg;
-
-			FileDescriptor fileDescriptor = resp.getFileDescriptor();
-			int fileSize = resp.getFileSize();
-			int chunkId = resp.getChunkId();
-			ChannelBuffer chunkData = resp.getChunkData();
-
-			ChannelBuffer buf = ChannelBuffers.buffer(6 + chunkData.readableBytes());
-			buf.writeByte(fileDescriptor.getType() - 1);
-			buf.writeShort(fileDescriptor.getFile());
-			buf.writeShort(fileSize);
-			buf.writeByte(chunkId);
-			buf.writeBytes(chunkData);
-
+			ChannelBuffer buf = ChannelBuffers.buffer(getLength(resp));
+			encode(resp, buf);
 			return buf;
 		}
 		return msg;
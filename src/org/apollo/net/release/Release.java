@@ -1,9 +1,9 @@
 package org.apollo.net.release;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import org.apollo.game.event.Event;
+import org.apollo.game.event.EventTypeRegistry;
 import org.apollo.net.meta.PacketMetaData;
 import org.apollo.net.meta.PacketMetaDataGroup;
 
@@ -20,9 +20,10 @@ public abstract class Release {
 	private final EventDecoder<?>[] decoders = new EventDecoder<?>[256];
 
 	/**
-	 * The encoders.
+	 * The encoders, indexed by the {@link EventTypeRegistry} id of the type of event they encode. The array is
+	 * replaced, rather than modified, when an encoder is registered.
 	 */
-	private final Map<Class<? extends Event>, EventEncoder<?>> encoders = new HashMap<Class<? extends Event>, EventEncoder<?>>();
+	private volatile EventEncoder<?>[] encoders = new EventEncoder<?>[0];
 
 	/**
 	 * The incoming packet meta data.
@@ -66,7 +67,9 @@ public abstract class Release {
 	 */
 	@SuppressWarnings("unchecked")
 	public <E extends Event> EventEncoder<E> getEventEncoder(Class<E> type) {
-		return (EventEncoder<E>) encoders.get(type);
+		int id = EventTypeRegistry.getId(type);
+		EventEncoder<?>[] encoders = this.encoders;
+		return id < encoders.length ? (EventEncoder<E>) encoders[id] : null;
 	}
 
 	/**
@@ -94,8 +97,11 @@ public abstract class Release {
 	 * @param type The event type.
 	 * @param encoder The {@link EventEncoder}.
 	 */
-	public final <E extends Event> void register(Class<E> type, EventEncoder<E> encoder) {
-		encoders.put(type, encoder);
+	public final synchronized <E extends Event> void register(Class<E> type, EventEncoder<E> encoder) {
+		int id = EventTypeRegistry.getId(type);
+		EventEncoder<?>[] encoders = Arrays.copyOf(this.encoders, Math.max(this.encoders.length, id + 1));
+		encoders[id] = encoder;
+		this.encoders = encoders;
 	}
 
 	/**
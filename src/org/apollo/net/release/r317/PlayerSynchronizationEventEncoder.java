@@ -13,6 +13,7 @@ import org.apollo.game.model.Position;
 import org.apollo.game.model.def.EquipmentDefinition;
 import org.apollo.game.sync.block.AnimationBlock;
 import org.apollo.game.sync.block.AppearanceBlock;
+import org.apollo.game.sync.block.BlockType;
 import org.apollo.game.sync.block.ChatBlock;
 import org.apollo.game.sync.block.ForceChatBlock;
 import org.apollo.game.sync.block.ForceMovementBlock;
@@ -29,7 +30,6 @@ import org.apollo.game.sync.seg.SynchronizationSegment;
 import org.apollo.game.sync.seg.TeleportSegment;
 import org.apollo.net.codec.game.DataOrder;
 import org.apollo.net.codec.game.DataTransformation;
-import org.apollo.net.codec.game.DataType;
 import org.apollo.net.codec.game.GamePacket;
 import org.apollo.net.codec.game.GamePacketBuilder;
 import org.apollo.net.meta.PacketType;
@@ -43,6 +43,24 @@ import org.apollo.net.release.EventEncoder;
  */
 public final class PlayerSynchronizationEventEncoder extends EventEncoder<PlayerSynchronizationEvent> {
 
+	/**
+	 * The bits of the update mask used by this release for each type of block, indexed by the ordinal of the type.
+	 */
+	private static final int[] MASKS = new int[BlockType.count()];
+
+	static {
+		MASKS[BlockType.FORCE_MOVEMENT.ordinal()] = 0x400;
+		MASKS[BlockType.GRAPHIC.ordinal()] = 0x100;
+		MASKS[BlockType.ANIMATION.ordinal()] = 0x8;
+		MASKS[BlockType.FORCE_CHAT.ordinal()] = 0x4;
+		MASKS[BlockType.CHAT.ordinal()] = 0x80;
+		MASKS[BlockType.INTERACTING_CHARACTER.ordinal()] = 0x1;
+		MASKS[BlockType.APPEARANCE.ordinal()] = 0x10;
+		MASKS[BlockType.TURN_TO_POSITION.ordinal()] = 0x2;
+		MASKS[BlockType.HIT_UPDATE.ordinal()] = 0x20;
+		MASKS[BlockType.SECOND_HIT_UPDATE.ordinal()] = 0x200;
+	}
+
 	@Override
 	public GamePacket encode(PlayerSynchronizationEvent event) {
 		GamePacketBuilder builder = new GamePacketBuilder(81, PacketType.VARIABLE_SHORT);
@@ -105,8 +123,8 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	 */
 	private void putAnimationBlock(AnimationBlock block, GamePacketBuilder blockBuilder) {
 		Animation animation = block.getAnimation();
-		blockBuilder.put(DataType.SHORT, DataOrder.LITTLE, animation.getId());
-		blockBuilder.put(DataType.BYTE, DataTransformation.NEGATE, animation.getDelay());
+		blockBuilder.putShort(DataOrder.LITTLE, animation.getId());
+		blockBuilder.putByte(DataTransformation.NEGATE, animation.getDelay());
 	}
 
 	/**
@@ -119,13 +137,13 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 		Appearance appearance = block.getAppearance();
 		GamePacketBuilder playerProperties = new GamePacketBuilder();
 
-		playerProperties.put(DataType.BYTE, appearance.getGender().toInteger());
-		playerProperties.put(DataType.BYTE, block.getPrayerIcon() < 0 ? 0 : block.getPrayerIcon());
+		playerProperties.putByte(appearance.getGender().toInteger());
+		playerProperties.putByte(block.getPrayerIcon() < 0 ? 0 : block.getPrayerIcon());
 
 		if (block.appearingAsNpc()) {
-			playerProperties.put(DataType.BYTE, 255);
-			playerProperties.put(DataType.BYTE, 255);
-			playerProperties.put(DataType.SHORT, block.getNpcId());
+			playerProperties.putByte(255);
+			playerProperties.putByte(255);
+			playerProperties.putShort(block.getNpcId());
 		} else {
 			Inventory equipment = block.getEquipment();
 			int[] style = appearance.getStyle();
@@ -133,62 +151,62 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 
 			for (int slot = 0; slot < 4; slot++) {
 				if ((item = equipment.get(slot)) != null) {
-					playerProperties.put(DataType.SHORT, 0x200 + item.getId());
+					playerProperties.putShort(0x200 + item.getId());
 				} else {
-					playerProperties.put(DataType.BYTE, 0);
+					playerProperties.putByte(0);
 				}
 			}
 
 			if ((chest = equipment.get(EquipmentConstants.CHEST)) != null) {
-				playerProperties.put(DataType.SHORT, 0x200 + chest.getId());
+				playerProperties.putShort(0x200 + chest.getId());
 			} else {
-				playerProperties.put(DataType.SHORT, 0x100 + style[2]);
+				playerProperties.putShort(0x100 + style[2]);
 			}
 
 			if ((item = equipment.get(EquipmentConstants.SHIELD)) != null) {
-				playerProperties.put(DataType.SHORT, 0x200 + item.getId());
+				playerProperties.putShort(0x200 + item.getId());
 			} else {
-				playerProperties.put(DataType.BYTE, 0);
+				playerProperties.putByte(0);
 			}
 
 			if (chest != null) {
 				EquipmentDefinition def = EquipmentDefinition.lookup(chest.getId());
 				if (def != null && !def.isFullBody()) {
-					playerProperties.put(DataType.SHORT, 0x100 + style[3]);
+					playerProperties.putShort(0x100 + style[3]);
 				} else {
-					playerProperties.put(DataType.BYTE, 0);
+					playerProperties.putByte(0);
 				}
 			} else {
-				playerProperties.put(DataType.SHORT, 0x100 + style[3]);
+				playerProperties.putShort(0x100 + style[3]);
 			}
 
 			if ((item = equipment.get(EquipmentConstants.LEGS)) != null) {
-				playerProperties.put(DataType.SHORT, 0x200 + item.getId());
+				playerProperties.putShort(0x200 + item.getId());
 			} else {
-				playerProperties.put(DataType.SHORT, 0x100 + style[5]);
+				playerProperties.putShort(0x100 + style[5]);
 			}
 
 			if ((helm = equipment.get(EquipmentConstants.HAT)) != null) {
 				EquipmentDefinition def = EquipmentDefinition.lookup(helm.getId());
 				if (def != null && !def.isFullHat() && !def.isFullMask()) {
-					playerProperties.put(DataType.SHORT, 0x100 + style[0]);
+					playerProperties.putShort(0x100 + style[0]);
 				} else {
-					playerProperties.put(DataType.BYTE, 0);
+					playerProperties.putByte(0);
 				}
 			} else {
-				playerProperties.put(DataType.SHORT, 0x100 + style[0]);
+				playerProperties.putShort(0x100 + style[0]);
 			}
 
 			if ((item = equipment.get(EquipmentConstants.HANDS)) != null) {
-				playerProperties.put(DataType.SHORT, 0x200 + item.getId());
+				playerProperties.putShort(0x200 + item.getId());
 			} else {
-				playerProperties.put(DataType.SHORT, 0x100 + style[4]);
+				playerProperties.putShort(0x100 + style[4]);
 			}
 
 			if ((item = equipment.get(EquipmentConstants.FEET)) != null) {
-				playerProperties.put(DataType.SHORT, 0x200 + item.getId());
+				playerProperties.putShort(0x200 + item.getId());
 			} else {
-				playerProperties.put(DataType.SHORT, 0x100 + style[6]);
+				playerProperties.putShort(0x100 + style[6]);
 			}
 
 			EquipmentDefinition def = null;
@@ -196,36 +214,40 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 				def = EquipmentDefinition.lookup(helm.getId());
 			}
 			if (def != null && (def.isFullHat() || def.isFullMask()) || appearance.getGender() == Gender.FEMALE) {
-				playerProperties.put(DataType.BYTE, 0);
+				playerProperties.putByte(0);
 			} else {
-				playerProperties.put(DataType.SHORT, 0x100 + style[1]);
+				playerProperties.putShort(0x100 + style[1]);
 			}
 		}
 
 		int[] colors = appearance.getColors();
 		for (int color : colors) {
-			playerProperties.put(DataType.BYTE, color);
+			playerProperties.putByte(color);
 		}
 
-		playerProperties.put(DataType.SHORT, 0x328); // stand
-		playerProperties.put(DataType.SHORT, 0x337); // stand turn
-		playerProperties.put(DataType.SHORT, 0x333); // walk
-		playerProperties.put(DataType.SHORT, 0x334); // turn 180
-		playerProperties.put(DataType.SHORT, 0x335); // turn 90 cw
-		playerProperties.put(DataType.SHORT, 0x336); // turn 90 ccw
-		playerProperties.put(DataType.SHORT, 0x338); // run
+		playerProperties.putShort(0x328); // stand
+		playerProperties.putShort(0x337); // stand turn
+		playerProperties.putShort(0x333); // walk
+		playerProperties.putShort(0x334); // turn 180
+		playerProperties.putShort(0x335); // turn 90 cw
+		playerProperties.putShort(0x336); // turn 90 ccw
+		playerProperties.putShort(0x338); // run
 
-		playerProperties.put(DataType.LONG, block.getName());
-		playerProperties.put(DataType.BYTE, block.getCombatLevel());
-		playerProperties.put(DataType.SHORT, block.getSkillLevel());
+		playerProperties.putLong(block.getName());
+		playerProperties.putByte(block.getCombatLevel());
+		playerProperties.putShort(block.getSkillLevel());
 
-		blockBuilder.put(DataType.BYTE, DataTransformation.NEGATE, playerProperties.getLength());
+		blockBuilder.putByte(DataTransformation.NEGATE, playerProperties.getLength());
 
 		blockBuilder.putRawBuilder(playerProperties);
+
+		block.setEncodedLength(playerProperties.getLength() + 1);
 	}
 
 	/**
-	 * Puts the blocks for the specified segment.
+	 * Puts the blocks for the specified segment. A block set is only encoded the first time it is put, after which the
+	 * encoded bytes cached in the set are copied, as the same set is usually shared by every player observing the
+	 * character.
 	 * 
 	 * @param segment The segment.
 	 * @param blockBuilder The block builder.
@@ -233,76 +255,65 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	private void putBlocks(SynchronizationSegment segment, GamePacketBuilder blockBuilder) {
 		SynchronizationBlockSet blockSet = segment.getBlockSet();
 		if (blockSet.size() > 0) {
-			int mask = 0;
+			byte[] encoded = blockSet.getEncoded(this);
+			if (encoded == null) {
+				GamePacketBuilder builder = new GamePacketBuilder();
+				putBlocks(blockSet, builder);
+				encoded = builder.toByteArray();
+				blockSet.setEncoded(this, encoded);
+			}
+			blockBuilder.putBytes(encoded);
+		}
+	}
 
-			if (blockSet.contains(ForceMovementBlock.class)) {
-				mask |= 0x400;
-			}
-			if (blockSet.contains(GraphicBlock.class)) {
-				mask |= 0x100;
-			}
-			if (blockSet.contains(AnimationBlock.class)) {
-				mask |= 0x8;
-			}
-			if (blockSet.contains(ForceChatBlock.class)) {
-				mask |= 0x4;
-			}
-			if (blockSet.contains(ChatBlock.class)) {
-				mask |= 0x80;
-			}
-			if (blockSet.contains(InteractingCharacterBlock.class)) {
-				mask |= 0x1;
-			}
-			if (blockSet.contains(AppearanceBlock.class)) {
-				mask |= 0x10;
-			}
-			if (blockSet.contains(TurnToPositionBlock.class)) {
-				mask |= 0x2;
-			}
-			if (blockSet.contains(HitUpdateBlock.class)) {
-				mask |= 0x20;
-			}
-			if (blockSet.contains(SecondHitUpdateBlock.class)) {
-				mask |= 0x200;
-			}
+	/**
+	 * Puts the blocks in the specified block set, which must not be empty.
+	 * 
+	 * @param blockSet The block set.
+	 * @param blockBuilder The block builder.
+	 */
+	private void putBlocks(SynchronizationBlockSet blockSet, GamePacketBuilder blockBuilder) {
+		int mask = 0;
+		for (int types = blockSet.getMask(); types != 0; types &= types - 1) {
+			mask |= MASKS[Integer.numberOfTrailingZeros(types)];
+		}
 
-			if (mask >= 0x100) {
-				mask |= 0x40;
-				blockBuilder.put(DataType.SHORT, DataOrder.LITTLE, mask);
-			} else {
-				blockBuilder.put(DataType.BYTE, mask);
-			}
+		if (mask >= 0x100) {
+			mask |= 0x40;
+			blockBuilder.putShort(DataOrder.LITTLE, mask);
+		} else {
+			blockBuilder.putByte(mask);
+		}
 
-			if (blockSet.contains(ForceMovementBlock.class)) {
-				putForceMovementBlock(blockSet.get(ForceMovementBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(GraphicBlock.class)) {
-				putGraphicBlock(blockSet.get(GraphicBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(AnimationBlock.class)) {
-				putAnimationBlock(blockSet.get(AnimationBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(ForceChatBlock.class)) {
-				putForceChatBlock(blockSet.get(ForceChatBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(ChatBlock.class)) {
-				putChatBlock(blockSet.get(ChatBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(InteractingCharacterBlock.class)) {
-				putInteractingCharacterBlock(blockSet.get(InteractingCharacterBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(AppearanceBlock.class)) {
-				putAppearanceBlock(blockSet.get(AppearanceBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(TurnToPositionBlock.class)) {
-				putTurnToPositionBlock(blockSet.get(TurnToPositionBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(HitUpdateBlock.class)) {
-				putHitUpdateBlock(blockSet.get(HitUpdateBlock.class), blockBuilder);
-			}
-			if (blockSet.contains(SecondHitUpdateBlock.class)) {
-				putSecondHitUpdateBlock(blockSet.get(SecondHitUpdateBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.FORCE_MOVEMENT)) {
+			putForceMovementBlock((ForceMovementBlock) blockSet.get(BlockType.FORCE_MOVEMENT), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.GRAPHIC)) {
+			putGraphicBlock((GraphicBlock) blockSet.get(BlockType.GRAPHIC), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.ANIMATION)) {
+			putAnimationBlock((AnimationBlock) blockSet.get(BlockType.ANIMATION), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.FORCE_CHAT)) {
+			putForceChatBlock((ForceChatBlock) blockSet.get(BlockType.FORCE_CHAT), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.CHAT)) {
+			putChatBlock((ChatBlock) blockSet.get(BlockType.CHAT), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.INTERACTING_CHARACTER)) {
+			putInteractingCharacterBlock((InteractingCharacterBlock) blockSet.get(BlockType.INTERACTING_CHARACTER), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.APPEARANCE)) {
+			putAppearanceBlock((AppearanceBlock) blockSet.get(BlockType.APPEARANCE), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.TURN_TO_POSITION)) {
+			putTurnToPositionBlock((TurnToPositionBlock) blockSet.get(BlockType.TURN_TO_POSITION), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.HIT_UPDATE)) {
+			putHitUpdateBlock((HitUpdateBlock) blockSet.get(BlockType.HIT_UPDATE), blockBuilder);
+		}
+		if (blockSet.contains(BlockType.SECOND_HIT_UPDATE)) {
+			putSecondHitUpdateBlock((SecondHitUpdateBlock) blockSet.get(BlockType.SECOND_HIT_UPDATE), blockBuilder);
 		}
 	}
 
@@ -314,9 +325,9 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	 */
 	private void putChatBlock(ChatBlock block, GamePacketBuilder blockBuilder) {
 		byte[] bytes = block.getCompressedMessage();
-		blockBuilder.put(DataType.SHORT, DataOrder.LITTLE, block.getTextColor() << 8 | block.getTextEffects());
-		blockBuilder.put(DataType.BYTE, block.getPrivilegeLevel().toInteger());
-		blockBuilder.put(DataType.BYTE, DataTransformation.NEGATE, bytes.length);
+		blockBuilder.putShort(DataOrder.LITTLE, block.getTextColor() << 8 | block.getTextEffects());
+		blockBuilder.putByte(block.getPrivilegeLevel().toInteger());
+		blockBuilder.putByte(DataTransformation.NEGATE, bytes.length);
 		blockBuilder.putBytesReverse(bytes);
 	}
 
@@ -337,13 +348,13 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	 * @param builder The builder.
 	 */
 	private void putForceMovementBlock(ForceMovementBlock block, GamePacketBuilder builder) {
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getInitialX());
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getInitialY());
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getFinalX());
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getFinalY());
-		builder.put(DataType.SHORT, DataOrder.LITTLE, DataTransformation.ADD, block.getTravelDurationX());
-		builder.put(DataType.SHORT, DataTransformation.ADD, block.getTravelDurationY());
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getDirection().toInteger());
+		builder.putByte(DataTransformation.SUBTRACT, block.getInitialX());
+		builder.putByte(DataTransformation.SUBTRACT, block.getInitialY());
+		builder.putByte(DataTransformation.SUBTRACT, block.getFinalX());
+		builder.putByte(DataTransformation.SUBTRACT, block.getFinalY());
+		builder.putShort(DataOrder.LITTLE, DataTransformation.ADD, block.getTravelDurationX());
+		builder.putShort(DataTransformation.ADD, block.getTravelDurationY());
+		builder.putByte(DataTransformation.SUBTRACT, block.getDirection().toInteger());
 	}
 
 	/**
@@ -354,8 +365,8 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	 */
 	private void putGraphicBlock(GraphicBlock block, GamePacketBuilder blockBuilder) {
 		Graphic graphic = block.getGraphic();
-		blockBuilder.put(DataType.SHORT, DataOrder.LITTLE, graphic.getId());
-		blockBuilder.put(DataType.INT, graphic.getHeight() << 16 | graphic.getDelay() & 0xFFFF);
+		blockBuilder.putShort(DataOrder.LITTLE, graphic.getId());
+		blockBuilder.putInt(graphic.getHeight() << 16 | graphic.getDelay() & 0xFFFF);
 	}
 
 	/**
@@ -365,10 +376,10 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	 * @param builder The builder.
 	 */
 	private void putHitUpdateBlock(HitUpdateBlock block, GamePacketBuilder builder) {
-		builder.put(DataType.BYTE, block.getDamage());
-		builder.put(DataType.BYTE, DataTransformation.ADD, block.getType());
-		builder.put(DataType.BYTE, block.getCurrentHealth());
-		builder.put(DataType.BYTE, DataTransformation.NEGATE, block.getMaximumHealth());
+		builder.putByte(block.getDamage());
+		builder.putByte(DataTransformation.ADD, block.getType());
+		builder.putByte(block.getCurrentHealth());
+		builder.putByte(DataTransformation.NEGATE, block.getMaximumHealth());
 	}
 
 	/**
@@ -378,7 +389,7 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	 * @param builder The builder.
 	 */
 	private void putInteractingCharacterBlock(InteractingCharacterBlock block, GamePacketBuilder builder) {
-		builder.put(DataType.SHORT, DataOrder.LITTLE, block.getInteractingCharacterIndex());
+		builder.putShort(DataOrder.LITTLE, block.getInteractingCharacterIndex());
 	}
 
 	/**
@@ -440,10 +451,10 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	 * @param builder The builder.
 	 */
 	private void putSecondHitUpdateBlock(SecondHitUpdateBlock block, GamePacketBuilder builder) {
-		builder.put(DataType.BYTE, block.getDamage());
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getType());
-		builder.put(DataType.BYTE, block.getCurrentHealth());
-		builder.put(DataType.BYTE, DataTransformation.NEGATE, block.getMaximumHealth());
+		builder.putByte(block.getDamage());
+		builder.putByte(DataTransformation.SUBTRACT, block.getType());
+		builder.putByte(block.getCurrentHealth());
+		builder.putByte(DataTransformation.NEGATE, block.getMaximumHealth());
 	}
 
 	/**
@@ -454,8 +465,8 @@ public final class PlayerSynchronizationEventEncoder extends EventEncoder<Player
 	 */
 	private void putTurnToPositionBlock(TurnToPositionBlock block, GamePacketBuilder blockBuilder) {
 		Position pos = block.getPosition();
-		blockBuilder.put(DataType.SHORT, DataOrder.LITTLE, DataTransformation.ADD, pos.getX() * 2 + 1);
-		blockBuilder.put(DataType.SHORT, DataOrder.LITTLE, pos.getY() * 2 + 1);
+		blockBuilder.putShort(DataOrder.LITTLE, DataTransformation.ADD, pos.getX() * 2 + 1);
+		blockBuilder.putShort(DataOrder.LITTLE, pos.getY() * 2 + 1);
 	}
 
 }
\ No newline at end of file
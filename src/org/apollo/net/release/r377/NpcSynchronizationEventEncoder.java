@@ -6,6 +6,7 @@ import org.apollo.game.model.Direction;
 import org.apollo.game.model.Graphic;
 import org.apollo.game.model.Position;
 import org.apollo.game.sync.block.AnimationBlock;
+import org.apollo.game.sync.block.BlockType;
 import org.apollo.game.sync.block.ForceChatBlock;
 import org.apollo.game.sync.block.GraphicBlock;
 import org.apollo.game.sync.block.HitUpdateBlock;
@@ -20,7 +21,6 @@ import org.apollo.game.sync.seg.SegmentType;
 import org.apollo.game.sync.seg.SynchronizationSegment;
 import org.apollo.net.codec.game.DataOrder;
 import org.apollo.net.codec.game.DataTransformation;
-import org.apollo.net.codec.game.DataType;
 import org.apollo.net.codec.game.GamePacket;
 import org.apollo.net.codec.game.GamePacketBuilder;
 import org.apollo.net.meta.PacketType;
@@ -33,6 +33,22 @@ import org.apollo.net.release.EventEncoder;
  */
 public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizationEvent> {
 
+	/**
+	 * The bits of the update mask used by this release for each type of block, indexed by the ordinal of the type.
+	 */
+	private static final int[] MASKS = new int[BlockType.count()];
+
+	static {
+		MASKS[BlockType.TRANSFORM.ordinal()] = 0x1;
+		MASKS[BlockType.INTERACTING_CHARACTER.ordinal()] = 0x40;
+		MASKS[BlockType.HIT_UPDATE.ordinal()] = 0x80;
+		MASKS[BlockType.GRAPHIC.ordinal()] = 0x4;
+		MASKS[BlockType.FORCE_CHAT.ordinal()] = 0x20;
+		MASKS[BlockType.TURN_TO_POSITION.ordinal()] = 0x8;
+		MASKS[BlockType.ANIMATION.ordinal()] = 0x2;
+		MASKS[BlockType.SECOND_HIT_UPDATE.ordinal()] = 0x10;
+	}
+
 	@Override
 	public GamePacket encode(NpcSynchronizationEvent event) {
 		GamePacketBuilder builder = new GamePacketBuilder(71, PacketType.VARIABLE_SHORT);
@@ -93,12 +109,14 @@ public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizat
 	 */
 	private void putAnimationBlock(AnimationBlock block, GamePacketBuilder blockBuilder) {
 		Animation animation = block.getAnimation();
-		blockBuilder.put(DataType.SHORT, animation.getId());
-		blockBuilder.put(DataType.BYTE, DataTransformation.SUBTRACT, animation.getDelay());
+		blockBuilder.putShort(animation.getId());
+		blockBuilder.putByte(DataTransformation.SUBTRACT, animation.getDelay());
 	}
 
 	/**
-	 * Puts the blocks for the specified segment.
+	 * Puts the blocks for the specified segment. A block set is only encoded the first time it is put, after which the
+	 * encoded bytes cached in the set are copied, as the same set is usually shared by every player observing the
+	 * character.
 	 * 
 	 * @param segment The segment.
 	 * @param blockBuilder The block builder.
@@ -106,73 +124,61 @@ public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizat
 	private void putBlocks(SynchronizationSegment segment, GamePacketBuilder blockBuilder) {
 		SynchronizationBlockSet blockSet = segment.getBlockSet();
 		if (blockSet.size() > 0) {
-			int mask = 0;
-
-			if (blockSet.contains(TransformBlock.class)) {
-				mask |= 0x1;
-			}
-
-			if (blockSet.contains(InteractingCharacterBlock.class)) {
-				mask |= 0x40;
-			}
-
-			if (blockSet.contains(HitUpdateBlock.class)) {
-				mask |= 0x80;
-			}
-
-			if (blockSet.contains(GraphicBlock.class)) {
-				mask |= 0x4;
-			}
-
-			if (blockSet.contains(ForceChatBlock.class)) {
-				mask |= 0x20;
-			}
-
-			if (blockSet.contains(TurnToPositionBlock.class)) {
-				mask |= 0x8;
-			}
-
-			if (blockSet.contains(AnimationBlock.class)) {
-				mask |= 0x2;
+			byte[] encoded = blockSet.getEncoded(this);
+			if (encoded == null) {
+				GamePacketBuilder builder = new GamePacketBuilder();
+				putBlocks(blockSet, builder);
+				encoded = builder.toByteArray();
+				blockSet.setEncoded(this, encoded);
 			}
+			blockBuilder.putBytes(encoded);
+		}
+	}
 
-			if (blockSet.contains(SecondHitUpdateBlock.class)) {
-				mask |= 0x10;
-			}
+	/**
+	 * Puts the blocks in the specified block set, which must not be empty.
+	 * 
+	 * @param blockSet The block set.
+	 * @param blockBuilder The block builder.
+	 */
+	private void putBlocks(SynchronizationBlockSet blockSet, GamePacketBuilder blockBuilder) {
+		int mask = 0;
+		for (int types = blockSet.getMask(); types != 0; types &= types - 1) {
+			mask |= MASKS[Integer.numberOfTrailingZeros(types)];
+		}
 
-			blockBuilder.put(DataType.BYTE, mask);
+		blockBuilder.putByte(mask);
 
-			if (blockSet.contains(TransformBlock.class)) {
-				putTransformBlock(blockSet.get(TransformBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.TRANSFORM)) {
+			putTransformBlock((TransformBlock) blockSet.get(BlockType.TRANSFORM), blockBuilder);
+		}
 
-			if (blockSet.contains(InteractingCharacterBlock.class)) {
-				putInteractingCharacterBlock(blockSet.get(InteractingCharacterBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.INTERACTING_CHARACTER)) {
+			putInteractingCharacterBlock((InteractingCharacterBlock) blockSet.get(BlockType.INTERACTING_CHARACTER), blockBuilder);
+		}
 
-			if (blockSet.contains(HitUpdateBlock.class)) {
-				putHitUpdateBlock(blockSet.get(HitUpdateBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.HIT_UPDATE)) {
+			putHitUpdateBlock((HitUpdateBlock) blockSet.get(BlockType.HIT_UPDATE), blockBuilder);
+		}
 
-			if (blockSet.contains(GraphicBlock.class)) {
-				putGraphicBlock(blockSet.get(GraphicBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.GRAPHIC)) {
+			putGraphicBlock((GraphicBlock) blockSet.get(BlockType.GRAPHIC), blockBuilder);
+		}
 
-			if (blockSet.contains(ForceChatBlock.class)) {
-				putForceChatBlock(blockSet.get(ForceChatBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.FORCE_CHAT)) {
+			putForceChatBlock((ForceChatBlock) blockSet.get(BlockType.FORCE_CHAT), blockBuilder);
+		}
 
-			if (blockSet.contains(TurnToPositionBlock.class)) {
-				putTurnToPositionBlock(blockSet.get(TurnToPositionBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.TURN_TO_POSITION)) {
+			putTurnToPositionBlock((TurnToPositionBlock) blockSet.get(BlockType.TURN_TO_POSITION), blockBuilder);
+		}
 
-			if (blockSet.contains(AnimationBlock.class)) {
-				putAnimationBlock(blockSet.get(AnimationBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.ANIMATION)) {
+			putAnimationBlock((AnimationBlock) blockSet.get(BlockType.ANIMATION), blockBuilder);
+		}
 
-			if (blockSet.contains(SecondHitUpdateBlock.class)) {
-				putSecondHitUpdateBlock(blockSet.get(SecondHitUpdateBlock.class), blockBuilder);
-			}
+		if (blockSet.contains(BlockType.SECOND_HIT_UPDATE)) {
+			putSecondHitUpdateBlock((SecondHitUpdateBlock) blockSet.get(BlockType.SECOND_HIT_UPDATE), blockBuilder);
 		}
 	}
 
@@ -194,8 +200,8 @@ public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizat
 	 */
 	private void putGraphicBlock(GraphicBlock block, GamePacketBuilder blockBuilder) {
 		Graphic graphic = block.getGraphic();
-		blockBuilder.put(DataType.SHORT, graphic.getId());
-		blockBuilder.put(DataType.INT, DataOrder.MIDDLE, graphic.getDelay());
+		blockBuilder.putShort(graphic.getId());
+		blockBuilder.putInt(DataOrder.MIDDLE, graphic.getDelay());
 	}
 
 	/**
@@ -205,10 +211,10 @@ public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizat
 	 * @param builder The builder.
 	 */
 	private void putHitUpdateBlock(HitUpdateBlock block, GamePacketBuilder builder) {
-		builder.put(DataType.BYTE, DataTransformation.ADD, block.getDamage());
-		builder.put(DataType.BYTE, DataTransformation.ADD, block.getType());
-		builder.put(DataType.BYTE, block.getCurrentHealth());
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getMaximumHealth());
+		builder.putByte(DataTransformation.ADD, block.getDamage());
+		builder.putByte(DataTransformation.ADD, block.getType());
+		builder.putByte(block.getCurrentHealth());
+		builder.putByte(DataTransformation.SUBTRACT, block.getMaximumHealth());
 	}
 
 	/**
@@ -218,7 +224,7 @@ public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizat
 	 * @param builder The builder.
 	 */
 	private void putInteractingCharacterBlock(InteractingCharacterBlock block, GamePacketBuilder builder) {
-		builder.put(DataType.SHORT, DataOrder.LITTLE, block.getInteractingCharacterIndex());
+		builder.putShort(DataOrder.LITTLE, block.getInteractingCharacterIndex());
 	}
 
 	/**
@@ -270,10 +276,10 @@ public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizat
 	 * @param builder The builder.
 	 */
 	private void putSecondHitUpdateBlock(SecondHitUpdateBlock block, GamePacketBuilder builder) {
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getDamage());
-		builder.put(DataType.BYTE, DataTransformation.SUBTRACT, block.getType());
-		builder.put(DataType.BYTE, block.getCurrentHealth());
-		builder.put(DataType.BYTE, DataTransformation.NEGATE, block.getMaximumHealth());
+		builder.putByte(DataTransformation.SUBTRACT, block.getDamage());
+		builder.putByte(DataTransformation.SUBTRACT, block.getType());
+		builder.putByte(block.getCurrentHealth());
+		builder.putByte(DataTransformation.NEGATE, block.getMaximumHealth());
 	}
 
 	/**
@@ -283,7 +289,7 @@ public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizat
 	 * @param builder The builder.
 	 */
 	private void putTransformBlock(TransformBlock block, GamePacketBuilder builder) {
-		builder.put(DataType.SHORT, DataTransformation.ADD, block.getId());
+		builder.putShort(DataTransformation.ADD, block.getId());
 	}
 
 	/**
@@ -294,8 +300,8 @@ public class NpcSynchronizationEventEncoder extends EventEncoder<NpcSynchronizat
 	 */
 	private void putTurnToPositionBlock(TurnToPositionBlock block, GamePacketBuilder blockBuilder) {
 		Position pos = block.getPosition();
-		blockBuilder.put(DataType.SHORT, DataOrder.LITTLE, DataTransformation.ADD, pos.getX() * 2 + 1);
-		blockBuilder.put(DataType.SHORT, DataOrder.LITTLE, pos.getY() * 2 + 1);
+		blockBuilder.putShort(DataOrder.LITTLE, DataTransformation.ADD, pos.getX() * 2 + 1);
+		blockBuilder.putShort(DataOrder.LITTLE, pos.getY() * 2 + 1);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package org.apollo.net.session;
+
+/**
+ * The limits on the data which may be waiting to be written to the channel of a {@link GameSession}.
+ * <p>
+ * Once more than the high watermark is waiting, the channel is no longer writable and the session is congested: its
+ * batches are deferred rather than written, and its synchronization events are dropped. The channel becomes writable
+ * again once less than the low watermark is waiting. A session which is congested for too many pulses, or which defers
+ * too many messages, is disconnected.
+ * 
+ * @author Graham
+ */
+public final class BackpressurePolicy {
+
+	/**
+	 * The default policy.
+	 */
+	public static final BackpressurePolicy DEFAULT = new BackpressurePolicy(64 * 1024, 32 * 1024, 256, 50);
+
+	/**
+	 * The number of bytes waiting to be written above which the channel is not writable.
+	 */
+	private final int highWatermark;
+
+	/**
+	 * The number of bytes waiting to be written below which the channel is writable again.
+	 */
+	private final int lowWatermark;
+
+	/**
+	 * The maximum number of consecutive pulses for which a session may be congested.
+	 */
+	private final int maximumCongestedPulses;
+
+	/**
+	 * The maximum number of messages which may be deferred by a congested session.
+	 */
+	private final int maximumDeferred;
+
+	/**
+	 * Creates the backpressure policy.
+	 * 
+	 * @param highWatermark The number of bytes waiting to be written above which the channel is not writable.
+	 * @param lowWatermark The number of bytes waiting to be written below which the channel is writable again.
+	 * @param maximumDeferred The maximum number of messages which may be deferred by a congested session.
+	 * @param maximumCongestedPulses The maximum number of consecutive pulses for which a session may be congested.
+	 * @throws IllegalArgumentException If the low watermark is greater than the high watermark, or any limit is not
+	 *             positive.
+	 */
+	public BackpressurePolicy(int highWatermark, int lowWatermark, int maximumDeferred, int maximumCongestedPulses) {
+		if (lowWatermark <= 0 || highWatermark < lowWatermark) {
+			throw new IllegalArgumentException("Watermarks must be positive and the low watermark must not exceed the "
+					+ "high watermark.");
+		} else if (maximumDeferred <= 0 || maximumCongestedPulses <= 0) {
+			throw new IllegalArgumentException("Limits must be positive.");
+		}
+		this.highWatermark = highWatermark;
+		this.lowWatermark = lowWatermark;
+		this.maximumDeferred = maximumDeferred;
+		this.maximumCongestedPulses = maximumCongestedPulses;
+	}
+
+	/**
+	 * Gets the number of bytes waiting to be written above which the channel is not writable.
+	 * 
+	 * @return The high watermark, in bytes.
+	 */
+	public int getHighWatermark() {
+		return highWatermark;
+	}
+
+	/**
+	 * Gets the number of bytes waiting to be written below which the channel is writable again.
+	 * 
+	 * @return The low watermark, in bytes.
+	 */
+	public int getLowWatermark() {
+		return lowWatermark;
+	}
+
+	/**
+	 * Gets the maximum number of consecutive pulses for which a session may be congested before it is disconnected.
+	 * 
+	 * @return The number of pulses.
+	 */
+	public int getMaximumCongestedPulses() {
+		return maximumCongestedPulses;
+	}
+
+	/**
+	 * Gets the maximum number of messages which may be deferred by a congested session before it is disconnected.
+	 * 
+	 * @return The number of messages.
+	 */
+	public int getMaximumDeferred() {
+		return maximumDeferred;
+	}
+
+}
@@ -1,24 +1,34 @@
 package org.apollo.net.session;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apollo.ServerContext;
-import org.apollo.game.GameConstants;
 import org.apollo.game.GameService;
 import org.apollo.game.event.Event;
 import org.apollo.game.event.handler.chain.EventHandlerChain;
 import org.apollo.game.event.handler.chain.EventHandlerChainGroup;
 import org.apollo.game.event.impl.LogoutEvent;
+import org.apollo.game.event.impl.NpcSynchronizationEvent;
+import org.apollo.game.event.impl.PlayerSynchronizationEvent;
 import org.apollo.game.model.Player;
+import org.apollo.net.codec.game.GameEventEncoder;
+import org.apollo.net.codec.game.GamePacket;
+import org.apollo.net.codec.game.OutboundBatch;
+import org.apollo.net.codec.game.OutboundMetrics;
+import org.apollo.net.release.EventEncoder;
 import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelConfig;
 import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.socket.nio.NioSocketChannelConfig;
 
 /**
  * A game session.
+ * <p>
+ * The events sent to the player during a pulse are not written to the channel straight away, but are collected in an
+ * {@link OutboundBatch} which is written with a single write when the session is flushed at the end of the pulse. The
+ * data waiting to be written to the channel is limited by a {@link BackpressurePolicy} (see {@link #flush()}).
  * 
  * @author Graham
  */
@@ -29,6 +39,33 @@ public final class GameSession extends Session {
 	 */
 	private static final Logger logger = Logger.getLogger(GameSession.class.getName());
 
+	/**
+	 * Checks if the specified event is superseded by the next event of the same type, and so may be dropped if the
+	 * session is congested.
+	 * 
+	 * @param event The event.
+	 * @return {@code true} if so, {@code false} if not.
+	 */
+	private static boolean isSuperseded(Event event) {
+		Class<? extends Event> type = event.getClass();
+		return type == PlayerSynchronizationEvent.class || type == NpcSynchronizationEvent.class;
+	}
+
+	/**
+	 * The batch of events and packets which will be written by the next flush.
+	 */
+	private OutboundBatch batch = new OutboundBatch();
+
+	/**
+	 * A flag indicating if a {@link LogoutEvent} is in the current batch.
+	 */
+	private boolean closing = false;
+
+	/**
+	 * The number of consecutive pulses for which this session has been congested.
+	 */
+	private int congestedPulses = 0;
+
 	/**
 	 * The server context.
 	 */
@@ -37,24 +74,43 @@ public final class GameSession extends Session {
 	/**
 	 * The queue of pending {@link Event}s.
 	 */
-	private final BlockingQueue<Event> eventQueue = new ArrayBlockingQueue<Event>(GameConstants.EVENTS_PER_PULSE);
+	private final InboundEventQueue eventQueue = new InboundEventQueue();
 
 	/**
 	 * The player.
 	 */
 	private final Player player;
 
+	/**
+	 * The backpressure policy.
+	 */
+	private final BackpressurePolicy policy;
+
 	/**
 	 * Creates a login session for the specified channel.
 	 * 
 	 * @param channel The channel.
 	 * @param context The server context.
 	 * @param player The player.
+	 * @param policy The backpressure policy.
 	 */
-	public GameSession(Channel channel, ServerContext context, Player player) {
+	public GameSession(Channel channel, ServerContext context, Player player, BackpressurePolicy policy) {
 		super(channel);
 		this.context = context;
 		this.player = player;
+		this.policy = policy;
+
+		ChannelConfig config = channel.getConfig();
+		if (config instanceof NioSocketChannelConfig) {
+			NioSocketChannelConfig nioConfig = (NioSocketChannelConfig) config;
+			if (policy.getHighWatermark() < nioConfig.getWriteBufferLowWaterMark()) {
+				nioConfig.setWriteBufferLowWaterMark(policy.getLowWatermark());
+				nioConfig.setWriteBufferHighWaterMark(policy.getHighWatermark());
+			} else {
+				nioConfig.setWriteBufferHighWaterMark(policy.getHighWatermark());
+				nioConfig.setWriteBufferLowWaterMark(policy.getLowWatermark());
+			}
+		}
 	}
 
 	@Override
@@ -63,17 +119,97 @@ public final class GameSession extends Session {
 	}
 
 	/**
-	 * Encodes and dispatches the specified event.
+	 * Dispatches the specified event. The event is added to the current batch and encoded when the batch is flushed.
 	 * 
 	 * @param event The event.
 	 */
 	public void dispatchEvent(Event event) {
+		if (isConnected()) {
+			synchronized (this) {
+				batch.add(event, isSuperseded(event));
+				if (event.getClass() == LogoutEvent.class) {
+					closing = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Encodes the specified event in the calling thread and adds the resulting packet to the current batch, so that
+	 * the thread which flushes the batch does not have to encode it. Events which the current release cannot encode are
+	 * discarded, as they would be by the {@link GameEventEncoder}.
+	 * 
+	 * @param event The event.
+	 */
+	@SuppressWarnings("unchecked")
+	public void dispatchEncodedEvent(Event event) {
+		if (isConnected()) {
+			EventEncoder<Event> encoder = (EventEncoder<Event>) context.getRelease().getEventEncoder(event.getClass());
+			if (encoder != null) {
+				GamePacket packet = encoder.encode(event);
+				synchronized (this) {
+					batch.add(packet, isSuperseded(event));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the events and packets dispatched since the last flush to the channel, with a single write. If a
+	 * {@link LogoutEvent} was dispatched, the channel is closed once the write completes.
+	 * <p>
+	 * If the channel is not writable (as more than the high watermark of the {@link BackpressurePolicy} is waiting to
+	 * be written), the session is congested: synchronization events are dropped and the other messages are kept to be
+	 * written by a later flush. Once the channel is writable again, the synchronization events of the current pulse are
+	 * dropped as well, and the player is resynchronized from scratch by the next pulse. If the session stays congested
+	 * for too long, or defers too many messages, the channel is closed, which unregisters (and so saves) the player.
+	 */
+	public void flush() {
+		OutboundMetrics metrics = OutboundMetrics.getMetrics();
 		Channel channel = getChannel();
-		if (channel.isBound() && channel.isConnected() && channel.isOpen()) {
-			ChannelFuture future = channel.write(event);
-			if (event.getClass() == LogoutEvent.class) {
-				future.addListener(ChannelFutureListener.CLOSE);
+		OutboundBatch batch;
+		boolean closing;
+
+		synchronized (this) {
+			if (!isConnected()) {
+				return;
+			} else if (!channel.isWritable()) {
+				metrics.recordSession(true);
+				metrics.recordDropped(this.batch.removeSuperseded());
+
+				congestedPulses++;
+				if (this.closing || congestedPulses > policy.getMaximumCongestedPulses()
+						|| this.batch.size() > policy.getMaximumDeferred()) {
+					if (!this.closing) {
+						logger.info("Disconnecting congested session: " + player.getName() + ".");
+						metrics.recordDisconnect();
+					}
+					channel.close();
+				}
+				return;
+			}
+
+			metrics.recordSession(false);
+			if (congestedPulses != 0) {
+				// the synchronization events in the batch are relative to what the dropped ones would have told the
+				// client, so they are dropped too, and the next pulse synchronizes the player from scratch
+				congestedPulses = 0;
+				metrics.recordDropped(this.batch.removeSuperseded());
+				player.resynchronize();
 			}
+
+			if (this.batch.isEmpty()) {
+				return;
+			}
+			batch = this.batch;
+			closing = this.closing;
+			this.batch = new OutboundBatch();
+			this.closing = false;
+		}
+
+		ChannelFuture future = channel.write(batch);
+		if (closing) {
+			future.addListener(ChannelFutureListener.CLOSE);
 		}
 	}
 
@@ -84,22 +220,10 @@ public final class GameSession extends Session {
 	 */
 	@SuppressWarnings("unchecked")
 	public void handlePendingEvents(EventHandlerChainGroup chainGroup) {
+		eventQueue.startPulse();
 		Event event;
 		while ((event = eventQueue.poll()) != null) {
-			// this lookup code really sucks!
-			// TODO improve it!
-			Class<? extends Event> eventType = event.getClass();
-			EventHandlerChain<Event> chain = (EventHandlerChain<Event>) chainGroup.getChain(eventType);
-
-			while (chain == null && eventType != null) {
-				eventType = (Class<? extends Event>) eventType.getSuperclass();
-				if (eventType == Event.class) {
-					eventType = null;
-				} else {
-					chain = (EventHandlerChain<Event>) chainGroup.getChain(eventType);
-				}
-			}
-
+			EventHandlerChain<Event> chain = (EventHandlerChain<Event>) chainGroup.resolve(event.getClass());
 			if (chain == null) {
 				logger.warning("No chain for event: " + event.getClass().getName() + ".");
 			} else {
@@ -121,14 +245,19 @@ public final class GameSession extends Session {
 		context.getService(GameService.class).finalizePlayerUnregistration(player);
 	}
 
+	/**
+	 * Checks if the channel is connected.
+	 * 
+	 * @return {@code true} if so, {@code false} if not.
+	 */
+	private boolean isConnected() {
+		Channel channel = getChannel();
+		return channel.isBound() && channel.isConnected() && channel.isOpen();
+	}
+
 	@Override
 	public void messageReceived(Object message) throws Exception {
-		Event event = (Event) message;
-		if (eventQueue.size() >= GameConstants.EVENTS_PER_PULSE) {
-			logger.warning("Too many events in queue for game session, dropping...");
-		} else {
-			eventQueue.add(event);
-		}
+		eventQueue.offer((Event) message);
 	}
 
 }
@@ -0,0 +1,235 @@
+package org.apollo.net.session;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.apollo.game.event.Event;
+import org.apollo.game.event.EventTypeRegistry;
+import org.apollo.game.event.impl.ButtonEvent;
+import org.apollo.game.event.impl.CharacterDesignEvent;
+import org.apollo.game.event.impl.ChatEvent;
+import org.apollo.game.event.impl.ClosedInterfaceEvent;
+import org.apollo.game.event.impl.CommandEvent;
+import org.apollo.game.event.impl.EnteredAmountEvent;
+import org.apollo.game.event.impl.KeepAliveEvent;
+import org.apollo.game.event.impl.WalkEvent;
+import org.apollo.util.RingBuffer;
+
+/**
+ * The queue of events received from the channel of a {@link GameSession}, from the I/O thread which reads the channel
+ * to the game thread which handles them.
+ * <p>
+ * Each type of event has a priority and a quota. Events are kept in a single {@link RingBuffer} and handled in the
+ * order they arrived, as the handler of one event may depend on the effects of an earlier one (e.g. a button clicked
+ * in an interface opened by an item action). The priority only decides which events are shed under load: each
+ * priority may only have so many events waiting, so a flood of low priority events (such as item clicks) cannot push
+ * out high priority events (walking, chat, commands and interface input). The quota is the number of events of the
+ * type which are handled in a pulse: any more are dropped. Every dropped event is counted by the
+ * {@link InboundMetrics}.
+ * 
+ * @author Graham
+ */
+public final class InboundEventQueue {
+
+	/**
+	 * The priority of an event.
+	 * 
+	 * @author Graham
+	 */
+	private enum Priority {
+
+		/**
+		 * Events which must never be starved, such as walking and chat.
+		 */
+		HIGH(16),
+
+		/**
+		 * Every other event.
+		 */
+		NORMAL(32);
+
+		/**
+		 * The maximum number of events of this priority which may be waiting to be handled.
+		 */
+		private final int capacity;
+
+		/**
+		 * Creates the priority.
+		 * 
+		 * @param capacity The maximum number of events of this priority which may be waiting to be handled.
+		 */
+		private Priority(int capacity) {
+			this.capacity = capacity;
+		}
+
+	}
+
+	/**
+	 * The priority and quota of a type of event.
+	 * 
+	 * @author Graham
+	 */
+	private static final class Budget {
+
+		/**
+		 * The index of this budget's counter.
+		 */
+		private final int id;
+
+		/**
+		 * The priority.
+		 */
+		private final Priority priority;
+
+		/**
+		 * The number of events handled in a pulse.
+		 */
+		private final int quota;
+
+		/**
+		 * Creates the budget.
+		 * 
+		 * @param id The index of this budget's counter.
+		 * @param priority The priority.
+		 * @param quota The number of events handled in a pulse.
+		 */
+		private Budget(int id, Priority priority, int quota) {
+			this.id = id;
+			this.priority = priority;
+			this.quota = quota;
+		}
+
+	}
+
+	/**
+	 * The budgets of the types of event which do not have their own budget: they share a single quota.
+	 */
+	private static final Budget DEFAULT_BUDGET = new Budget(0, Priority.NORMAL, 10);
+
+	/**
+	 * The budgets of each type of event, indexed by the {@link EventTypeRegistry} id of the type.
+	 */
+	private static Budget[] budgets = new Budget[0];
+
+	/**
+	 * The number of budgets, including the default budget.
+	 */
+	private static int budgetCount = 1;
+
+	/**
+	 * Populates the budgets.
+	 */
+	static {
+		budget(WalkEvent.class, Priority.HIGH, 4);
+		budget(ChatEvent.class, Priority.HIGH, 2);
+		budget(CommandEvent.class, Priority.HIGH, 4);
+		budget(ButtonEvent.class, Priority.HIGH, 8);
+		budget(ClosedInterfaceEvent.class, Priority.HIGH, 2);
+		budget(EnteredAmountEvent.class, Priority.HIGH, 2);
+		budget(CharacterDesignEvent.class, Priority.HIGH, 1);
+		budget(KeepAliveEvent.class, Priority.HIGH, 1);
+	}
+
+	/**
+	 * Adds the budget of a type of event.
+	 * 
+	 * @param type The type of event.
+	 * @param priority The priority.
+	 * @param quota The number of events handled in a pulse.
+	 */
+	private static void budget(Class<? extends Event> type, Priority priority, int quota) {
+		int id = EventTypeRegistry.getId(type);
+		if (id >= budgets.length) {
+			budgets = Arrays.copyOf(budgets, id + 1);
+		}
+		budgets[id] = new Budget(budgetCount++, priority, quota);
+	}
+
+	/**
+	 * Gets the budget of the specified type of event.
+	 * 
+	 * @param type The type of event.
+	 * @return The budget.
+	 */
+	private static Budget getBudget(Class<? extends Event> type) {
+		int id = EventTypeRegistry.getId(type);
+		Budget budget = id < budgets.length ? budgets[id] : null;
+		return budget == null ? DEFAULT_BUDGET : budget;
+	}
+
+	/**
+	 * Gets the number of events of every priority which may be waiting to be handled.
+	 * 
+	 * @return The number of events.
+	 */
+	private static int getTotalCapacity() {
+		int capacity = 0;
+		for (Priority priority : Priority.values()) {
+			capacity += priority.capacity;
+		}
+		return capacity;
+	}
+
+	/**
+	 * The events waiting to be handled, in the order they arrived.
+	 */
+	private final RingBuffer<Event> buffer = new RingBuffer<Event>(getTotalCapacity());
+
+	/**
+	 * The number of events of each budget handled in the current pulse, indexed by budget id. This is only used by
+	 * the game thread.
+	 */
+	private final int[] handled = new int[budgetCount];
+
+	/**
+	 * The number of events of each priority waiting to be handled, indexed by priority.
+	 */
+	private final AtomicIntegerArray waiting = new AtomicIntegerArray(Priority.values().length);
+
+	/**
+	 * Adds an event to this queue. This must only be called by the I/O thread of the session's channel.
+	 * 
+	 * @param event The event.
+	 * @return {@code true} if the event was added, {@code false} if it was dropped because too many events of its
+	 *         priority are waiting to be handled.
+	 */
+	public boolean offer(Event event) {
+		Priority priority = getBudget(event.getClass()).priority;
+		if (waiting.incrementAndGet(priority.ordinal()) <= priority.capacity && buffer.offer(event)) {
+			return true;
+		}
+		waiting.decrementAndGet(priority.ordinal());
+		InboundMetrics.getMetrics().recordDropped(event.getClass());
+		return false;
+	}
+
+	/**
+	 * Removes the next event to handle in the current pulse. Events are removed in the order they arrived, and events
+	 * over the quota of their type are dropped. This must only be called by the game thread.
+	 * 
+	 * @return The event, or {@code null} if there are no more events to handle in the current pulse.
+	 */
+	public Event poll() {
+		Event event;
+		while ((event = buffer.poll()) != null) {
+			Budget budget = getBudget(event.getClass());
+			waiting.decrementAndGet(budget.priority.ordinal());
+			if (handled[budget.id]++ < budget.quota) {
+				return event;
+			}
+			InboundMetrics.getMetrics().recordDropped(event.getClass());
+		}
+		return null;
+	}
+
+	/**
+	 * Starts a new pulse, resetting the number of events of each type which have been handled. This must only be
+	 * called by the game thread.
+	 */
+	public void startPulse() {
+		for (int index = 0; index < handled.length; index++) {
+			handled[index] = 0;
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+package org.apollo.net.session;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apollo.game.event.Event;
+import org.apollo.game.event.EventTypeRegistry;
+
+/**
+ * Counts the events received from game channels which are dropped by the {@link InboundEventQueue}s, by type of event.
+ * The counters are published through JMX under {@code org.apollo:type=InboundMetrics}.
+ * 
+ * @author Graham
+ */
+public final class InboundMetrics implements InboundMetricsMXBean {
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = Logger.getLogger(InboundMetrics.class.getName());
+
+	/**
+	 * The metrics.
+	 */
+	private static final InboundMetrics metrics = new InboundMetrics();
+
+	/**
+	 * The value of a counter in a replaced array once its count has been moved to the new array, which is negative
+	 * however many times it is incremented afterwards.
+	 */
+	private static final long MOVED = Long.MIN_VALUE;
+
+	/**
+	 * Gets the metrics.
+	 * 
+	 * @return The metrics.
+	 */
+	public static InboundMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * The number of events of each type which have been dropped, indexed by the {@link EventTypeRegistry} id of the
+	 * type. The array is replaced when it grows (see {@link #grow(int)}).
+	 */
+	private volatile AtomicLongArray dropped = new AtomicLongArray(0);
+
+	/**
+	 * Creates the metrics and registers them with the platform MBean server.
+	 */
+	private InboundMetrics() {
+		String name = "org.apollo:type=InboundMetrics";
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(name);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			logger.log(Level.WARNING, "Failed to register MBean " + name + ".", e);
+		}
+	}
+
+	@Override
+	public Map<String, Long> getDroppedEvents() {
+		Map<String, Long> events = new TreeMap<String, Long>();
+		AtomicLongArray dropped = this.dropped;
+		for (int id = 0; id < dropped.length(); id++) {
+			long count = dropped.get(id);
+			if (count > 0) {
+				events.put(EventTypeRegistry.getType(id).getSimpleName(), count);
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * Gets the number of events of the specified type which have been dropped.
+	 * 
+	 * @param type The type of event.
+	 * @return The number of events.
+	 */
+	public long getDropped(Class<? extends Event> type) {
+		int id = EventTypeRegistry.getId(type);
+		AtomicLongArray dropped = this.dropped;
+		return id < dropped.length() ? Math.max(dropped.get(id), 0) : 0;
+	}
+
+	@Override
+	public long getTotalDropped() {
+		long total = 0;
+		AtomicLongArray dropped = this.dropped;
+		for (int id = 0; id < dropped.length(); id++) {
+			total += Math.max(dropped.get(id), 0);
+		}
+		return total;
+	}
+
+	/**
+	 * Records that an event was dropped.
+	 * 
+	 * @param type The type of event.
+	 */
+	public void recordDropped(Class<? extends Event> type) {
+		int id = EventTypeRegistry.getId(type);
+		AtomicLongArray dropped = this.dropped;
+		while (true) {
+			if (id >= dropped.length()) {
+				dropped = grow(id + 1);
+			}
+
+			// a negative count means the counter has been moved to a new array by grow(), which then holds the count
+			if (dropped.incrementAndGet(id) > 0) {
+				return;
+			}
+			dropped = this.dropped;
+		}
+	}
+
+	/**
+	 * Grows the array of counters. The new array is published first, and then each count is moved into it, leaving
+	 * the old counter {@link #MOVED}, so that an increment which lands on the old array after its count was moved can
+	 * tell and be retried on the new one.
+	 * 
+	 * @param length The minimum length of the array.
+	 * @return The array.
+	 */
+	private synchronized AtomicLongArray grow(int length) {
+		AtomicLongArray dropped = this.dropped;
+		if (dropped.length() < length) {
+			AtomicLongArray grown = new AtomicLongArray(Math.max(length, EventTypeRegistry.size()));
+			this.dropped = grown;
+			for (int id = 0; id < dropped.length(); id++) {
+				grown.addAndGet(id, dropped.getAndSet(id, MOVED));
+			}
+			dropped = grown;
+		}
+		return dropped;
+	}
+
+}
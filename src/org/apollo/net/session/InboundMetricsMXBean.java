@@ -0,0 +1,26 @@
+package org.apollo.net.session;
+
+import java.util.Map;
+
+/**
+ * The management interface of the {@link InboundMetrics}.
+ * 
+ * @author Graham
+ */
+public interface InboundMetricsMXBean {
+
+	/**
+	 * Gets the number of events of each type which have been dropped since the server started.
+	 * 
+	 * @return A map of the simple names of the types of event to the numbers of events dropped.
+	 */
+	public Map<String, Long> getDroppedEvents();
+
+	/**
+	 * Gets the total number of events which have been dropped since the server started.
+	 * 
+	 * @return The number of events.
+	 */
+	public long getTotalDropped();
+
+}
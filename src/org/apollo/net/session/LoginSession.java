@@ -76,7 +76,8 @@ public final class LoginSession extends Session {
 	}
 
 	/**
-	 * Handles a response from the login service.
+	 * Handles a response from the login service. Responses which contain a player are handled by the game thread, as
+	 * the player is registered with the world.
 	 * 
 	 * @param request The request this response corresponds to.
 	 * @param response The response.
@@ -84,6 +85,10 @@ public final class LoginSession extends Session {
 	public void handlePlayerLoaderResponse(LoginRequest request, PlayerLoaderResponse response) {
 		GameService gameService = serverContext.getService(GameService.class);
 		Channel channel = getChannel();
+		if (!channel.isConnected()) {
+			destroy();
+			return;
+		}
 
 		int status = response.getStatus();
 		Player player = response.getPlayer();
@@ -91,7 +96,8 @@ public final class LoginSession extends Session {
 		boolean log = false;
 
 		if (player != null) {
-			GameSession session = new GameSession(channel, serverContext, player);
+			GameSession session = new GameSession(channel, serverContext, player,
+					gameService.getBackpressurePolicy());
 			player.setSession(session, false /* TODO */);
 
 			RegistrationStatus registrationStatus = gameService.registerPlayer(player);
@@ -0,0 +1,136 @@
+package org.apollo.update;
+
+import java.nio.ByteBuffer;
+
+import org.apollo.fs.FileDescriptor;
+import org.apollo.net.codec.update.OnDemandResponse;
+import org.apollo.net.codec.update.UpdateEncoder;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+/**
+ * A file held by the {@link FileCache}: its contents, and the 'on-demand' responses which send it, encoded one after
+ * another in a single buffer. Neither is ever modified, so they are shared by every request for the file, and the
+ * buffers handed out are read only views of them.
+ * <p>
+ * Archives (files of type {@code 0}) are sent over JAGGRAB and HTTP, never by 'on-demand' responses (which cannot
+ * address them, nor describe files over 64 KB), so no responses are encoded for them.
+ * 
+ * @author Graham
+ */
+public final class CachedFile {
+
+	/**
+	 * The maximum length of a chunk of an 'on-demand' response, in bytes.
+	 */
+	public static final int CHUNK_LENGTH = 500;
+
+	/**
+	 * The contents of the file.
+	 */
+	private final ByteBuffer data;
+
+	/**
+	 * The position of each response within {@link #responses}, followed by the length of the buffer, or {@code null}
+	 * if the file is an archive.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * The encoded 'on-demand' responses, or {@code null} if the file is an archive.
+	 */
+	private final ChannelBuffer responses;
+
+	/**
+	 * Creates the cached file, encoding its 'on-demand' responses unless it is an archive.
+	 * 
+	 * @param descriptor The file descriptor.
+	 * @param data The contents of the file, which must not be modified afterwards.
+	 */
+	public CachedFile(FileDescriptor descriptor, ByteBuffer data) {
+		this.data = data.asReadOnlyBuffer();
+		if (descriptor.getType() == 0) {
+			responses = null;
+			offsets = null;
+			return;
+		}
+
+		ChannelBuffer contents = ChannelBuffers.wrappedBuffer(data);
+		int length = contents.readableBytes();
+		int chunks = (length + CHUNK_LENGTH - 1) / CHUNK_LENGTH;
+
+		responses = ChannelBuffers.buffer(length + chunks * 6);
+		offsets = new int[chunks + 1];
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			int chunkLength = Math.min(contents.readableBytes(), CHUNK_LENGTH);
+			offsets[chunk] = responses.writerIndex();
+			UpdateEncoder.encode(new OnDemandResponse(descriptor, length, chunk, contents.readSlice(chunkLength)),
+					responses);
+		}
+		offsets[chunks] = responses.writerIndex();
+	}
+
+	/**
+	 * Checks that this file has 'on-demand' responses.
+	 * 
+	 * @throws IllegalStateException If the file is an archive.
+	 */
+	private void checkResponses() {
+		if (responses == null) {
+			throw new IllegalStateException("Archives are not sent by 'on-demand' responses.");
+		}
+	}
+
+	/**
+	 * Gets the number of 'on-demand' responses which send this file.
+	 * 
+	 * @return The number of responses.
+	 * @throws IllegalStateException If the file is an archive.
+	 */
+	public int getChunkCount() {
+		checkResponses();
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Gets the contents of the file.
+	 * 
+	 * @return A read only buffer of the contents.
+	 */
+	public ByteBuffer getData() {
+		return data.duplicate();
+	}
+
+	/**
+	 * Gets an encoded 'on-demand' response which sends one chunk of this file.
+	 * 
+	 * @param chunk The chunk id.
+	 * @return A read only slice of the encoded responses.
+	 * @throws IllegalStateException If the file is an archive.
+	 */
+	public ChannelBuffer getResponse(int chunk) {
+		checkResponses();
+		return ChannelBuffers.unmodifiableBuffer(responses.slice(offsets[chunk], offsets[chunk + 1] - offsets[chunk]));
+	}
+
+	/**
+	 * Gets every encoded 'on-demand' response which sends this file.
+	 * 
+	 * @return A read only slice of the encoded responses.
+	 * @throws IllegalStateException If the file is an archive.
+	 */
+	public ChannelBuffer getResponses() {
+		checkResponses();
+		return ChannelBuffers.unmodifiableBuffer(responses.slice());
+	}
+
+	/**
+	 * Gets the number of bytes of memory taken by this file, which is used to limit the size of the cache.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public int getWeight() {
+		return responses == null ? data.remaining() : data.remaining() + responses.capacity();
+	}
+
+}
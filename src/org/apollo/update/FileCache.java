@@ -0,0 +1,221 @@
+package org.apollo.update;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apollo.fs.FileDescriptor;
+import org.apollo.fs.IndexedFileSystem;
+
+/**
+ * A cache of the files in an {@link IndexedFileSystem} which are requested by clients, so that popular files (which,
+ * after an update, are requested by every client which logs in) are only read from the file system once.
+ * <p>
+ * The cache is limited by the number of bytes its files take, and evicts the least recently used files when it grows
+ * beyond its budget. It is split into segments, each of which holds a share of the files and of the budget, and which
+ * are locked independently, so threads serving different files rarely contend. The counters of the cache are
+ * published through JMX under {@code org.apollo:type=FileCache}.
+ * 
+ * @author Graham
+ */
+public final class FileCache implements FileCacheMBean {
+
+	/**
+	 * A segment of the cache: a map of files in the order in which they were last used.
+	 * 
+	 * @author Graham
+	 */
+	private static final class Segment extends LinkedHashMap<FileDescriptor, CachedFile> {
+
+		/**
+		 * The serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The maximum number of bytes the files in this segment may take.
+		 */
+		private final long budget;
+
+		/**
+		 * The number of bytes the files in this segment take.
+		 */
+		private long weight = 0;
+
+		/**
+		 * Creates the segment.
+		 * 
+		 * @param budget The maximum number of bytes the files in this segment may take.
+		 */
+		public Segment(long budget) {
+			super(16, 0.75f, true);
+			this.budget = budget;
+		}
+
+	}
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = Logger.getLogger(FileCache.class.getName());
+
+	/**
+	 * The number of segments, which must be a power of two.
+	 */
+	private static final int SEGMENTS = 16;
+
+	/**
+	 * The number of files which have been evicted.
+	 */
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * The file system.
+	 */
+	private final IndexedFileSystem fs;
+
+	/**
+	 * The number of requests which were served from the cache.
+	 */
+	private final AtomicLong hits = new AtomicLong();
+
+	/**
+	 * The number of requests which had to read the file system.
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * The segments.
+	 */
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	/**
+	 * Creates the file cache and registers it with the platform MBean server.
+	 * 
+	 * @param fs The file system.
+	 * @param budget The maximum number of bytes the files in the cache may take.
+	 */
+	public FileCache(IndexedFileSystem fs, long budget) {
+		this.fs = fs;
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment(budget / SEGMENTS);
+		}
+
+		String name = "org.apollo:type=FileCache";
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(name);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			logger.log(Level.WARNING, "Failed to register MBean " + name + ".", e);
+		}
+	}
+
+	/**
+	 * Gets a file, reading it from the file system if it is not in the cache. Files which are larger than the budget of
+	 * a segment are read every time they are requested.
+	 * 
+	 * @param descriptor The descriptor of the file.
+	 * @return The file.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public CachedFile get(FileDescriptor descriptor) throws IOException {
+		Segment segment = segments[descriptor.hashCode() * 0x9E3779B9 >>> 16 & SEGMENTS - 1];
+		synchronized (segment) {
+			CachedFile file = segment.get(descriptor);
+			if (file != null) {
+				hits.incrementAndGet();
+				return file;
+			}
+		}
+
+		misses.incrementAndGet();
+		CachedFile file = new CachedFile(descriptor, fs.getFile(descriptor));
+		if (file.getWeight() > segment.budget) {
+			return file;
+		}
+
+		synchronized (segment) {
+			CachedFile existing = segment.get(descriptor);
+			if (existing != null) {
+				return existing;
+			}
+
+			segment.put(descriptor, file);
+			segment.weight += file.getWeight();
+
+			Iterator<CachedFile> iterator = segment.values().iterator();
+			while (segment.weight > segment.budget) {
+				CachedFile eldest = iterator.next();
+				iterator.remove();
+				segment.weight -= eldest.getWeight();
+				evictions.incrementAndGet();
+			}
+		}
+		return file;
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	@Override
+	public int getFileCount() {
+		int count = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				count += segment.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the file system.
+	 * 
+	 * @return The file system.
+	 */
+	public IndexedFileSystem getFileSystem() {
+		return fs;
+	}
+
+	@Override
+	public double getHitRatio() {
+		long hits = this.hits.get();
+		long requests = hits + misses.get();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public long getWeight() {
+		long weight = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				weight += segment.weight;
+			}
+		}
+		return weight;
+	}
+
+}
@@ -0,0 +1,52 @@
+package org.apollo.update;
+
+/**
+ * The management interface of the {@link FileCache}.
+ * 
+ * @author Graham
+ */
+public interface FileCacheMBean {
+
+	/**
+	 * Gets the number of files which have been evicted to keep the cache within its budget.
+	 * 
+	 * @return The number of files.
+	 */
+	public long getEvictions();
+
+	/**
+	 * Gets the number of files in the cache.
+	 * 
+	 * @return The number of files.
+	 */
+	public int getFileCount();
+
+	/**
+	 * Gets the fraction of requests which were served from the cache.
+	 * 
+	 * @return The fraction, between 0 and 1, or 0 if there have been no requests.
+	 */
+	public double getHitRatio();
+
+	/**
+	 * Gets the number of requests which were served from the cache.
+	 * 
+	 * @return The number of requests.
+	 */
+	public long getHits();
+
+	/**
+	 * Gets the number of requests which had to read the file system.
+	 * 
+	 * @return The number of requests.
+	 */
+	public long getMisses();
+
+	/**
+	 * Gets the number of bytes taken by the files in the cache.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public long getWeight();
+
+}
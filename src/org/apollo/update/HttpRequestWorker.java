@@ -2,26 +2,39 @@ package org.apollo.update;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
+import java.io.RandomAccessFile;
 import java.nio.charset.Charset;
 import java.util.Date;
 
-import org.apollo.fs.IndexedFileSystem;
+import org.apollo.net.HttpRequestSequencer;
 import org.apollo.update.resource.CombinedResourceProvider;
 import org.apollo.update.resource.HypertextResourceProvider;
+import org.apollo.update.resource.Resource;
 import org.apollo.update.resource.ResourceProvider;
 import org.apollo.update.resource.VirtualResourceProvider;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.DefaultFileRegion;
+import org.jboss.netty.channel.FileRegion;
 import org.jboss.netty.handler.codec.http.DefaultHttpResponse;
+import org.jboss.netty.handler.codec.http.HttpHeaders;
+import org.jboss.netty.handler.codec.http.HttpHeaders.Names;
+import org.jboss.netty.handler.codec.http.HttpHeaders.Values;
+import org.jboss.netty.handler.codec.http.HttpMethod;
 import org.jboss.netty.handler.codec.http.HttpRequest;
 import org.jboss.netty.handler.codec.http.HttpResponse;
 import org.jboss.netty.handler.codec.http.HttpResponseStatus;
 
 /**
  * A worker which services HTTP requests.
+ * <p>
+ * Connections are kept alive if the client asks. Each response carries the CRC of the resource as its entity tag, so
+ * a client with an up to date copy is told so by a {@code 304 Not Modified} response, and a download which was cut off
+ * may be resumed with a {@code Range} request. Files in the web directory are sent straight from the disk as
+ * {@link FileRegion}s.
  * 
  * @author Graham
  */
@@ -37,6 +50,11 @@ public final class HttpRequestWorker extends RequestWorker<HttpRequest, Resource
 	 */
 	private static final String SERVER_IDENTIFIER = "JAGeX/3.1";
 
+	/**
+	 * The value {@link #parseRange(String, long)} returns if a range does not overlap the resource.
+	 */
+	private static final long[] UNSATISFIABLE = new long[0];
+
 	/**
 	 * The directory with web files.
 	 */
@@ -46,11 +64,12 @@ public final class HttpRequestWorker extends RequestWorker<HttpRequest, Resource
 	 * Creates the HTTP request worker.
 	 * 
 	 * @param dispatcher The dispatcher.
-	 * @param fs The file system.
+	 * @param cache The file cache.
+	 * @param shaper The traffic shaper.
 	 */
-	public HttpRequestWorker(UpdateDispatcher dispatcher, IndexedFileSystem fs) {
-		super(dispatcher, new CombinedResourceProvider(new VirtualResourceProvider(fs), new HypertextResourceProvider(
-				WWW_DIRECTORY)));
+	public HttpRequestWorker(UpdateDispatcher dispatcher, FileCache cache, TrafficShaper shaper) {
+		super(dispatcher, new CombinedResourceProvider(new VirtualResourceProvider(cache),
+				new HypertextResourceProvider(WWW_DIRECTORY)), shaper);
 	}
 
 	/**
@@ -78,6 +97,27 @@ public final class HttpRequestWorker extends RequestWorker<HttpRequest, Resource
 		return ChannelBuffers.copiedBuffer(bldr.toString(), Charset.defaultCharset());
 	}
 
+	/**
+	 * Creates a response with the headers every response has, and no content.
+	 * 
+	 * @param request The request.
+	 * @param status The HTTP status.
+	 * @param keepAlive A flag indicating if the connection is kept alive.
+	 * @return The response.
+	 */
+	private HttpResponse createResponse(HttpRequest request, HttpResponseStatus status, boolean keepAlive) {
+		HttpResponse response = new DefaultHttpResponse(request.getProtocolVersion(), status);
+
+		response.setHeader(Names.DATE, new Date());
+		response.setHeader(Names.SERVER, SERVER_IDENTIFIER);
+		// clients may keep a copy, but must check it is up to date using its entity tag
+		response.setHeader(Names.CACHE_CONTROL, Values.NO_CACHE);
+		HttpHeaders.setContentLength(response, 0);
+		HttpHeaders.setKeepAlive(response, keepAlive);
+
+		return response;
+	}
+
 	/**
 	 * Gets the MIME type of a file by its name.
 	 * 
@@ -106,43 +146,195 @@ public final class HttpRequestWorker extends RequestWorker<HttpRequest, Resource
 		return "application/octect-stream";
 	}
 
+	/**
+	 * Gets the path of a resource from the URI of a request, without its query string.
+	 * 
+	 * @param uri The URI.
+	 * @return The path.
+	 */
+	private String getPath(String uri) {
+		int query = uri.indexOf('?');
+		return query == -1 ? uri : uri.substring(0, query);
+	}
+
+	/**
+	 * Checks if the value of an {@code If-None-Match} header matches an entity tag.
+	 * 
+	 * @param header The value of the header, or {@code null} if the request did not have one.
+	 * @param tag The entity tag.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private boolean matches(String header, String tag) {
+		if (header == null) {
+			return false;
+		}
+
+		for (String candidate : header.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.equals("*") || candidate.equals(tag) || candidate.equals("W/" + tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	protected ChannelRequest<HttpRequest> nextRequest(UpdateDispatcher dispatcher) throws InterruptedException {
 		return dispatcher.nextHttpRequest();
 	}
 
+	/**
+	 * Parses the value of a {@code Range} header. Only a single range of bytes is supported: the whole resource is
+	 * sent in reply to anything else, as the specification allows.
+	 * 
+	 * @param header The value of the header, or {@code null} if the request did not have one.
+	 * @param length The length of the resource.
+	 * @return The first and last byte of the range, {@link #UNSATISFIABLE} if the range does not overlap the
+	 *         resource, or {@code null} if the whole resource should be sent.
+	 */
+	private long[] parseRange(String header, long length) {
+		if (header == null || !header.startsWith("bytes=") || header.indexOf(',') != -1) {
+			return null;
+		}
+
+		String spec = header.substring(6);
+		int dash = spec.indexOf('-');
+		if (dash == -1) {
+			return null;
+		}
+
+		String first = spec.substring(0, dash).trim();
+		String last = spec.substring(dash + 1).trim();
+		try {
+			if (first.isEmpty()) {
+				long suffix = Long.parseLong(last);
+				if (suffix <= 0 || length == 0) {
+					return UNSATISFIABLE;
+				}
+				return new long[] { Math.max(0, length - suffix), length - 1 };
+			}
+
+			long start = Long.parseLong(first);
+			long end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+			if (start >= length) {
+				return UNSATISFIABLE;
+			} else if (end < start) {
+				return null;
+			}
+			return new long[] { start, Math.min(end, length - 1) };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
 	@Override
 	protected void service(ResourceProvider provider, Channel channel, HttpRequest request) throws IOException {
-		String path = request.getUri();
-		ByteBuffer buf = provider.get(path);
+		String path = getPath(request.getUri());
+		boolean head = request.getMethod().equals(HttpMethod.HEAD);
+		boolean keepAlive = HttpHeaders.isKeepAlive(request);
+
+		Resource resource = provider.get(path);
+		if (resource == null) {
+			HttpResponse response = createResponse(request, HttpResponseStatus.NOT_FOUND, keepAlive);
+			ChannelBuffer page = createErrorPage(HttpResponseStatus.NOT_FOUND,
+					"The page you requested could not be found.");
+			response.setHeader(Names.CONTENT_TYPE, "text/html; charset=" + CHARACTER_SET.name());
+			HttpHeaders.setContentLength(response, page.readableBytes());
+			if (!head) {
+				response.setContent(page);
+			}
+			write(channel, response, null, keepAlive);
+			return;
+		}
+
+		String tag = "\"" + Integer.toHexString(resource.getCrc()) + "\"";
+		if (matches(request.getHeader(Names.IF_NONE_MATCH), tag)) {
+			HttpResponse response = createResponse(request, HttpResponseStatus.NOT_MODIFIED, keepAlive);
+			response.setHeader(Names.ETAG, tag);
+			write(channel, response, null, keepAlive);
+			return;
+		}
+
+		long length = resource.getLength();
+		String ifRange = request.getHeader(Names.IF_RANGE);
+		long[] range = ifRange == null || ifRange.equals(tag) ? parseRange(request.getHeader(Names.RANGE), length)
+				: null;
+		if (range == UNSATISFIABLE) {
+			HttpResponse response = createResponse(request, HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+					keepAlive);
+			response.setHeader(Names.CONTENT_RANGE, "bytes */" + length);
+			write(channel, response, null, keepAlive);
+			return;
+		}
+
+		long start = range == null ? 0 : range[0];
+		long count = range == null ? length : range[1] - range[0] + 1;
 
-		ChannelBuffer wrappedBuf;
-		HttpResponseStatus status = HttpResponseStatus.OK;
+		HttpResponseStatus status = range == null ? HttpResponseStatus.OK : HttpResponseStatus.PARTIAL_CONTENT;
+		HttpResponse response = createResponse(request, status, keepAlive);
 
-		String mimeType = getMimeType(request.getUri());
+		String mimeType = getMimeType(path);
+		response.setHeader(Names.CONTENT_TYPE, mimeType.startsWith("text/") ? mimeType + "; charset="
+				+ CHARACTER_SET.name() : mimeType);
+		response.setHeader(Names.ETAG, tag);
+		response.setHeader(Names.ACCEPT_RANGES, Values.BYTES);
+		if (range != null) {
+			response.setHeader(Names.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + length);
+		}
+		HttpHeaders.setContentLength(response, count);
 
-		if (buf == null) {
-			status = HttpResponseStatus.NOT_FOUND;
-			wrappedBuf = createErrorPage(status, "The page you requested could not be found.");
-			mimeType = "text/html";
+		if (head) {
+			write(channel, response, null, keepAlive);
+			return;
+		}
+
+		// archives are needed before the client can log in, whereas files in the web directory are not
+		throttle(channel, count, VirtualResourceProvider.isVirtual(path));
+
+		File file = resource.getFile();
+		if (file == null) {
+			ChannelBuffer content = ChannelBuffers.wrappedBuffer(resource.getBuffer());
+			response.setContent(content.slice((int) start, (int) count));
+			write(channel, response, null, keepAlive);
 		} else {
-			wrappedBuf = ChannelBuffers.wrappedBuffer(buf);
+			// the file is closed along with the region, once it has been sent
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			write(channel, response, new DefaultFileRegion(raf.getChannel(), start, count), keepAlive);
 		}
+	}
+
+	/**
+	 * Writes a response, followed by a file region if there is one. Once it has been sent, the connection is closed
+	 * unless it is kept alive, in which case the next request is served (see {@link HttpRequestSequencer}).
+	 * 
+	 * @param channel The channel.
+	 * @param response The response.
+	 * @param region The file region, or {@code null} if the body of the response (if any) is its content.
+	 * @param keepAlive A flag indicating if the connection is kept alive.
+	 */
+	private void write(final Channel channel, HttpResponse response, final FileRegion region,
+			final boolean keepAlive) {
+		ChannelFuture future = channel.write(response);
+		if (region != null) {
+			future = channel.write(region);
+		}
+
+		future.addListener(new ChannelFutureListener() {
 
-		HttpResponse resp = new DefaultHttpResponse(request.getProtocolVersion(), status);
+			@Override
+			public void operationComplete(ChannelFuture future) {
+				if (region != null) {
+					region.releaseExternalResources();
+				}
 
-		resp.setHeader("Date", new Date());
-		resp.setHeader("Server", SERVER_IDENTIFIER);
-		resp.setHeader("Content-type", mimeType + ", charset=" + CHARACTER_SET.name());
-		resp.setHeader("Cache-control", "no-cache");
-		resp.setHeader("Pragma", "no-cache");
-		resp.setHeader("Expires", new Date(0));
-		resp.setHeader("Connection", "close");
-		resp.setHeader("Content-length", wrappedBuf.readableBytes());
-		resp.setChunked(false);
-		resp.setContent(wrappedBuf);
+				if (keepAlive && future.isSuccess()) {
+					HttpRequestSequencer.responseWritten(channel);
+				} else {
+					channel.close();
+				}
+			}
 
-		channel.write(resp).addListener(ChannelFutureListener.CLOSE);
+		});
 	}
 
 }
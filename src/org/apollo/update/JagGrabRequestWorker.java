@@ -1,11 +1,10 @@
 package org.apollo.update;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 
-import org.apollo.fs.IndexedFileSystem;
 import org.apollo.net.codec.jaggrab.JagGrabRequest;
 import org.apollo.net.codec.jaggrab.JagGrabResponse;
+import org.apollo.update.resource.Resource;
 import org.apollo.update.resource.ResourceProvider;
 import org.apollo.update.resource.VirtualResourceProvider;
 import org.jboss.netty.buffer.ChannelBuffer;
@@ -24,10 +23,11 @@ public final class JagGrabRequestWorker extends RequestWorker<JagGrabRequest, Re
 	 * Creates the JAGGRAB request worker.
 	 * 
 	 * @param dispatcher The dispatcher.
-	 * @param fs The file system.
+	 * @param cache The file cache.
+	 * @param shaper The traffic shaper.
 	 */
-	public JagGrabRequestWorker(UpdateDispatcher dispatcher, IndexedFileSystem fs) {
-		super(dispatcher, new VirtualResourceProvider(fs));
+	public JagGrabRequestWorker(UpdateDispatcher dispatcher, FileCache cache, TrafficShaper shaper) {
+		super(dispatcher, new VirtualResourceProvider(cache), shaper);
 	}
 
 	@Override
@@ -37,11 +37,12 @@ public final class JagGrabRequestWorker extends RequestWorker<JagGrabRequest, Re
 
 	@Override
 	protected void service(ResourceProvider provider, Channel channel, JagGrabRequest request) throws IOException {
-		ByteBuffer buf = provider.get(request.getFilePath());
-		if (buf == null) {
+		Resource resource = provider.get(request.getFilePath());
+		if (resource == null) {
 			channel.close();
 		} else {
-			ChannelBuffer wrapped = ChannelBuffers.wrappedBuffer(buf);
+			ChannelBuffer wrapped = ChannelBuffers.wrappedBuffer(resource.getBuffer());
+			throttle(channel, wrapped.readableBytes(), true); // the client needs every archive before it can log in
 			channel.write(new JagGrabResponse(wrapped)).addListener(ChannelFutureListener.CLOSE);
 		}
 	}
@@ -1,14 +1,9 @@
 package org.apollo.update;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 
-import org.apollo.fs.FileDescriptor;
-import org.apollo.fs.IndexedFileSystem;
 import org.apollo.net.codec.update.OnDemandRequest;
-import org.apollo.net.codec.update.OnDemandResponse;
 import org.jboss.netty.buffer.ChannelBuffer;
-import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 
 /**
@@ -16,21 +11,17 @@ import org.jboss.netty.channel.Channel;
  * 
  * @author Graham
  */
-public final class OnDemandRequestWorker extends RequestWorker<OnDemandRequest, IndexedFileSystem> {
-
-	/**
-	 * The maximum length of a chunk, in bytes.
-	 */
-	private static final int CHUNK_LENGTH = 500;
+public final class OnDemandRequestWorker extends RequestWorker<OnDemandRequest, FileCache> {
 
 	/**
 	 * Creates the 'on-demand' request worker.
 	 * 
 	 * @param dispatcher The dispatcher.
-	 * @param fs The file system.
+	 * @param cache The file cache.
+	 * @param shaper The traffic shaper.
 	 */
-	public OnDemandRequestWorker(UpdateDispatcher dispatcher, IndexedFileSystem fs) {
-		super(dispatcher, fs);
+	public OnDemandRequestWorker(UpdateDispatcher dispatcher, FileCache cache, TrafficShaper shaper) {
+		super(dispatcher, cache, shaper);
 	}
 
 	@Override
@@ -39,25 +30,11 @@ public final class OnDemandRequestWorker extends RequestWorker<OnDemandRequest,
 	}
 
 	@Override
-	protected void service(IndexedFileSystem fs, Channel channel, OnDemandRequest request) throws IOException {
-		FileDescriptor desc = request.getFileDescriptor();
-
-		ByteBuffer buf = fs.getFile(desc);
-		int length = buf.remaining();
-
-		for (int chunk = 0; buf.remaining() > 0; chunk++) {
-			int chunkSize = buf.remaining();
-			if (chunkSize > CHUNK_LENGTH) {
-				chunkSize = CHUNK_LENGTH;
-			}
-
-			byte[] tmp = new byte[chunkSize];
-			buf.get(tmp, 0, tmp.length);
-			ChannelBuffer chunkData = ChannelBuffers.wrappedBuffer(tmp, 0, chunkSize);
-
-			OnDemandResponse response = new OnDemandResponse(desc, length, chunk, chunkData);
-			channel.write(response);
-		}
+	protected void service(FileCache cache, Channel channel, OnDemandRequest request) throws IOException {
+		CachedFile file = cache.get(request.getFileDescriptor());
+		ChannelBuffer responses = file.getResponses();
+		throttle(channel, responses.readableBytes(), OnDemandScheduler.isUrgent(request));
+		channel.write(responses);
 	}
 
 }
@@ -0,0 +1,298 @@
+package org.apollo.update;
+
+import java.io.IOException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apollo.net.codec.update.OnDemandRequest;
+import org.apollo.net.codec.update.OnDemandRequest.Priority;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
+
+/**
+ * Serves 'on-demand' requests without blocking threads, as an alternative to the {@link OnDemandRequestWorker}s.
+ * <p>
+ * Each channel has its own queue of requests, ordered by priority. Channels which have requests waiting take turns to
+ * have one request served, so a client which requests many files cannot hold up other clients. Each channel may only
+ * have {@link UpdateConstants#MAXIMUM_IN_FLIGHT_ON_DEMAND_RESPONSES} responses which have not yet been written to its
+ * socket, so a client which reads slowly does not take turns it cannot use.
+ * <p>
+ * Requests are served by whichever thread gives the scheduler work: a Netty I/O thread when a request is received or
+ * a response has been written. Serving a request is cheap, as files are read from the {@link FileCache} (and, on a
+ * miss, from the memory mapped file system), but only one thread serves requests at a time.
+ * <p>
+ * Responses are sent at the rate allowed by the {@link TrafficShaper}. A channel which must wait for its next
+ * response gives up its turns until the {@link Timer} says it may be sent, unless it requests a file it is waiting
+ * for, which is served straight away.
+ * 
+ * @author Graham
+ */
+public final class OnDemandScheduler {
+
+	/**
+	 * The requests of a single channel.
+	 * 
+	 * @author Graham
+	 */
+	private final class ChannelQueue implements ChannelFutureListener, TimerTask {
+
+		/**
+		 * The channel.
+		 */
+		private final Channel channel;
+
+		/**
+		 * The number of responses which have not yet been written.
+		 */
+		private int inFlight = 0;
+
+		/**
+		 * The requests which have not yet been served.
+		 */
+		private final Queue<OnDemandRequest> pending = new PriorityQueue<OnDemandRequest>();
+
+		/**
+		 * A flag indicating if this queue is waiting for its turn.
+		 */
+		private boolean scheduled = false;
+
+		/**
+		 * A flag indicating if this queue is waiting for the traffic shaper to let its next response be sent.
+		 */
+		private boolean throttled = false;
+
+		/**
+		 * Creates the channel queue.
+		 * 
+		 * @param channel The channel.
+		 */
+		public ChannelQueue(Channel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void operationComplete(ChannelFuture future) {
+			synchronized (this) {
+				inFlight--;
+				schedule(this);
+			}
+			drain();
+		}
+
+		@Override
+		public void run(Timeout timeout) {
+			synchronized (this) {
+				throttled = false;
+				schedule(this);
+			}
+			drain();
+		}
+
+	}
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = Logger.getLogger(OnDemandScheduler.class.getName());
+
+	/**
+	 * The file cache.
+	 */
+	private final FileCache cache;
+
+	/**
+	 * A flag indicating if a thread is serving requests.
+	 */
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	/**
+	 * The queue of each channel which has sent requests.
+	 */
+	private final ConcurrentMap<Channel, ChannelQueue> queues = new ConcurrentHashMap<Channel, ChannelQueue>();
+
+	/**
+	 * The queues which are waiting for their turn.
+	 */
+	private final Queue<ChannelQueue> ready = new ConcurrentLinkedQueue<ChannelQueue>();
+
+	/**
+	 * The traffic shaper.
+	 */
+	private final TrafficShaper shaper;
+
+	/**
+	 * The timer used to wake up throttled queues.
+	 */
+	private final Timer timer;
+
+	/**
+	 * Creates the 'on-demand' scheduler.
+	 * 
+	 * @param cache The file cache.
+	 * @param shaper The traffic shaper.
+	 * @param timer The timer used to wake up throttled queues.
+	 */
+	public OnDemandScheduler(FileCache cache, TrafficShaper shaper, Timer timer) {
+		this.cache = cache;
+		this.shaper = shaper;
+		this.timer = timer;
+	}
+
+	/**
+	 * Serves requests until no queue is waiting for its turn, unless another thread is already doing so.
+	 */
+	private void drain() {
+		while (!ready.isEmpty() && draining.compareAndSet(false, true)) {
+			try {
+				ChannelQueue queue;
+				while ((queue = ready.poll()) != null) {
+					OnDemandRequest request;
+					synchronized (queue) {
+						queue.scheduled = false;
+						request = queue.pending.poll();
+						if (request == null) {
+							continue;
+						}
+						queue.inFlight++;
+						schedule(queue);
+					}
+					serve(queue, request);
+				}
+			} finally {
+				draining.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Gets the queue of a channel, creating it if the channel does not have one.
+	 * 
+	 * @param channel The channel.
+	 * @return The queue.
+	 */
+	private ChannelQueue getQueue(final Channel channel) {
+		ChannelQueue queue = queues.get(channel);
+		if (queue == null) {
+			ChannelQueue created = new ChannelQueue(channel);
+			queue = queues.putIfAbsent(channel, created);
+			if (queue == null) {
+				queue = created;
+				channel.getCloseFuture().addListener(new ChannelFutureListener() {
+
+					@Override
+					public void operationComplete(ChannelFuture future) {
+						queues.remove(channel);
+					}
+
+				});
+			}
+		}
+		return queue;
+	}
+
+	/**
+	 * Checks if a request is for a file the client is waiting for. The client sends priority {@code 2}, which
+	 * {@link Priority} calls {@link Priority#LOW}, for these, and they are served first.
+	 * 
+	 * @param request The request.
+	 * @return {@code true} if the request is urgent, {@code false} otherwise.
+	 */
+	static boolean isUrgent(OnDemandRequest request) {
+		return request.getPriority() == Priority.LOW;
+	}
+
+	/**
+	 * Offers a request to the scheduler. If the channel already has too many requests waiting, it is closed instead.
+	 * 
+	 * @param channel The channel.
+	 * @param request The request.
+	 */
+	public void offer(Channel channel, OnDemandRequest request) {
+		ChannelQueue queue = getQueue(channel);
+		synchronized (queue) {
+			if (queue.pending.size() >= UpdateConstants.MAXIMUM_PENDING_ON_DEMAND_REQUESTS) {
+				channel.close();
+				return;
+			}
+			queue.pending.add(request);
+			schedule(queue);
+		}
+		drain();
+	}
+
+	/**
+	 * Puts a queue at the back of the line if it has requests waiting, may have another response in flight and is not
+	 * throttled (unless its next request is urgent). The caller must hold the lock of the queue.
+	 * 
+	 * @param queue The queue.
+	 */
+	private void schedule(ChannelQueue queue) {
+		OnDemandRequest next = queue.pending.peek();
+		if (!queue.scheduled && next != null && (!queue.throttled || isUrgent(next))
+				&& queue.inFlight < UpdateConstants.MAXIMUM_IN_FLIGHT_ON_DEMAND_RESPONSES) {
+			queue.scheduled = true;
+			ready.add(queue);
+		}
+	}
+
+	/**
+	 * Serves a request by writing the file it asks for, if the traffic shaper lets it be sent now. Otherwise, the
+	 * request is put back and the queue is throttled until it may be sent, with a single timeout to wake it up.
+	 * 
+	 * @param queue The queue of the channel which sent the request.
+	 * @param request The request.
+	 */
+	private void serve(ChannelQueue queue, OnDemandRequest request) {
+		Channel channel = queue.channel;
+		if (!channel.isConnected()) {
+			queues.remove(channel);
+			return;
+		}
+
+		try {
+			CachedFile file = cache.get(request.getFileDescriptor());
+			ChannelBuffer responses = file.getResponses();
+
+			long delay = shaper.acquire(channel, responses.readableBytes(), isUrgent(request), System.nanoTime());
+			if (delay > 0) {
+				boolean wake;
+				synchronized (queue) {
+					queue.pending.add(request);
+					queue.inFlight--;
+
+					// drain() scheduled the queue before serving it, so it must not be given another turn, which
+					// would serve the request again and start a second timeout
+					if (queue.scheduled) {
+						queue.scheduled = false;
+						ready.remove(queue);
+					}
+					wake = !queue.throttled;
+					queue.throttled = true;
+				}
+
+				if (wake) {
+					timer.newTimeout(queue, delay, TimeUnit.NANOSECONDS);
+				}
+				return;
+			}
+
+			channel.write(responses).addListener(queue);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Failed to serve 'on-demand' request, closing " + channel + "...", e);
+			channel.close();
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 package org.apollo.update;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.netty.channel.Channel;
 
@@ -28,15 +29,22 @@ public abstract class RequestWorker<T, P> implements Runnable {
 	 */
 	private boolean running = true;
 
+	/**
+	 * The traffic shaper.
+	 */
+	private final TrafficShaper shaper;
+
 	/**
 	 * Creates the request worker with the specified file system.
 	 * 
 	 * @param dispatcher The update dispatcher.
 	 * @param provider The resource provider.
+	 * @param shaper The traffic shaper.
 	 */
-	public RequestWorker(UpdateDispatcher dispatcher, P provider) {
+	public RequestWorker(UpdateDispatcher dispatcher, P provider, TrafficShaper shaper) {
 		this.provider = provider;
 		this.dispatcher = dispatcher;
+		this.shaper = shaper;
 	}
 
 	/**
@@ -85,6 +93,26 @@ public abstract class RequestWorker<T, P> implements Runnable {
 	 */
 	protected abstract void service(P provider, Channel channel, T request) throws IOException;
 
+	/**
+	 * Waits until the traffic shaper lets a response be sent. This worker's thread sleeps in the meantime, which only
+	 * holds up the requests of the same type queued behind it.
+	 * 
+	 * @param channel The channel the response is sent to.
+	 * @param length The length of the response, in bytes.
+	 * @param urgent A flag indicating if the client is waiting for the response before it can log in or play.
+	 */
+	protected final void throttle(Channel channel, long length, boolean urgent) {
+		long delay;
+		while ((delay = shaper.acquire(channel, length, urgent, System.nanoTime())) > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
 	/**
 	 * Stops this worker. The worker's thread may need to be interrupted.
 	 */
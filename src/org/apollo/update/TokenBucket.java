@@ -0,0 +1,113 @@
+package org.apollo.update;
+
+/**
+ * A token bucket which limits the rate at which bytes are sent. Tokens are added at a fixed rate up to the size of
+ * the bucket, and each byte sent takes one. A sender may take more tokens than the bucket holds, leaving it in debt,
+ * so a file larger than the bucket can still be sent in one go: the debt is then repaid before anything else is.
+ * 
+ * @author Graham
+ */
+final class TokenBucket {
+
+	/**
+	 * The number of nanoseconds in one second.
+	 */
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	/**
+	 * The maximum number of tokens the bucket holds.
+	 */
+	private final long capacity;
+
+	/**
+	 * The number of tokens added per second.
+	 */
+	private final long rate;
+
+	/**
+	 * The time, in nanoseconds, at which tokens were last added.
+	 */
+	private long time;
+
+	/**
+	 * The number of tokens in the bucket, which is negative if the bucket is in debt.
+	 */
+	private long tokens;
+
+	/**
+	 * Creates a full token bucket.
+	 * 
+	 * @param rate The number of tokens added per second.
+	 * @param capacity The maximum number of tokens the bucket holds.
+	 * @param now The current time, in nanoseconds.
+	 * @throws IllegalArgumentException If the rate is not positive or the capacity is negative.
+	 */
+	public TokenBucket(long rate, long capacity, long now) {
+		if (rate <= 0 || capacity < 0) {
+			throw new IllegalArgumentException("rate must be positive and capacity must not be negative");
+		}
+		this.rate = rate;
+		this.capacity = capacity;
+		this.tokens = capacity;
+		this.time = now;
+	}
+
+	/**
+	 * Gets the time until tokens may be taken from this bucket.
+	 * 
+	 * @param overdraft The debt the bucket may be in when tokens are taken.
+	 * @param now The current time, in nanoseconds.
+	 * @return The time in nanoseconds, or {@code 0} if tokens may be taken now.
+	 */
+	public synchronized long getDelay(long overdraft, long now) {
+		refill(now);
+		long shortfall = -overdraft - tokens;
+		return shortfall <= 0 ? 0 : shortfall * NANOS_PER_SECOND / rate + 1;
+	}
+
+	/**
+	 * Gets the number of tokens in this bucket.
+	 * 
+	 * @param now The current time, in nanoseconds.
+	 * @return The number of tokens, which is negative if the bucket is in debt.
+	 */
+	public synchronized long getTokens(long now) {
+		refill(now);
+		return tokens;
+	}
+
+	/**
+	 * Adds the tokens which have accumulated since they were last added.
+	 * 
+	 * @param now The current time, in nanoseconds.
+	 */
+	private void refill(long now) {
+		long elapsed = now - time;
+		if (elapsed <= 0) {
+			return;
+		}
+
+		long missing = capacity - tokens;
+		if (elapsed >= missing * NANOS_PER_SECOND / rate) {
+			tokens = capacity;
+			time = now;
+		} else {
+			// only use up the time which earned whole tokens, so frequent calls do not lose the remainder
+			long added = elapsed * rate / NANOS_PER_SECOND;
+			tokens += added;
+			time += added * NANOS_PER_SECOND / rate;
+		}
+	}
+
+	/**
+	 * Takes tokens from this bucket, regardless of how many it holds.
+	 * 
+	 * @param amount The number of tokens.
+	 * @param now The current time, in nanoseconds.
+	 */
+	public synchronized void take(long amount, long now) {
+		refill(now);
+		tokens -= amount;
+	}
+
+}
@@ -0,0 +1,115 @@
+package org.apollo.update;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+
+/**
+ * Limits the rate at which update responses are sent, so that a wave of clients downloading the cache cannot take
+ * the bandwidth (or I/O thread time) game sessions need. Each channel has a {@link TokenBucket} of its own, and every
+ * channel also shares a global bucket.
+ * <p>
+ * Responses a client cannot log in or play without (see {@link #acquire(Channel, long, boolean, long)}) take a
+ * priority lane: they skip the bucket of their channel and may put the global bucket into debt, up to its capacity,
+ * so they are only delayed when the global limit is far exceeded. Other responses wait until both buckets are out of
+ * debt, which also repays the debt of urgent responses.
+ * 
+ * @author Graham
+ */
+public final class TrafficShaper {
+
+	/**
+	 * The bucket of each channel which has been sent a response.
+	 */
+	private final ConcurrentMap<Channel, TokenBucket> buckets = new ConcurrentHashMap<Channel, TokenBucket>();
+
+	/**
+	 * The capacity of the bucket of each channel.
+	 */
+	private final long channelCapacity;
+
+	/**
+	 * The rate of the bucket of each channel.
+	 */
+	private final long channelRate;
+
+	/**
+	 * The bucket shared by every channel.
+	 */
+	private final TokenBucket global;
+
+	/**
+	 * The capacity of the global bucket.
+	 */
+	private final long globalCapacity;
+
+	/**
+	 * Creates the traffic shaper.
+	 * 
+	 * @param channelRate The number of bytes per second each channel may be sent.
+	 * @param channelCapacity The number of bytes each channel may be sent in a burst.
+	 * @param globalRate The number of bytes per second which may be sent to every channel combined.
+	 * @param globalCapacity The number of bytes which may be sent to every channel combined in a burst.
+	 */
+	public TrafficShaper(long channelRate, long channelCapacity, long globalRate, long globalCapacity) {
+		this.channelRate = channelRate;
+		this.channelCapacity = channelCapacity;
+		this.globalCapacity = globalCapacity;
+		this.global = new TokenBucket(globalRate, globalCapacity, System.nanoTime());
+	}
+
+	/**
+	 * Takes the tokens needed to send a response to a channel, if it may be sent now.
+	 * 
+	 * @param channel The channel.
+	 * @param length The length of the response, in bytes.
+	 * @param urgent A flag indicating if the client is waiting for the response before it can log in or play.
+	 * @param now The current time, in nanoseconds.
+	 * @return {@code 0} if the response may be sent now and the tokens were taken, or otherwise the time in
+	 *         nanoseconds until it may be sent, in which case no tokens were taken.
+	 */
+	public long acquire(Channel channel, long length, boolean urgent, long now) {
+		TokenBucket bucket = getBucket(channel, now);
+		long delay = global.getDelay(urgent ? globalCapacity : 0, now);
+		if (!urgent) {
+			delay = Math.max(delay, bucket.getDelay(0, now));
+		}
+
+		if (delay == 0) {
+			bucket.take(length, now);
+			global.take(length, now);
+		}
+		return delay;
+	}
+
+	/**
+	 * Gets the bucket of a channel, creating it if the channel does not have one.
+	 * 
+	 * @param channel The channel.
+	 * @param now The current time, in nanoseconds.
+	 * @return The bucket.
+	 */
+	private TokenBucket getBucket(final Channel channel, long now) {
+		TokenBucket bucket = buckets.get(channel);
+		if (bucket == null) {
+			TokenBucket created = new TokenBucket(channelRate, channelCapacity, now);
+			bucket = buckets.putIfAbsent(channel, created);
+			if (bucket == null) {
+				bucket = created;
+				channel.getCloseFuture().addListener(new ChannelFutureListener() {
+
+					@Override
+					public void operationComplete(ChannelFuture future) {
+						buckets.remove(channel);
+					}
+
+				});
+			}
+		}
+		return bucket;
+	}
+
+}
@@ -7,6 +7,49 @@ package org.apollo.update;
  */
 public final class UpdateConstants {
 
+	/**
+	 * The number of bytes of update responses which may be sent to a single channel in a burst.
+	 */
+	public static final long CHANNEL_UPDATE_BURST = 64 * 1024;
+
+	/**
+	 * The number of bytes of update responses which may be sent to a single channel per second.
+	 */
+	public static final long CHANNEL_UPDATE_RATE = 256 * 1024;
+
+	/**
+	 * The maximum number of bytes taken by the files in the {@link FileCache}.
+	 */
+	public static final long FILE_CACHE_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * The number of bytes of update responses which may be sent to every channel combined in a burst.
+	 */
+	public static final long GLOBAL_UPDATE_BURST = 1024 * 1024;
+
+	/**
+	 * The number of bytes of update responses which may be sent to every channel combined per second.
+	 */
+	public static final long GLOBAL_UPDATE_RATE = 8 * 1024 * 1024;
+
+	/**
+	 * The maximum number of 'on-demand' responses to a single channel which the {@link OnDemandScheduler} lets wait to
+	 * be written.
+	 */
+	public static final int MAXIMUM_IN_FLIGHT_ON_DEMAND_RESPONSES = 4;
+
+	/**
+	 * The maximum number of 'on-demand' requests from a single channel which the {@link OnDemandScheduler} lets wait to
+	 * be served. Channels which send more are closed.
+	 */
+	public static final int MAXIMUM_PENDING_ON_DEMAND_REQUESTS = 256;
+
+	/**
+	 * A flag indicating if 'on-demand' requests are served by {@link OnDemandRequestWorker}s, which block on a single
+	 * queue shared by every channel, rather than the {@link OnDemandScheduler}.
+	 */
+	public static final boolean USE_ON_DEMAND_WORKERS = false;
+
 	/**
 	 * Default private constructor to prevent instantiation by other classes.
 	 */
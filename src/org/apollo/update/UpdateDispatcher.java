@@ -10,7 +10,8 @@ import org.jboss.netty.channel.Channel;
 import org.jboss.netty.handler.codec.http.HttpRequest;
 
 /**
- * A class which dispatches requests to worker threads.
+ * A class which dispatches requests to worker threads, or 'on-demand' requests to the {@link OnDemandScheduler} if
+ * there is one.
  * 
  * @author Graham
  */
@@ -36,6 +37,11 @@ public final class UpdateDispatcher {
 	 */
 	private final BlockingQueue<ChannelRequest<OnDemandRequest>> onDemandQueue = new PriorityBlockingQueue<ChannelRequest<OnDemandRequest>>();
 
+	/**
+	 * The 'on-demand' scheduler, or {@code null} if 'on-demand' requests are served by workers.
+	 */
+	private OnDemandScheduler scheduler;
+
 	/**
 	 * Dispatches a HTTP request.
 	 * 
@@ -45,6 +51,7 @@ public final class UpdateDispatcher {
 	public void dispatch(Channel channel, HttpRequest request) {
 		if (httpQueue.size() >= MAXIMUM_QUEUE_SIZE) {
 			channel.close();
+			return;
 		}
 		httpQueue.add(new ChannelRequest<HttpRequest>(channel, request));
 	}
@@ -58,6 +65,7 @@ public final class UpdateDispatcher {
 	public void dispatch(Channel channel, JagGrabRequest request) {
 		if (jagGrabQueue.size() >= MAXIMUM_QUEUE_SIZE) {
 			channel.close();
+			return;
 		}
 		jagGrabQueue.add(new ChannelRequest<JagGrabRequest>(channel, request));
 	}
@@ -69,8 +77,14 @@ public final class UpdateDispatcher {
 	 * @param request The request.
 	 */
 	public void dispatch(Channel channel, OnDemandRequest request) {
+		if (scheduler != null) {
+			scheduler.offer(channel, request);
+			return;
+		}
+
 		if (onDemandQueue.size() >= MAXIMUM_QUEUE_SIZE) {
 			channel.close();
+			return;
 		}
 		onDemandQueue.add(new ChannelRequest<OnDemandRequest>(channel, request));
 	}
@@ -105,4 +119,13 @@ public final class UpdateDispatcher {
 		return onDemandQueue.take();
 	}
 
+	/**
+	 * Sets the 'on-demand' scheduler. This must be called before any requests are dispatched.
+	 * 
+	 * @param scheduler The scheduler.
+	 */
+	void setOnDemandScheduler(OnDemandScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
 }
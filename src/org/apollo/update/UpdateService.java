@@ -1,13 +1,14 @@
 package org.apollo.update;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apollo.Service;
-import org.apollo.fs.IndexedFileSystem;
+import org.jboss.netty.util.HashedWheelTimer;
+import org.jboss.netty.util.Timer;
 
 /**
  * A class which services file requests.
@@ -36,6 +37,11 @@ public final class UpdateService extends Service {
 	 */
 	private final ExecutorService service;
 
+	/**
+	 * The timer used to wake up channels throttled by the traffic shaper.
+	 */
+	private final Timer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+
 	/**
 	 * A list of request workers.
 	 */
@@ -63,20 +69,24 @@ public final class UpdateService extends Service {
 	 */
 	@Override
 	public void start() {
-		int release = getContext().getRelease().getReleaseNumber();
-		try {
-			File base = new File("./data/fs/" + release + "/");
-			for (int i = 0; i < THREADS_PER_REQUEST_TYPE; i++) {
-				workers.add(new JagGrabRequestWorker(dispatcher, new IndexedFileSystem(base, true)));
-				workers.add(new OnDemandRequestWorker(dispatcher, new IndexedFileSystem(base, true)));
-				workers.add(new HttpRequestWorker(dispatcher, new IndexedFileSystem(base, true)));
-			}
+		FileCache cache = new FileCache(getContext().getFileSystem(), UpdateConstants.FILE_CACHE_SIZE);
+		TrafficShaper shaper = new TrafficShaper(UpdateConstants.CHANNEL_UPDATE_RATE,
+				UpdateConstants.CHANNEL_UPDATE_BURST, UpdateConstants.GLOBAL_UPDATE_RATE,
+				UpdateConstants.GLOBAL_UPDATE_BURST);
+		if (!UpdateConstants.USE_ON_DEMAND_WORKERS) {
+			dispatcher.setOnDemandScheduler(new OnDemandScheduler(cache, shaper, timer));
+		}
 
-			for (RequestWorker<?, ?> worker : workers) {
-				service.submit(worker);
+		for (int i = 0; i < THREADS_PER_REQUEST_TYPE; i++) {
+			workers.add(new JagGrabRequestWorker(dispatcher, cache, shaper));
+			if (UpdateConstants.USE_ON_DEMAND_WORKERS) {
+				workers.add(new OnDemandRequestWorker(dispatcher, cache, shaper));
 			}
-		} catch (Exception ex) {
-			throw new RuntimeException(ex); // TODO neater/more elegant way
+			workers.add(new HttpRequestWorker(dispatcher, cache, shaper));
+		}
+
+		for (RequestWorker<?, ?> worker : workers) {
+			service.submit(worker);
 		}
 	}
 
@@ -89,6 +99,7 @@ public final class UpdateService extends Service {
 		}
 
 		service.shutdownNow();
+		timer.stop();
 	}
 
 }
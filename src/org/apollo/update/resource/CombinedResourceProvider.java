@@ -1,7 +1,6 @@
 package org.apollo.update.resource;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 
 /**
  * A resource provider composed of multiple resource providers.
@@ -30,7 +29,7 @@ public final class CombinedResourceProvider extends ResourceProvider {
 	}
 
 	@Override
-	public ByteBuffer get(String path) throws IOException {
+	public Resource get(String path) throws IOException {
 		for (ResourceProvider provider : providers) {
 			if (provider.accept(path)) {
 				return provider.get(path);
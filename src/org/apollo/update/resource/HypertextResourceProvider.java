@@ -1,24 +1,69 @@
 package org.apollo.update.resource;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.InputStream;
 import java.net.URI;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
 
 /**
- * A {@link ResourceProvider} which provides additional hypertext resources.
+ * A {@link ResourceProvider} which provides additional hypertext resources. The files are not read into memory, but
+ * sent straight from the disk; only their CRCs are kept, and worked out again when a file is modified.
  * 
  * @author Graham
  */
 public final class HypertextResourceProvider extends ResourceProvider {
 
+	/**
+	 * The CRC of a file, along with the time it was last modified and its length when the CRC was worked out.
+	 * 
+	 * @author Graham
+	 */
+	private static final class Checksum {
+
+		/**
+		 * The CRC.
+		 */
+		private final int crc;
+
+		/**
+		 * The length of the file.
+		 */
+		private final long length;
+
+		/**
+		 * The time the file was last modified.
+		 */
+		private final long modified;
+
+		/**
+		 * Creates the checksum.
+		 * 
+		 * @param modified The time the file was last modified.
+		 * @param length The length of the file.
+		 * @param crc The CRC.
+		 */
+		public Checksum(long modified, long length, int crc) {
+			this.modified = modified;
+			this.length = length;
+			this.crc = crc;
+		}
+
+	}
+
 	/**
 	 * The base directory from which documents are served.
 	 */
 	private final File base;
 
+	/**
+	 * The checksum of each file which has been requested.
+	 */
+	private final ConcurrentMap<File, Checksum> checksums = new ConcurrentHashMap<File, Checksum>();
+
 	/**
 	 * Creates a new hypertext resource provider with the specified base directory.
 	 * 
@@ -42,24 +87,46 @@ public final class HypertextResourceProvider extends ResourceProvider {
 	}
 
 	@Override
-	public ByteBuffer get(String path) throws IOException {
+	public Resource get(String path) throws IOException {
 		File f = new File(base, path);
 		if (f.isDirectory()) {
 			f = new File(f, "index.html");
 		}
-		if (!f.exists()) {
+		if (!f.isFile()) {
 			return null;
 		}
 
-		RandomAccessFile raf = new RandomAccessFile(f, "r");
-		ByteBuffer buf;
+		long modified = f.lastModified();
+		long length = f.length();
+		Checksum checksum = checksums.get(f);
+		if (checksum == null || checksum.modified != modified || checksum.length != length) {
+			checksum = new Checksum(modified, length, getCrc(f));
+			checksums.put(f, checksum);
+		}
+		return new Resource(f, length, checksum.crc);
+	}
+
+	/**
+	 * Works out the CRC of a file.
+	 * 
+	 * @param file The file.
+	 * @return The CRC.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private int getCrc(File file) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[8192];
+
+		InputStream is = new FileInputStream(file);
 		try {
-			buf = raf.getChannel().map(MapMode.READ_ONLY, 0, raf.length());
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				crc.update(buffer, 0, read);
+			}
 		} finally {
-			raf.close();
+			is.close();
 		}
-
-		return buf;
+		return (int) crc.getValue();
 	}
 
 }
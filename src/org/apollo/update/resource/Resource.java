@@ -0,0 +1,97 @@
+package org.apollo.update.resource;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * A resource found by a {@link ResourceProvider}: either a buffer, or a file which is sent straight from the disk.
+ * Either way, the resource has the CRC of its contents, which tells clients whether their copy is up to date.
+ * 
+ * @author Graham
+ */
+public final class Resource {
+
+	/**
+	 * The contents of the resource, or {@code null} if it is a file.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The CRC of the contents of the resource.
+	 */
+	private final int crc;
+
+	/**
+	 * The file, or {@code null} if the resource is a buffer.
+	 */
+	private final File file;
+
+	/**
+	 * The length of the resource, in bytes.
+	 */
+	private final long length;
+
+	/**
+	 * Creates a resource held in a buffer.
+	 * 
+	 * @param buffer The contents of the resource.
+	 * @param crc The CRC of the contents.
+	 */
+	public Resource(ByteBuffer buffer, int crc) {
+		this.buffer = buffer.asReadOnlyBuffer();
+		this.crc = crc;
+		this.file = null;
+		this.length = buffer.remaining();
+	}
+
+	/**
+	 * Creates a resource held in a file.
+	 * 
+	 * @param file The file.
+	 * @param length The length of the file.
+	 * @param crc The CRC of the contents of the file.
+	 */
+	public Resource(File file, long length, int crc) {
+		this.buffer = null;
+		this.crc = crc;
+		this.file = file;
+		this.length = length;
+	}
+
+	/**
+	 * Gets the contents of the resource.
+	 * 
+	 * @return A read only buffer of the contents, or {@code null} if the resource is a file.
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer == null ? null : buffer.duplicate();
+	}
+
+	/**
+	 * Gets the CRC of the contents of the resource.
+	 * 
+	 * @return The CRC.
+	 */
+	public int getCrc() {
+		return crc;
+	}
+
+	/**
+	 * Gets the file which holds the resource.
+	 * 
+	 * @return The file, or {@code null} if the resource is a buffer.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the length of the resource.
+	 * 
+	 * @return The length, in bytes.
+	 */
+	public long getLength() {
+		return length;
+	}
+
+}
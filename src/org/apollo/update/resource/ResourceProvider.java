@@ -1,7 +1,6 @@
 package org.apollo.update.resource;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 
 /**
  * A class which provides resources.
@@ -26,6 +25,6 @@ public abstract class ResourceProvider {
 	 * @return The resource, or {@code null} if it doesn't exist.
 	 * @throws IOException If an I/O error occurs.
 	 */
-	public abstract ByteBuffer get(String path) throws IOException;
+	public abstract Resource get(String path) throws IOException;
 
 }
@@ -2,69 +2,121 @@ package org.apollo.update.resource;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
 
+import org.apollo.fs.FileDescriptor;
 import org.apollo.fs.IndexedFileSystem;
+import org.apollo.update.FileCache;
 
 /**
  * A {@link ResourceProvider} which maps virtual resources (such as {@code /media}) to files in an
- * {@link IndexedFileSystem}.
+ * {@link IndexedFileSystem}, which are read through a {@link FileCache}.
  * 
  * @author Graham
  */
 public final class VirtualResourceProvider extends ResourceProvider {
 
 	/**
-	 * An array of valid prefixes.
+	 * The id of the archive each virtual resource maps to, by name. The CRC table is given id {@code 0}.
+	 */
+	private static final Map<String, Integer> ROUTES = new HashMap<String, Integer>();
+
+	/**
+	 * An array of valid prefixes, indexed by the id of the archive they map to.
 	 */
 	private static final String[] VALID_PREFIXES = { "crc", "title", "config", "interface", "media", "versionlist",
 			"textures", "wordenc", "sounds" };
 
 	/**
-	 * The file system.
+	 * Populates the routes.
+	 */
+	static {
+		for (int id = 0; id < VALID_PREFIXES.length; id++) {
+			ROUTES.put(VALID_PREFIXES[id], id);
+		}
+	}
+
+	/**
+	 * Checks if a path is the path of a virtual resource.
+	 * 
+	 * @param path The path.
+	 * @return {@code true} if so, {@code false} otherwise.
 	 */
-	private final IndexedFileSystem fs;
+	public static boolean isVirtual(String path) {
+		return route(path) != -1;
+	}
 
 	/**
-	 * Creates a new virtual resource provider with the specified file system.
+	 * Finds the archive a path maps to. The client follows the name of a resource with the CRC it expects (or a
+	 * random number, for the CRC table), so only the letters at the start of the path are looked up.
 	 * 
-	 * @param fs The file system.
+	 * @param path The path.
+	 * @return The id of the archive, {@code 0} for the CRC table, or {@code -1} if the path is not the path of a
+	 *         virtual resource.
 	 */
-	public VirtualResourceProvider(IndexedFileSystem fs) {
-		this.fs = fs;
+	private static int route(String path) {
+		if (!path.startsWith("/")) {
+			return -1;
+		}
+
+		int end = 1;
+		while (end < path.length() && Character.isLetter(path.charAt(end))) {
+			end++;
+		}
+
+		Integer id = ROUTES.get(path.substring(1, end));
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * The file cache.
+	 */
+	private final FileCache cache;
+
+	/**
+	 * Creates a new virtual resource provider with the specified file cache.
+	 * 
+	 * @param cache The file cache.
+	 */
+	public VirtualResourceProvider(FileCache cache) {
+		this.cache = cache;
 	}
 
 	@Override
 	public boolean accept(String path) throws IOException {
-		for (String prefix : VALID_PREFIXES) {
-			if (path.startsWith("/" + prefix)) {
-				return true;
-			}
-		}
-		return false;
+		return isVirtual(path);
 	}
 
 	@Override
-	public ByteBuffer get(String path) throws IOException {
-		if (path.startsWith("/crc")) {
-			return fs.getCrcTable();
-		} else if (path.startsWith("/title")) {
-			return fs.getFile(0, 1);
-		} else if (path.startsWith("/config")) {
-			return fs.getFile(0, 2);
-		} else if (path.startsWith("/interface")) {
-			return fs.getFile(0, 3);
-		} else if (path.startsWith("/media")) {
-			return fs.getFile(0, 4);
-		} else if (path.startsWith("/versionlist")) {
-			return fs.getFile(0, 5);
-		} else if (path.startsWith("/textures")) {
-			return fs.getFile(0, 6);
-		} else if (path.startsWith("/wordenc")) {
-			return fs.getFile(0, 7);
-		} else if (path.startsWith("/sounds")) {
-			return fs.getFile(0, 8);
+	public Resource get(String path) throws IOException {
+		int id = route(path);
+		if (id == -1) {
+			return null;
 		}
-		return null;
+
+		ByteBuffer crcs = cache.getFileSystem().getCrcTable();
+		if (id == 0) {
+			byte[] bytes = new byte[crcs.remaining()];
+			crcs.duplicate().get(bytes);
+
+			CRC32 crc = new CRC32();
+			crc.update(bytes, 0, bytes.length);
+			return new Resource(crcs, (int) crc.getValue());
+		}
+		return new Resource(getArchive(id), crcs.getInt(id * 4));
+	}
+
+	/**
+	 * Gets an archive.
+	 * 
+	 * @param id The archive id.
+	 * @return A read only buffer of the contents of the archive.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private ByteBuffer getArchive(int id) throws IOException {
+		return cache.get(new FileDescriptor(0, id)).getData();
 	}
 
 }
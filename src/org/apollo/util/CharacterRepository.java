@@ -145,6 +145,21 @@ public final class CharacterRepository<T extends Character> implements Iterable<
 		return characters.length;
 	}
 
+	/**
+	 * Gets the character with the specified index.
+	 * 
+	 * @param index The index, as returned by {@link Character#getIndex()}.
+	 * @return The character, or {@code null} if there is no character with the index, or the index is outside the
+	 *         capacity of this repository.
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		if (index < 1 || index > characters.length) {
+			return null;
+		}
+		return (T) characters[index - 1];
+	}
+
 	@Override
 	public Iterator<T> iterator() {
 		return new CharacterRepositoryIterator();
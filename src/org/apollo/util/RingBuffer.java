@@ -0,0 +1,111 @@
+package org.apollo.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free queue for a single producer thread and a single consumer thread. Elements are stored in an array
+ * whose length is a power of two, and the producer and consumer each advance their own counter, which is only read by
+ * the other thread, so neither {@link #offer(Object)} nor {@link #poll()} allocates or blocks.
+ * 
+ * @author Graham
+ * @param <E> The type of element.
+ */
+public final class RingBuffer<E> {
+
+	/**
+	 * The elements.
+	 */
+	private final Object[] elements;
+
+	/**
+	 * The number of elements which have been removed: only written by the consumer.
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * The mask used to turn a counter into an index into the elements array.
+	 */
+	private final int mask;
+
+	/**
+	 * The number of elements which have been added: only written by the producer.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Creates the ring buffer.
+	 * 
+	 * @param capacity The capacity, which is rounded up to a power of two.
+	 * @throws IllegalArgumentException If the capacity is not positive or is too large.
+	 */
+	public RingBuffer(int capacity) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity out of range.");
+		}
+		int length = Integer.highestOneBit(capacity);
+		if (length < capacity) {
+			length <<= 1;
+		}
+		elements = new Object[length];
+		mask = length - 1;
+	}
+
+	/**
+	 * Gets the capacity of this ring buffer.
+	 * 
+	 * @return The capacity.
+	 */
+	public int capacity() {
+		return elements.length;
+	}
+
+	/**
+	 * Adds an element to the tail of this ring buffer. This must only be called by the producer thread.
+	 * 
+	 * @param element The element.
+	 * @return {@code true} if the element was added, {@code false} if the ring buffer is full.
+	 * @throws NullPointerException If the element is {@code null}.
+	 */
+	public boolean offer(E element) {
+		if (element == null) {
+			throw new NullPointerException("Element cannot be null.");
+		}
+
+		long position = tail.get();
+		if (position - head.get() == elements.length) {
+			return false;
+		}
+		elements[(int) position & mask] = element;
+		tail.lazySet(position + 1);
+		return true;
+	}
+
+	/**
+	 * Removes the element at the head of this ring buffer. This must only be called by the consumer thread.
+	 * 
+	 * @return The element, or {@code null} if the ring buffer is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public E poll() {
+		long position = head.get();
+		if (position == tail.get()) {
+			return null;
+		}
+		int index = (int) position & mask;
+		E element = (E) elements[index];
+		elements[index] = null;
+		head.lazySet(position + 1);
+		return element;
+	}
+
+	/**
+	 * Gets the number of elements in this ring buffer. This is only an estimate if the buffer is being modified
+	 * concurrently.
+	 * 
+	 * @return The number of elements.
+	 */
+	public int size() {
+		return (int) (tail.get() - head.get());
+	}
+
+}
@@ -79,7 +79,7 @@ public final class PluginContext {
 	}
 
 	/**
-	 * Adds an event handler to the end of the chain.
+	 * Adds an event handler to the end of the chain, creating the chain if the event does not have one.
 	 * 
 	 * @param <T> The type of event.
 	 * @param event The event.
@@ -87,8 +87,7 @@ public final class PluginContext {
 	 */
 	public <T extends Event> void addLastEventHandler(Class<T> event, EventHandler<T> handler) {
 		EventHandlerChainGroup chains = context.getService(GameService.class).getEventHandlerChains();
-		EventHandlerChain<T> chain = chains.getChain(event);
-		chain.addLast(handler);
+		chains.addLast(event, handler);
 	}
 
 }
\ No newline at end of file
@@ -117,6 +117,22 @@ public final class XmlNode implements Iterable<XmlNode> {
 		return null;
 	}
 
+	/**
+	 * Gets the value of the first child with the specified name, as an integer.
+	 * 
+	 * @param name The name of the child.
+	 * @return The value.
+	 * @throws IllegalArgumentException If no child has a matching name, or it has no value.
+	 * @throws NumberFormatException If the value is not an integer.
+	 */
+	public int getChildInteger(String name) {
+		XmlNode child = getChild(name);
+		if (child == null || !child.hasValue()) {
+			throw new IllegalArgumentException("No " + name + " child node/value.");
+		}
+		return Integer.parseInt(child.getValue());
+	}
+
 	/**
 	 * Gets the child count.
 	 * 
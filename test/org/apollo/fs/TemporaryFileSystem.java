@@ -0,0 +1,107 @@
+package org.apollo.fs;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A read only {@link IndexedFileSystem} for tests, written to a temporary directory which is deleted when it is
+ * closed. The contents of its files are all zero.
+ * 
+ * @author Graham
+ */
+public final class TemporaryFileSystem implements Closeable {
+
+	/**
+	 * Writes bytes to a file.
+	 * 
+	 * @param file The file.
+	 * @param bytes The bytes.
+	 * @param length The number of bytes to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void write(File file, byte[] bytes, int length) throws IOException {
+		OutputStream os = new FileOutputStream(file);
+		try {
+			os.write(bytes, 0, length);
+		} finally {
+			os.close();
+		}
+	}
+
+	/**
+	 * The temporary directory.
+	 */
+	private final File base;
+
+	/**
+	 * The file system.
+	 */
+	private final IndexedFileSystem fs;
+
+	/**
+	 * Creates the file system.
+	 * 
+	 * @param sizes The sizes of the files in each index, by type.
+	 * @throws Exception If an error occurs.
+	 */
+	public TemporaryFileSystem(int[]... sizes) throws Exception {
+		base = File.createTempFile("cache", "");
+		base.delete();
+		base.mkdir();
+
+		int blocks = 1;
+		for (int[] index : sizes) {
+			for (int size : index) {
+				blocks += (size + FileSystemConstants.CHUNK_SIZE - 1) / FileSystemConstants.CHUNK_SIZE;
+			}
+		}
+
+		ByteBuffer data = ByteBuffer.allocate(blocks * FileSystemConstants.BLOCK_SIZE);
+		int block = 1;
+		for (int type = 0; type < sizes.length; type++) {
+			ByteBuffer index = ByteBuffer.allocate(sizes[type].length * FileSystemConstants.INDEX_SIZE);
+			for (int file = 0; file < sizes[type].length; file++) {
+				int size = sizes[type][file];
+				index.put((byte) (size >> 16)).put((byte) (size >> 8)).put((byte) size);
+				index.put((byte) (block >> 16)).put((byte) (block >> 8)).put((byte) block);
+
+				for (int chunk = 0, position = 0; position < size; chunk++, block++) {
+					int length = Math.min(size - position, FileSystemConstants.CHUNK_SIZE);
+					int next = position + length < size ? block + 1 : 0;
+
+					data.position(block * FileSystemConstants.BLOCK_SIZE);
+					data.putShort((short) file).putShort((short) chunk);
+					data.put((byte) (next >> 16)).put((byte) (next >> 8)).put((byte) next).put((byte) (type + 1));
+					position += length;
+				}
+			}
+			write(new File(base, "main_file_cache.idx" + type), index.array(), index.position());
+		}
+
+		write(new File(base, "main_file_cache.dat"), data.array(), data.capacity());
+		fs = new IndexedFileSystem(base, true);
+	}
+
+	@Override
+	public void close() throws IOException {
+		fs.close();
+		for (File file : base.listFiles()) {
+			file.delete();
+		}
+		base.delete();
+	}
+
+	/**
+	 * Gets the file system.
+	 * 
+	 * @return The file system.
+	 */
+	public IndexedFileSystem getFileSystem() {
+		return fs;
+	}
+
+}
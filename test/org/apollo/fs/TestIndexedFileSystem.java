@@ -0,0 +1,141 @@
+package org.apollo.fs;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test for the {@link IndexedFileSystem} class.
+ * 
+ * @author Graham
+ */
+public class TestIndexedFileSystem {
+
+	/**
+	 * The sizes of the files in the test cache, which are stored in index 1.
+	 */
+	private static final int[] SIZES = { 0, 1, 511, 512, 513, 5000 };
+
+	/**
+	 * The directory of the test cache.
+	 */
+	private File base;
+
+	/**
+	 * Deletes the test cache.
+	 */
+	@After
+	public void deleteCache() {
+		for (File file : base.listFiles()) {
+			file.delete();
+		}
+		base.delete();
+	}
+
+	/**
+	 * Gets the byte stored at the specified position of a file in the test cache.
+	 * 
+	 * @param file The file id.
+	 * @param position The position.
+	 * @return The byte.
+	 */
+	private byte getByte(int file, int position) {
+		return (byte) (file * 31 + position);
+	}
+
+	/**
+	 * Tests that a read only file system and a writable file system read the same files.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testGetFile() throws Exception {
+		IndexedFileSystem mapped = new IndexedFileSystem(base, true);
+		IndexedFileSystem writable = new IndexedFileSystem(base, false);
+		try {
+			for (int file = 0; file < SIZES.length; file++) {
+				for (IndexedFileSystem fs : new IndexedFileSystem[] { mapped, writable }) {
+					ByteBuffer buffer = fs.getFile(1, file);
+					assertEquals(SIZES[file], buffer.remaining());
+					for (int position = 0; position < SIZES[file]; position++) {
+						assertEquals(getByte(file, position), buffer.get());
+					}
+				}
+			}
+
+			try {
+				mapped.getFile(1, SIZES.length);
+				fail();
+			} catch (IOException e) {
+				/* expected - there is no such file */
+			}
+		} finally {
+			mapped.close();
+			writable.close();
+		}
+	}
+
+	/**
+	 * Writes a test cache with a data file and index files 0 and 1 (file 0 is empty).
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Before
+	public void writeCache() throws IOException {
+		base = File.createTempFile("cache", "");
+		base.delete();
+		base.mkdir();
+
+		ByteBuffer index = ByteBuffer.allocate(SIZES.length * FileSystemConstants.INDEX_SIZE);
+		ByteBuffer data = ByteBuffer.allocate(64 * FileSystemConstants.BLOCK_SIZE);
+		int block = 1;
+
+		for (int file = 0; file < SIZES.length; file++) {
+			int size = SIZES[file];
+			index.put((byte) (size >> 16)).put((byte) (size >> 8)).put((byte) size);
+			index.put((byte) (block >> 16)).put((byte) (block >> 8)).put((byte) block);
+
+			for (int chunk = 0, position = 0; position < size; chunk++, block++) {
+				int length = Math.min(size - position, FileSystemConstants.CHUNK_SIZE);
+				int next = position + length < size ? block + 1 : 0;
+
+				data.position(block * FileSystemConstants.BLOCK_SIZE);
+				data.putShort((short) file).putShort((short) chunk);
+				data.put((byte) (next >> 16)).put((byte) (next >> 8)).put((byte) next).put((byte) 2);
+				for (int i = 0; i < length; i++) {
+					data.put(getByte(file, position++));
+				}
+			}
+		}
+
+		write(new File(base, "main_file_cache.dat"), data.array(), block * FileSystemConstants.BLOCK_SIZE);
+		write(new File(base, "main_file_cache.idx0"), new byte[0], 0);
+		write(new File(base, "main_file_cache.idx1"), index.array(), index.position());
+	}
+
+	/**
+	 * Writes bytes to a file.
+	 * 
+	 * @param file The file.
+	 * @param bytes The bytes.
+	 * @param length The number of bytes to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void write(File file, byte[] bytes, int length) throws IOException {
+		OutputStream os = new FileOutputStream(file);
+		try {
+			os.write(bytes, 0, length);
+		} finally {
+			os.close();
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.apollo.game.event.handler.chain;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apollo.game.event.Event;
+import org.apollo.game.event.handler.EventHandler;
+import org.apollo.game.event.handler.EventHandlerContext;
+import org.apollo.game.event.impl.FirstItemOptionEvent;
+import org.apollo.game.event.impl.ItemOptionEvent;
+import org.apollo.game.event.impl.KeepAliveEvent;
+import org.apollo.game.model.Player;
+import org.junit.Test;
+
+/**
+ * A test for the {@link EventHandlerChainGroup} class.
+ * 
+ * @author Graham
+ */
+public class TestEventHandlerChainGroup {
+
+	/**
+	 * Tests that events are resolved to the chain of their closest superclass which has one, and that adding a chain
+	 * after a miss has been cached is seen.
+	 */
+	@Test
+	public void testResolve() {
+		EventHandlerChain<ItemOptionEvent> chain = new EventHandlerChain<ItemOptionEvent>();
+		Map<Class<? extends Event>, EventHandlerChain<?>> chains =
+				new HashMap<Class<? extends Event>, EventHandlerChain<?>>();
+		chains.put(ItemOptionEvent.class, chain);
+		EventHandlerChainGroup group = new EventHandlerChainGroup(chains);
+
+		assertSame(chain, group.resolve(ItemOptionEvent.class));
+		assertSame(chain, group.resolve(FirstItemOptionEvent.class));
+		assertNull(group.getChain(FirstItemOptionEvent.class));
+		assertNull(group.resolve(KeepAliveEvent.class));
+
+		final boolean[] handled = new boolean[1];
+		group.addLast(KeepAliveEvent.class, new EventHandler<KeepAliveEvent>() {
+
+			@Override
+			public void handle(EventHandlerContext ctx, Player player, KeepAliveEvent event) {
+				handled[0] = true;
+			}
+
+		});
+		group.resolve(KeepAliveEvent.class).handle(null, new KeepAliveEvent());
+		assertTrue(handled[0]);
+	}
+
+}
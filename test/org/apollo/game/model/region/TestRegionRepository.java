@@ -0,0 +1,92 @@
+package org.apollo.game.model.region;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apollo.game.model.Animation;
+import org.apollo.game.model.Npc;
+import org.apollo.game.model.Player;
+import org.apollo.game.model.Position;
+import org.apollo.game.model.def.NpcDefinition;
+import org.apollo.security.PlayerCredentials;
+import org.junit.Test;
+
+/**
+ * A test for the {@link RegionRepository} class.
+ * @author Graham
+ */
+public class TestRegionRepository {
+
+	/**
+	 * Tests the {@link RegionRepository#add(org.apollo.game.model.Character)},
+	 * {@link RegionRepository#move(org.apollo.game.model.Character, Position, Position)} and
+	 * {@link RegionRepository#remove(org.apollo.game.model.Character)} methods.
+	 */
+	@Test
+	public void testMove() {
+		RegionRepository repository = new RegionRepository();
+		Position start = new Position(3222, 3222);
+		Npc npc = new Npc((NpcDefinition) null, start);
+
+		repository.add(npc);
+		assertTrue(repository.fromPosition(start).getNpcs().contains(npc));
+
+		Position sameRegion = new Position(3223, 3223);
+		repository.move(npc, start, sameRegion);
+		npc.setPosition(sameRegion);
+		assertTrue(repository.fromPosition(start).getNpcs().contains(npc));
+
+		Position otherRegion = new Position(3224, 3223);
+		repository.move(npc, sameRegion, otherRegion);
+		npc.setPosition(otherRegion);
+		assertFalse(repository.fromPosition(start).getNpcs().contains(npc));
+		assertTrue(repository.fromPosition(otherRegion).getNpcs().contains(npc));
+
+		repository.remove(npc);
+		assertTrue(repository.fromPosition(otherRegion).isEmpty());
+	}
+
+	/**
+	 * Tests the {@link RegionRepository#updateActivity(Iterable)} method.
+	 */
+	@Test
+	public void testActivity() {
+		RegionRepository repository = new RegionRepository();
+		Npc npc = new Npc((NpcDefinition) null, new Position(3222, 3222));
+		repository.add(npc);
+
+		Region region = repository.fromPosition(npc.getPosition());
+		repository.updateActivity(Collections.<Player> emptyList());
+		assertFalse(region.isActive());
+		assertEquals(0, repository.getActiveRegionCount());
+		assertEquals(1, repository.getDormantRegionCount());
+
+		npc.playAnimation(Animation.STOP_ANIMATION);
+		Player player = new Player(new PlayerCredentials("test", "test", 0, 0), new Position(3230, 3222));
+		repository.updateActivity(Collections.singletonList(player));
+		assertTrue(region.isActive());
+		assertEquals(0, repository.getDormantRegionCount());
+		assertEquals(0, npc.getBlockSet().size());
+	}
+
+	/**
+	 * Tests the {@link RegionRepository#getSurroundingRegions(Position, int)} method.
+	 */
+	@Test
+	public void testSurroundingRegions() {
+		RegionRepository repository = new RegionRepository();
+		Position centre = new Position(3222, 3222);
+
+		Region local = repository.fromPosition(centre);
+		Region near = repository.fromPosition(new Position(3222 + 15, 3222 - 15));
+		Region far = repository.fromPosition(new Position(3222 + 24, 3222));
+
+		List<Region> regions = repository.getSurroundingRegions(centre, 15);
+		assertTrue(regions.contains(local));
+		assertTrue(regions.contains(near));
+		assertFalse(regions.contains(far));
+	}
+
+}
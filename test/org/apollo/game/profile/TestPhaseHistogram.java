@@ -0,0 +1,51 @@
+package org.apollo.game.profile;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * A test for the {@link PhaseHistogram} class.
+ * 
+ * @author Graham
+ */
+public final class TestPhaseHistogram {
+
+	/**
+	 * Tests the percentiles of a histogram.
+	 */
+	@Test
+	public void testPercentiles() {
+		PhaseHistogram histogram = new PhaseHistogram("test");
+		assertEquals(0, histogram.getP50());
+
+		for (int sample = 1; sample <= 100; sample++) {
+			histogram.add(sample * 1000L);
+			histogram.complete();
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(50, histogram.getP50());
+		assertEquals(99, histogram.getP99());
+		assertEquals(100, histogram.getMax());
+	}
+
+	/**
+	 * Tests that old samples fall out of the window.
+	 */
+	@Test
+	public void testWindow() {
+		PhaseHistogram histogram = new PhaseHistogram("test");
+		histogram.add(1000000L);
+		histogram.complete();
+
+		for (int pulse = 0; pulse < PhaseHistogram.WINDOW; pulse++) {
+			histogram.add(1000L);
+			histogram.complete();
+		}
+
+		assertEquals(PhaseHistogram.WINDOW, histogram.getCount());
+		assertEquals(1, histogram.getMax());
+	}
+
+}
@@ -0,0 +1,41 @@
+package org.apollo.game.sync.block;
+
+import static org.junit.Assert.*;
+
+import org.apollo.game.model.Animation;
+import org.apollo.game.model.Graphic;
+import org.junit.Test;
+
+/**
+ * A test for the {@link SynchronizationBlockSet} class.
+ * @author Graham
+ */
+public class TestSynchronizationBlockSet {
+
+	/**
+	 * Tests the {@link SynchronizationBlockSet#getEncoded(Object)} and
+	 * {@link SynchronizationBlockSet#setEncoded(Object, byte[])} methods.
+	 */
+	@Test
+	public void testEncodedCache() {
+		Object encoder = new Object();
+		byte[] bytes = new byte[] { 1, 2, 3 };
+
+		SynchronizationBlockSet blockSet = new SynchronizationBlockSet();
+		blockSet.add(SynchronizationBlock.createAnimationBlock(Animation.STOP_ANIMATION));
+		assertNull(blockSet.getEncoded(encoder));
+
+		blockSet.setEncoded(encoder, bytes);
+		assertSame(bytes, blockSet.getEncoded(encoder));
+		assertNull(blockSet.getEncoded(new Object()));
+		assertNull(blockSet.clone().getEncoded(encoder));
+
+		blockSet.add(SynchronizationBlock.createGraphicBlock(Graphic.STOP_GRAPHIC));
+		assertNull(blockSet.getEncoded(encoder));
+
+		blockSet.setEncoded(encoder, bytes);
+		blockSet.remove(GraphicBlock.class);
+		assertNull(blockSet.getEncoded(encoder));
+	}
+
+}
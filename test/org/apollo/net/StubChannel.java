@@ -0,0 +1,188 @@
+package org.apollo.net;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.netty.channel.AbstractChannel;
+import org.jboss.netty.channel.AbstractChannelSink;
+import org.jboss.netty.channel.ChannelConfig;
+import org.jboss.netty.channel.ChannelEvent;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.ChannelState;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.DefaultChannelConfig;
+import org.jboss.netty.channel.MessageEvent;
+
+/**
+ * A connected {@link org.jboss.netty.channel.Channel} for tests, which records the messages written to it instead of
+ * sending them. Writes either complete straight away or wait for {@link #completeWrites()}.
+ * 
+ * @author Graham
+ */
+public final class StubChannel extends AbstractChannel {
+
+	/**
+	 * The sink which records writes and applies closes (firing the events a connected channel fires when it is closed)
+	 * and changes to the interest ops.
+	 * 
+	 * @author Graham
+	 */
+	private static final class Sink extends AbstractChannelSink {
+
+		@Override
+		public void eventSunk(ChannelPipeline pipeline, ChannelEvent e) {
+			StubChannel channel = (StubChannel) e.getChannel();
+			if (e instanceof MessageEvent) {
+				synchronized (channel) {
+					channel.written.add(((MessageEvent) e).getMessage());
+					if (!channel.completeWrites) {
+						channel.pending.add(e.getFuture());
+						return;
+					}
+				}
+				e.getFuture().setSuccess();
+			} else if (e instanceof ChannelStateEvent) {
+				ChannelStateEvent event = (ChannelStateEvent) e;
+				if (event.getState() == ChannelState.OPEN && Boolean.FALSE.equals(event.getValue())) {
+					channel.connected = false;
+					if (channel.setClosed()) {
+						Channels.fireChannelDisconnected(channel);
+						Channels.fireChannelUnbound(channel);
+						Channels.fireChannelClosed(channel);
+					}
+				} else if (event.getState() == ChannelState.INTEREST_OPS) {
+					channel.setInterestOpsNow((Integer) event.getValue());
+				}
+				e.getFuture().setSuccess();
+			}
+		}
+
+	}
+
+	/**
+	 * The configuration.
+	 */
+	private final ChannelConfig config = new DefaultChannelConfig();
+
+	/**
+	 * A flag indicating if writes complete as soon as they are made.
+	 */
+	private boolean completeWrites;
+
+	/**
+	 * A flag indicating if the channel is connected.
+	 */
+	private volatile boolean connected = true;
+
+	/**
+	 * The futures of the writes which have not yet completed.
+	 */
+	private final List<ChannelFuture> pending = new ArrayList<ChannelFuture>();
+
+	/**
+	 * The remote address.
+	 */
+	private final InetSocketAddress remoteAddress;
+
+	/**
+	 * A flag indicating if the channel is writable.
+	 */
+	private volatile boolean writable = true;
+
+	/**
+	 * The messages which have been written.
+	 */
+	private final List<Object> written = new ArrayList<Object>();
+
+	/**
+	 * Creates a stub channel with an empty pipeline, whose writes complete straight away.
+	 */
+	public StubChannel() {
+		this(Channels.pipeline(), "127.0.0.1", true);
+	}
+
+	/**
+	 * Creates a stub channel.
+	 * 
+	 * @param pipeline The pipeline.
+	 * @param host The address of the remote end.
+	 * @param completeWrites A flag indicating if writes complete as soon as they are made.
+	 */
+	public StubChannel(ChannelPipeline pipeline, String host, boolean completeWrites) {
+		super(null, null, pipeline, new Sink());
+		this.remoteAddress = new InetSocketAddress(host, 43594);
+		this.completeWrites = completeWrites;
+	}
+
+	/**
+	 * Completes the writes which have not yet completed, successfully.
+	 * 
+	 * @return The number of writes completed.
+	 */
+	public int completeWrites() {
+		List<ChannelFuture> futures;
+		synchronized (this) {
+			futures = new ArrayList<ChannelFuture>(pending);
+			pending.clear();
+		}
+		for (ChannelFuture future : futures) {
+			future.setSuccess();
+		}
+		return futures.size();
+	}
+
+	@Override
+	public ChannelConfig getConfig() {
+		return config;
+	}
+
+	@Override
+	public SocketAddress getLocalAddress() {
+		return new InetSocketAddress(43594);
+	}
+
+	@Override
+	public SocketAddress getRemoteAddress() {
+		return remoteAddress;
+	}
+
+	@Override
+	public boolean isBound() {
+		return connected;
+	}
+
+	@Override
+	public boolean isConnected() {
+		return connected;
+	}
+
+	@Override
+	public boolean isWritable() {
+		return writable;
+	}
+
+	/**
+	 * Sets whether this channel is writable.
+	 * 
+	 * @param writable The flag.
+	 */
+	public void setWritable(boolean writable) {
+		this.writable = writable;
+	}
+
+	/**
+	 * Gets the messages written to this channel, and forgets them.
+	 * 
+	 * @return The messages, in the order they were written.
+	 */
+	public synchronized List<Object> takeWritten() {
+		List<Object> messages = new ArrayList<Object>(written);
+		written.clear();
+		return messages;
+	}
+
+}
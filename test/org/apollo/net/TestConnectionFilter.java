@@ -0,0 +1,76 @@
+package org.apollo.net;
+
+import static org.junit.Assert.*;
+
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
+import org.junit.Test;
+
+/**
+ * A test for the {@link ConnectionFilter} class.
+ * 
+ * @author Graham
+ */
+public class TestConnectionFilter {
+
+	/**
+	 * Opens a connection through the specified filter.
+	 * 
+	 * @param filter The filter.
+	 * @param host The address of the remote end.
+	 * @return The channel, which is closed if the filter did not admit the connection.
+	 */
+	private static StubChannel connect(ConnectionFilter filter, String host) {
+		ChannelPipeline pipeline = Channels.pipeline();
+		pipeline.addLast("filter", filter);
+		StubChannel channel = new StubChannel(pipeline, host, true);
+		Channels.fireChannelConnected(channel, channel.getRemoteAddress());
+		return channel;
+	}
+
+	/**
+	 * Tests that a connection stops counting towards the limit of pending handshakes once it sends its first message.
+	 */
+	@Test
+	public void testHandshakeReleasedByMessage() {
+		ConnectionFilter filter = new ConnectionFilter(16, 24, 5000, 1);
+		StubChannel first = connect(filter, "10.0.0.1");
+		assertTrue(first.isOpen());
+		assertFalse(connect(filter, "10.0.0.2").isOpen());
+
+		Channels.fireMessageReceived(first, "handshake");
+		assertTrue(connect(filter, "10.0.0.3").isOpen());
+		assertTrue(first.isOpen());
+	}
+
+	/**
+	 * Tests that a connection stops counting towards the limit of pending handshakes, and towards the limit of open
+	 * connections of its address, once it is closed.
+	 */
+	@Test
+	public void testHandshakeReleasedByClose() {
+		ConnectionFilter filter = new ConnectionFilter(1, 24, 5000, 1);
+		StubChannel first = connect(filter, "10.0.0.1");
+		assertTrue(first.isOpen());
+		assertFalse(connect(filter, "10.0.0.2").isOpen());
+		assertFalse(connect(filter, "10.0.0.1").isOpen());
+
+		first.close();
+		assertTrue(connect(filter, "10.0.0.1").isOpen());
+	}
+
+	/**
+	 * Tests that filters count connections separately, so an address which has opened too many connections through
+	 * one filter may still connect through another.
+	 */
+	@Test
+	public void testSeparateFilters() {
+		ConnectionFilter update = new ConnectionFilter(16, 2, 5000, 512);
+		ConnectionFilter game = new ConnectionFilter(16, 2, 5000, 512);
+		assertTrue(connect(update, "10.0.0.1").isOpen());
+		assertTrue(connect(update, "10.0.0.1").isOpen());
+		assertFalse(connect(update, "10.0.0.1").isOpen());
+		assertTrue(connect(game, "10.0.0.1").isOpen());
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.apollo.net;
+
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+
+import org.apollo.net.ConnectionLimiter.Result;
+import org.junit.Test;
+
+/**
+ * A test for the {@link ConnectionLimiter} class.
+ * 
+ * @author Graham
+ */
+public class TestConnectionLimiter {
+
+	/**
+	 * Tests that an address may not have more than the maximum number of connections open at once.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testConnectionLimit() throws Exception {
+		ConnectionLimiter limiter = new ConnectionLimiter(16, 2, 100, 1000);
+		InetAddress address = InetAddress.getByName("10.0.0.1");
+
+		assertEquals(Result.ACCEPTED, limiter.acquire(address, 0));
+		assertEquals(Result.ACCEPTED, limiter.acquire(address, 0));
+		assertEquals(Result.TOO_MANY_CONNECTIONS, limiter.acquire(address, 0));
+
+		limiter.release(address);
+		assertEquals(Result.ACCEPTED, limiter.acquire(address, 0));
+	}
+
+	/**
+	 * Tests that an address may not open more than the maximum number of connections in a window, and may open more
+	 * once the window has passed.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testRateLimit() throws Exception {
+		ConnectionLimiter limiter = new ConnectionLimiter(16, 100, 3, 1000);
+		InetAddress address = InetAddress.getByName("10.0.0.1");
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(Result.ACCEPTED, limiter.acquire(address, 1000 + i));
+			limiter.release(address);
+		}
+		assertEquals(Result.TOO_MANY_RECENT_CONNECTIONS, limiter.acquire(address, 1999));
+		assertEquals(Result.ACCEPTED, limiter.acquire(address, 2000));
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.apollo.net;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.jboss.netty.handler.codec.http.HttpRequestDecoder;
+import org.junit.Test;
+
+/**
+ * A test for the {@link HttpRequestSequencer} class.
+ * 
+ * @author Graham
+ */
+public class TestHttpRequestSequencer {
+
+	/**
+	 * Tests that two requests sent in one write are passed on one at a time, and that the channel is not read while a
+	 * request is being served.
+	 */
+	@Test
+	public void testPipelinedRequests() {
+		final List<String> uris = new ArrayList<String>();
+		ChannelPipeline pipeline = Channels.pipeline();
+		pipeline.addLast("decoder", new HttpRequestDecoder());
+		pipeline.addLast("sequencer", new HttpRequestSequencer());
+		pipeline.addLast("handler", new SimpleChannelUpstreamHandler() {
+
+			@Override
+			public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) {
+				uris.add(((HttpRequest) e.getMessage()).getUri());
+			}
+
+		});
+		StubChannel channel = new StubChannel(pipeline, "127.0.0.1", true);
+
+		String requests = "GET /crc HTTP/1.1\r\nHost: localhost\r\n\r\nGET /title HTTP/1.1\r\nHost: localhost\r\n\r\n";
+		Channels.fireMessageReceived(channel, ChannelBuffers.copiedBuffer(requests, Charset.forName("US-ASCII")));
+		assertEquals(1, uris.size());
+		assertEquals("/crc", uris.get(0));
+		assertFalse(channel.isReadable());
+
+		HttpRequestSequencer.responseWritten(channel);
+		assertEquals(2, uris.size());
+		assertEquals("/title", uris.get(1));
+		assertFalse(channel.isReadable());
+
+		HttpRequestSequencer.responseWritten(channel);
+		assertEquals(2, uris.size());
+		assertTrue(channel.isReadable());
+	}
+
+}
@@ -0,0 +1,74 @@
+package org.apollo.net.codec.game;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * A test for the {@link GamePacketBuilder} class.
+ * @author Graham
+ */
+public class TestGamePacketBuilder {
+
+	/**
+	 * Tests that bits are packed most significant bit first, across word boundaries, and that the final byte is
+	 * padded with zeroes.
+	 */
+	@Test
+	public void testBits() {
+		Random random = new Random(0);
+		int[] counts = new int[500];
+		int[] values = new int[counts.length];
+		int totalBits = 0;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = 1 + random.nextInt(32);
+			values[i] = random.nextInt();
+			totalBits += counts[i];
+		}
+
+		GamePacketBuilder builder = new GamePacketBuilder();
+		builder.putByte(0xAB);
+		builder.switchToBitAccess();
+		for (int i = 0; i < counts.length; i++) {
+			builder.putBits(counts[i], values[i]);
+		}
+		builder.switchToByteAccess();
+		builder.putByte(0xCD);
+
+		byte[] expected = new byte[2 + (totalBits + 7) / 8];
+		expected[0] = (byte) 0xAB;
+		int bit = 8;
+		for (int i = 0; i < counts.length; i++) {
+			for (int shift = counts[i] - 1; shift >= 0; shift--, bit++) {
+				if ((values[i] >>> shift & 1) != 0) {
+					expected[bit >> 3] |= 0x80 >> (bit & 7);
+				}
+			}
+		}
+		expected[expected.length - 1] = (byte) 0xCD;
+
+		assertArrayEquals(expected, builder.toByteArray());
+	}
+
+	/**
+	 * Tests the byte orders and transformations of the primitive and {@link Number} put methods.
+	 */
+	@Test
+	public void testPut() {
+		GamePacketBuilder builder = new GamePacketBuilder();
+		builder.putShort(DataOrder.LITTLE, DataTransformation.ADD, 0x1234);
+		builder.put(DataType.SHORT, DataOrder.LITTLE, DataTransformation.ADD, Integer.valueOf(0x1234));
+		builder.putByte(DataTransformation.NEGATE, 1);
+		builder.putByte(DataTransformation.SUBTRACT, 1);
+		builder.putInt(DataOrder.MIDDLE, 0x11223344);
+		builder.put(DataType.INT, DataOrder.INVERSED_MIDDLE, 0x11223344);
+		builder.put(DataType.TRI_BYTE, 0x112233);
+
+		byte[] expected = { (byte) 0xB4, 0x12, (byte) 0xB4, 0x12, (byte) 0xFF, 127, 0x33, 0x44, 0x11, 0x22, 0x22,
+				0x11, 0x44, 0x33, 0x11, 0x22, 0x33 };
+		assertArrayEquals(expected, builder.toByteArray());
+	}
+
+}
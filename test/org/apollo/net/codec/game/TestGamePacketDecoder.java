@@ -0,0 +1,72 @@
+package org.apollo.net.codec.game;
+
+import static org.junit.Assert.*;
+
+import net.burtleburtle.bob.rand.IsaacRandom;
+
+import org.apollo.net.meta.PacketType;
+import org.apollo.net.release.r317.Release317;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.junit.Test;
+
+/**
+ * A test for the {@link GamePacketDecoder} class.
+ * 
+ * @author Graham
+ */
+public class TestGamePacketDecoder {
+
+	/**
+	 * Tests that packets are decoded both when they arrive together and when they arrive a byte at a time.
+	 */
+	@Test
+	public void testDecode() {
+		ChannelBuffer frames = ChannelBuffers.dynamicBuffer();
+		IsaacRandom random = new IsaacRandom(new int[] { 0, 0, 0, 0 });
+
+		frames.writeByte(0 + random.nextInt()); // keep alive: fixed, no payload
+		frames.writeByte(4 + random.nextInt()); // chat: variable byte
+		frames.writeByte(3);
+		frames.writeBytes(new byte[] { 1, 2, 3 });
+		frames.writeByte(3 + random.nextInt()); // focus: fixed, 1 byte
+		frames.writeByte(9);
+
+		DecoderEmbedder<GamePacket> embedder = new DecoderEmbedder<GamePacket>(new GamePacketDecoder(new IsaacRandom(
+				new int[] { 0, 0, 0, 0 }), new Release317()));
+		embedder.offer(frames.copy());
+		assertPackets(embedder);
+
+		embedder = new DecoderEmbedder<GamePacket>(new GamePacketDecoder(new IsaacRandom(new int[] { 0, 0, 0, 0 }),
+				new Release317()));
+		while (frames.readable()) {
+			embedder.offer(frames.readBytes(1));
+		}
+		assertPackets(embedder);
+	}
+
+	/**
+	 * Asserts that the embedder decoded the packets written by {@link #testDecode()}.
+	 * 
+	 * @param embedder The embedder.
+	 */
+	private void assertPackets(DecoderEmbedder<GamePacket> embedder) {
+		GamePacket packet = embedder.poll();
+		assertEquals(0, packet.getOpcode());
+		assertEquals(0, packet.getLength());
+
+		packet = embedder.poll();
+		assertEquals(4, packet.getOpcode());
+		assertEquals(PacketType.VARIABLE_BYTE, packet.getType());
+		assertEquals(3, packet.getLength());
+		assertEquals(ChannelBuffers.wrappedBuffer(new byte[] { 1, 2, 3 }), packet.getPayload());
+
+		packet = embedder.poll();
+		assertEquals(3, packet.getOpcode());
+		assertEquals(9, packet.getPayload().readUnsignedByte());
+
+		assertNull(embedder.poll());
+	}
+
+}
@@ -63,4 +63,60 @@ public class TestGamePacketEncoder {
 		assertEquals('o', buf.readUnsignedByte());
 	}
 
+	/**
+	 * Tests that packets created by a {@link GamePacketBuilder} have their header written into the room reserved in
+	 * front of the payload.
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testEncodeBuilder() throws Exception {
+		IsaacRandom random = new IsaacRandom(new int[] { 0, 0, 0, 0 });
+		GamePacketEncoder encoder = new GamePacketEncoder(random);
+
+		GamePacketBuilder builder = new GamePacketBuilder(0, PacketType.VARIABLE_SHORT);
+		builder.putBytes("Hello".getBytes());
+		GamePacket packet = builder.toGamePacket();
+		assertEquals(5, packet.getLength());
+
+		ChannelBuffer buf = (ChannelBuffer) encoder.encode(null, null, packet);
+		assertSame(packet.getPayload().array(), buf.array());
+
+		assertEquals(8, buf.readableBytes());
+		assertEquals(243, buf.readUnsignedByte());
+		assertEquals(5, buf.readUnsignedShort());
+		assertEquals('H', buf.readUnsignedByte());
+		assertEquals('e', buf.readUnsignedByte());
+		assertEquals('l', buf.readUnsignedByte());
+		assertEquals('l', buf.readUnsignedByte());
+		assertEquals('o', buf.readUnsignedByte());
+	}
+
+	/**
+	 * Tests that the packets in an {@link OutboundBatch} are framed into a single buffer.
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testEncodeBatch() throws Exception {
+		IsaacRandom random = new IsaacRandom(new int[] { 0, 0, 0, 0 });
+		GamePacketEncoder encoder = new GamePacketEncoder(random);
+
+		OutboundBatch batch = new OutboundBatch();
+		batch.add(new GamePacket(10, PacketType.FIXED, ChannelBuffers.wrappedBuffer("Hi".getBytes())));
+		batch.add(null);
+
+		GamePacketBuilder builder = new GamePacketBuilder(9, PacketType.VARIABLE_BYTE);
+		builder.putBytes("Yo".getBytes());
+		batch.add(builder.toGamePacket());
+
+		ChannelBuffer buf = (ChannelBuffer) encoder.encode(null, null, batch);
+		assertEquals(7, buf.readableBytes());
+		assertEquals(253, buf.readUnsignedByte());
+		assertEquals('H', buf.readUnsignedByte());
+		assertEquals('i', buf.readUnsignedByte());
+		assertEquals(150, buf.readUnsignedByte());
+		assertEquals(2, buf.readUnsignedByte());
+		assertEquals('Y', buf.readUnsignedByte());
+		assertEquals('o', buf.readUnsignedByte());
+	}
+
 }
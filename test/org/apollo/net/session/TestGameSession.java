@@ -0,0 +1,83 @@
+package org.apollo.net.session;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apollo.game.event.Event;
+import org.apollo.game.event.impl.NpcSynchronizationEvent;
+import org.apollo.game.event.impl.ServerMessageEvent;
+import org.apollo.game.model.Player;
+import org.apollo.game.model.Position;
+import org.apollo.game.sync.seg.SynchronizationSegment;
+import org.apollo.net.StubChannel;
+import org.apollo.net.codec.game.OutboundBatch;
+import org.apollo.security.PlayerCredentials;
+import org.junit.Test;
+
+/**
+ * A test for the {@link GameSession} class.
+ * 
+ * @author Graham
+ */
+public class TestGameSession {
+
+	/**
+	 * Creates a synchronization event.
+	 * 
+	 * @return The event.
+	 */
+	private static Event createSynchronizationEvent() {
+		return new NpcSynchronizationEvent(new Position(3222, 3222), Collections.<SynchronizationSegment> emptyList(),
+				0);
+	}
+
+	/**
+	 * Gets the messages in the batches written to a channel.
+	 * 
+	 * @param channel The channel.
+	 * @return The messages.
+	 */
+	private static List<Object> getWrittenMessages(StubChannel channel) {
+		List<Object> messages = new ArrayList<Object>();
+		for (Object written : channel.takeWritten()) {
+			OutboundBatch batch = (OutboundBatch) written;
+			for (int index = 0; index < batch.size(); index++) {
+				messages.add(batch.get(index));
+			}
+		}
+		return messages;
+	}
+
+	/**
+	 * Tests that once a congested session is writable again, the synchronization events built in the same pulse are
+	 * not written, as they are relative to the events which were dropped, but the other messages are.
+	 */
+	@Test
+	public void testRecoveryDropsStaleSynchronization() {
+		StubChannel channel = new StubChannel();
+		Player player = new Player(new PlayerCredentials("test", "test", 0, 0), new Position(3222, 3222));
+		GameSession session = new GameSession(channel, null, player, BackpressurePolicy.DEFAULT);
+
+		channel.setWritable(false);
+		Event message = new ServerMessageEvent("deferred");
+		session.dispatchEvent(message);
+		session.dispatchEvent(createSynchronizationEvent());
+		session.flush();
+		assertTrue(channel.takeWritten().isEmpty());
+
+		channel.setWritable(true);
+		Event stale = createSynchronizationEvent();
+		session.dispatchEvent(stale);
+		session.flush();
+		assertEquals(Collections.<Object> singletonList(message), getWrittenMessages(channel));
+
+		Event fresh = createSynchronizationEvent();
+		session.dispatchEvent(fresh);
+		session.flush();
+		assertEquals(Collections.<Object> singletonList(fresh), getWrittenMessages(channel));
+	}
+
+}
@@ -0,0 +1,63 @@
+package org.apollo.net.session;
+
+import static org.junit.Assert.*;
+
+import org.apollo.game.event.Event;
+import org.apollo.game.event.impl.ButtonEvent;
+import org.apollo.game.event.impl.FirstItemActionEvent;
+import org.junit.Test;
+
+/**
+ * A test for the {@link InboundEventQueue} class.
+ * 
+ * @author Graham
+ */
+public class TestInboundEventQueue {
+
+	/**
+	 * Tests that a flood of low priority events cannot push high priority events out of the queue, and that events
+	 * over the quota of their type are dropped.
+	 */
+	@Test
+	public void testShedding() {
+		InboundEventQueue queue = new InboundEventQueue();
+		int accepted = 0;
+		for (int i = 0; i < 40; i++) {
+			if (queue.offer(new FirstItemActionEvent(3214, 995, i))) {
+				accepted++;
+			}
+		}
+		assertEquals(32, accepted);
+
+		Event button = new ButtonEvent(2458);
+		assertTrue(queue.offer(button));
+
+		queue.startPulse();
+		for (int i = 0; i < 10; i++) {
+			assertTrue(queue.poll() instanceof FirstItemActionEvent);
+		}
+		assertSame(button, queue.poll());
+		assertNull(queue.poll());
+	}
+
+	/**
+	 * Tests that events are handled in the order they arrived, whatever their priority.
+	 */
+	@Test
+	public void testOrder() {
+		InboundEventQueue queue = new InboundEventQueue();
+		Event item = new FirstItemActionEvent(3214, 995, 0);
+		Event button = new ButtonEvent(2458);
+		Event other = new FirstItemActionEvent(3214, 995, 1);
+		queue.offer(item);
+		queue.offer(button);
+		queue.offer(other);
+
+		queue.startPulse();
+		assertSame(item, queue.poll());
+		assertSame(button, queue.poll());
+		assertSame(other, queue.poll());
+		assertNull(queue.poll());
+	}
+
+}
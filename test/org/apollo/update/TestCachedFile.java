@@ -0,0 +1,67 @@
+package org.apollo.update;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.apollo.fs.FileDescriptor;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.junit.Test;
+
+/**
+ * A test for the {@link CachedFile} class.
+ * 
+ * @author Graham
+ */
+public class TestCachedFile {
+
+	/**
+	 * Tests that no 'on-demand' responses are encoded for an archive, so it weighs only as much as its contents.
+	 */
+	@Test
+	public void testArchive() {
+		CachedFile file = new CachedFile(new FileDescriptor(0, 2), ByteBuffer.allocate(70000));
+		assertEquals(70000, file.getWeight());
+		assertEquals(70000, file.getData().remaining());
+
+		try {
+			file.getResponses();
+			fail();
+		} catch (IllegalStateException e) {
+			/* expected - archives are not sent by 'on-demand' responses */
+		}
+	}
+
+	/**
+	 * Tests that the 'on-demand' responses of a file are split into chunks and encoded correctly.
+	 */
+	@Test
+	public void testResponses() {
+		byte[] data = new byte[1200];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+
+		CachedFile file = new CachedFile(new FileDescriptor(2, 300), ByteBuffer.wrap(data));
+		assertEquals(3, file.getChunkCount());
+		assertEquals(1200 + 3 * 6, file.getResponses().readableBytes());
+
+		int position = 0;
+		for (int chunk = 0; chunk < 3; chunk++) {
+			ChannelBuffer response = file.getResponse(chunk);
+			assertEquals(1, response.readUnsignedByte());
+			assertEquals(300, response.readUnsignedShort());
+			assertEquals(1200, response.readUnsignedShort());
+			assertEquals(chunk, response.readUnsignedByte());
+			assertEquals(chunk == 2 ? 200 : 500, response.readableBytes());
+			while (response.readable()) {
+				assertEquals(data[position++], response.readByte());
+			}
+		}
+		assertEquals(1200, position);
+
+		assertEquals(1200, file.getData().remaining());
+		assertTrue(file.getData().isReadOnly());
+	}
+
+}
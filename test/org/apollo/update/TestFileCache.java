@@ -0,0 +1,134 @@
+package org.apollo.update;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apollo.fs.FileDescriptor;
+import org.apollo.fs.TemporaryFileSystem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test for the {@link FileCache} class.
+ * 
+ * @author Graham
+ */
+public class TestFileCache {
+
+	/**
+	 * The budget of the cache in these tests, which allows each segment two files of {@link #FILE_SIZE} bytes.
+	 */
+	private static final long BUDGET = 16 * 5000;
+
+	/**
+	 * The number of small files in index 1 of the test cache, which is followed by a file larger than a segment's
+	 * budget.
+	 */
+	private static final int FILE_COUNT = 64;
+
+	/**
+	 * The size of each small file.
+	 */
+	private static final int FILE_SIZE = 1000;
+
+	/**
+	 * The size of the file which is larger than a segment's budget.
+	 */
+	private static final int LARGE_FILE_SIZE = 3000;
+
+	/**
+	 * The weight of each small file of index 1: its contents, and its two 'on-demand' responses, which hold a copy of
+	 * the contents.
+	 */
+	private static final int WEIGHT = 2 * FILE_SIZE + 2 * 6;
+
+	/**
+	 * The test cache.
+	 */
+	private TemporaryFileSystem fs;
+
+	/**
+	 * Deletes the test cache.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@After
+	public void deleteCache() throws IOException {
+		fs.close();
+	}
+
+	/**
+	 * Tests that archives weigh only as much as their contents.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testArchiveWeight() throws IOException {
+		FileCache cache = new FileCache(fs.getFileSystem(), BUDGET);
+		assertEquals(FILE_SIZE, cache.get(new FileDescriptor(0, 0)).getWeight());
+		assertEquals(FILE_SIZE, cache.getWeight());
+		assertEquals(WEIGHT, cache.get(new FileDescriptor(1, 0)).getWeight());
+		assertEquals(FILE_SIZE + WEIGHT, cache.getWeight());
+	}
+
+	/**
+	 * Tests that the cache stays within its budget by evicting files, and that it evicts the least recently used ones.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testEviction() throws IOException {
+		FileCache cache = new FileCache(fs.getFileSystem(), BUDGET);
+		FileDescriptor popular = new FileDescriptor(1, 0);
+		cache.get(popular);
+
+		for (int file = 1; file < FILE_COUNT; file++) {
+			cache.get(popular);
+			cache.get(new FileDescriptor(1, file));
+			assertTrue(cache.getWeight() <= BUDGET);
+		}
+
+		assertEquals(FILE_COUNT, cache.getMisses());
+		assertEquals(FILE_COUNT - 1, cache.getHits());
+		assertTrue(cache.getEvictions() > 0);
+		assertEquals(FILE_COUNT - cache.getEvictions(), cache.getFileCount());
+		assertEquals(cache.getFileCount() * WEIGHT, cache.getWeight());
+
+		cache.get(popular);
+		assertEquals(FILE_COUNT, cache.getHits());
+	}
+
+	/**
+	 * Tests that a file larger than the budget of a segment is read every time, and never cached.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void testLargeFile() throws IOException {
+		FileCache cache = new FileCache(fs.getFileSystem(), BUDGET);
+		FileDescriptor large = new FileDescriptor(1, FILE_COUNT);
+		assertEquals(LARGE_FILE_SIZE, cache.get(large).getData().remaining());
+		assertEquals(LARGE_FILE_SIZE, cache.get(large).getData().remaining());
+
+		assertEquals(2, cache.getMisses());
+		assertEquals(0, cache.getFileCount());
+		assertEquals(0, cache.getWeight());
+	}
+
+	/**
+	 * Writes a test cache with an archive in index 0, and {@link #FILE_COUNT} small files and a large one in index 1.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Before
+	public void writeCache() throws Exception {
+		int[] sizes = new int[FILE_COUNT + 1];
+		Arrays.fill(sizes, FILE_SIZE);
+		sizes[FILE_COUNT] = LARGE_FILE_SIZE;
+		fs = new TemporaryFileSystem(new int[] { FILE_SIZE }, sizes);
+	}
+
+}
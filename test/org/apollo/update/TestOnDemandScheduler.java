@@ -0,0 +1,242 @@
+package org.apollo.update;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apollo.fs.FileDescriptor;
+import org.apollo.fs.TemporaryFileSystem;
+import org.apollo.net.StubChannel;
+import org.apollo.net.codec.update.OnDemandRequest;
+import org.apollo.net.codec.update.OnDemandRequest.Priority;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelDownstreamHandler;
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test for the {@link OnDemandScheduler} class.
+ * 
+ * @author Graham
+ */
+public class TestOnDemandScheduler {
+
+	/**
+	 * A {@link Timer} which records the tasks it is given instead of running them.
+	 * 
+	 * @author Graham
+	 */
+	private static final class StubTimer implements Timer {
+
+		/**
+		 * The tasks, in the order they were given.
+		 */
+		private final List<TimerTask> tasks = new ArrayList<TimerTask>();
+
+		/**
+		 * Records a task.
+		 * 
+		 * @return {@code null}, as the scheduler never cancels its timeouts.
+		 */
+		@Override
+		public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+			tasks.add(task);
+			return null;
+		}
+
+		@Override
+		public Set<Timeout> stop() {
+			return Collections.emptySet();
+		}
+
+	}
+
+	/**
+	 * The number of files in index 1 of the test cache.
+	 */
+	private static final int FILE_COUNT = 16;
+
+	/**
+	 * A traffic shaper which never throttles responses in these tests.
+	 */
+	private static final TrafficShaper UNLIMITED = new TrafficShaper(1 << 30, 1 << 30, 1 << 30, 1 << 30);
+
+	/**
+	 * Creates a request for a file in index 1.
+	 * 
+	 * @param file The file id.
+	 * @param priority The priority.
+	 * @return The request.
+	 */
+	private static OnDemandRequest createRequest(int file, Priority priority) {
+		return new OnDemandRequest(new FileDescriptor(1, file), priority);
+	}
+
+	/**
+	 * Gets the ids of the files sent by responses written to a channel.
+	 * 
+	 * @param channel The channel.
+	 * @return The file ids, in the order they were written.
+	 */
+	private static List<Integer> getWrittenFiles(StubChannel channel) {
+		List<Integer> files = new ArrayList<Integer>();
+		for (Object written : channel.takeWritten()) {
+			files.add(((ChannelBuffer) written).getUnsignedShort(1));
+		}
+		return files;
+	}
+
+	/**
+	 * The file cache.
+	 */
+	private FileCache cache;
+
+	/**
+	 * The test cache.
+	 */
+	private TemporaryFileSystem fs;
+
+	/**
+	 * Deletes the test cache.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@After
+	public void deleteCache() throws IOException {
+		fs.close();
+	}
+
+	/**
+	 * Tests that a channel has at most {@link UpdateConstants#MAXIMUM_IN_FLIGHT_ON_DEMAND_RESPONSES} responses which
+	 * have not been written, and that its next request is served as soon as one has been.
+	 */
+	@Test
+	public void testInFlightCap() {
+		OnDemandScheduler scheduler = new OnDemandScheduler(cache, UNLIMITED, new StubTimer());
+		StubChannel channel = new StubChannel(Channels.pipeline(), "127.0.0.1", false);
+		for (int file = 0; file < 6; file++) {
+			scheduler.offer(channel, createRequest(file, Priority.MEDIUM));
+		}
+		assertEquals(UpdateConstants.MAXIMUM_IN_FLIGHT_ON_DEMAND_RESPONSES, channel.takeWritten().size());
+
+		assertEquals(UpdateConstants.MAXIMUM_IN_FLIGHT_ON_DEMAND_RESPONSES, channel.completeWrites());
+		assertEquals(2, channel.takeWritten().size());
+		assertEquals(2, channel.completeWrites());
+		assertTrue(channel.takeWritten().isEmpty());
+	}
+
+	/**
+	 * Tests that the requests of a channel are served highest priority value first: the client sends {@code 2} for
+	 * the files it is waiting for.
+	 */
+	@Test
+	public void testPriority() {
+		OnDemandScheduler scheduler = new OnDemandScheduler(cache, UNLIMITED, new StubTimer());
+		StubChannel channel = new StubChannel(Channels.pipeline(), "127.0.0.1", false);
+		for (int file = 0; file < UpdateConstants.MAXIMUM_IN_FLIGHT_ON_DEMAND_RESPONSES; file++) {
+			scheduler.offer(channel, createRequest(file, Priority.MEDIUM));
+		}
+		channel.takeWritten();
+
+		scheduler.offer(channel, createRequest(10, Priority.HIGH));
+		scheduler.offer(channel, createRequest(11, Priority.MEDIUM));
+		scheduler.offer(channel, createRequest(12, Priority.LOW));
+		assertTrue(channel.takeWritten().isEmpty());
+
+		channel.completeWrites();
+		assertEquals(Arrays.asList(12, 11, 10), getWrittenFiles(channel));
+	}
+
+	/**
+	 * Tests that channels which have requests waiting take turns to have one served. The requests of the second
+	 * channel, and further requests of the first, are offered while the first request is being written, so that both
+	 * channels are waiting for their turn at once.
+	 */
+	@Test
+	public void testRoundRobin() {
+		final OnDemandScheduler scheduler = new OnDemandScheduler(cache, UNLIMITED, new StubTimer());
+		final List<Channel> order = new ArrayList<Channel>();
+		final StubChannel first = new StubChannel(Channels.pipeline(), "10.0.0.1", true);
+		final StubChannel second = new StubChannel(Channels.pipeline(), "10.0.0.2", true);
+
+		SimpleChannelDownstreamHandler recorder = new SimpleChannelDownstreamHandler() {
+
+			@Override
+			public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+				if (order.isEmpty()) {
+					for (int file = 1; file < 3; file++) {
+						scheduler.offer(first, createRequest(file, Priority.MEDIUM));
+					}
+					for (int file = 3; file < 6; file++) {
+						scheduler.offer(second, createRequest(file, Priority.MEDIUM));
+					}
+				}
+				order.add(e.getChannel());
+				super.writeRequested(ctx, e);
+			}
+
+		};
+		for (StubChannel channel : new StubChannel[] { first, second }) {
+			channel.getPipeline().addLast("recorder", recorder);
+		}
+
+		scheduler.offer(first, createRequest(0, Priority.MEDIUM));
+		assertEquals(Arrays.<Channel> asList(first, first, second, first, second, second), order);
+	}
+
+	/**
+	 * Tests that a throttled channel waits for a single timeout, and is served once by it, even if it has more requests
+	 * waiting when it is woken up too early.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Test
+	public void testThrottle() throws Exception {
+		StubTimer timer = new StubTimer();
+		TrafficShaper shaper = new TrafficShaper(1, 0, 1 << 30, 1 << 30);
+		OnDemandScheduler scheduler = new OnDemandScheduler(cache, shaper, timer);
+		StubChannel channel = new StubChannel(Channels.pipeline(), "127.0.0.1", false);
+
+		scheduler.offer(channel, createRequest(0, Priority.MEDIUM));
+		assertEquals(1, channel.takeWritten().size());
+
+		for (int file = 1; file < 4; file++) {
+			scheduler.offer(channel, createRequest(file, Priority.MEDIUM));
+		}
+		assertTrue(channel.takeWritten().isEmpty());
+		assertEquals(1, timer.tasks.size());
+
+		// the channel's bucket is still in debt, so the request is throttled again
+		timer.tasks.get(0).run(null);
+		assertTrue(channel.takeWritten().isEmpty());
+		assertEquals(2, timer.tasks.size());
+	}
+
+	/**
+	 * Writes the test cache and creates the file cache.
+	 * 
+	 * @throws Exception If an error occurs.
+	 */
+	@Before
+	public void writeCache() throws Exception {
+		int[] sizes = new int[FILE_COUNT];
+		Arrays.fill(sizes, 1000);
+		fs = new TemporaryFileSystem(new int[0], sizes);
+		cache = new FileCache(fs.getFileSystem(), 1 << 20);
+	}
+
+}
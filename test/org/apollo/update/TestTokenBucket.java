@@ -0,0 +1,50 @@
+package org.apollo.update;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * A test for the {@link TokenBucket} class.
+ * 
+ * @author Graham
+ */
+public class TestTokenBucket {
+
+	/**
+	 * The number of nanoseconds in one millisecond.
+	 */
+	private static final long MILLISECOND = 1000000L;
+
+	/**
+	 * Tests that a bucket in debt delays senders until the debt is repaid, unless they may overdraw.
+	 */
+	@Test
+	public void testDebt() {
+		TokenBucket bucket = new TokenBucket(1000, 100, 0);
+		bucket.take(600, 0);
+		assertEquals(-500, bucket.getTokens(0));
+
+		assertEquals(500 * MILLISECOND + 1, bucket.getDelay(0, 0));
+		assertEquals(0, bucket.getDelay(500, 0));
+
+		assertEquals(0, bucket.getDelay(0, 500 * MILLISECOND));
+		assertEquals(0, bucket.getTokens(500 * MILLISECOND));
+	}
+
+	/**
+	 * Tests that tokens accumulate at the rate of the bucket, without losing fractions to frequent refills, and no
+	 * further than its capacity.
+	 */
+	@Test
+	public void testRefill() {
+		TokenBucket bucket = new TokenBucket(1000, 100, 0);
+		bucket.take(100, 0);
+		for (long time = 0; time <= 50 * MILLISECOND; time += MILLISECOND / 4) {
+			assertEquals(time / MILLISECOND, bucket.getTokens(time));
+		}
+
+		assertEquals(100, bucket.getTokens(10000 * MILLISECOND));
+	}
+
+}
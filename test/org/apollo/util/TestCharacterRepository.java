@@ -0,0 +1,40 @@
+package org.apollo.util;
+
+import static org.junit.Assert.*;
+
+import org.apollo.game.model.Player;
+import org.apollo.game.model.Position;
+import org.apollo.security.PlayerCredentials;
+import org.junit.Test;
+
+/**
+ * A test for the {@link CharacterRepository} class.
+ * 
+ * @author Graham
+ */
+public class TestCharacterRepository {
+
+	/**
+	 * Tests that characters are looked up by the index they were given, and that indices outside the capacity of the
+	 * repository do not match any character.
+	 */
+	@Test
+	public void testGet() {
+		CharacterRepository<Player> repository = new CharacterRepository<Player>(2);
+		Player first = new Player(new PlayerCredentials("first", "test", 0, 0), new Position(3222, 3222));
+		Player second = new Player(new PlayerCredentials("second", "test", 0, 0), new Position(3222, 3222));
+		assertTrue(repository.add(first));
+		assertTrue(repository.add(second));
+
+		assertSame(first, repository.get(first.getIndex()));
+		assertSame(second, repository.get(second.getIndex()));
+		assertNull(repository.get(0));
+		assertNull(repository.get(3));
+		assertNull(repository.get(-1));
+
+		int index = first.getIndex();
+		repository.remove(first);
+		assertNull(repository.get(index));
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.apollo.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * A test for the {@link RingBuffer} class.
+ * 
+ * @author Graham
+ */
+public class TestRingBuffer {
+
+	/**
+	 * Tests that the capacity is rounded up to a power of two.
+	 */
+	@Test
+	public void testCapacity() {
+		assertEquals(1, new RingBuffer<Object>(1).capacity());
+		assertEquals(16, new RingBuffer<Object>(10).capacity());
+		assertEquals(16, new RingBuffer<Object>(16).capacity());
+	}
+
+	/**
+	 * Tests the {@link RingBuffer#offer(Object)} and {@link RingBuffer#poll()} methods, wrapping around the end of the
+	 * array several times.
+	 */
+	@Test
+	public void testOfferPoll() {
+		RingBuffer<Integer> buffer = new RingBuffer<Integer>(4);
+		assertNull(buffer.poll());
+
+		int next = 0;
+		for (int round = 0; round < 5; round++) {
+			int first = next;
+			while (buffer.offer(next)) {
+				next++;
+			}
+			assertEquals(4, buffer.size());
+
+			for (int expected = first; expected < next; expected++) {
+				assertEquals(Integer.valueOf(expected), buffer.poll());
+			}
+			assertNull(buffer.poll());
+			assertEquals(0, buffer.size());
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+package org.apollo.util.xml;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * A test for the {@link XmlNode} class.
+ * 
+ * @author Graham
+ */
+public final class TestXmlNode {
+
+	/**
+	 * A test for the {@link XmlNode#getChildInteger(String)} method.
+	 */
+	@Test
+	public void testGetChildInteger() {
+		XmlNode root = new XmlNode("login");
+		XmlNode threads = new XmlNode("loader-threads");
+		threads.setValue("4");
+		root.addChild(threads);
+		root.addChild(new XmlNode("saver-threads"));
+
+		assertEquals(4, root.getChildInteger("loader-threads"));
+		for (String name : new String[] { "saver-threads", "maximum-pending" }) {
+			try {
+				root.getChildInteger(name);
+				fail();
+			} catch (IllegalArgumentException e) {
+				/* expected - the child has no value, or does not exist */
+			}
+		}
+	}
+
+}